@@ -1,9 +1,13 @@
 package com.github.andregpereira.resilientshop.productsapi.app.controllers;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.SliceDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaArvoreDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaRegistroDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaArvoreService;
 import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaConsultaService;
 import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaManutencaoService;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.EtagUtils;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -11,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,12 +24,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 /**
  * Controller de categorias da API de Produtos.
@@ -48,6 +55,12 @@ public class CategoriaController {
      */
     private final CategoriaConsultaService consultaService;
 
+    /**
+     * Injeção da dependência {@link CategoriaArvoreService} para consultar a árvore de categorias em memória
+     * e a sua impressão, usada nas ETags.
+     */
+    private final CategoriaArvoreService arvoreService;
+
     /**
      * Cadastra uma {@linkplain CategoriaRegistroDto categoria}.
      * Retorna uma {@linkplain CategoriaDto categoria}.
@@ -105,30 +118,81 @@ public class CategoriaController {
      * Lista todas as subcategorias cadastradas.
      * Retorna uma {@linkplain Page sublista} de {@linkplain CategoriaDto categorias}.
      *
-     * @param pageable o pageable padrão.
+     * @param pageable             o pageable padrão.
+     * @param seNenhumCorresponder o cabeçalho {@code If-None-Match}.
      *
      * @return uma sublista de uma lista com todas as subcategorias cadastradas.
      */
     @GetMapping
     public ResponseEntity<Page<CategoriaDto>> listarCategorias(
-        @PageableDefault(sort = "id") Pageable pageable
+        @PageableDefault(sort = "id") Pageable pageable,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder
     ) {
         log.info("Listando categorias...");
-        return ResponseEntity.ok(consultaService.listar(pageable));
+        return EtagUtils.responder(seNenhumCorresponder, etagArvore(), () -> consultaService.listar(pageable));
+    }
+
+    /**
+     * Lista as categorias cadastradas sem contar o total.
+     * Retorna um {@linkplain SliceDto trecho} de {@linkplain CategoriaDto categorias}.
+     *
+     * @param pageable             o pageable padrão.
+     * @param seNenhumCorresponder o cabeçalho {@code If-None-Match}.
+     *
+     * @return um trecho de uma lista com todas as categorias cadastradas.
+     */
+    @GetMapping("/slice")
+    public ResponseEntity<SliceDto<CategoriaDto>> listarCategoriasSemContagem(
+        @PageableDefault(sort = "id") Pageable pageable,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder
+    ) {
+        log.info("Listando categorias sem contagem...");
+        return EtagUtils.responder(seNenhumCorresponder, etagArvore(),
+            () -> SliceDto.of(consultaService.listarSemContagem(pageable)));
+    }
+
+    /**
+     * Lista todas as categorias com as suas subcategorias, a partir da árvore em memória.
+     * Retorna uma lista de {@linkplain CategoriaArvoreDto categorias}, em ordem de {@code id}.
+     *
+     * @param seNenhumCorresponder o cabeçalho {@code If-None-Match}.
+     *
+     * @return todas as categorias com as suas subcategorias.
+     */
+    @GetMapping("/arvore")
+    public ResponseEntity<List<CategoriaArvoreDto>> consultarArvoreCategorias(
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder
+    ) {
+        log.info("Consultando árvore de categorias...");
+        return EtagUtils.responder(seNenhumCorresponder, etagArvore(), arvoreService::consultarArvore);
     }
 
     /**
      * Pesquisa uma categoria pelo {@code id}.
      * Retorna uma {@linkplain CategoriaDto categoria}.
      *
-     * @param id o id da categoria a ser consultada.
+     * @param id                   o id da categoria a ser consultada.
+     * @param seNenhumCorresponder o cabeçalho {@code If-None-Match}.
      *
      * @return uma categoria encontrada pelo {@code id}.
      */
     @GetMapping("/{id}")
-    public ResponseEntity<CategoriaDto> consultarCategoriaPorId(@PathVariable Long id) {
+    public ResponseEntity<CategoriaDto> consultarCategoriaPorId(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder
+    ) {
         log.info("Procurando categoria com id {}...", id);
-        return ResponseEntity.ok(consultaService.consultarPorId(id));
+        return EtagUtils.responder(seNenhumCorresponder, etagArvore(), () -> consultaService.consultarPorId(id));
+    }
+
+    /**
+     * As consultas de categorias são respondidas da árvore em memória, por isso a impressão da árvore valida
+     * todas elas.
+     *
+     * @return a ETag da árvore de categorias atual.
+     */
+    private String etagArvore() {
+        return EtagUtils.forte("categorias", Long.toHexString(arvoreService.consultarImpressao()));
     }
 
 }
@@ -1,21 +1,51 @@
 package com.github.andregpereira.resilientshop.productsapi.app.controllers;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.SliceDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.FiltroProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ImportacaoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.MovimentoEstoqueDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizacaoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoCursorDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFiltradoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoLoteDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoRegistroDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ResultadoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.SugestaoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.VerificacaoEstoqueDto;
 import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoConsultaService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoEstoqueAgrupadoService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoEtagService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoExportacaoService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoEstoqueFragmentadoService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoEstoqueMovimentoService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoFacetasService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoImportacaoEstoqueService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoImportacaoEstoqueService.Formato;
 import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoManutencaoService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoSugestaoService;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.EtagUtils;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.data.web.SortDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -25,13 +55,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -60,6 +99,47 @@ public class ProdutoController {
      */
     private final ProdutoConsultaService consultaService;
 
+    /**
+     * Injeção da dependência {@link ProdutoEstoqueFragmentadoService} para serviços de fragmentação de estoque.
+     */
+    private final ProdutoEstoqueFragmentadoService estoqueFragmentadoService;
+
+    /**
+     * Injeção da dependência {@link ProdutoEstoqueMovimentoService} para serviços do diário de estoque.
+     */
+    private final ProdutoEstoqueMovimentoService estoqueMovimentoService;
+
+    /**
+     * Injeção da dependência {@link ProdutoImportacaoEstoqueService} para serviços de importação de estoque.
+     */
+    private final ProdutoImportacaoEstoqueService importacaoEstoqueService;
+
+    /**
+     * Injeção da dependência {@link ProdutoSugestaoService} para serviços de sugestões por prefixo.
+     */
+    private final ProdutoSugestaoService sugestaoService;
+
+    /**
+     * Injeção da dependência {@link ProdutoFacetasService} para serviços de filtros com facetas.
+     */
+    private final ProdutoFacetasService facetasService;
+
+    /**
+     * Injeção da dependência {@link ProdutoEtagService} para as ETags das consultas condicionais.
+     */
+    private final ProdutoEtagService etagService;
+
+    /**
+     * Injeção da dependência {@link ProdutoExportacaoService} para a exportação do catálogo.
+     */
+    private final ProdutoExportacaoService exportacaoService;
+
+    /**
+     * Injeção opcional da dependência {@link ProdutoEstoqueAgrupadoService}, disponível quando o
+     * agrupamento de operações de estoque está habilitado.
+     */
+    private final ObjectProvider<ProdutoEstoqueAgrupadoService> estoqueAgrupadoService;
+
     /**
      * Cadastra um {@linkplain ProdutoRegistroDto produto}.
      * Retorna um {@linkplain ProdutoDetalhesDto produto detalhado}.
@@ -145,7 +225,12 @@ public class ProdutoController {
     @PutMapping("/estoque/subtrair")
     public ResponseEntity<Void> subtrairProdutosDoEstoque(@RequestBody Set<ProdutoAtualizarEstoqueDto> dtos) {
         log.info("Subtraindo produtos do estoque...");
-        manutencaoService.subtrairEstoque(dtos);
+        ProdutoEstoqueAgrupadoService agrupado = estoqueAgrupadoService.getIfAvailable();
+        if (agrupado != null) {
+            agrupado.subtrairEstoque(dtos);
+        } else {
+            manutencaoService.subtrairEstoque(dtos);
+        }
         return ResponseEntity
             .ok()
             .build();
@@ -159,39 +244,247 @@ public class ProdutoController {
     @PutMapping("/estoque/retornar")
     public ResponseEntity<Void> retornarProdutosAoEstoque(@RequestBody Set<ProdutoAtualizarEstoqueDto> dtos) {
         log.info("Retornando produtos ao estoque...");
-        manutencaoService.retornarEstoque(dtos);
+        ProdutoEstoqueAgrupadoService agrupado = estoqueAgrupadoService.getIfAvailable();
+        if (agrupado != null) {
+            agrupado.retornarEstoque(dtos);
+        } else {
+            manutencaoService.retornarEstoque(dtos);
+        }
         return ResponseEntity
             .ok()
             .build();
     }
 
     /**
-     * Lista todos os produtos cadastrados.
-     * Retorna uma {@linkplain Page sublista} de {@linkplain ProdutoDto produtos}.
+     * Subtrai produtos do estoque, dado a lista de {@linkplain ProdutoAtualizarEstoqueDto produtos}, aplicando
+     * apenas as linhas válidas. Retorna o {@linkplain ResultadoEstoqueDto resultado} de cada produto.
+     *
+     * @param dtos a lista de produtos a terem seus estoques subtraídos.
+     *
+     * @return o resultado de cada produto.
+     */
+    @PutMapping("/estoque/subtrair/parcial")
+    public ResponseEntity<List<ResultadoEstoqueDto>> subtrairProdutosDoEstoqueParcial(
+        @RequestBody Set<ProdutoAtualizarEstoqueDto> dtos
+    ) {
+        log.info("Subtraindo produtos do estoque parcialmente...");
+        return ResponseEntity.ok(manutencaoService.subtrairEstoqueParcial(dtos));
+    }
+
+    /**
+     * Retorna produtos ao estoque, dado a lista de {@linkplain ProdutoAtualizarEstoqueDto produtos}, aplicando
+     * apenas as linhas válidas. Retorna o {@linkplain ResultadoEstoqueDto resultado} de cada produto.
+     *
+     * @param dtos a lista de produtos a serem retornados ao estoque.
+     *
+     * @return o resultado de cada produto.
+     */
+    @PutMapping("/estoque/retornar/parcial")
+    public ResponseEntity<List<ResultadoEstoqueDto>> retornarProdutosAoEstoqueParcial(
+        @RequestBody Set<ProdutoAtualizarEstoqueDto> dtos
+    ) {
+        log.info("Retornando produtos ao estoque parcialmente...");
+        return ResponseEntity.ok(manutencaoService.retornarEstoqueParcial(dtos));
+    }
+
+    /**
+     * Importa o estoque dos produtos por {@code sku} a partir de uma contagem completa de inventário, em CSV
+     * ({@code sku,estoque}) ou NDJSON ({@code {"sku": ..., "estoque": ...}}). O arquivo é lido e aplicado em
+     * lotes, sem ser carregado por inteiro. Retorna o {@linkplain ImportacaoEstoqueDto resumo} da importação.
+     *
+     * @param tipoConteudo o tipo do arquivo.
+     * @param corpo        o conteúdo do arquivo.
+     *
+     * @return o resumo da importação.
+     */
+    @PutMapping(value = "/importacao/estoque", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportacaoEstoqueDto> importarEstoque(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType tipoConteudo, InputStream corpo
+    ) throws IOException {
+        log.info("Importando estoque de produtos...");
+        Formato formato = tipoConteudo.isCompatibleWith(MediaType.parseMediaType("text/csv"))
+            ? Formato.CSV
+            : Formato.NDJSON;
+        InputStreamReader leitor = new InputStreamReader(
+            corpo,
+            tipoConteudo.getCharset() != null
+                ? tipoConteudo.getCharset()
+                : StandardCharsets.UTF_8
+        );
+        return ResponseEntity.ok(importacaoEstoqueService.importar(leitor, formato));
+    }
+
+    /**
+     * Fragmenta o estoque de um produto por {@code id}, para que subtrações concorrentes
+     * não disputem a mesma linha. Retorna um {@linkplain ProdutoDetalhesDto produto detalhado}.
+     *
+     * @param id         o id do produto.
+     * @param fragmentos a quantidade de fragmentos.
      *
+     * @return o produto com o estoque fragmentado.
+     */
+    @PutMapping("/{id}/estoque/fragmentar")
+    public ResponseEntity<ProdutoDetalhesDto> fragmentarEstoque(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "8")
+        @Min(message = "O estoque deve ter pelo menos 2 fragmentos", value = 2)
+        @Max(message = "O estoque deve ter no máximo 64 fragmentos", value = 64) int fragmentos
+    ) {
+        log.info("Fragmentando estoque do produto com id {}...", id);
+        return ResponseEntity.ok(estoqueFragmentadoService.fragmentar(id, fragmentos));
+    }
+
+    /**
+     * Desfaz a fragmentação do estoque de um produto por {@code id}.
+     * Retorna um {@linkplain ProdutoDetalhesDto produto detalhado}.
+     *
+     * @param id o id do produto.
+     *
+     * @return o produto com o estoque não fragmentado.
+     */
+    @PutMapping("/{id}/estoque/desfragmentar")
+    public ResponseEntity<ProdutoDetalhesDto> desfragmentarEstoque(@PathVariable Long id) {
+        log.info("Desfragmentando estoque do produto com id {}...", id);
+        return ResponseEntity.ok(estoqueFragmentadoService.desfragmentar(id));
+    }
+
+    /**
+     * Redistribui igualmente o estoque entre os fragmentos de um produto por {@code id}.
+     * Retorna um {@linkplain ProdutoDetalhesDto produto detalhado}.
+     *
+     * @param id o id do produto.
+     *
+     * @return o produto com o estoque rebalanceado.
+     */
+    @PutMapping("/{id}/estoque/rebalancear")
+    public ResponseEntity<ProdutoDetalhesDto> rebalancearEstoque(@PathVariable Long id) {
+        log.info("Rebalanceando estoque do produto com id {}...", id);
+        return ResponseEntity.ok(estoqueFragmentadoService.rebalancear(id));
+    }
+
+    /**
+     * Lista os movimentos de estoque de um produto por {@code id}, do mais recente ao mais antigo.
+     * Retorna uma {@linkplain Page sublista} de {@linkplain MovimentoEstoqueDto movimentos}.
+     *
+     * @param id       o id do produto.
      * @param pageable o pageable padrão.
      *
+     * @return uma sublista com os movimentos do produto.
+     */
+    @GetMapping("/{id}/estoque/movimentos")
+    public ResponseEntity<Page<MovimentoEstoqueDto>> listarMovimentosDeEstoque(
+        @PathVariable Long id, @PageableDefault(sort = "id", direction = Sort.Direction.DESC) Pageable pageable
+    ) {
+        log.info("Listando movimentos de estoque do produto com id {}...", id);
+        return ResponseEntity.ok(estoqueMovimentoService.listarMovimentos(id, pageable));
+    }
+
+    /**
+     * Recalcula o estoque de um produto por {@code id} a partir do diário de movimentos e o compara
+     * com o estoque atual. Retorna a {@linkplain VerificacaoEstoqueDto verificação}.
+     *
+     * @param id o id do produto.
+     *
+     * @return o estoque atual e o estoque recalculado.
+     */
+    @GetMapping("/{id}/estoque/verificacao")
+    public ResponseEntity<VerificacaoEstoqueDto> verificarEstoque(@PathVariable Long id) {
+        log.info("Verificando estoque do produto com id {}...", id);
+        return ResponseEntity.ok(estoqueMovimentoService.verificar(id));
+    }
+
+    /**
+     * Registra o estoque atual de um produto por {@code id} no diário de movimentos, como ponto de
+     * partida para os próximos recálculos. Retorna a {@linkplain VerificacaoEstoqueDto verificação}.
+     *
+     * @param id o id do produto.
+     *
+     * @return o estoque registrado.
+     */
+    @PutMapping("/{id}/estoque/snapshot")
+    public ResponseEntity<VerificacaoEstoqueDto> registrarSnapshotDeEstoque(@PathVariable Long id) {
+        log.info("Registrando snapshot do estoque do produto com id {}...", id);
+        return ResponseEntity.ok(estoqueMovimentoService.registrarSnapshot(id));
+    }
+
+    /**
+     * Lista todos os produtos cadastrados.
+     * Retorna uma {@linkplain Page sublista} de {@linkplain ProdutoDto produtos}, ou {@code 304 Not Modified}
+     * caso a página consultada seja igual à da ETag informada.
+     *
+     * @param pageable             o pageable padrão.
+     * @param seNenhumCorresponder o cabeçalho {@code If-None-Match}.
+     *
      * @return uma sublista de uma lista com todos os produtos cadastrados.
      */
     @GetMapping
     public ResponseEntity<Page<ProdutoDto>> listarProdutos(
-        @PageableDefault(sort = "id") Pageable pageable
+        @PageableDefault(sort = "id") Pageable pageable,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder
     ) {
         log.info("Listando produtos...");
-        return ResponseEntity.ok(consultaService.listar(pageable));
+        return EtagUtils.responderPeloCorpo(seNenhumCorresponder, () -> consultaService.listar(pageable),
+            p -> etagService.gerarEtagProdutos("produtos", p));
     }
 
     /**
-     * Pesquisa um produto por {@code id}. Retorna um {@linkplain ProdutoDetalhesDto produto detalhado}.
+     * Pesquisa um produto por {@code id}. Retorna um {@linkplain ProdutoDetalhesDto produto detalhado}, ou
+     * {@code 304 Not Modified}, sem consultar o produto por inteiro, caso a ETag informada seja a atual.
      *
-     * @param id o id do produto a ser consultado.
+     * @param id                   o id do produto a ser consultado.
+     * @param seNenhumCorresponder o cabeçalho {@code If-None-Match}.
      *
      * @return um produto encontrado pelo {@code id}.
      */
     @GetMapping(value = "/{id}")
-    public ResponseEntity<ProdutoDetalhesDto> consultarProdutoPorId(@PathVariable Long id) {
+    public ResponseEntity<ProdutoDetalhesDto> consultarProdutoPorId(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder
+    ) {
         log.info("Procurando produto com id {}...", id);
-        return ResponseEntity.ok(consultaService.consultarPorId(id));
+        if (seNenhumCorresponder != null) {
+            Optional<String> etag = etagService.consultarEtag(id);
+            if (etag.isPresent() && EtagUtils.corresponde(seNenhumCorresponder, etag.get())) {
+                return EtagUtils.naoModificado(etag.get());
+            }
+        }
+        ProdutoDetalhesDto produto = consultaService.consultarPorId(id);
+        return ResponseEntity
+            .ok()
+            .eTag(etagService.gerarEtag(produto))
+            .body(produto);
+    }
+
+    /**
+     * Pesquisa vários produtos por {@code id} em uma única requisição, como {@code ?ids=1,2,3}.
+     * Retorna uma lista de {@linkplain ProdutoLoteDto resultados} na ordem dos ids informados.
+     *
+     * @param ids os ids dos produtos.
+     *
+     * @return o resultado de cada id, com os ids não encontrados marcados como tal.
+     */
+    @GetMapping("/lote")
+    public ResponseEntity<List<ProdutoLoteDto>> consultarProdutosPorIds(
+        @RequestParam @Size(message = "Informe de 1 a 1000 ids", min = 1, max = 1000) List<Long> ids
+    ) {
+        log.info("Procurando {} produtos por id...", ids.size());
+        return ResponseEntity.ok(consultaService.consultarPorIds(ids));
+    }
+
+    /**
+     * Pesquisa vários produtos por {@code id} como em {@link #consultarProdutosPorIds(List)}, com os ids no
+     * corpo da requisição, para listas que não cabem na URL.
+     *
+     * @param ids os ids dos produtos.
+     *
+     * @return o resultado de cada id, com os ids não encontrados marcados como tal.
+     */
+    @PostMapping("/lote")
+    public ResponseEntity<List<ProdutoLoteDto>> consultarProdutosPorIdsNoCorpo(
+        @RequestBody @Size(message = "Informe de 1 a 1000 ids", min = 1, max = 1000) List<Long> ids
+    ) {
+        log.info("Procurando {} produtos por id...", ids.size());
+        return ResponseEntity.ok(consultaService.consultarPorIds(ids));
     }
 
     /**
@@ -212,38 +505,263 @@ public class ProdutoController {
         return ResponseEntity.ok(consultaService.consultarPorNome(nome.trim(), pageable));
     }
 
+    /**
+     * Sugere produtos e categorias com alguma palavra do nome iniciada pelo {@code prefixo}, respondido da
+     * memória, sem consultar o banco de dados.
+     * Retorna uma lista de {@linkplain SugestaoDto sugestões}.
+     *
+     * @param prefixo o prefixo digitado.
+     * @param limite  a quantidade máxima de sugestões.
+     *
+     * @return as sugestões, em ordem decrescente de rating.
+     */
+    @GetMapping("/sugestoes")
+    public ResponseEntity<List<SugestaoDto>> sugerirProdutos(
+        @RequestParam @Size(message = "O prefixo deve ter pelo menos 2 caracteres", min = 2) String prefixo,
+        @RequestParam(defaultValue = "10")
+        @Min(message = "O limite deve ser de pelo menos 1", value = 1)
+        @Max(message = "O limite deve ser de no máximo 100", value = 100) int limite
+    ) {
+        return ResponseEntity.ok(sugestaoService.sugerir(prefixo, limite));
+    }
+
+    /**
+     * Filtra produtos por atributos combinados, respondido da memória, e conta os produtos por valor de cada
+     * atributo. Filtros não informados não são aplicados.
+     * Retorna uma {@linkplain ProdutoFiltradoDto sublista} de {@linkplain ProdutoDto produtos} com as facetas.
+     *
+     * @param categoria    o id da categoria.
+     * @param subcategoria o id da subcategoria.
+     * @param precoMinimo  o valor unitário mínimo, inclusivo.
+     * @param precoMaximo  o valor unitário máximo, inclusivo.
+     * @param ratingMinimo o rating mínimo, inclusivo.
+     * @param emEstoque    se apenas produtos com estoque devem ser retornados.
+     * @param ativo        a situação dos produtos.
+     * @param pageable     o pageable padrão; a ordenação é sempre por {@code id}.
+     *
+     * @return uma sublista dos produtos encontrados, em ordem de {@code id}, e as facetas.
+     */
+    @GetMapping("/filtro")
+    public ResponseEntity<ProdutoFiltradoDto> filtrarProdutos(
+        @RequestParam(required = false) Long categoria,
+        @RequestParam(required = false) Long subcategoria,
+        @RequestParam(required = false)
+        @DecimalMin(message = "O preço mínimo não pode ser negativo", value = "0") BigDecimal precoMinimo,
+        @RequestParam(required = false)
+        @DecimalMin(message = "O preço máximo não pode ser negativo", value = "0") BigDecimal precoMaximo,
+        @RequestParam(required = false)
+        @DecimalMin(message = "O rating mínimo não pode ser negativo", value = "0") BigDecimal ratingMinimo,
+        @RequestParam(defaultValue = "false") boolean emEstoque,
+        @RequestParam(defaultValue = "true") Boolean ativo,
+        @PageableDefault(sort = "id") Pageable pageable
+    ) {
+        log.info("Filtrando produtos...");
+        return ResponseEntity.ok(facetasService.filtrar(new FiltroProdutoDto(categoria, subcategoria, precoMinimo,
+            precoMaximo, ratingMinimo, emEstoque, ativo), pageable));
+    }
+
     /**
      * Pesquisa produtos pelo {@code id} da categoria.
      * Retorna uma {@linkplain Page sublista} de {@linkplain ProdutoDto produtos}.
      *
-     * @param id       o id da categoria.
-     * @param pageable o pageable padrão.
+     * @param id                   o id da categoria.
+     * @param pageable             o pageable padrão.
+     * @param seNenhumCorresponder o cabeçalho {@code If-None-Match}.
      *
      * @return uma sublista de uma lista com todos os produtos encontrados pelo {@code id} da categoria.
      */
     @GetMapping("/categoria/{id}")
     public ResponseEntity<Page<ProdutoDto>> consultarProdutosPorIdCategoria(
-        @PathVariable Long id, @PageableDefault(sort = "nome") Pageable pageable
+        @PathVariable Long id, @PageableDefault(sort = "nome") Pageable pageable,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder
     ) {
         log.info("Procurando produto com categoria com id {}...", id);
-        return ResponseEntity.ok(consultaService.consultarPorCategoria(id, pageable));
+        return EtagUtils.responderPeloCorpo(seNenhumCorresponder,
+            () -> consultaService.consultarPorCategoria(id, pageable),
+            p -> etagService.gerarEtagProdutos("categoria-" + id, p));
     }
 
     /**
      * Pesquisa produtos pelo {@code id} da subcategoria.
      * Retorna uma {@linkplain Page sublista} de {@linkplain ProdutoDto produtos}.
      *
-     * @param id       o id da subcategoria.
-     * @param pageable o pageable padrão.
+     * @param id                   o id da subcategoria.
+     * @param pageable             o pageable padrão.
+     * @param seNenhumCorresponder o cabeçalho {@code If-None-Match}.
      *
      * @return uma sublista de uma lista com todos os produtos encontrados pelo {@code id} da subcategoria.
      */
     @GetMapping("/subcategoria/{id}")
     public ResponseEntity<Page<ProdutoDto>> consultarProdutosPorIdSubcategoria(
-        @PathVariable Long id, @PageableDefault(sort = "nome") Pageable pageable
+        @PathVariable Long id, @PageableDefault(sort = "nome") Pageable pageable,
+        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String seNenhumCorresponder
     ) {
         log.info("Procurando produto com subcategoria com id {}...", id);
-        return ResponseEntity.ok(consultaService.consultarPorSubcategoria(id, pageable));
+        return EtagUtils.responderPeloCorpo(seNenhumCorresponder,
+            () -> consultaService.consultarPorSubcategoria(id, pageable),
+            p -> etagService.gerarEtagProdutos("subcategoria-" + id, p));
+    }
+
+    /**
+     * Lista os produtos cadastrados sem contar o total.
+     * Retorna um {@linkplain SliceDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho de uma lista com todos os produtos cadastrados.
+     */
+    @GetMapping("/slice")
+    public ResponseEntity<SliceDto<ProdutoDto>> listarProdutosSemContagem(
+        @PageableDefault(sort = "id") Pageable pageable
+    ) {
+        log.info("Listando produtos sem contagem...");
+        return ResponseEntity.ok(SliceDto.of(consultaService.listarSemContagem(pageable)));
+    }
+
+    /**
+     * Pesquisa produtos pelo {@code nome} sem contar o total.
+     * Retorna um {@linkplain SliceDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param nome     o nome do(s) produto(s).
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho de uma lista com todos os produtos encontrados pelo {@code nome}.
+     */
+    @GetMapping("/nome/slice")
+    public ResponseEntity<SliceDto<ProdutoDto>> consultarProdutosPorNomeSemContagem(
+        @RequestParam @Size(message = "O nome deve ter pelo menos 2 caracteres", min = 2) String nome,
+        @PageableDefault(sort = "nome") Pageable pageable
+    ) {
+        log.info("Procurando produto com nome {} sem contagem...", nome.trim());
+        return ResponseEntity.ok(SliceDto.of(consultaService.consultarPorNomeSemContagem(nome.trim(), pageable)));
+    }
+
+    /**
+     * Pesquisa produtos pelo {@code id} da categoria sem contar o total.
+     * Retorna um {@linkplain SliceDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param id       o id da categoria.
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho de uma lista com todos os produtos encontrados pelo {@code id} da categoria.
+     */
+    @GetMapping("/categoria/{id}/slice")
+    public ResponseEntity<SliceDto<ProdutoDto>> consultarProdutosPorIdCategoriaSemContagem(
+        @PathVariable Long id, @PageableDefault(sort = "nome") Pageable pageable
+    ) {
+        log.info("Procurando produto com categoria com id {} sem contagem...", id);
+        return ResponseEntity.ok(SliceDto.of(consultaService.consultarPorCategoriaSemContagem(id, pageable)));
+    }
+
+    /**
+     * Pesquisa produtos pelo {@code id} da subcategoria sem contar o total.
+     * Retorna um {@linkplain SliceDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param id       o id da subcategoria.
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho de uma lista com todos os produtos encontrados pelo {@code id} da subcategoria.
+     */
+    @GetMapping("/subcategoria/{id}/slice")
+    public ResponseEntity<SliceDto<ProdutoDto>> consultarProdutosPorIdSubcategoriaSemContagem(
+        @PathVariable Long id, @PageableDefault(sort = "nome") Pageable pageable
+    ) {
+        log.info("Procurando produto com subcategoria com id {} sem contagem...", id);
+        return ResponseEntity.ok(SliceDto.of(consultaService.consultarPorSubcategoriaSemContagem(id, pageable)));
+    }
+
+    /**
+     * Lista os produtos paginados por cursor, sem contagem do total.
+     * Retorna um {@linkplain ProdutoCursorDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param cursor  o cursor retornado pela página anterior.
+     * @param tamanho a quantidade máxima de produtos.
+     * @param sort    a ordenação por {@code id}, {@code nome} ou {@code valorUnitario}.
+     *
+     * @return os produtos seguintes ao cursor e o cursor da próxima página.
+     */
+    @GetMapping("/cursor")
+    public ResponseEntity<ProdutoCursorDto> listarProdutosPorCursor(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20")
+        @Min(message = "O tamanho deve ser de pelo menos 1", value = 1)
+        @Max(message = "O tamanho deve ser de no máximo 100", value = 100) int tamanho,
+        @SortDefault(sort = "id") Sort sort
+    ) {
+        log.info("Listando produtos por cursor...");
+        return ResponseEntity.ok(consultaService.listar(cursor, sort, tamanho));
+    }
+
+    /**
+     * Pesquisa produtos pelo {@code id} da categoria, paginados por cursor, sem contagem do total.
+     * Retorna um {@linkplain ProdutoCursorDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param id      o id da categoria.
+     * @param cursor  o cursor retornado pela página anterior.
+     * @param tamanho a quantidade máxima de produtos.
+     * @param sort    a ordenação por {@code id}, {@code nome} ou {@code valorUnitario}.
+     *
+     * @return os produtos seguintes ao cursor e o cursor da próxima página.
+     */
+    @GetMapping("/categoria/{id}/cursor")
+    public ResponseEntity<ProdutoCursorDto> consultarProdutosPorIdCategoriaPorCursor(
+        @PathVariable Long id,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20")
+        @Min(message = "O tamanho deve ser de pelo menos 1", value = 1)
+        @Max(message = "O tamanho deve ser de no máximo 100", value = 100) int tamanho,
+        @SortDefault(sort = "nome") Sort sort
+    ) {
+        log.info("Procurando produto com categoria com id {} por cursor...", id);
+        return ResponseEntity.ok(consultaService.consultarPorCategoria(id, cursor, sort, tamanho));
+    }
+
+    /**
+     * Pesquisa produtos pelo {@code id} da subcategoria, paginados por cursor, sem contagem do total.
+     * Retorna um {@linkplain ProdutoCursorDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param id      o id da subcategoria.
+     * @param cursor  o cursor retornado pela página anterior.
+     * @param tamanho a quantidade máxima de produtos.
+     * @param sort    a ordenação por {@code id}, {@code nome} ou {@code valorUnitario}.
+     *
+     * @return os produtos seguintes ao cursor e o cursor da próxima página.
+     */
+    @GetMapping("/subcategoria/{id}/cursor")
+    public ResponseEntity<ProdutoCursorDto> consultarProdutosPorIdSubcategoriaPorCursor(
+        @PathVariable Long id,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "20")
+        @Min(message = "O tamanho deve ser de pelo menos 1", value = 1)
+        @Max(message = "O tamanho deve ser de no máximo 100", value = 100) int tamanho,
+        @SortDefault(sort = "nome") Sort sort
+    ) {
+        log.info("Procurando produto com subcategoria com id {} por cursor...", id);
+        return ResponseEntity.ok(consultaService.consultarPorSubcategoria(id, cursor, sort, tamanho));
+    }
+
+    /**
+     * Exporta todos os produtos, ou os modificados a partir de {@code modificadoDesde}, em JSON delimitado por
+     * linhas ({@code application/x-ndjson}), com um {@linkplain ProdutoDto produto} por linha em ordem de
+     * {@code id}. Os produtos são escritos na resposta à medida que são lidos do banco, sem paginação. As
+     * alterações de estoque também contam como modificação, inclusive as dos produtos com estoque fragmentado.
+     *
+     * @param modificadoDesde a data de modificação mínima, inclusiva, no formato ISO, como
+     *                        {@code 2024-01-31T10:15:00}.
+     * @param response        a resposta em que os produtos são escritos.
+     *
+     * @throws IOException caso ocorra um erro na escrita da resposta.
+     */
+    @GetMapping(value = "/exportar", produces = "application/x-ndjson")
+    public void exportarProdutos(
+        @RequestParam(required = false)
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime modificadoDesde,
+        HttpServletResponse response
+    ) throws IOException {
+        log.info("Exportando produtos...");
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        exportacaoService.exportar(modificadoDesde, response.getOutputStream());
     }
 
 }
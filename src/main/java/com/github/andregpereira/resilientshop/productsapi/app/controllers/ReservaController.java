@@ -0,0 +1,92 @@
+package com.github.andregpereira.resilientshop.productsapi.app.controllers;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.reserva.ReservaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.reserva.ReservaEstoqueService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Controller de reservas de estoque da API de Produtos.
+ *
+ * @author André Garcia
+ */
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Reservas", description = "Operações de reserva, confirmação e liberação de estoque de produtos.")
+@RestController
+@RequestMapping("/produtos/estoque/reservas")
+public class ReservaController {
+
+    /**
+     * Injeção da dependência {@link ReservaEstoqueService} para serviços de reserva.
+     */
+    private final ReservaEstoqueService reservaService;
+
+    /**
+     * Reserva produtos, dado a lista de {@linkplain ProdutoAtualizarEstoqueDto produtos}.
+     * Retorna a {@linkplain ReservaDto reserva} criada.
+     *
+     * @param dtos a lista de produtos a serem reservados.
+     *
+     * @return a reserva criada.
+     */
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping
+    public ResponseEntity<ReservaDto> reservarProdutos(@RequestBody Set<ProdutoAtualizarEstoqueDto> dtos) {
+        log.info("Reservando produtos...");
+        ReservaDto reserva = reservaService.reservar(dtos);
+        URI uri = UriComponentsBuilder
+            .fromPath("/produtos/estoque/reservas/{id}")
+            .buildAndExpand(reserva.id())
+            .toUri();
+        return ResponseEntity
+            .created(uri)
+            .body(reserva);
+    }
+
+    /**
+     * Confirma uma reserva por {@code id}, subtraindo os produtos reservados do estoque.
+     *
+     * @param id o id da reserva.
+     */
+    @PutMapping("/{id}/confirmar")
+    public ResponseEntity<Void> confirmarReserva(@PathVariable UUID id) {
+        log.info("Confirmando reserva com id {}...", id);
+        reservaService.confirmar(id);
+        return ResponseEntity
+            .ok()
+            .build();
+    }
+
+    /**
+     * Libera uma reserva por {@code id}, sem alterar o estoque.
+     *
+     * @param id o id da reserva.
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> liberarReserva(@PathVariable UUID id) {
+        log.info("Liberando reserva com id {}...", id);
+        reservaService.liberar(id);
+        return ResponseEntity
+            .ok()
+            .build();
+    }
+
+}
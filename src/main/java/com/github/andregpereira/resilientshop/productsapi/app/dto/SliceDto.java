@@ -0,0 +1,30 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Envelope enxuto de um {@link Slice}: o conteúdo, a posição da página e se há uma próxima página,
+ * sem o total de elementos e de páginas.
+ *
+ * @param conteudo      o conteúdo da página.
+ * @param pagina        o número da página.
+ * @param tamanho       o tamanho da página.
+ * @param possuiProxima se há uma próxima página.
+ * @param <T>           o tipo do conteúdo.
+ *
+ * @author André Garcia
+ */
+public record SliceDto<T>(
+    List<T> conteudo,
+    int pagina,
+    int tamanho,
+    boolean possuiProxima
+) {
+
+    public static <T> SliceDto<T> of(Slice<T> slice) {
+        return new SliceDto<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext());
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.categoria;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+
+import java.util.List;
+
+public record CategoriaArvoreDto(
+    Long id,
+    String nome,
+    List<SubcategoriaDto> subcategorias
+) {}
@@ -0,0 +1,8 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import java.util.Set;
+
+public record DefinicaoEstoquesDto(
+    Set<Long> idsAlterados,
+    Set<Long> skusNaoEncontrados
+) {}
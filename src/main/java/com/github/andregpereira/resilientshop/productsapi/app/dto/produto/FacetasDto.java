@@ -0,0 +1,11 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import java.util.Map;
+
+public record FacetasDto(
+    Map<Long, Long> categorias,
+    Map<Long, Long> subcategorias,
+    Map<String, Long> faixasPreco,
+    Map<Integer, Long> ratings,
+    long emEstoque
+) {}
@@ -0,0 +1,13 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import java.math.BigDecimal;
+
+public record FiltroProdutoDto(
+    Long categoriaId,
+    Long subcategoriaId,
+    BigDecimal precoMinimo,
+    BigDecimal precoMaximo,
+    BigDecimal ratingMinimo,
+    Boolean emEstoque,
+    Boolean ativo
+) {}
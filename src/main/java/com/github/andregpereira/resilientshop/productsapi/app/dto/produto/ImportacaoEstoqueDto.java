@@ -0,0 +1,13 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import java.util.List;
+
+public record ImportacaoEstoqueDto(
+    long linhasProcessadas,
+    long linhasInvalidas,
+    long skusNaoEncontrados,
+    List<Long> amostraSkusNaoEncontrados,
+    int lotes,
+    List<Long> duracaoLotesMs,
+    long duracaoMs
+) {}
@@ -0,0 +1,19 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+
+import java.time.LocalDateTime;
+
+import static com.fasterxml.jackson.annotation.JsonFormat.Shape.STRING;
+
+public record MovimentoEstoqueDto(
+    Long id,
+    Long produtoId,
+    int variacao,
+    int estoqueResultante,
+    Causa causa,
+    Integer quantidadeReservada,
+    @JsonFormat(shape = STRING, pattern = "dd/MM/uuuu HH:mm:ss")
+    LocalDateTime dataMovimento
+) {}
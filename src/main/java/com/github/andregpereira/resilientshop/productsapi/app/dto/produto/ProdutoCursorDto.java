@@ -0,0 +1,9 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import java.util.List;
+
+public record ProdutoCursorDto(
+    List<ProdutoDto> conteudo,
+    int tamanho,
+    String proximoCursor
+) {}
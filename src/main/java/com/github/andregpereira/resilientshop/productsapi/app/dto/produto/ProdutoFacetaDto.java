@@ -0,0 +1,13 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import java.math.BigDecimal;
+
+public record ProdutoFacetaDto(
+    Long id,
+    Long categoriaId,
+    Long subcategoriaId,
+    BigDecimal valorUnitario,
+    BigDecimal rating,
+    int estoque,
+    boolean ativo
+) {}
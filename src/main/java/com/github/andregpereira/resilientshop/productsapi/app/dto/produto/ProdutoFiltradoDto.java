@@ -0,0 +1,8 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import org.springframework.data.domain.Page;
+
+public record ProdutoFiltradoDto(
+    Page<ProdutoDto> produtos,
+    FacetasDto facetas
+) {}
@@ -0,0 +1,7 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+public record ProdutoLoteDto(
+    Long id,
+    boolean encontrado,
+    ProdutoDto produto
+) {}
@@ -0,0 +1,11 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import java.math.BigDecimal;
+
+public record ProdutoResumoDto(
+    Long id,
+    String nome,
+    BigDecimal rating,
+    Long categoriaId,
+    String categoriaNome
+) {}
@@ -0,0 +1,7 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+public record ProdutoTextoDto(
+    Long id,
+    String nome,
+    String descricao
+) {}
@@ -0,0 +1,11 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import java.time.LocalDateTime;
+
+public record ProdutoVersaoDto(
+    Long id,
+    int estoque,
+    LocalDateTime dataModificacao,
+    Long categoriaId,
+    Long subcategoriaId
+) {}
@@ -0,0 +1,18 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+public record ResultadoEstoqueDto(
+    Long id,
+    int quantidade,
+    SituacaoEstoque situacao
+) {
+
+    public enum SituacaoEstoque {
+
+        APLICADO,
+        INSUFICIENTE,
+        NAO_ENCONTRADO,
+        INATIVO
+
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+import java.math.BigDecimal;
+
+public record SugestaoDto(
+    TipoSugestao tipo,
+    Long id,
+    String texto,
+    BigDecimal rating
+) {
+
+    public enum TipoSugestao {
+
+        PRODUTO,
+        CATEGORIA
+
+    }
+
+}
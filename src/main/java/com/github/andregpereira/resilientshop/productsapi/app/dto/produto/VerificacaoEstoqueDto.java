@@ -0,0 +1,8 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.produto;
+
+public record VerificacaoEstoqueDto(
+    Long id,
+    int estoqueAtual,
+    int estoqueRecalculado,
+    boolean consistente
+) {}
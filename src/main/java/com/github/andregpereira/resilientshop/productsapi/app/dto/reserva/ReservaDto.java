@@ -0,0 +1,17 @@
+package com.github.andregpereira.resilientshop.productsapi.app.dto.reserva;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.fasterxml.jackson.annotation.JsonFormat.Shape.STRING;
+
+public record ReservaDto(
+    UUID id,
+    @JsonFormat(shape = STRING, pattern = "dd/MM/uuuu HH:mm:ss")
+    LocalDateTime expiraEm,
+    Set<ProdutoAtualizarEstoqueDto> itens
+) {}
@@ -0,0 +1,244 @@
+package com.github.andregpereira.resilientshop.productsapi.app.filters;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.idempotencia.IdempotenciaStore;
+import com.github.andregpereira.resilientshop.productsapi.cross.idempotencia.ResultadoIdempotente;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Filtro que torna idempotentes as requisições de alteração de estoque que informam o
+ * cabeçalho {@value #CABECALHO_CHAVE}.
+ * <p>
+ * A primeira requisição com uma chave reserva a chave e é processada normalmente. Se a resposta
+ * for de sucesso, ela é armazenada e as requisições seguintes com a mesma chave recebem a resposta
+ * armazenada, sem alterar o estoque novamente. Respostas de erro não são armazenadas, para que a
+ * requisição possa ser repetida. Uma chave reutilizada com outra requisição é rejeitada.
+ *
+ * @author André Garcia
+ * @see IdempotenciaStore
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class IdempotenciaFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO_CHAVE = "Idempotency-Key";
+
+    public static final String CABECALHO_REPETIDA = "Idempotent-Replayed";
+
+    private static final int TAMANHO_MAXIMO_CHAVE = 255;
+
+    private final IdempotenciaStore store;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String metodo = request.getMethod();
+        return request.getHeader(CABECALHO_CHAVE) == null || !(HttpMethod.PUT.matches(metodo)
+            || HttpMethod.POST.matches(metodo) || HttpMethod.DELETE.matches(metodo));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        String chave = request.getHeader(CABECALHO_CHAVE);
+        if (chave.isBlank() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            responder(response, HttpStatus.BAD_REQUEST, "Ops! O cabeçalho " + CABECALHO_CHAVE + " é inválido");
+            return;
+        }
+        byte[] corpo = StreamUtils.copyToByteArray(request.getInputStream());
+        String impressao = impressao(request, corpo);
+        if (!store.reservar(chave)) {
+            repetir(chave, impressao, response);
+            return;
+        }
+        ContentCachingResponseWrapper resposta = new ContentCachingResponseWrapper(response);
+        boolean concluida = false;
+        try {
+            filterChain.doFilter(new CorpoLidoRequestWrapper(request, corpo), resposta);
+            if (HttpStatusCode
+                .valueOf(resposta.getStatus())
+                .is2xxSuccessful()) {
+                store.concluir(chave, new ResultadoIdempotente(
+                    impressao,
+                    resposta.getStatus(),
+                    resposta.getContentType(),
+                    new String(resposta.getContentAsByteArray(), StandardCharsets.UTF_8)
+                ));
+                concluida = true;
+            }
+        } finally {
+            if (!concluida) {
+                store.liberar(chave);
+            }
+            resposta.copyBodyToResponse();
+        }
+    }
+
+    private void repetir(String chave, String impressao, HttpServletResponse response) throws IOException {
+        Optional<ResultadoIdempotente> armazenado = store.consultar(chave);
+        if (armazenado.isEmpty()) {
+            log.info("Requisição com a chave de idempotência {} ainda em andamento", chave);
+            responder(response, HttpStatus.CONFLICT,
+                "Ops! Uma requisição com a mesma chave de idempotência ainda está em andamento. Tente novamente");
+            return;
+        }
+        ResultadoIdempotente resultado = armazenado.get();
+        if (!resultado
+            .impressao()
+            .equals(impressao)) {
+            log.info("Chave de idempotência {} reutilizada com outra requisição", chave);
+            responder(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                "Ops! A chave de idempotência já foi utilizada com outra requisição");
+            return;
+        }
+        log.info("Retornando resposta armazenada da chave de idempotência {}", chave);
+        response.setStatus(resultado.status());
+        response.setHeader(CABECALHO_REPETIDA, "true");
+        if (resultado.tipoConteudo() != null) {
+            response.setContentType(resultado.tipoConteudo());
+        }
+        byte[] corpo = resultado
+            .corpo()
+            .getBytes(StandardCharsets.UTF_8);
+        response.setContentLength(corpo.length);
+        response
+            .getOutputStream()
+            .write(corpo);
+    }
+
+    private static void responder(HttpServletResponse response, HttpStatus status, String mensagem)
+        throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8).toString());
+        response
+            .getWriter()
+            .write(mensagem);
+    }
+
+    static String impressao(HttpServletRequest request, byte[] corpo) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request
+                .getMethod()
+                .getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request
+                .getRequestURI()
+                .getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request
+                    .getQueryString()
+                    .getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(corpo);
+            return HexFormat
+                .of()
+                .formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Requisição cujo corpo já foi lido pelo filtro e é servido novamente aos próximos filtros.
+     */
+    private static final class CorpoLidoRequestWrapper extends HttpServletRequestWrapper {
+
+        private final byte[] corpo;
+
+        CorpoLidoRequestWrapper(HttpServletRequest request, byte[] corpo) {
+            super(request);
+            this.corpo = corpo;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream entrada = new ByteArrayInputStream(corpo);
+            return new ServletInputStream() {
+
+                @Override
+                public boolean isFinished() {
+                    return entrada.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                /**
+                 * O corpo já está todo em memória: o listener é avisado de imediato de que há dados e de que a
+                 * leitura terminou.
+                 */
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return entrada.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return entrada.read(b, off, len);
+                }
+
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null
+                ? Charset.forName(getCharacterEncoding())
+                : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return corpo.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return corpo.length;
+        }
+
+    }
+
+}
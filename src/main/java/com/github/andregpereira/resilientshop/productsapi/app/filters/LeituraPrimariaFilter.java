@@ -0,0 +1,37 @@
+package com.github.andregpereira.resilientshop.productsapi.app.filters;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.replica.LeituraPrimaria;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filtro que atende pelo banco primário as consultas com o cabeçalho {@value #CABECALHO} igual a
+ * {@code true}, para que o cliente que acabou de alterar um recurso o leia atualizado, sem depender do atraso
+ * da réplica.
+ *
+ * @author André Garcia
+ * @see LeituraPrimaria
+ */
+public class LeituraPrimariaFilter extends OncePerRequestFilter {
+
+    public static final String CABECALHO = "X-Leitura-Primaria";
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !Boolean.parseBoolean(request.getHeader(CABECALHO));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        try (LeituraPrimaria.Escopo escopo = LeituraPrimaria.abrir()) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+}
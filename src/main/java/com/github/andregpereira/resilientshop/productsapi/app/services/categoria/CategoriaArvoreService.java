@@ -0,0 +1,25 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.categoria;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaArvoreDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface CategoriaArvoreService {
+
+    List<CategoriaArvoreDto> consultarArvore();
+
+    List<CategoriaDto> listarCategorias();
+
+    List<SubcategoriaDto> listarSubcategorias();
+
+    Optional<CategoriaDto> consultarCategoria(Long id);
+
+    Optional<SubcategoriaDetalhesDto> consultarSubcategoria(Long id);
+
+    long consultarImpressao();
+
+}
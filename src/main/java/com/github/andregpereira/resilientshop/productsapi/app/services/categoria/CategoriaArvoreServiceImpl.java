@@ -0,0 +1,241 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.categoria;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaArvoreDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao.DadosAlteradosEvento;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.CategoriaMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.SubcategoriaMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.replica.LeituraPrimaria;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.ArvoreCategorias;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.CategoriasProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.CategoriaRepository;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.SubcategoriaRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classe de serviço da árvore de {@link CategoriaEntity categorias} e {@link SubcategoriaEntity subcategorias}
+ * em memória.
+ * <p>
+ * As consultas são respondidas de uma {@link ArvoreCategorias} imutável, sem acesso ao banco de dados. A
+ * árvore é construída quando a aplicação fica pronta, ou na primeira consulta, se esta vier antes. Após a
+ * confirmação de cada alteração de categoria ou de subcategoria, uma nova árvore é lida do banco e substitui
+ * a anterior de uma só vez. Alterações feitas por outras instâncias da aplicação são incorporadas pela
+ * reconstrução periódica, a cada {@link CategoriasProperties#intervaloReconstrucao()}.
+ *
+ * @author André Garcia
+ * @see CategoriaArvoreService
+ */
+@Slf4j
+@Service
+public class CategoriaArvoreServiceImpl implements CategoriaArvoreService {
+
+    /**
+     * Injeção da dependência {@link CategoriaRepository} para ler todas as categorias na construção da árvore.
+     */
+    private final CategoriaRepository categoriaRepository;
+
+    /**
+     * Injeção da dependência {@link SubcategoriaRepository} para ler todas as subcategorias na construção da
+     * árvore.
+     */
+    private final SubcategoriaRepository subcategoriaRepository;
+
+    private final CategoriaMapper categoriaMapper;
+
+    private final SubcategoriaMapper subcategoriaMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final CategoriasProperties properties;
+
+    private final ScheduledExecutorService executor;
+
+    private volatile ArvoreCategorias arvore;
+
+    public CategoriaArvoreServiceImpl(
+        CategoriaRepository categoriaRepository,
+        SubcategoriaRepository subcategoriaRepository,
+        CategoriaMapper categoriaMapper,
+        SubcategoriaMapper subcategoriaMapper,
+        PlatformTransactionManager transactionManager,
+        CategoriasProperties properties
+    ) {
+        this.categoriaRepository = categoriaRepository;
+        this.subcategoriaRepository = subcategoriaRepository;
+        this.categoriaMapper = categoriaMapper;
+        this.subcategoriaMapper = subcategoriaMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.properties = properties;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "categorias-reconstrucao");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return todas as categorias, em ordem de {@code id}, com as suas subcategorias.
+     */
+    @Override
+    public List<CategoriaArvoreDto> consultarArvore() {
+        return arvore().arvore();
+    }
+
+    /**
+     * @return todas as categorias, em ordem de {@code id}.
+     */
+    @Override
+    public List<CategoriaDto> listarCategorias() {
+        return arvore().categorias();
+    }
+
+    /**
+     * @return todas as subcategorias, em ordem de {@code id}.
+     */
+    @Override
+    public List<SubcategoriaDto> listarSubcategorias() {
+        return arvore().subcategorias();
+    }
+
+    /**
+     * @param id o id da categoria.
+     *
+     * @return a categoria, ou vazio caso não esteja na árvore.
+     */
+    @Override
+    public Optional<CategoriaDto> consultarCategoria(Long id) {
+        return arvore().categoria(id);
+    }
+
+    /**
+     * @param id o id da subcategoria.
+     *
+     * @return a subcategoria com a sua categoria, ou vazio caso não esteja na árvore.
+     */
+    @Override
+    public Optional<SubcategoriaDetalhesDto> consultarSubcategoria(Long id) {
+        return arvore().subcategoria(id);
+    }
+
+    /**
+     * @return a impressão do conteúdo da árvore atual, para as ETags das consultas de categorias.
+     */
+    @Override
+    public long consultarImpressao() {
+        return arvore().impressao();
+    }
+
+    /**
+     * Constrói a árvore quando a aplicação fica pronta e agenda as reconstruções periódicas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconstruir();
+        long intervalo = properties
+            .intervaloReconstrucao()
+            .toMillis();
+        executor.scheduleWithFixedDelay(this::reconstruirAgendado, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Reconstrói a árvore após a confirmação da transação que alterou uma categoria ou uma subcategoria. Caso
+     * a reconstrução falhe, a árvore é descartada e reconstruída na próxima consulta, para que não continue
+     * desatualizada até a próxima reconstrução periódica.
+     *
+     * @param evento a alteração.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterar(CategoriasAlteradasEvento evento) {
+        reconstruirOuDescartar();
+    }
+
+    /**
+     * Reconstrói a árvore quando não se sabe quais dados foram alterados, da mesma forma que após a alteração
+     * de uma categoria ou de uma subcategoria.
+     *
+     * @param evento a alteração.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosAlteradosEvento evento) {
+        reconstruirOuDescartar();
+    }
+
+    private void reconstruirOuDescartar() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            arvore = null;
+            log.error("Erro ao reconstruir a árvore de categorias", e);
+        }
+    }
+
+    private void reconstruirAgendado() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            log.error("Erro ao reconstruir a árvore de categorias", e);
+        }
+    }
+
+    private ArvoreCategorias arvore() {
+        ArvoreCategorias atual = arvore;
+        return atual != null ? atual : carregarSeAusente();
+    }
+
+    private synchronized ArvoreCategorias carregarSeAusente() {
+        ArvoreCategorias atual = arvore;
+        return atual != null ? atual : reconstruir();
+    }
+
+    /**
+     * Lê todas as categorias e subcategorias do {@linkplain LeituraPrimaria banco primário}, que já tem as
+     * alterações que motivaram a reconstrução, e publica a nova árvore. As reconstruções são serializadas, de
+     * modo que a última publicada é sempre a última lida.
+     *
+     * @return a nova árvore.
+     */
+    synchronized ArvoreCategorias reconstruir() {
+        long inicio = System.nanoTime();
+        ArvoreCategorias nova = LeituraPrimaria.executar(() -> transactionTemplate.execute(status -> new ArvoreCategorias(
+            categoriaRepository
+                .findAll(Sort.by("id"))
+                .stream()
+                .map(categoriaMapper::toCategoriaDto)
+                .toList(),
+            subcategoriaRepository
+                .findAll(Sort.by("id"))
+                .stream()
+                .map(subcategoriaMapper::toSubcategoriaDetalhesDto)
+                .toList()
+        )));
+        arvore = nova;
+        log.info("Árvore de categorias construída com {} categorias e {} subcategorias em {} ms",
+            nova.categorias().size(), nova.subcategorias().size(), (System.nanoTime() - inicio) / 1_000_000);
+        return nova;
+    }
+
+}
@@ -3,11 +3,14 @@ package com.github.andregpereira.resilientshop.productsapi.app.services.categori
 import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 public interface CategoriaConsultaService {
 
     Page<CategoriaDto> listar(Pageable pageable);
 
+    Slice<CategoriaDto> listarSemContagem(Pageable pageable);
+
     CategoriaDto consultarPorId(Long id);
 
 }
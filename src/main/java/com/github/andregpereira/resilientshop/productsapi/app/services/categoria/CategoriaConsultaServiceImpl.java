@@ -3,16 +3,25 @@ package com.github.andregpereira.resilientshop.productsapi.app.services.categori
 import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.CategoriaNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.mappers.CategoriaMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.PaginacaoMemoria;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.CategoriaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.Map;
 
 /**
  * Classe de serviço de consulta de {@link CategoriaEntity}.
+ * <p>
+ * As consultas são respondidas da {@linkplain CategoriaArvoreService árvore de categorias em memória}; apenas
+ * as listagens ordenadas por propriedades diferentes de {@code id} e {@code nome} consultam o banco de dados.
  *
  * @author André Garcia
  * @see CategoriaConsultaService
@@ -20,8 +29,14 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 public class CategoriaConsultaServiceImpl implements CategoriaConsultaService {
 
+    private static final Map<String, Comparator<CategoriaDto>> ORDENACOES = Map.of(
+        "id", Comparator.comparing(CategoriaDto::id),
+        "nome", Comparator.comparing(CategoriaDto::nome)
+    );
+
     /**
      * Injeção da dependência {@link CategoriaRepository} para realizar operações de
      * consulta na tabela de categorias no banco de dados.
@@ -34,6 +49,11 @@ public class CategoriaConsultaServiceImpl implements CategoriaConsultaService {
      */
     private final CategoriaMapper mapper;
 
+    /**
+     * Injeção da dependência {@link CategoriaArvoreService} para consultar as categorias em memória.
+     */
+    private final CategoriaArvoreService arvoreService;
+
     /**
      * Lista todas as {@linkplain CategoriaEntity categorias} cadastradas.
      * Retorna uma {@linkplain Page sublista} de {@linkplain CategoriaDto categorias}.
@@ -47,9 +67,31 @@ public class CategoriaConsultaServiceImpl implements CategoriaConsultaService {
     @Override
     public Page<CategoriaDto> listar(Pageable pageable) {
         log.info("Retornando categorias");
-        return repository
-            .findAll(pageable)
-            .map(mapper::toCategoriaDto);
+        return PaginacaoMemoria
+            .ordenar(arvoreService.listarCategorias(), pageable.getSort(), ORDENACOES)
+            .map(categorias -> PaginacaoMemoria.paginar(categorias, pageable))
+            .orElseGet(() -> repository
+                .findAll(pageable)
+                .map(mapper::toCategoriaDto));
+    }
+
+    /**
+     * Lista as {@linkplain CategoriaEntity categorias} cadastradas sem contar o total.
+     * Retorna um {@linkplain Slice trecho} de {@linkplain CategoriaDto categorias}.
+     *
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho de uma lista com todas as categorias cadastradas.
+     */
+    @Override
+    public Slice<CategoriaDto> listarSemContagem(Pageable pageable) {
+        log.info("Retornando categorias sem contagem");
+        return PaginacaoMemoria
+            .ordenar(arvoreService.listarCategorias(), pageable.getSort(), ORDENACOES)
+            .map(categorias -> PaginacaoMemoria.fatiar(categorias, pageable))
+            .orElseGet(() -> repository
+                .findAllBy(pageable)
+                .map(mapper::toCategoriaDto));
     }
 
     /**
@@ -65,9 +107,8 @@ public class CategoriaConsultaServiceImpl implements CategoriaConsultaService {
     @Override
     public CategoriaDto consultarPorId(Long id) {
         log.info("Retornando categoria com id {}", id);
-        return repository
-            .findById(id)
-            .map(mapper::toCategoriaDto)
+        return arvoreService
+            .consultarCategoria(id)
             .orElseThrow(() -> {
                 log.info("Categoria não encontrada com id {}", id);
                 return new CategoriaNotFoundException(id);
@@ -9,6 +9,7 @@ import com.github.andregpereira.resilientshop.productsapi.infra.entities.Categor
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.CategoriaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,6 +47,12 @@ public class CategoriaManutencaoServiceImpl implements CategoriaManutencaoServic
      */
     private final CategoriaMapper mapper;
 
+    /**
+     * Injeção da dependência {@link ApplicationEventPublisher} para publicar as alterações, aplicadas à árvore
+     * de categorias em memória após a confirmação da transação.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Cadastra uma {@linkplain CategoriaRegistroDto categoria}.
      * Retorna uma {@linkplain CategoriaDto categoria}.
@@ -65,6 +72,7 @@ public class CategoriaManutencaoServiceImpl implements CategoriaManutencaoServic
         }
         CategoriaEntity categoria = mapper.toCategoria(dto);
         repository.save(categoria);
+        eventPublisher.publishEvent(new CategoriasAlteradasEvento());
         log.info("Categoria criada");
         return mapper.toCategoriaDto(categoria);
     }
@@ -94,6 +102,7 @@ public class CategoriaManutencaoServiceImpl implements CategoriaManutencaoServic
                 CategoriaEntity categoriaAtualizada = mapper.toCategoria(dto);
                 categoriaAtualizada.setId(id);
                 repository.save(categoriaAtualizada);
+                eventPublisher.publishEvent(new CategoriasAlteradasEvento());
                 log.info("Categoria com id {} atualizada", id);
                 return mapper.toCategoriaDto(categoriaAtualizada);
             })
@@ -119,6 +128,7 @@ public class CategoriaManutencaoServiceImpl implements CategoriaManutencaoServic
             .findById(id)
             .map(c -> {
                 repository.deleteById(id);
+                eventPublisher.publishEvent(new CategoriasAlteradasEvento());
                 log.info("Categoria com id {} removida", id);
                 return MessageFormat.format("Categoria com id {0} removida com sucesso", id);
             })
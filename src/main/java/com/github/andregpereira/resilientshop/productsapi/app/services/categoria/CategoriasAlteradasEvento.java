@@ -0,0 +1,9 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.categoria;
+
+/**
+ * Evento publicado quando uma categoria ou uma subcategoria é cadastrada, atualizada ou removida, para que a
+ * árvore de categorias em memória seja reconstruída após a confirmação da transação.
+ *
+ * @author André Garcia
+ */
+public record CategoriasAlteradasEvento() {}
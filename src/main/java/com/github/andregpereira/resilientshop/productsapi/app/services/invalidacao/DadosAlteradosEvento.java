@@ -0,0 +1,10 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao;
+
+/**
+ * Evento publicado quando não se sabe quais dados foram alterados, como após a perda de invalidações de outras
+ * instâncias, para que o cache de produtos seja descartado e a árvore de categorias e os índices em memória
+ * sejam reconstruídos a partir do banco.
+ *
+ * @author André Garcia
+ */
+public record DadosAlteradosEvento() {}
@@ -0,0 +1,9 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.invalidacao.Invalidacao;
+
+public interface InvalidacaoService {
+
+    void receber(Invalidacao invalidacao);
+
+}
@@ -0,0 +1,242 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriasAlteradasEvento;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.EstoqueAlteradoEvento;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoAlteradoEvento;
+import com.github.andregpereira.resilientshop.productsapi.cross.invalidacao.Invalidacao;
+import com.github.andregpereira.resilientshop.productsapi.cross.invalidacao.Invalidacao.Tipo;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.InvalidacaoProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Classe de serviço que mantém os dados em memória das instâncias da aplicação coerentes entre si pelo
+ * {@code LISTEN}/{@code NOTIFY} do PostgreSQL.
+ * <p>
+ * As alterações de produtos, de estoque e de categorias ou subcategorias são notificadas com os ids alterados
+ * na própria transação que as fez, de modo que o PostgreSQL entrega a notificação apenas se a transação for
+ * confirmada. Cada instância escuta o canal em uma conexão dedicada e publica localmente os mesmos eventos
+ * das alterações feitas por ela, que atualizam o cache de produtos, a árvore de categorias e os índices em
+ * memória. Se a conexão de escuta cair, as notificações enviadas até a reconexão são perdidas, por isso a
+ * cada reconexão é publicado um {@link DadosAlteradosEvento}, que descarta o cache de produtos e reconstrói a
+ * árvore de categorias, o índice de busca, as sugestões e o índice de facetas.
+ * <p>
+ * A conexão de escuta é aberta pelo {@link DriverManager} com a url e as credenciais de
+ * {@link DataSourceProperties}, fora do pool do Hikari: as configurações do pool, como os tempos limite de
+ * conexão, as propriedades do driver e a validação das conexões, não se aplicam a ela. Ela permanece aberta
+ * enquanto a aplicação estiver no ar e não conta no tamanho máximo do pool.
+ *
+ * @author André Garcia
+ * @see InvalidacaoService
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "resilientshop.invalidacao", name = "habilitado", havingValue = "true")
+public class InvalidacaoServiceImpl implements InvalidacaoService {
+
+    private final String origem = UUID
+        .randomUUID()
+        .toString();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ProdutoRepository repository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final DataSourceProperties dataSourceProperties;
+
+    private final InvalidacaoProperties properties;
+
+    private final Thread escuta;
+
+    private volatile boolean encerrado;
+
+    public InvalidacaoServiceImpl(
+        JdbcTemplate jdbcTemplate,
+        ProdutoRepository repository,
+        ApplicationEventPublisher eventPublisher,
+        DataSourceProperties dataSourceProperties,
+        InvalidacaoProperties properties
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.repository = repository;
+        this.eventPublisher = eventPublisher;
+        this.dataSourceProperties = dataSourceProperties;
+        this.properties = properties;
+        this.escuta = new Thread(this::escutar, "invalidacao-escuta");
+        this.escuta.setDaemon(true);
+    }
+
+    /**
+     * Abre a conexão de escuta quando a aplicação fica pronta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        escuta.start();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        encerrado = true;
+        escuta.interrupt();
+    }
+
+    /**
+     * Notifica as outras instâncias da alteração de um produto, na transação que o alterou.
+     *
+     * @param evento o produto alterado.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void aoAlterar(ProdutoAlteradoEvento evento) {
+        notificar(Tipo.PRODUTOS, Set.of(evento.id()));
+    }
+
+    /**
+     * Notifica as outras instâncias da alteração do estoque de produtos, na transação que o alterou.
+     *
+     * @param evento os produtos com o estoque alterado.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void aoAlterarEstoque(EstoqueAlteradoEvento evento) {
+        notificar(Tipo.ESTOQUE, evento.ids());
+    }
+
+    /**
+     * Notifica as outras instâncias da alteração de uma categoria ou subcategoria, na transação que a alterou.
+     *
+     * @param evento a alteração.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void aoAlterarCategorias(CategoriasAlteradasEvento evento) {
+        notificar(Tipo.CATEGORIAS, Set.of());
+    }
+
+    /**
+     * Aplica localmente a invalidação recebida de outra instância, publicando os eventos da alteração. Os
+     * produtos alterados são relidos do banco para atualizar os índices em memória; os que não existem mais
+     * são tratados como inativos. Invalidações da própria instância são ignoradas.
+     *
+     * @param invalidacao a invalidação recebida.
+     */
+    @Override
+    public void receber(Invalidacao invalidacao) {
+        if (origem.equals(invalidacao.origem())) {
+            return;
+        }
+        if (invalidacao.tipo() == Tipo.CATEGORIAS) {
+            eventPublisher.publishEvent(new CategoriasAlteradasEvento());
+        } else if (invalidacao.total()) {
+            esvaziar();
+        } else if (invalidacao.tipo() == Tipo.ESTOQUE) {
+            eventPublisher.publishEvent(new EstoqueAlteradoEvento(invalidacao.ids()));
+        } else {
+            Set<Long> removidos = new HashSet<>(invalidacao.ids());
+            for (ProdutoDto produto : repository.findAllProdutoDtoByIdIn(invalidacao.ids())) {
+                removidos.remove(produto.id());
+                eventPublisher.publishEvent(
+                    new ProdutoAlteradoEvento(produto.id(), produto.nome(), produto.descricao(), produto.ativo()));
+            }
+            removidos.forEach(id -> eventPublisher.publishEvent(new ProdutoAlteradoEvento(id, null, null, false)));
+        }
+    }
+
+    /**
+     * Descarta o cache de produtos e reconstrói a árvore de categorias e os índices em memória, quando não se
+     * sabe quais dados foram alterados.
+     */
+    private void esvaziar() {
+        eventPublisher.publishEvent(new DadosAlteradosEvento());
+    }
+
+    private void notificar(Tipo tipo, Set<Long> ids) {
+        if (Thread.currentThread() == escuta) {
+            return;
+        }
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", String.class, properties.canal(),
+            new Invalidacao(origem, tipo, ids).formatar());
+    }
+
+    private void escutar() {
+        boolean reconexao = false;
+        while (!encerrado) {
+            try (Connection conexao = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = conexao.createStatement()) {
+                    statement.execute("LISTEN \"" + properties.canal() + "\"");
+                }
+                log.info("Escutando as invalidações no canal {}", properties.canal());
+                if (reconexao) {
+                    esvaziar();
+                }
+                reconexao = true;
+                PGConnection pgConexao = conexao.unwrap(PGConnection.class);
+                int espera = (int) properties
+                    .esperaNotificacoes()
+                    .toMillis();
+                while (!encerrado) {
+                    PGNotification[] notificacoes = pgConexao.getNotifications(espera);
+                    if (notificacoes != null) {
+                        for (PGNotification notificacao : notificacoes) {
+                            aplicar(notificacao.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!encerrado) {
+                    log.warn("Conexão de escuta das invalidações perdida; reconectando em {}",
+                        properties.esperaReconexao(), e);
+                    esperarReconexao();
+                }
+            }
+        }
+    }
+
+    private void aplicar(String conteudo) {
+        Invalidacao
+            .interpretar(conteudo)
+            .ifPresentOrElse(invalidacao -> {
+                try {
+                    receber(invalidacao);
+                } catch (RuntimeException e) {
+                    log.error("Erro ao aplicar a invalidação {}; descartando os dados em memória", conteudo, e);
+                    esvaziar();
+                }
+            }, () -> log.warn("Invalidação ignorada por estar em formato inválido: {}", conteudo));
+    }
+
+    private void esperarReconexao() {
+        try {
+            Thread.sleep(properties
+                .esperaReconexao()
+                .toMillis());
+        } catch (InterruptedException e) {
+            Thread
+                .currentThread()
+                .interrupt();
+            encerrado = true;
+        }
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import java.util.Set;
+
+/**
+ * Evento publicado quando o estoque de produtos é subtraído ou retornado, para que os filtros em memória
+ * atualizem a disponibilidade em estoque após a confirmação da transação.
+ *
+ * @param ids os ids dos produtos com o estoque alterado.
+ *
+ * @author André Garcia
+ */
+public record EstoqueAlteradoEvento(Set<Long> ids) {}
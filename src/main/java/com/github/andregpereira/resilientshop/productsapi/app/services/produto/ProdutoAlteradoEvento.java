@@ -0,0 +1,19 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+/**
+ * Evento publicado quando um produto é cadastrado, atualizado, desativado ou reativado, com os dados
+ * textuais mantidos pelo índice de busca em memória.
+ *
+ * @param id        o id do produto.
+ * @param nome      o nome do produto.
+ * @param descricao a descrição do produto.
+ * @param ativo     se o produto está ativo.
+ *
+ * @author André Garcia
+ */
+public record ProdutoAlteradoEvento(
+    Long id,
+    String nome,
+    String descricao,
+    boolean ativo
+) {}
@@ -0,0 +1,11 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
+
+import java.util.function.Supplier;
+
+public interface ProdutoCacheService {
+
+    ProdutoDetalhesDto consultar(Long id, Supplier<ProdutoDetalhesDto> carregar);
+
+}
@@ -0,0 +1,201 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriasAlteradasEvento;
+import com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao.DadosAlteradosEvento;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.CacheLru;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.CacheProdutoProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Classe de serviço de cache de {@link ProdutoEntity produtos} detalhados consultados por {@code id}.
+ * <p>
+ * Os produtos ficam em um {@link CacheLru} limitado por {@link CacheProdutoProperties#capacidade()} e por
+ * {@link CacheProdutoProperties#ttl()}. Após a confirmação de cada alteração de produto ou de estoque da
+ * manutenção de produtos, os produtos alterados são removidos do cache, antes de a requisição que os alterou
+ * ser respondida. Como os produtos detalhados incluem as suas categorias e subcategorias, qualquer alteração
+ * de categoria ou de subcategoria esvazia o cache.
+ * <p>
+ * As alterações de estoque da manutenção de produtos, das atualizações agrupadas e da importação publicam um
+ * {@link EstoqueAlteradoEvento} e removem os produtos alterados do cache da mesma forma. Além disso, o estoque
+ * de um produto em cache é retornado sem consulta apenas durante {@link CacheProdutoProperties#ttlEstoque()};
+ * depois disso, apenas o estoque é relido do banco. Esse prazo limita a defasagem de alterações que não passam
+ * por esta aplicação, como as feitas diretamente no banco, e não substitui a invalidação. Produtos inativos,
+ * cujo estoque não é consultado, são relidos por inteiro.
+ * <p>
+ * As métricas seguem os nomes de cache do Micrometer, como {@code cache.gets} e {@code cache.evictions},
+ * com a tag {@code cache=produtos}.
+ *
+ * @author André Garcia
+ * @see ProdutoCacheService
+ */
+@Service
+public class ProdutoCacheServiceImpl implements ProdutoCacheService {
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para reler o estoque dos produtos em cache.
+     */
+    private final ProdutoRepository repository;
+
+    private final CacheProdutoProperties properties;
+
+    private final Clock clock;
+
+    private final CacheLru<Long, ProdutoEmCache> cache;
+
+    @Autowired
+    public ProdutoCacheServiceImpl(
+        ProdutoRepository repository,
+        CacheProdutoProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        this(repository, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    ProdutoCacheServiceImpl(
+        ProdutoRepository repository,
+        CacheProdutoProperties properties,
+        MeterRegistry meterRegistry,
+        Clock clock
+    ) {
+        this.repository = repository;
+        this.properties = properties;
+        this.clock = clock;
+        this.cache = new CacheLru<>(properties.capacidade(), properties.ttl(), clock);
+        new Metricas(cache).bindTo(meterRegistry);
+    }
+
+    /**
+     * Retorna o produto em cache ou o carrega e o armazena.
+     *
+     * @param id       o id do produto.
+     * @param carregar a consulta do produto no banco, usada quando ele não está em cache.
+     *
+     * @return o produto detalhado.
+     */
+    @Override
+    public ProdutoDetalhesDto consultar(Long id, Supplier<ProdutoDetalhesDto> carregar) {
+        if (!properties.habilitado()) {
+            return carregar.get();
+        }
+        long geracao = cache.geracao();
+        ProdutoEmCache emCache = cache.consultar(id);
+        if (emCache != null) {
+            if (emCache.estoqueConsultadoEm
+                .plus(properties.ttlEstoque())
+                .isAfter(clock.instant())) {
+                return emCache.produto;
+            }
+            Integer estoque = repository
+                .consultarEstoques(List.of(id))
+                .get(id);
+            if (estoque != null) {
+                ProdutoDetalhesDto produto = comEstoque(emCache.produto, estoque);
+                cache.armazenar(id, new ProdutoEmCache(produto, clock.instant()), geracao);
+                return produto;
+            }
+        }
+        ProdutoDetalhesDto produto = carregar.get();
+        cache.armazenar(id, new ProdutoEmCache(produto, clock.instant()), geracao);
+        return produto;
+    }
+
+    /**
+     * Remove do cache um produto, após a confirmação da transação que o alterou.
+     *
+     * @param evento o produto alterado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterar(ProdutoAlteradoEvento evento) {
+        cache.invalidar(evento.id());
+    }
+
+    /**
+     * Remove do cache os produtos, após a confirmação da transação que alterou o seu estoque.
+     *
+     * @param evento os produtos com o estoque alterado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEstoque(EstoqueAlteradoEvento evento) {
+        evento
+            .ids()
+            .forEach(cache::invalidar);
+    }
+
+    /**
+     * Esvazia o cache após a confirmação da transação que alterou uma categoria ou uma subcategoria.
+     *
+     * @param evento a alteração.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarCategorias(CategoriasAlteradasEvento evento) {
+        cache.invalidarTodos();
+    }
+
+    /**
+     * Esvazia o cache quando não se sabe quais produtos foram alterados.
+     *
+     * @param evento a alteração.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosAlteradosEvento evento) {
+        cache.invalidarTodos();
+    }
+
+    private static ProdutoDetalhesDto comEstoque(ProdutoDetalhesDto p, int estoque) {
+        return new ProdutoDetalhesDto(p.id(), p.sku(), p.nome(), p.descricao(), p.valorUnitario(), estoque,
+            p.rating(), p.imageUrl(), p.dataCriacao(), p.dataModificacao(), p.ativo(), p.categoria(),
+            p.subcategoria());
+    }
+
+    private record ProdutoEmCache(ProdutoDetalhesDto produto, Instant estoqueConsultadoEm) {}
+
+    private static final class Metricas extends CacheMeterBinder<CacheLru<Long, ProdutoEmCache>> {
+
+        private Metricas(CacheLru<Long, ProdutoEmCache> cache) {
+            super(cache, "produtos", Tags.empty());
+        }
+
+        @Override
+        protected Long size() {
+            return (long) getCache().tamanho();
+        }
+
+        @Override
+        protected long hitCount() {
+            return getCache().acertos();
+        }
+
+        @Override
+        protected Long missCount() {
+            return getCache().falhas();
+        }
+
+        @Override
+        protected Long evictionCount() {
+            return getCache().expulsoes();
+        }
+
+        @Override
+        protected long putCount() {
+            return getCache().armazenamentos();
+        }
+
+        @Override
+        protected void bindImplementationSpecificMetrics(MeterRegistry registry) {}
+
+    }
+
+}
@@ -1,9 +1,15 @@
 package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoCursorDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoLoteDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
 
 public interface ProdutoConsultaService {
 
@@ -11,10 +17,26 @@ public interface ProdutoConsultaService {
 
     ProdutoDetalhesDto consultarPorId(Long id);
 
+    List<ProdutoLoteDto> consultarPorIds(List<Long> ids);
+
     Page<ProdutoDto> consultarPorNome(String nome, Pageable pageable);
 
     Page<ProdutoDto> consultarPorSubcategoria(Long id, Pageable pageable);
 
     Page<ProdutoDto> consultarPorCategoria(Long id, Pageable pageable);
 
+    Slice<ProdutoDto> listarSemContagem(Pageable pageable);
+
+    Slice<ProdutoDto> consultarPorNomeSemContagem(String nome, Pageable pageable);
+
+    Slice<ProdutoDto> consultarPorSubcategoriaSemContagem(Long id, Pageable pageable);
+
+    Slice<ProdutoDto> consultarPorCategoriaSemContagem(Long id, Pageable pageable);
+
+    ProdutoCursorDto listar(String cursor, Sort sort, int tamanho);
+
+    ProdutoCursorDto consultarPorSubcategoria(Long id, String cursor, Sort sort, int tamanho);
+
+    ProdutoCursorDto consultarPorCategoria(Long id, String cursor, Sort sort, int tamanho);
+
 }
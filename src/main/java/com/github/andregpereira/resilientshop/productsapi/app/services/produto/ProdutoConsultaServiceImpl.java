@@ -1,21 +1,39 @@
 package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoCursorDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoLoteDto;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.CategoriaNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.PaginacaoInvalidaException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.SubcategoriaNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.mappers.ProdutoMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.replica.LeituraPrimaria;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.CursorProduto;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Classe de serviço de consulta de {@link ProdutoEntity}.
+ * <p>
+ * As consultas são somente leitura e, com a réplica habilitada, são atendidas por ela, exceto a consulta por
+ * {@code id}, que alimenta o cache e relê o estoque e por isso lê do banco primário.
  *
  * @author André Garcia
  * @see ProdutoConsultaService
@@ -23,8 +41,15 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 public class ProdutoConsultaServiceImpl implements ProdutoConsultaService {
 
+    /**
+     * Quantidade máxima de ids por consulta {@code IN}, mantendo o número de parâmetros e de formatos de
+     * consulta distintos limitado em lotes grandes.
+     */
+    static final int TAMANHO_BLOCO_IDS = 500;
+
     /**
      * Injeção da dependência {@link ProdutoRepository} para realizar operações de
      * consulta na tabela de produtos no banco de dados.
@@ -37,9 +62,22 @@ public class ProdutoConsultaServiceImpl implements ProdutoConsultaService {
      */
     private final ProdutoMapper mapper;
 
+    /**
+     * Injeção opcional da dependência {@link ProdutoIndiceBuscaService} para realizar a busca por nome
+     * em memória, quando habilitada.
+     */
+    private final ObjectProvider<ProdutoIndiceBuscaService> indiceBusca;
+
+    /**
+     * Injeção da dependência {@link ProdutoCacheService} para responder as consultas por {@code id} da
+     * memória.
+     */
+    private final ProdutoCacheService cache;
+
     /**
      * Lista todos os {@linkplain ProdutoEntity produtos} cadastrados.
-     * Retorna uma {@linkplain Page sublista} de {@linkplain ProdutoDto produtos}.
+     * Retorna uma {@linkplain Page sublista} de {@linkplain ProdutoDto produtos},
+     * projetados direto da consulta, sem carregar as entidades.
      *
      * @param pageable o pageable padrão.
      *
@@ -50,13 +88,13 @@ public class ProdutoConsultaServiceImpl implements ProdutoConsultaService {
     @Override
     public Page<ProdutoDto> listar(Pageable pageable) {
         log.info("Retornando produtos");
-        return repository
-            .findAll(pageable)
-            .map(mapper::toProdutoDto);
+        return repository.findAllProdutoDto(pageable);
     }
 
     /**
-     * Pesquisa um {@linkplain ProdutoEntity produto} por {@code id}.
+     * Pesquisa um {@linkplain ProdutoEntity produto} por {@code id}, passando pelo {@linkplain ProdutoCacheService
+     * cache de produtos}. As leituras vão ao {@linkplain LeituraPrimaria banco primário}, para que o atraso da
+     * réplica não fique em cache.
      * Retorna um {@linkplain  ProdutoDetalhesDto produto detalhado}.
      *
      * @param id o id do produto.
@@ -68,13 +106,41 @@ public class ProdutoConsultaServiceImpl implements ProdutoConsultaService {
     @Override
     public ProdutoDetalhesDto consultarPorId(Long id) {
         log.info("Retornando produto com id {}", id);
-        return repository
+        return LeituraPrimaria.executar(() -> cache.consultar(id, () -> repository
             .findById(id)
             .map(mapper::toProdutoDetalhesDto)
             .orElseThrow(() -> {
                 log.info("Produto não encontrado com id {}", id);
                 return new ProdutoNotFoundException(id);
-            });
+            })));
+    }
+
+    /**
+     * Pesquisa vários {@linkplain ProdutoEntity produtos} por {@code id} de uma vez, com uma consulta
+     * {@code IN} a cada {@value #TAMANHO_BLOCO_IDS} ids distintos, todas na mesma transação.
+     * Retorna uma lista de {@linkplain ProdutoLoteDto resultados} na ordem dos ids informados, com um
+     * resultado por id, inclusive os repetidos, e os ids não encontrados marcados como tal.
+     *
+     * @param ids os ids dos produtos.
+     *
+     * @return o resultado de cada id, na ordem informada.
+     */
+    @Override
+    public List<ProdutoLoteDto> consultarPorIds(List<Long> ids) {
+        log.info("Retornando {} produtos por id", ids.size());
+        List<Long> distintos = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, ProdutoDto> produtos = new HashMap<>();
+        for (int i = 0; i < distintos.size(); i += TAMANHO_BLOCO_IDS) {
+            repository
+                .findAllProdutoDtoByIdIn(distintos.subList(i, Math.min(i + TAMANHO_BLOCO_IDS, distintos.size())))
+                .forEach(p -> produtos.put(p.id(), p));
+        }
+        List<ProdutoLoteDto> resultados = new ArrayList<>(ids.size());
+        ids.forEach(id -> {
+            ProdutoDto produto = produtos.get(id);
+            resultados.add(new ProdutoLoteDto(id, produto != null, produto));
+        });
+        return resultados;
     }
 
     /**
@@ -84,16 +150,18 @@ public class ProdutoConsultaServiceImpl implements ProdutoConsultaService {
      * @param nome     o nome do produto.
      * @param pageable o pageable padrão.
      *
-     * @return uma sublista de uma lista de produtos encontrados pelo {@code nome}.
+     * @return uma sublista de uma lista de produtos encontrados pelo {@code nome}, por relevância
+     * quando a busca por trigramas está habilitada, ou pelo índice em memória, quando habilitado.
      *
      * @throws ProdutoNotFoundException caso nenhum produto seja encontrado.
      */
     @Override
     public Page<ProdutoDto> consultarPorNome(String nome, Pageable pageable) {
         log.info("Retornando produtos com nome {}", nome);
-        return repository
-            .findByName(nome, pageable)
-            .map(mapper::toProdutoDto);
+        ProdutoIndiceBuscaService indice = indiceBusca.getIfAvailable();
+        return indice != null
+            ? indice.buscar(nome.strip(), pageable)
+            : repository.buscarPorNome(nome.strip(), pageable);
     }
 
     /**
@@ -111,9 +179,7 @@ public class ProdutoConsultaServiceImpl implements ProdutoConsultaService {
     @Override
     public Page<ProdutoDto> consultarPorSubcategoria(Long id, Pageable pageable) {
         log.info("Retornando produtos com subcategoria id {}", id);
-        return repository
-            .findAllBySubcategoriaId(id, pageable)
-            .map(mapper::toProdutoDto);
+        return repository.findAllProdutoDtoBySubcategoriaId(id, pageable);
     }
 
     /**
@@ -131,9 +197,157 @@ public class ProdutoConsultaServiceImpl implements ProdutoConsultaService {
     @Override
     public Page<ProdutoDto> consultarPorCategoria(Long id, Pageable pageable) {
         log.info("Retornando produtos com categoria id {}", id);
-        return repository
-            .findAllByCategoriaId(id, pageable)
-            .map(mapper::toProdutoDto);
+        return repository.findAllProdutoDtoByCategoriaId(id, pageable);
+    }
+
+    /**
+     * Lista todos os {@linkplain ProdutoEntity produtos} cadastrados sem contar o total.
+     * Retorna um {@linkplain Slice trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho de uma lista com todos os produtos cadastrados.
+     */
+    @Override
+    public Slice<ProdutoDto> listarSemContagem(Pageable pageable) {
+        log.info("Retornando produtos sem contagem");
+        return repository.findSliceProdutoDto(pageable);
+    }
+
+    /**
+     * Pesquisa {@linkplain ProdutoEntity produtos} por {@code nome} sem contar o total.
+     * Retorna um {@linkplain Slice trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param nome     o nome do produto.
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho de uma lista de produtos encontrados pelo {@code nome}.
+     */
+    @Override
+    public Slice<ProdutoDto> consultarPorNomeSemContagem(String nome, Pageable pageable) {
+        log.info("Retornando produtos com nome {} sem contagem", nome);
+        ProdutoIndiceBuscaService indice = indiceBusca.getIfAvailable();
+        return indice != null
+            ? indice.buscarSemContagem(nome.strip(), pageable)
+            : repository.buscarPorNomeSemContagem(nome.strip(), pageable);
+    }
+
+    /**
+     * Pesquisa {@linkplain ProdutoEntity produtos} pelo {@code id} da subcategoria sem contar o total.
+     * Retorna um {@linkplain Slice trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param id       o id da subcategoria.
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho de uma lista com todos os produtos encontrados pelo {@code id} da subcategoria.
+     */
+    @Override
+    public Slice<ProdutoDto> consultarPorSubcategoriaSemContagem(Long id, Pageable pageable) {
+        log.info("Retornando produtos com subcategoria id {} sem contagem", id);
+        return repository.findSliceProdutoDtoBySubcategoriaId(id, pageable);
+    }
+
+    /**
+     * Pesquisa {@linkplain ProdutoEntity produtos} pelo {@code id} da categoria sem contar o total.
+     * Retorna um {@linkplain Slice trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param id       o id da categoria.
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho de uma lista com todos os produtos encontrados pelo {@code id} da categoria.
+     */
+    @Override
+    public Slice<ProdutoDto> consultarPorCategoriaSemContagem(Long id, Pageable pageable) {
+        log.info("Retornando produtos com categoria id {} sem contagem", id);
+        return repository.findSliceProdutoDtoByCategoriaId(id, pageable);
+    }
+
+    /**
+     * Lista todos os {@linkplain ProdutoEntity produtos} cadastrados, paginados por cursor.
+     * Retorna um {@linkplain ProdutoCursorDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param cursor  o cursor da página anterior, ou {@code null} para a primeira página.
+     * @param sort    a ordenação da primeira página; as páginas seguintes usam a ordenação do cursor.
+     * @param tamanho a quantidade máxima de produtos.
+     *
+     * @return os produtos seguintes ao cursor e o cursor da próxima página.
+     *
+     * @throws PaginacaoInvalidaException caso o cursor ou a ordenação sejam inválidos.
+     */
+    @Override
+    public ProdutoCursorDto listar(String cursor, Sort sort, int tamanho) {
+        log.info("Retornando produtos por cursor");
+        return consultarPorCursor(null, null, cursor, sort, tamanho);
+    }
+
+    /**
+     * Pesquisa {@linkplain ProdutoEntity produtos} pelo {@code id} da subcategoria, paginados por cursor.
+     * Retorna um {@linkplain ProdutoCursorDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param id      o id da subcategoria.
+     * @param cursor  o cursor da página anterior, ou {@code null} para a primeira página.
+     * @param sort    a ordenação da primeira página; as páginas seguintes usam a ordenação do cursor.
+     * @param tamanho a quantidade máxima de produtos.
+     *
+     * @return os produtos seguintes ao cursor e o cursor da próxima página.
+     *
+     * @throws PaginacaoInvalidaException caso o cursor ou a ordenação sejam inválidos.
+     */
+    @Override
+    public ProdutoCursorDto consultarPorSubcategoria(Long id, String cursor, Sort sort, int tamanho) {
+        log.info("Retornando produtos com subcategoria id {} por cursor", id);
+        return consultarPorCursor(null, id, cursor, sort, tamanho);
+    }
+
+    /**
+     * Pesquisa {@linkplain ProdutoEntity produtos} pelo {@code id} da categoria, paginados por cursor.
+     * Retorna um {@linkplain ProdutoCursorDto trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param id      o id da categoria.
+     * @param cursor  o cursor da página anterior, ou {@code null} para a primeira página.
+     * @param sort    a ordenação da primeira página; as páginas seguintes usam a ordenação do cursor.
+     * @param tamanho a quantidade máxima de produtos.
+     *
+     * @return os produtos seguintes ao cursor e o cursor da próxima página.
+     *
+     * @throws PaginacaoInvalidaException caso o cursor ou a ordenação sejam inválidos.
+     */
+    @Override
+    public ProdutoCursorDto consultarPorCategoria(Long id, String cursor, Sort sort, int tamanho) {
+        log.info("Retornando produtos com categoria id {} por cursor", id);
+        return consultarPorCursor(id, null, cursor, sort, tamanho);
+    }
+
+    private ProdutoCursorDto consultarPorCursor(
+        Long categoriaId, Long subcategoriaId, String cursor, Sort sort, int tamanho
+    ) {
+        CursorProduto posicao = cursor != null && !cursor.isBlank()
+            ? CursorProduto.decodificar(cursor)
+            : CursorProduto.inicio(ordem(sort));
+        List<ProdutoDto> produtos = repository.findProdutoDtoAposCursor(categoriaId, subcategoriaId, posicao,
+            tamanho + 1);
+        if (produtos.size() <= tamanho) {
+            return new ProdutoCursorDto(produtos, produtos.size(), null);
+        }
+        List<ProdutoDto> pagina = produtos.subList(0, tamanho);
+        return new ProdutoCursorDto(
+            pagina,
+            tamanho,
+            posicao
+                .apos(pagina.getLast())
+                .codificar()
+        );
+    }
+
+    private static Sort.Order ordem(Sort sort) {
+        List<Sort.Order> ordens = sort.toList();
+        if (ordens.isEmpty()) {
+            return Sort.Order.asc("id");
+        }
+        if (ordens.size() > 1) {
+            throw new PaginacaoInvalidaException("Ops! A paginação por cursor aceita apenas uma ordenação");
+        }
+        return ordens.getFirst();
     }
 
 }
@@ -0,0 +1,13 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
+
+import java.util.Set;
+
+public interface ProdutoEstoqueAgrupadoService {
+
+    void subtrairEstoque(Set<ProdutoAtualizarEstoqueDto> dtos);
+
+    void retornarEstoque(Set<ProdutoAtualizarEstoqueDto> dtos);
+
+}
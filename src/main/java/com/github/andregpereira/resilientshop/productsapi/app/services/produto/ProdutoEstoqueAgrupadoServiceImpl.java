@@ -0,0 +1,409 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.EstoqueIndisponivelException;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.retry.RetentarEmConflitoInterceptor;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.AgrupamentoEstoqueProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.BloqueioEstoqueProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.RetentativaProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.github.andregpereira.resilientshop.productsapi.cross.utils.EstoqueUtils.agruparQuantidades;
+
+/**
+ * Classe de serviço de estoque que agrupa operações concorrentes.
+ * <p>
+ * Cada operação é enfileirada e aguarda por até {@link AgrupamentoEstoqueProperties#janela()} que outras
+ * operações cheguem. O grupo é aplicado em uma única transação: os fragmentos de estoque e as linhas dos
+ * produtos envolvidos são bloqueados em ordem de {@code id}, cada operação é validada por inteiro na ordem de
+ * chegada sobre o estoque simulado, sem que as subtrações consumam o estoque reservado, e apenas as operações válidas contribuem para a variação líquida de cada produto,
+ * aplicada com um único {@code UPDATE} por produto. Os produtos com estoque alterado são publicados em um
+ * {@link EstoqueAlteradoEvento}, como nas operações não agrupadas. Cada chamador recebe o resultado da sua
+ * própria operação, com as mesmas garantias de {@link ProdutoManutencaoService#subtrairEstoque(Set)} e
+ * {@link ProdutoManutencaoService#retornarEstoque(Set)}.
+ * <p>
+ * As linhas são bloqueadas no {@linkplain BloqueioEstoqueProperties modo configurado}. Um grupo que falha
+ * por conflito de concorrência é retentado, com a mesma espera de {@link RetentarEmConflitoInterceptor}, e
+ * um grupo que falha por qualquer outro motivo, ou esgota as tentativas, tem cada operação reaplicada
+ * isoladamente, para que a falha de uma operação não seja propagada às demais.
+ * <p>
+ * O chamador aguarda por até {@link AgrupamentoEstoqueProperties#tempoMaximoEspera()}. Se a operação ainda
+ * estiver na fila ao fim do prazo, ela é cancelada e o chamador recebe {@link EstoqueIndisponivelException};
+ * se o seu grupo já estiver sendo aplicado, o chamador aguarda o resultado, limitado pelo tempo máximo da
+ * transação. Assim, uma operação nunca é aplicada depois que o chamador recebeu a falha.
+ *
+ * @author André Garcia
+ * @see ProdutoEstoqueAgrupadoService
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "resilientshop.estoque.agrupamento", name = "habilitado", havingValue = "true")
+public class ProdutoEstoqueAgrupadoServiceImpl implements ProdutoEstoqueAgrupadoService {
+
+    private final BlockingQueue<Operacao> fila = new LinkedBlockingQueue<>();
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para realizar operações de
+     * estoque na tabela de produtos no banco de dados.
+     */
+    private final ProdutoRepository produtoRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AgrupamentoEstoqueProperties properties;
+
+    private final RetentativaProperties retentativaProperties;
+
+    private final DistributionSummary tamanhoGrupo;
+
+    private final Thread aplicador;
+
+    private volatile boolean ativo = true;
+
+    public ProdutoEstoqueAgrupadoServiceImpl(
+        ProdutoRepository produtoRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationEventPublisher eventPublisher,
+        AgrupamentoEstoqueProperties properties,
+        RetentativaProperties retentativaProperties,
+        MeterRegistry meterRegistry
+    ) {
+        this.produtoRepository = produtoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout((int) Math.max(1, properties
+            .tempoMaximoEspera()
+            .toSeconds()));
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.retentativaProperties = retentativaProperties;
+        this.tamanhoGrupo = DistributionSummary
+            .builder("produtos.estoque.agrupamento.tamanho")
+            .description("Quantidade de operações de estoque aplicadas por transação")
+            .register(meterRegistry);
+        this.aplicador = new Thread(this::executar, "estoque-agrupamento");
+        this.aplicador.setDaemon(true);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        aplicador.start();
+    }
+
+    @PreDestroy
+    void encerrar() {
+        ativo = false;
+        aplicador.interrupt();
+    }
+
+    /**
+     * Subtrai {@linkplain ProdutoEntity produtos} do estoque no próximo grupo, dado a lista de
+     * {@linkplain ProdutoAtualizarEstoqueDto produtos}. Bloqueia até o grupo ser aplicado.
+     *
+     * @param dtos a lista de produtos a terem seus estoques subtraídos.
+     *
+     * @throws ProdutoNotFoundException     caso o produto não seja encontrado ou o estoque é insuficiente.
+     * @throws EstoqueIndisponivelException caso a operação não seja aplicada no tempo máximo de espera.
+     */
+    @Override
+    public void subtrairEstoque(Set<ProdutoAtualizarEstoqueDto> dtos) {
+        aguardar(enfileirar(agruparQuantidades(dtos), -1));
+        log.info("{} produtos com itens subtraídos do estoque", dtos.size());
+    }
+
+    /**
+     * Retorna {@linkplain ProdutoEntity produtos} ao estoque no próximo grupo, dado a lista de
+     * {@linkplain ProdutoAtualizarEstoqueDto produtos}. Bloqueia até o grupo ser aplicado.
+     *
+     * @param dtos a lista de produtos a serem retornados ao estoque.
+     *
+     * @throws ProdutoNotFoundException     caso o produto não seja encontrado.
+     * @throws EstoqueIndisponivelException caso a operação não seja aplicada no tempo máximo de espera.
+     */
+    @Override
+    public void retornarEstoque(Set<ProdutoAtualizarEstoqueDto> dtos) {
+        aguardar(enfileirar(agruparQuantidades(dtos), 1));
+        log.info("{} produtos com itens retornados ao estoque", dtos.size());
+    }
+
+    /**
+     * Enfileira a operação. O aplicador pode ter sido encerrado entre a verificação e a inclusão na fila,
+     * depois de esvaziá-la pela última vez, por isso a verificação é repetida após a inclusão: a operação
+     * que ainda estiver na fila é removida e rejeitada, e a que não estiver foi concluída pelo aplicador.
+     */
+    private Operacao enfileirar(Map<Long, Integer> quantidades, int sinal) {
+        if (!ativo) {
+            throw encerrado();
+        }
+        Operacao operacao = new Operacao(quantidades, sinal);
+        fila.add(operacao);
+        if (!ativo && fila.remove(operacao)) {
+            throw encerrado();
+        }
+        return operacao;
+    }
+
+    private void aguardar(Operacao operacao) {
+        try {
+            try {
+                operacao.resultado.get(properties
+                    .tempoMaximoEspera()
+                    .toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (operacao.reivindicar()) {
+                    fila.remove(operacao);
+                    log.warn("Operação de estoque não aplicada em {}", properties.tempoMaximoEspera());
+                    throw new EstoqueIndisponivelException(
+                        "Ops! O estoque está sobrecarregado no momento. Tente novamente");
+                }
+                operacao.resultado.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread
+                .currentThread()
+                .interrupt();
+            if (operacao.reivindicar()) {
+                fila.remove(operacao);
+            }
+            throw new EstoqueIndisponivelException("Ops! A operação de estoque foi interrompida. Tente novamente");
+        }
+    }
+
+    private static EstoqueIndisponivelException encerrado() {
+        return new EstoqueIndisponivelException("Ops! O agrupamento de operações de estoque foi encerrado");
+    }
+
+    private void executar() {
+        List<Operacao> grupo = new ArrayList<>();
+        while (ativo) {
+            try {
+                grupo.add(fila.take());
+                long prazo = System.nanoTime() + properties
+                    .janela()
+                    .toNanos();
+                while (grupo.size() < properties.tamanhoMaximo()) {
+                    Operacao operacao = fila.poll(prazo - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (operacao == null) {
+                        break;
+                    }
+                    grupo.add(operacao);
+                }
+                aplicar(grupo);
+            } catch (InterruptedException e) {
+                fila.addAll(grupo);
+                Thread
+                    .currentThread()
+                    .interrupt();
+                break;
+            } finally {
+                grupo.clear();
+            }
+        }
+        EstoqueIndisponivelException encerrado = encerrado();
+        Operacao operacao;
+        while ((operacao = fila.poll()) != null) {
+            operacao.resultado.completeExceptionally(encerrado);
+        }
+    }
+
+    void aplicar(List<Operacao> grupo) {
+        List<Operacao> reivindicadas = grupo
+            .stream()
+            .filter(Operacao::reivindicar)
+            .toList();
+        if (reivindicadas.isEmpty()) {
+            return;
+        }
+        tamanhoGrupo.record(reivindicadas.size());
+        try {
+            aplicarComRetentativas(reivindicadas);
+        } catch (RuntimeException e) {
+            if (reivindicadas.size() == 1) {
+                log.error("Erro ao aplicar operação de estoque", e);
+                Operacao operacao = reivindicadas.getFirst();
+                operacao.resultado.completeExceptionally(e);
+                return;
+            }
+            log.warn("Erro ao aplicar grupo de {} operações de estoque. Aplicando as operações isoladamente",
+                reivindicadas.size(), e);
+            reivindicadas.forEach(this::aplicarIsoladamente);
+            return;
+        }
+        reivindicadas.forEach(ProdutoEstoqueAgrupadoServiceImpl::concluir);
+    }
+
+    private void aplicarComRetentativas(List<Operacao> grupo) {
+        int tentativa = 1;
+        while (true) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> aplicarNaTransacao(grupo));
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (tentativa >= retentativaProperties.maxTentativas()) {
+                    throw e;
+                }
+                long espera = RetentarEmConflitoInterceptor.calcularEspera(retentativaProperties, tentativa);
+                log.info("Conflito ao aplicar grupo de {} operações de estoque. Nova tentativa em {} ms",
+                    grupo.size(), espera);
+                try {
+                    Thread.sleep(espera);
+                } catch (InterruptedException ie) {
+                    Thread
+                        .currentThread()
+                        .interrupt();
+                    throw e;
+                }
+                tentativa++;
+            }
+        }
+    }
+
+    private void aplicarIsoladamente(Operacao operacao) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> aplicarNaTransacao(List.of(operacao)));
+        } catch (RuntimeException e) {
+            log.error("Erro ao aplicar operação de estoque isoladamente", e);
+            operacao.resultado.completeExceptionally(e);
+            return;
+        }
+        concluir(operacao);
+    }
+
+    private void aplicarNaTransacao(List<Operacao> grupo) {
+        Set<Long> ids = new TreeSet<>();
+        grupo.forEach(o -> ids.addAll(o.quantidades.keySet()));
+        produtoRepository.bloquearFragmentados(ids);
+        Map<Long, Integer> estoques = produtoRepository.bloquearEstoques(ids);
+        Map<Long, Integer> reservados = produtoRepository.consultarReservados(ids);
+        Map<Long, Integer> variacoes = new TreeMap<>();
+        List<MovimentoEstoqueEntity> movimentos = new ArrayList<>();
+        grupo.forEach(o -> {
+            o.falha = validar(o, estoques, reservados);
+            if (o.falha == null) {
+                Causa causa = o.sinal < 0
+                    ? Causa.SUBTRACAO
+                    : Causa.RETORNO;
+                o.quantidades.forEach((id, quantidade) -> {
+                    int resultante = estoques.merge(id, o.sinal * quantidade, Integer::sum);
+                    variacoes.merge(id, o.sinal * quantidade, Integer::sum);
+                    movimentos.add(new MovimentoEstoqueEntity(id, o.sinal * quantidade, resultante, causa));
+                });
+            }
+        });
+        variacoes
+            .values()
+            .removeIf(v -> v == 0);
+        if (!variacoes.isEmpty() && !produtoRepository
+            .aplicarVariacoes(variacoes)
+            .isEmpty()) {
+            throw new IllegalStateException("Variação de estoque não aplicada em um produto bloqueado");
+        }
+        produtoRepository.registrarMovimentos(movimentos);
+        if (!variacoes.isEmpty()) {
+            eventPublisher.publishEvent(new EstoqueAlteradoEvento(Set.copyOf(variacoes.keySet())));
+        }
+    }
+
+    private static void concluir(Operacao operacao) {
+        if (operacao.falha == null) {
+            operacao.resultado.complete(null);
+        } else {
+            operacao.resultado.completeExceptionally(operacao.falha);
+        }
+    }
+
+    private RuntimeException validar(Operacao operacao, Map<Long, Integer> estoques, Map<Long, Integer> reservados) {
+        for (Map.Entry<Long, Integer> e : operacao.quantidades.entrySet()) {
+            Long id = e.getKey();
+            Integer estoque = estoques.get(id);
+            if (estoque == null) {
+                log.info("Produto não encontrado com id {}", id);
+                return new ProdutoNotFoundException(id);
+            }
+            int minimo = operacao.sinal < 0
+                ? reservados.getOrDefault(id, 0)
+                : 0;
+            if (estoque + operacao.sinal * e.getValue() < minimo) {
+                return produtoRepository
+                    .findById(id)
+                    .map(p -> {
+                        log.info("Produto {} sem estoque suficiente", p.getNome());
+                        return new ProdutoNotFoundException(MessageFormat.format(
+                            "Ops! O produto {0} não possui estoque suficiente",
+                            p.getNome()
+                        ));
+                    })
+                    .orElseGet(() -> new ProdutoNotFoundException(id));
+            }
+        }
+        return null;
+    }
+
+    static final class Operacao {
+
+        private final Map<Long, Integer> quantidades;
+
+        private final int sinal;
+
+        private final CompletableFuture<Void> resultado = new CompletableFuture<>();
+
+        private final AtomicBoolean reivindicada = new AtomicBoolean();
+
+        private RuntimeException falha;
+
+        Operacao(Map<Long, Integer> quantidades, int sinal) {
+            this.quantidades = quantidades;
+            this.sinal = sinal;
+        }
+
+        CompletableFuture<Void> resultado() {
+            return resultado;
+        }
+
+        /**
+         * Reivindica a operação, pelo aplicador para aplicá-la ou pelo chamador para cancelá-la. Apenas o
+         * primeiro a reivindicar decide o destino da operação.
+         */
+        boolean reivindicar() {
+            return reivindicada.compareAndSet(false, true);
+        }
+
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
+
+public interface ProdutoEstoqueFragmentadoService {
+
+    ProdutoDetalhesDto fragmentar(Long id, int quantidadeFragmentos);
+
+    ProdutoDetalhesDto desfragmentar(Long id);
+
+    ProdutoDetalhesDto rebalancear(Long id);
+
+}
@@ -0,0 +1,146 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.ProdutoMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.retry.RetentarEmConflito;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.EstoqueFragmentoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Classe de serviço de fragmentação do estoque de {@link ProdutoEntity}.
+ * <p>
+ * Com o estoque fragmentado, o estoque do produto é dividido em {@linkplain EstoqueFragmentoEntity fragmentos}
+ * e cada subtração é aplicada em um fragmento aleatório, de modo que subtrações concorrentes do mesmo produto
+ * não disputam a mesma linha. A leitura do estoque passa a somar os fragmentos, por isso a fragmentação deve
+ * ser habilitada apenas para os produtos com muita concorrência.
+ *
+ * @author André Garcia
+ * @see ProdutoEstoqueFragmentadoService
+ */
+@RequiredArgsConstructor
+@Slf4j
+@Service
+@Transactional
+public class ProdutoEstoqueFragmentadoServiceImpl implements ProdutoEstoqueFragmentadoService {
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para realizar operações de
+     * manutenção na tabela de produtos no banco de dados.
+     */
+    private final ProdutoRepository produtoRepository;
+
+    /**
+     * Injeção da dependência {@link ProdutoMapper} para realizar
+     * conversões de DTO e entidade de produtos.
+     */
+    private final ProdutoMapper mapper;
+
+    /**
+     * Fragmenta o estoque de um {@linkplain ProdutoEntity produto} por {@code id}, distribuindo o estoque
+     * atual igualmente entre os fragmentos. Caso o estoque já esteja fragmentado, os fragmentos são
+     * redistribuídos na nova quantidade.
+     *
+     * @param id                   o id do produto.
+     * @param quantidadeFragmentos a quantidade de fragmentos.
+     *
+     * @return o produto com o estoque fragmentado.
+     *
+     * @throws ProdutoNotFoundException caso o produto não seja encontrado.
+     */
+    @Override
+    @RetentarEmConflito
+    public ProdutoDetalhesDto fragmentar(Long id, int quantidadeFragmentos) {
+        return produtoRepository
+            .findById(id)
+            .map(p -> {
+                int estoque = p.isEstoqueFragmentado()
+                    ? somar(produtoRepository.bloquearFragmentos(id))
+                    : p.getEstoque();
+                produtoRepository.distribuirFragmentos(id, quantidadeFragmentos, estoque);
+                p.setEstoque(0);
+                p.setEstoqueFragmentado(true);
+                log.info("Estoque do produto com id {} fragmentado em {}", id, quantidadeFragmentos);
+                return mapper.toProdutoDetalhesDto(produtoRepository.save(p));
+            })
+            .orElseThrow(() -> {
+                log.info("Produto não encontrado com id {}", id);
+                return new ProdutoNotFoundException(id);
+            });
+    }
+
+    /**
+     * Desfaz a fragmentação do estoque de um {@linkplain ProdutoEntity produto} por {@code id},
+     * somando os fragmentos de volta ao estoque do produto.
+     *
+     * @param id o id do produto.
+     *
+     * @return o produto com o estoque não fragmentado.
+     *
+     * @throws ProdutoNotFoundException caso o produto não seja encontrado.
+     */
+    @Override
+    @RetentarEmConflito
+    public ProdutoDetalhesDto desfragmentar(Long id) {
+        return produtoRepository
+            .findById(id)
+            .map(p -> {
+                if (p.isEstoqueFragmentado()) {
+                    int estoque = somar(produtoRepository.bloquearFragmentos(id));
+                    produtoRepository.removerFragmentos(id);
+                    p.setEstoque(estoque);
+                    p.setEstoqueFragmentado(false);
+                    log.info("Estoque do produto com id {} desfragmentado", id);
+                }
+                return mapper.toProdutoDetalhesDto(produtoRepository.save(p));
+            })
+            .orElseThrow(() -> {
+                log.info("Produto não encontrado com id {}", id);
+                return new ProdutoNotFoundException(id);
+            });
+    }
+
+    /**
+     * Redistribui igualmente o estoque entre os fragmentos de um {@linkplain ProdutoEntity produto} por
+     * {@code id}, para que as subtrações voltem a encontrar estoque suficiente em um único fragmento.
+     * A linha do produto não é alterada.
+     *
+     * @param id o id do produto.
+     *
+     * @return o produto com o estoque rebalanceado.
+     *
+     * @throws ProdutoNotFoundException caso o produto não seja encontrado.
+     */
+    @Override
+    public ProdutoDetalhesDto rebalancear(Long id) {
+        return produtoRepository
+            .findById(id)
+            .map(p -> {
+                if (p.isEstoqueFragmentado()) {
+                    List<Integer> fragmentos = produtoRepository.bloquearFragmentos(id);
+                    produtoRepository.distribuirFragmentos(id, fragmentos.size(), somar(fragmentos));
+                    log.info("Estoque do produto com id {} rebalanceado", id);
+                }
+                return mapper.toProdutoDetalhesDto(p);
+            })
+            .orElseThrow(() -> {
+                log.info("Produto não encontrado com id {}", id);
+                return new ProdutoNotFoundException(id);
+            });
+    }
+
+    private static int somar(List<Integer> fragmentos) {
+        return fragmentos
+            .stream()
+            .mapToInt(Integer::intValue)
+            .sum();
+    }
+
+}
@@ -0,0 +1,16 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.MovimentoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.VerificacaoEstoqueDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+public interface ProdutoEstoqueMovimentoService {
+
+    Page<MovimentoEstoqueDto> listarMovimentos(Long id, Pageable pageable);
+
+    VerificacaoEstoqueDto verificar(Long id);
+
+    VerificacaoEstoqueDto registrarSnapshot(Long id);
+
+}
@@ -0,0 +1,154 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.MovimentoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.VerificacaoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.MovimentoEstoqueMapper;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.MovimentoEstoqueRepository;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe de serviço do diário de movimentos de estoque de {@link ProdutoEntity}.
+ * <p>
+ * O estoque de um produto é recalculado a partir do último movimento que define o estoque por completo
+ * ({@linkplain Causa#isAbsoluta() cadastro, ajuste ou snapshot}) somado às variações registradas depois dele.
+ * Os movimentos de {@linkplain Causa#isReserva() reserva} não alteram o estoque e são ignorados.
+ * Produtos cadastrados antes do diário precisam de um {@linkplain #registrarSnapshot(Long) snapshot} para
+ * que o recálculo tenha um ponto de partida.
+ *
+ * @author André Garcia
+ * @see ProdutoEstoqueMovimentoService
+ */
+@RequiredArgsConstructor
+@Slf4j
+@Service
+@Transactional
+public class ProdutoEstoqueMovimentoServiceImpl implements ProdutoEstoqueMovimentoService {
+
+    private static final List<Causa> CAUSAS_ABSOLUTAS = Arrays
+        .stream(Causa.values())
+        .filter(Causa::isAbsoluta)
+        .toList();
+
+    private static final List<Causa> CAUSAS_RESERVA = Arrays
+        .stream(Causa.values())
+        .filter(Causa::isReserva)
+        .toList();
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para bloquear e consultar o estoque dos produtos.
+     */
+    private final ProdutoRepository produtoRepository;
+
+    /**
+     * Injeção da dependência {@link MovimentoEstoqueRepository} para consultar o diário de movimentos.
+     */
+    private final MovimentoEstoqueRepository movimentoRepository;
+
+    /**
+     * Injeção da dependência {@link MovimentoEstoqueMapper} para realizar
+     * conversões de DTO e entidade de movimentos de estoque.
+     */
+    private final MovimentoEstoqueMapper mapper;
+
+    /**
+     * Lista os movimentos de estoque de um {@linkplain ProdutoEntity produto} por {@code id}.
+     * Retorna uma {@linkplain Page sublista} de {@linkplain MovimentoEstoqueDto movimentos}.
+     *
+     * @param id       o id do produto.
+     * @param pageable o pageable padrão.
+     *
+     * @return uma sublista com os movimentos do produto.
+     *
+     * @throws ProdutoNotFoundException caso o produto não seja encontrado.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MovimentoEstoqueDto> listarMovimentos(Long id, Pageable pageable) {
+        if (!produtoRepository.existsById(id)) {
+            log.info("Produto não encontrado com id {}", id);
+            throw new ProdutoNotFoundException(id);
+        }
+        return movimentoRepository
+            .findAllByProdutoId(id, pageable)
+            .map(mapper::toMovimentoEstoqueDto);
+    }
+
+    /**
+     * Recalcula o estoque de um {@linkplain ProdutoEntity produto} por {@code id} a partir do diário e
+     * o compara com o estoque atual. O produto é bloqueado durante a verificação, para que nenhuma
+     * alteração seja aplicada entre a leitura do estoque e a leitura do diário.
+     *
+     * @param id o id do produto.
+     *
+     * @return o estoque atual, o estoque recalculado e se ambos são iguais.
+     *
+     * @throws ProdutoNotFoundException caso o produto não seja encontrado.
+     */
+    @Override
+    public VerificacaoEstoqueDto verificar(Long id) {
+        int estoqueAtual = bloquear(id);
+        int estoqueRecalculado = movimentoRepository
+            .findFirstByProdutoIdAndCausaInOrderByIdDesc(id, CAUSAS_ABSOLUTAS)
+            .map(m -> m.getEstoqueResultante() + movimentoRepository.somarVariacoesApos(id, m.getId(),
+                CAUSAS_RESERVA))
+            .orElseGet(() -> movimentoRepository.somarVariacoesApos(id, 0L, CAUSAS_RESERVA))
+            .intValue();
+        if (estoqueAtual != estoqueRecalculado) {
+            log.warn("Estoque do produto com id {} divergente do diário: atual {}, recalculado {}", id, estoqueAtual,
+                estoqueRecalculado);
+        }
+        return new VerificacaoEstoqueDto(id, estoqueAtual, estoqueRecalculado, estoqueAtual == estoqueRecalculado);
+    }
+
+    /**
+     * Registra no diário o estoque atual de um {@linkplain ProdutoEntity produto} por {@code id},
+     * como ponto de partida para os próximos recálculos.
+     *
+     * @param id o id do produto.
+     *
+     * @return o estoque atual, igual ao estoque recalculado a partir do snapshot.
+     *
+     * @throws ProdutoNotFoundException caso o produto não seja encontrado.
+     */
+    @Override
+    public VerificacaoEstoqueDto registrarSnapshot(Long id) {
+        int estoqueAtual = bloquear(id);
+        produtoRepository.registrarMovimentos(List.of(new MovimentoEstoqueEntity(id, 0, estoqueAtual,
+            Causa.SNAPSHOT)));
+        log.info("Snapshot do estoque do produto com id {} registrado com {} itens", id, estoqueAtual);
+        return new VerificacaoEstoqueDto(id, estoqueAtual, estoqueAtual, true);
+    }
+
+    /**
+     * Bloqueia os fragmentos, caso existam, e a linha do produto, na mesma ordem usada pela atualização
+     * do produto. Retorna o estoque atual.
+     */
+    private int bloquear(Long id) {
+        ProdutoEntity produto = produtoRepository
+            .findById(id)
+            .orElseThrow(() -> {
+                log.info("Produto não encontrado com id {}", id);
+                return new ProdutoNotFoundException(id);
+            });
+        if (produto.isEstoqueFragmentado()) {
+            produtoRepository.bloquearFragmentos(id);
+        }
+        Map<Long, Integer> estoques = produtoRepository.bloquearEstoques(List.of(id));
+        return estoques.getOrDefault(id, produto.getEstoqueDisponivel());
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import org.springframework.data.domain.Page;
+
+import java.util.Optional;
+
+public interface ProdutoEtagService {
+
+    Optional<String> consultarEtag(Long id);
+
+    String gerarEtag(ProdutoDetalhesDto produto);
+
+    String gerarEtagProdutos(String escopo, Page<ProdutoDto> pagina);
+
+}
@@ -0,0 +1,109 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoVersaoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaArvoreService;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.EtagUtils;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Classe de serviço de ETags das consultas de {@link ProdutoEntity produtos}, para que clientes que consultam
+ * repetidamente os mesmos produtos recebam {@code 304 Not Modified} sem que o produto seja carregado e
+ * convertido.
+ * <p>
+ * A ETag de um produto é forte e formada pelo estoque disponível, pela data de modificação e pela impressão
+ * da categoria e da subcategoria, os campos do produto detalhado que mudam. A data de modificação muda a cada
+ * alteração da linha do produto, inclusive as alterações de estoque via JDBC. Apenas o estoque fragmentado é
+ * alterado nos fragmentos, sem alterar a linha do produto, por isso o estoque disponível faz parte da ETag.
+ * Para validar a ETag informada pelo cliente, esses campos são consultados por uma projeção, e as categorias
+ * lidas da árvore em memória; o produto devolvido recebe a ETag calculada do próprio corpo, de modo que um
+ * produto desatualizado do cache nunca é validado por uma ETag mais recente.
+ * <p>
+ * As listagens usam ETags fracas, calculadas do conteúdo da página consultada. A página é sempre consultada,
+ * sem nenhuma consulta agregada adicional sobre o escopo, e o {@code 304 Not Modified} evita apenas a
+ * serialização e a transferência do corpo.
+ *
+ * @author André Garcia
+ * @see ProdutoEtagService
+ */
+@RequiredArgsConstructor
+@Service
+public class ProdutoEtagServiceImpl implements ProdutoEtagService {
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para consultar as versões dos produtos.
+     */
+    private final ProdutoRepository repository;
+
+    /**
+     * Injeção da dependência {@link CategoriaArvoreService} para consultar as categorias dos produtos em
+     * memória.
+     */
+    private final CategoriaArvoreService arvoreService;
+
+    /**
+     * @param id o id do produto.
+     *
+     * @return a ETag atual do produto, ou vazio caso não exista.
+     */
+    @Override
+    public Optional<String> consultarEtag(Long id) {
+        return repository
+            .findProdutoVersaoDtoById(id)
+            .map(this::etag);
+    }
+
+    /**
+     * @param produto o produto consultado.
+     *
+     * @return a ETag do produto.
+     */
+    @Override
+    public String gerarEtag(ProdutoDetalhesDto produto) {
+        return etag(produto.id(), produto.estoque(), produto.dataModificacao(), produto.categoria(),
+            produto.subcategoria());
+    }
+
+    /**
+     * @param escopo o escopo da listagem, como {@code produtos} ou {@code categoria-1}.
+     * @param pagina a página de produtos consultada.
+     *
+     * @return a ETag da página, formada pela posição, pelo total e pela impressão do conteúdo.
+     */
+    @Override
+    public String gerarEtagProdutos(String escopo, Page<ProdutoDto> pagina) {
+        return EtagUtils.fraca(escopo, pagina.getNumber(), pagina.getSize(), pagina.getTotalElements(),
+            Long.toHexString(EtagUtils.impressao(pagina
+                .getContent()
+                .toArray())));
+    }
+
+    private String etag(ProdutoVersaoDto versao) {
+        CategoriaDto categoria = arvoreService
+            .consultarCategoria(versao.categoriaId())
+            .orElse(null);
+        SubcategoriaDto subcategoria = arvoreService
+            .consultarSubcategoria(versao.subcategoriaId())
+            .map(s -> new SubcategoriaDto(s.id(), s.nome(), s.descricao()))
+            .orElse(null);
+        return etag(versao.id(), versao.estoque(), versao.dataModificacao(), categoria, subcategoria);
+    }
+
+    private static String etag(
+        Long id, int estoque, LocalDateTime dataModificacao, CategoriaDto categoria, SubcategoriaDto subcategoria
+    ) {
+        return EtagUtils.forte(id, estoque,
+            Long.toHexString(EtagUtils.impressao(dataModificacao, categoria, subcategoria)));
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+
+public interface ProdutoExportacaoService {
+
+    long exportar(LocalDateTime modificadoDesde, OutputStream saida) throws IOException;
+
+}
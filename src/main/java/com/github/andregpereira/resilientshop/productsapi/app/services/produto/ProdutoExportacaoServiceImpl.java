@@ -0,0 +1,120 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Classe de serviço de exportação do catálogo de {@link ProdutoEntity produtos} em JSON delimitado por linhas
+ * (NDJSON), para sistemas que precisam de todos os produtos, como indexadores e geradores de feeds.
+ * <p>
+ * Os produtos são lidos em ordem de {@code id} por um cursor do banco, que busca as linhas em blocos, e
+ * escritos direto na saída à medida que são lidos, de modo que a memória usada não depende do tamanho do
+ * catálogo. Como os produtos são projetados em {@link ProdutoDto}, sem carregar as entidades, nada se acumula
+ * no contexto de persistência durante a exportação. A saída é descarregada a cada
+ * {@value #LINHAS_POR_DESCARGA} produtos.
+ *
+ * @author André Garcia
+ * @see ProdutoExportacaoService
+ */
+@Slf4j
+@Service
+public class ProdutoExportacaoServiceImpl implements ProdutoExportacaoService {
+
+    static final int LINHAS_POR_DESCARGA = 1000;
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para percorrer os produtos.
+     */
+    private final ProdutoRepository repository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ObjectWriter writer;
+
+    public ProdutoExportacaoServiceImpl(
+        ProdutoRepository repository,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.writer = objectMapper
+            .writerFor(ProdutoDto.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Escreve um produto por linha na saída, sem fechá-la.
+     *
+     * @param modificadoDesde a data de modificação mínima, inclusiva, para exportações incrementais, ou
+     *                        {@code null} para exportar todos os produtos. Apenas as alterações feitas pela
+     *                        manutenção de produtos alteram a data de modificação; as operações de estoque não.
+     * @param saida           a saída.
+     *
+     * @return a quantidade de produtos exportados.
+     *
+     * @throws IOException caso ocorra um erro na escrita, como o cliente ter encerrado a conexão.
+     */
+    @Override
+    public long exportar(LocalDateTime modificadoDesde, OutputStream saida) throws IOException {
+        long inicio = System.nanoTime();
+        try (JsonGenerator gerador = objectMapper
+            .getFactory()
+            .createGenerator(saida)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setRootValueSeparator(null)) {
+            Long exportados = transactionTemplate.execute(status -> {
+                try (Stream<ProdutoDto> produtos = modificadoDesde == null
+                    ? repository.streamProdutoDto()
+                    : repository.streamProdutoDtoModificadosDesde(modificadoDesde)) {
+                    return escrever(produtos.iterator(), gerador);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            gerador.flush();
+            log.info("Exportação de produtos concluída: {} produtos em {} ms", exportados,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio));
+            return exportados == null ? 0 : exportados;
+        } catch (UncheckedIOException e) {
+            log.info("Exportação de produtos interrompida: {}", e
+                .getCause()
+                .getMessage());
+            throw e.getCause();
+        }
+    }
+
+    private long escrever(Iterator<ProdutoDto> produtos, JsonGenerator gerador) throws IOException {
+        long exportados = 0;
+        while (produtos.hasNext()) {
+            writer.writeValue(gerador, produtos.next());
+            gerador.writeRaw('\n');
+            if (++exportados % LINHAS_POR_DESCARGA == 0) {
+                gerador.flush();
+            }
+        }
+        return exportados;
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.FiltroProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFiltradoDto;
+import org.springframework.data.domain.Pageable;
+
+public interface ProdutoFacetasService {
+
+    ProdutoFiltradoDto filtrar(FiltroProdutoDto filtro, Pageable pageable);
+
+}
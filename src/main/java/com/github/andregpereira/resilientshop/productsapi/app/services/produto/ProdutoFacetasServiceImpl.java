@@ -0,0 +1,249 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.FiltroProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFacetaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFiltradoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao.DadosAlteradosEvento;
+import com.github.andregpereira.resilientshop.productsapi.cross.replica.LeituraPrimaria;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.IndiceFacetas;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.FacetasProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Classe de serviço de filtros combinados de {@link ProdutoEntity produtos} por categoria, subcategoria,
+ * faixa de preço, rating mínimo, disponibilidade em estoque e situação, com a contagem de produtos por valor
+ * de cada atributo.
+ * <p>
+ * Os filtros e as contagens são respondidos de um {@link IndiceFacetas} em memória, sem agrupamentos no
+ * banco de dados; apenas os produtos da página são buscados no banco. O índice é carregado quando a
+ * aplicação fica pronta e, até lá, os filtros não encontram produtos.
+ * <p>
+ * Após a confirmação de cada alteração de produto ou de estoque que publica um {@link EstoqueAlteradoEvento},
+ * como a manutenção de produtos, a confirmação de reservas e a importação, os atributos dos produtos
+ * alterados são relidos do banco. Alterações de estoque feitas por outros caminhos, como os fragmentos, são
+ * incorporadas pela reconstrução completa do índice a cada {@link FacetasProperties#intervaloReconstrucao()},
+ * que também é antecipada por um {@link DadosAlteradosEvento}.
+ *
+ * @author André Garcia
+ * @see ProdutoFacetasService
+ */
+@Slf4j
+@Service
+public class ProdutoFacetasServiceImpl implements ProdutoFacetasService {
+
+    private final Set<Long> alteradosDuranteReconstrucao = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para percorrer os produtos na carga do índice e
+     * buscar os produtos de cada página no banco de dados.
+     */
+    private final ProdutoRepository repository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final FacetasProperties properties;
+
+    private final Timer consultas;
+
+    private final ScheduledExecutorService executor;
+
+    private volatile IndiceFacetas indice;
+
+    private volatile boolean reconstruindo;
+
+    public ProdutoFacetasServiceImpl(
+        ProdutoRepository repository,
+        PlatformTransactionManager transactionManager,
+        FacetasProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.properties = properties;
+        this.indice = new IndiceFacetas(properties.faixasPreco());
+        this.consultas = Timer
+            .builder("produtos.facetas.consulta")
+            .description("Tempo de resposta dos filtros com facetas, sem a busca dos produtos da página")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge
+            .builder("produtos.facetas.produtos", this, s -> s.indice.tamanho())
+            .description("Quantidade de produtos no índice de facetas em memória")
+            .register(meterRegistry);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "facetas-reconstrucao");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Filtra os produtos pelos atributos informados e conta os produtos por categoria, subcategoria, faixa
+     * de preço, rating e disponibilidade em estoque. As contagens de cada atributo ignoram o filtro do próprio
+     * atributo. Retorna uma {@linkplain ProdutoFiltradoDto sublista} de {@linkplain ProdutoDto produtos} em
+     * ordem de {@code id} com as facetas.
+     *
+     * @param filtro   os filtros; atributos {@code null} não são filtrados.
+     * @param pageable o pageable padrão; a ordenação é ignorada.
+     *
+     * @return uma sublista dos produtos encontrados e as facetas.
+     */
+    @Override
+    public ProdutoFiltradoDto filtrar(FiltroProdutoDto filtro, Pageable pageable) {
+        long inicio = System.nanoTime();
+        IndiceFacetas.Resultado resultado = indice.filtrar(filtro, pageable.getOffset(), pageable.getPageSize());
+        consultas.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        return new ProdutoFiltradoDto(new PageImpl<>(hidratar(resultado.ids()), pageable, resultado.total()),
+            resultado.facetas());
+    }
+
+    /**
+     * Carrega o índice quando a aplicação fica pronta e agenda as reconstruções periódicas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconstruir();
+        long intervalo = properties
+            .intervaloReconstrucao()
+            .toMillis();
+        executor.scheduleWithFixedDelay(this::reconstruirAgendado, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Relê os atributos de um produto após a confirmação da transação que o alterou.
+     *
+     * @param evento o produto alterado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterar(ProdutoAlteradoEvento evento) {
+        recarregar(Set.of(evento.id()));
+    }
+
+    /**
+     * Relê os atributos dos produtos após a confirmação da transação que alterou o seu estoque.
+     *
+     * @param evento os produtos com o estoque alterado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarEstoque(EstoqueAlteradoEvento evento) {
+        recarregar(evento.ids());
+    }
+
+    /**
+     * Reconstrói o índice em segundo plano quando não se sabe quais produtos foram alterados.
+     *
+     * @param evento a alteração.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosAlteradosEvento evento) {
+        executor.execute(this::reconstruirAgendado);
+    }
+
+    private void reconstruirAgendado() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            log.error("Erro ao reconstruir o índice de facetas de produtos", e);
+        }
+    }
+
+    /**
+     * Constrói um novo índice a partir do banco e o publica. Alterações confirmadas durante a construção são
+     * aplicadas ao índice anterior, que continua atendendo os filtros, e relidas para o novo índice após a
+     * publicação.
+     */
+    void reconstruir() {
+        long inicio = System.nanoTime();
+        IndiceFacetas novo = new IndiceFacetas(properties.faixasPreco());
+        reconstruindo = true;
+        try {
+            LeituraPrimaria.executar(() -> transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<ProdutoFacetaDto> produtos = repository.streamFacetas()) {
+                    produtos.forEach(novo::atualizar);
+                }
+            }));
+            indice = novo;
+        } finally {
+            reconstruindo = false;
+        }
+        Set<Long> alterados = new HashSet<>(alteradosDuranteReconstrucao);
+        alteradosDuranteReconstrucao.removeAll(alterados);
+        if (!alterados.isEmpty()) {
+            recarregar(alterados);
+        }
+        log.info("Índice de facetas construído com {} produtos em {} ms", novo.tamanho(),
+            (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private void recarregar(Collection<Long> ids) {
+        if (reconstruindo) {
+            alteradosDuranteReconstrucao.addAll(ids);
+        }
+        try {
+            List<ProdutoFacetaDto> produtos = LeituraPrimaria.executar(() -> transactionTemplate.execute(
+                status -> repository.findAllProdutoFacetaDtoByIdIn(ids)));
+            IndiceFacetas atual = indice;
+            Set<Long> removidos = new HashSet<>(ids);
+            produtos.forEach(p -> {
+                atual.atualizar(p);
+                removidos.remove(p.id());
+            });
+            removidos.forEach(atual::remover);
+        } catch (RuntimeException e) {
+            log.error("Erro ao atualizar o índice de facetas dos produtos {}", ids, e);
+        }
+    }
+
+    private List<ProdutoDto> hidratar(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProdutoDto> produtos = new HashMap<>();
+        repository
+            .findAllProdutoDtoByIdIn(ids)
+            .forEach(p -> produtos.put(p.id(), p));
+        List<ProdutoDto> pagina = new ArrayList<>(ids.size());
+        ids.forEach(id -> {
+            ProdutoDto produto = produtos.get(id);
+            if (produto != null) {
+                pagina.add(produto);
+            }
+        });
+        return pagina;
+    }
+
+}
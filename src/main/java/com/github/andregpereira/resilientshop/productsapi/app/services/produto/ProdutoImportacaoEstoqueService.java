@@ -0,0 +1,26 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ImportacaoEstoqueDto;
+
+import java.io.IOException;
+import java.io.Reader;
+
+public interface ProdutoImportacaoEstoqueService {
+
+    ImportacaoEstoqueDto importar(Reader leitor, Formato formato) throws IOException;
+
+    enum Formato {
+
+        /**
+         * Uma linha {@code sku,estoque} por produto, com cabeçalho opcional.
+         */
+        CSV,
+
+        /**
+         * Um objeto JSON {@code {"sku": ..., "estoque": ...}} por linha.
+         */
+        NDJSON
+
+    }
+
+}
@@ -0,0 +1,238 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.DefinicaoEstoquesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ImportacaoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.ImportacaoEstoqueProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classe de serviço de importação de estoque em massa, a partir de uma contagem completa de inventário.
+ * <p>
+ * O arquivo é lido linha a linha, sem ser carregado por inteiro em memória. As linhas são acumuladas em
+ * lotes de {@link ImportacaoEstoqueProperties#tamanhoLote()} e cada lote é aplicado em uma transação própria
+ * com {@link ProdutoRepository#definirEstoquesPorSku(Map)}. Cada lote publica um {@link EstoqueAlteradoEvento}
+ * com os produtos que alterou, e os caches e filtros em memória são atualizados após a confirmação do lote.
+ * Um erro interrompe a importação e mantém os lotes já aplicados; como cada linha define o estoque por
+ * completo, a importação pode ser repetida. Linhas repetidas de um mesmo sku prevalecem na ordem do arquivo. O progresso e a duração de cada lote são
+ * registrados no log e na métrica {@code produtos.estoque.importacao.lote}.
+ *
+ * @author André Garcia
+ * @see ProdutoImportacaoEstoqueService
+ */
+@Slf4j
+@Service
+public class ProdutoImportacaoEstoqueServiceImpl implements ProdutoImportacaoEstoqueService {
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para aplicar os lotes na tabela de produtos.
+     */
+    private final ProdutoRepository produtoRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ImportacaoEstoqueProperties properties;
+
+    private final ObjectMapper objectMapper;
+
+    private final Timer duracaoLote;
+
+    private final Counter linhasImportadas;
+
+    public ProdutoImportacaoEstoqueServiceImpl(
+        ProdutoRepository produtoRepository,
+        PlatformTransactionManager transactionManager,
+        ApplicationEventPublisher eventPublisher,
+        ImportacaoEstoqueProperties properties,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry
+    ) {
+        this.produtoRepository = produtoRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.duracaoLote = Timer
+            .builder("produtos.estoque.importacao.lote")
+            .description("Tempo de aplicação de cada lote da importação de estoque")
+            .register(meterRegistry);
+        this.linhasImportadas = Counter
+            .builder("produtos.estoque.importacao.linhas")
+            .description("Quantidade de linhas aplicadas pela importação de estoque")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Importa o estoque dos produtos por {@code sku}, dado um arquivo no {@linkplain Formato formato} informado.
+     * Linhas em branco são ignoradas e linhas inválidas são contadas e ignoradas.
+     *
+     * @param leitor  o conteúdo do arquivo.
+     * @param formato o formato do arquivo.
+     *
+     * @return o resumo da importação.
+     *
+     * @throws IOException caso ocorra um erro na leitura do arquivo.
+     */
+    @Override
+    public ImportacaoEstoqueDto importar(Reader leitor, Formato formato) throws IOException {
+        long inicio = System.nanoTime();
+        BufferedReader linhas = leitor instanceof BufferedReader bufferedReader
+            ? bufferedReader
+            : new BufferedReader(leitor);
+        Importacao importacao = new Importacao();
+        Map<Long, Integer> lote = new HashMap<>();
+        String linha;
+        long numero = 0;
+        while ((linha = linhas.readLine()) != null) {
+            numero++;
+            if (linha.isBlank() || (numero == 1 && formato == Formato.CSV && isCabecalho(linha))) {
+                continue;
+            }
+            long[] valores = formato == Formato.CSV
+                ? lerCsv(linha)
+                : lerNdjson(linha);
+            if (valores == null) {
+                importacao.linhasInvalidas++;
+                if (importacao.linhasInvalidas <= 10) {
+                    log.info("Linha {} da importação de estoque inválida", numero);
+                }
+                continue;
+            }
+            lote.put(valores[0], (int) valores[1]);
+            importacao.linhasProcessadas++;
+            if (lote.size() >= properties.tamanhoLote()) {
+                aplicar(lote, importacao);
+                lote = new HashMap<>();
+            }
+        }
+        if (!lote.isEmpty()) {
+            aplicar(lote, importacao);
+        }
+        long duracao = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+        log.info("Importação de estoque concluída: {} linhas, {} inválidas, {} skus não encontrados em {} lotes e {} ms",
+            importacao.linhasProcessadas, importacao.linhasInvalidas, importacao.skusNaoEncontrados,
+            importacao.duracaoLotes.size(), duracao);
+        return new ImportacaoEstoqueDto(
+            importacao.linhasProcessadas,
+            importacao.linhasInvalidas,
+            importacao.skusNaoEncontrados,
+            importacao.amostraNaoEncontrados,
+            importacao.duracaoLotes.size(),
+            importacao.duracaoLotes,
+            duracao
+        );
+    }
+
+    private void aplicar(Map<Long, Integer> lote, Importacao importacao) {
+        long inicio = System.nanoTime();
+        DefinicaoEstoquesDto definicao = transactionTemplate.execute(status -> {
+            DefinicaoEstoquesDto resultado = produtoRepository.definirEstoquesPorSku(lote);
+            if (!resultado
+                .idsAlterados()
+                .isEmpty()) {
+                eventPublisher.publishEvent(new EstoqueAlteradoEvento(Set.copyOf(resultado.idsAlterados())));
+            }
+            return resultado;
+        });
+        long duracao = System.nanoTime() - inicio;
+        duracaoLote.record(duracao, TimeUnit.NANOSECONDS);
+        linhasImportadas.increment(lote.size());
+        importacao.duracaoLotes.add(TimeUnit.NANOSECONDS.toMillis(duracao));
+        if (definicao != null) {
+            Set<Long> naoEncontrados = definicao.skusNaoEncontrados();
+            importacao.skusNaoEncontrados += naoEncontrados.size();
+            naoEncontrados
+                .stream()
+                .limit(Math.max(0, properties.amostraNaoEncontrados() - importacao.amostraNaoEncontrados.size()))
+                .forEach(importacao.amostraNaoEncontrados::add);
+        }
+        log.info("Lote {} da importação de estoque aplicado: {} skus em {} ms, {} linhas processadas",
+            importacao.duracaoLotes.size(), lote.size(), TimeUnit.NANOSECONDS.toMillis(duracao),
+            importacao.linhasProcessadas);
+    }
+
+    private static boolean isCabecalho(String linha) {
+        return !Character.isDigit(linha
+            .strip()
+            .charAt(0));
+    }
+
+    private static long[] lerCsv(String linha) {
+        int separador = linha.indexOf(',');
+        if (separador < 0) {
+            separador = linha.indexOf(';');
+        }
+        if (separador < 0) {
+            return null;
+        }
+        try {
+            return validar(
+                Long.parseLong(linha
+                    .substring(0, separador)
+                    .strip()),
+                Long.parseLong(linha
+                    .substring(separador + 1)
+                    .strip())
+            );
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private long[] lerNdjson(String linha) {
+        try {
+            JsonNode no = objectMapper.readTree(linha);
+            JsonNode sku = no.get("sku");
+            JsonNode estoque = no.get("estoque");
+            if (sku == null || estoque == null || !sku.isIntegralNumber() || !estoque.isIntegralNumber()) {
+                return null;
+            }
+            return validar(sku.asLong(), estoque.asLong());
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private static long[] validar(long sku, long estoque) {
+        return estoque < 0 || estoque > Integer.MAX_VALUE
+            ? null
+            : new long[]{sku, estoque};
+    }
+
+    private static final class Importacao {
+
+        private final List<Long> duracaoLotes = new ArrayList<>();
+
+        private final List<Long> amostraNaoEncontrados = new ArrayList<>();
+
+        private long linhasProcessadas;
+
+        private long linhasInvalidas;
+
+        private long skusNaoEncontrados;
+
+    }
+
+}
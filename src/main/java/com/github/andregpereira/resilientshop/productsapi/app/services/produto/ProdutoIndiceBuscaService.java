@@ -0,0 +1,14 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+public interface ProdutoIndiceBuscaService {
+
+    Page<ProdutoDto> buscar(String nome, Pageable pageable);
+
+    Slice<ProdutoDto> buscarSemContagem(String nome, Pageable pageable);
+
+}
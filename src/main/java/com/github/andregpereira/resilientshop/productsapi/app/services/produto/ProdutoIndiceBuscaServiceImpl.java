@@ -0,0 +1,220 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoTextoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao.DadosAlteradosEvento;
+import com.github.andregpereira.resilientshop.productsapi.cross.replica.LeituraPrimaria;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.IndiceInvertido;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Classe de serviço de busca de {@link ProdutoEntity} por nome em um {@link IndiceInvertido} em memória
+ * sobre o nome e a descrição dos produtos ativos.
+ * <p>
+ * O índice é carregado quando a aplicação fica pronta, percorrendo os produtos em blocos, e depois mantido
+ * pelos {@linkplain ProdutoAlteradoEvento eventos} publicados após cada cadastro, atualização, desativação
+ * ou reativação confirmados. Eventos recebidos durante a carga são aplicados ao final dela, para que a
+ * leitura da carga não sobrescreva uma alteração mais recente. Até a carga terminar, as buscas são feitas
+ * no banco de dados. Um {@link DadosAlteradosEvento} recarrega o índice da mesma forma, em um novo índice que
+ * substitui o anterior ao final da carga.
+ * <p>
+ * A busca e a paginação são resolvidas no índice, em ordem de {@code id}; o banco de dados é consultado
+ * apenas para buscar os produtos da página.
+ *
+ * @author André Garcia
+ * @see ProdutoIndiceBuscaService
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "resilientshop.busca", name = "modo", havingValue = "MEMORIA")
+public class ProdutoIndiceBuscaServiceImpl implements ProdutoIndiceBuscaService {
+
+    private final List<ProdutoAlteradoEvento> pendentes = new ArrayList<>();
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para percorrer os produtos na carga do índice e
+     * buscar os produtos de cada página no banco de dados.
+     */
+    private final ProdutoRepository repository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile IndiceInvertido indice = new IndiceInvertido();
+
+    private volatile boolean carregado;
+
+    public ProdutoIndiceBuscaServiceImpl(
+        ProdutoRepository repository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        Gauge
+            .builder("produtos.busca.indice.documentos", this, s -> s.indice.tamanho())
+            .description("Quantidade de produtos no índice de busca em memória")
+            .register(meterRegistry);
+        Gauge
+            .builder("produtos.busca.indice.termos", this, s -> s.indice.termos())
+            .description("Quantidade de termos distintos no índice de busca em memória")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Carrega o índice com o nome e a descrição de todos os produtos ativos.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        long inicio = System.nanoTime();
+        IndiceInvertido novo = new IndiceInvertido();
+        LeituraPrimaria.executar(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ProdutoTextoDto> textos = repository.streamTextosAtivos()) {
+                textos.forEach(t -> novo.indexar(t.id(), texto(t.nome(), t.descricao())));
+            }
+        }));
+        synchronized (pendentes) {
+            indice = novo;
+            pendentes.forEach(this::aplicar);
+            pendentes.clear();
+            carregado = true;
+        }
+        log.info("Índice de busca carregado com {} produtos e {} termos em {} ms", novo.tamanho(),
+            novo.termos(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Recarrega o índice quando não se sabe quais produtos foram alterados. Durante a carga, as buscas são
+     * feitas no banco de dados e as alterações confirmadas são aplicadas ao final dela.
+     *
+     * @param evento a alteração.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosAlteradosEvento evento) {
+        synchronized (pendentes) {
+            carregado = false;
+        }
+        try {
+            carregar();
+        } catch (RuntimeException e) {
+            log.error("Erro ao recarregar o índice de busca; as buscas seguem no banco de dados", e);
+            synchronized (pendentes) {
+                pendentes.clear();
+            }
+        }
+    }
+
+    /**
+     * Aplica ao índice a alteração de um produto, após a confirmação da transação que o alterou.
+     * Produtos inativos são removidos do índice.
+     *
+     * @param evento o produto alterado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterar(ProdutoAlteradoEvento evento) {
+        synchronized (pendentes) {
+            if (!carregado) {
+                pendentes.add(evento);
+                return;
+            }
+        }
+        aplicar(evento);
+    }
+
+    /**
+     * Pesquisa {@linkplain ProdutoEntity produtos} ativos cujo nome ou descrição contenham todos os termos
+     * de {@code nome}, sem distinção de acentos e maiúsculas, com o último termo casando como prefixo.
+     * Retorna uma {@linkplain Page sublista} de {@linkplain ProdutoDto produtos} em ordem de {@code id}.
+     *
+     * @param nome     os termos da busca.
+     * @param pageable o pageable padrão; a ordenação é ignorada.
+     *
+     * @return uma sublista de uma lista de produtos encontrados pelos termos.
+     */
+    @Override
+    public Page<ProdutoDto> buscar(String nome, Pageable pageable) {
+        if (!carregado) {
+            return repository.buscarPorNome(nome, pageable);
+        }
+        IndiceInvertido.Resultado resultado = indice.buscar(nome, pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(hidratar(resultado.ids()), pageable, resultado.total());
+    }
+
+    /**
+     * Pesquisa {@linkplain ProdutoEntity produtos} como em {@link #buscar(String, Pageable)}, sem retornar
+     * o total. Retorna um {@linkplain Slice trecho} de {@linkplain ProdutoDto produtos}.
+     *
+     * @param nome     os termos da busca.
+     * @param pageable o pageable padrão; a ordenação é ignorada.
+     *
+     * @return um trecho de uma lista de produtos encontrados pelos termos.
+     */
+    @Override
+    public Slice<ProdutoDto> buscarSemContagem(String nome, Pageable pageable) {
+        if (!carregado) {
+            return repository.buscarPorNomeSemContagem(nome, pageable);
+        }
+        List<Long> ids = indice
+            .buscar(nome, pageable.getOffset(), pageable.getPageSize() + 1)
+            .ids();
+        boolean possuiProxima = ids.size() > pageable.getPageSize();
+        return new SliceImpl<>(hidratar(possuiProxima
+            ? ids.subList(0, pageable.getPageSize())
+            : ids), pageable, possuiProxima);
+    }
+
+    private void aplicar(ProdutoAlteradoEvento evento) {
+        if (evento.ativo()) {
+            indice.indexar(evento.id(), texto(evento.nome(), evento.descricao()));
+        } else {
+            indice.remover(evento.id());
+        }
+    }
+
+    private List<ProdutoDto> hidratar(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ProdutoDto> produtos = new HashMap<>();
+        repository
+            .findAllProdutoDtoByIdIn(ids)
+            .forEach(p -> produtos.put(p.id(), p));
+        List<ProdutoDto> pagina = new ArrayList<>(ids.size());
+        ids.forEach(id -> {
+            ProdutoDto produto = produtos.get(id);
+            if (produto != null) {
+                pagina.add(produto);
+            }
+        });
+        return pagina;
+    }
+
+    private static String texto(String nome, String descricao) {
+        return descricao == null
+            ? nome
+            : nome + ' ' + descricao;
+    }
+
+}
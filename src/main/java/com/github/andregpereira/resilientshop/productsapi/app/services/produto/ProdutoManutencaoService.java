@@ -4,7 +4,10 @@ import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.Produt
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoRegistroDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ResultadoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
 
+import java.util.List;
 import java.util.Set;
 
 public interface ProdutoManutencaoService {
@@ -19,6 +22,12 @@ public interface ProdutoManutencaoService {
 
     void subtrairEstoque(Set<ProdutoAtualizarEstoqueDto> dtos);
 
+    void subtrairEstoque(Set<ProdutoAtualizarEstoqueDto> dtos, Causa causa);
+
     void retornarEstoque(Set<ProdutoAtualizarEstoqueDto> dtos);
 
+    List<ResultadoEstoqueDto> subtrairEstoqueParcial(Set<ProdutoAtualizarEstoqueDto> dtos);
+
+    List<ResultadoEstoqueDto> retornarEstoqueParcial(Set<ProdutoAtualizarEstoqueDto> dtos);
+
 }
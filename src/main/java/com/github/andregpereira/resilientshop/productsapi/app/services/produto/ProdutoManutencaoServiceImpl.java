@@ -4,22 +4,41 @@ import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.Produt
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoRegistroDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ResultadoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ResultadoEstoqueDto.SituacaoEstoque;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaArvoreService;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.CategoriaNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoAlreadyExistsException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.SubcategoriaNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.CategoriaMapper;
 import com.github.andregpereira.resilientshop.productsapi.cross.mappers.ProdutoMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.SubcategoriaMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.retry.RetentarEmConflito;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.CategoriaRepository;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.SubcategoriaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+import static com.github.andregpereira.resilientshop.productsapi.cross.utils.EstoqueUtils.agruparQuantidades;
 
 /**
  * Classe de serviço de manutenção de {@link ProdutoEntity}.
@@ -57,6 +76,29 @@ public class ProdutoManutencaoServiceImpl implements ProdutoManutencaoService {
      */
     private final SubcategoriaRepository subcategoriaRepository;
 
+    /**
+     * Injeção da dependência {@link CategoriaArvoreService} para consultar as categorias e subcategorias dos
+     * produtos em memória, sem acesso ao banco de dados.
+     */
+    private final CategoriaArvoreService arvoreService;
+
+    /**
+     * Injeção da dependência {@link CategoriaMapper} para converter as categorias em memória em entidades.
+     */
+    private final CategoriaMapper categoriaMapper;
+
+    /**
+     * Injeção da dependência {@link SubcategoriaMapper} para converter as subcategorias em memória em
+     * entidades.
+     */
+    private final SubcategoriaMapper subcategoriaMapper;
+
+    /**
+     * Injeção da dependência {@link ApplicationEventPublisher} para publicar as alterações de
+     * produtos e de estoque, aplicadas aos índices em memória após a confirmação da transação.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Cadastra um {@linkplain ProdutoRegistroDto produto}.
      * Retorna um {@linkplain ProdutoDetalhesDto produto detalhado}.
@@ -77,17 +119,22 @@ public class ProdutoManutencaoServiceImpl implements ProdutoManutencaoService {
             log.info("Produto já cadastrado com o nome {}", dto.nome());
             throw new ProdutoAlreadyExistsException(dto.nome());
         }
-        return categoriaRepository
-            .findById(dto.categoriaId())
+        return buscarCategoria(dto.categoriaId())
             .map(c -> {
                 ProdutoEntity produto = mapper.toProduto(dto);
                 produto.setCategoria(c);
                 if (dto.subcategoriaId() != null) {
-                    subcategoriaRepository
-                        .findById(dto.subcategoriaId())
-                        .ifPresent(produto::setSubcategoria);
+                    buscarSubcategoria(dto.subcategoriaId()).ifPresent(produto::setSubcategoria);
                 }
-                return mapper.toProdutoDetalhesDto(produtoRepository.save(produto));
+                ProdutoEntity salvo = produtoRepository.save(produto);
+                produtoRepository.registrarMovimentos(List.of(new MovimentoEstoqueEntity(
+                    salvo.getId(),
+                    salvo.getEstoque(),
+                    salvo.getEstoque(),
+                    Causa.INICIAL
+                )));
+                publicarAlteracao(salvo);
+                return mapper.toProdutoDetalhesDto(salvo);
             })
             .orElseThrow(() -> {
                 log.info("Categoria não encontrada com id {}", dto.categoriaId());
@@ -109,6 +156,7 @@ public class ProdutoManutencaoServiceImpl implements ProdutoManutencaoService {
      * @throws SubcategoriaNotFoundException caso nenhuma subcategoria seja encontrada.
      */
     @Override
+    @RetentarEmConflito
     public ProdutoDetalhesDto atualizar(Long id, ProdutoAtualizacaoDto dto) {
         return produtoRepository
             .findById(id)
@@ -117,22 +165,40 @@ public class ProdutoManutencaoServiceImpl implements ProdutoManutencaoService {
                     log.info("Produto já cadastrado com o nome {}", dto.nome());
                     throw new ProdutoAlreadyExistsException(dto.nome());
                 }
-                return categoriaRepository
-                    .findById(dto.categoriaId())
+                return buscarCategoria(dto.categoriaId())
                     .map(c -> {
                         p.setNome(dto.nome());
                         p.setDescricao(dto.descricao());
                         p.setValorUnitario(dto.valorUnitario());
-                        p.setEstoque(dto.estoque());
+                        int estoqueAnterior;
+                        if (p.isEstoqueFragmentado()) {
+                            List<Integer> fragmentos = produtoRepository.bloquearFragmentos(id);
+                            estoqueAnterior = fragmentos
+                                .stream()
+                                .mapToInt(Integer::intValue)
+                                .sum();
+                            produtoRepository.distribuirFragmentos(id, fragmentos.size(), dto.estoque());
+                        } else {
+                            estoqueAnterior = p.getEstoque();
+                            p.setEstoque(dto.estoque());
+                        }
+                        if (estoqueAnterior != dto.estoque()) {
+                            produtoRepository.registrarMovimentos(List.of(new MovimentoEstoqueEntity(
+                                id,
+                                dto.estoque() - estoqueAnterior,
+                                dto.estoque(),
+                                Causa.AJUSTE
+                            )));
+                        }
                         p.setImageUrl(dto.imageUrl());
                         p.setAtivo(dto.ativo());
                         p.setCategoria(c);
                         if (dto.subcategoriaId() != null) {
-                            subcategoriaRepository
-                                .findById(dto.subcategoriaId())
-                                .ifPresent(p::setSubcategoria);
+                            buscarSubcategoria(dto.subcategoriaId()).ifPresent(p::setSubcategoria);
                         }
-                        return mapper.toProdutoDetalhesDto(produtoRepository.save(p));
+                        ProdutoDetalhesDto atualizado = mapper.toProdutoDetalhesDto(produtoRepository.save(p));
+                        publicarAlteracao(p);
+                        return atualizado;
                     })
                     .orElseThrow(() -> {
                         log.info("Categoria não encontrada com id {}", dto.categoriaId());
@@ -156,12 +222,14 @@ public class ProdutoManutencaoServiceImpl implements ProdutoManutencaoService {
      * @throws ProdutoNotFoundException caso o produto não seja encontrado.
      */
     @Override
+    @RetentarEmConflito
     public String desativar(Long id) {
         return produtoRepository
             .findById(id)
             .map(p -> {
                 p.setAtivo(false);
                 produtoRepository.save(p);
+                publicarAlteracao(p);
                 log.info("Produto com id {} desativado", id);
                 return MessageFormat.format("Produto com id {0} desativado com sucesso", id);
             })
@@ -172,12 +240,14 @@ public class ProdutoManutencaoServiceImpl implements ProdutoManutencaoService {
     }
 
     @Override
+    @RetentarEmConflito
     public String reativar(Long id) {
         return produtoRepository
             .findById(id)
             .map(p -> {
                 p.setAtivo(true);
                 produtoRepository.save(p);
+                publicarAlteracao(p);
                 log.info("Produto com id {} reativado", id);
                 return MessageFormat.format("Produto com id {0} reativado com sucesso", id);
             })
@@ -189,64 +259,208 @@ public class ProdutoManutencaoServiceImpl implements ProdutoManutencaoService {
 
     /**
      * Subtrai {@linkplain ProdutoEntity produtos} do estoque, dado a lista de {@linkplain ProdutoAtualizarEstoqueDto produtos}.
+     * Os produtos são bloqueados em ordem de {@code id} e todas as linhas são aplicadas em um único
+     * lote de {@code UPDATE} condicionais. Caso alguma linha não seja aplicada, a transação é desfeita por inteiro.
      *
      * @param dtos a lista de produtos a terem seus estoques subtraídos.
      *
      * @throws ProdutoNotFoundException caso o produto não seja encontrado ou o estoque é insuficiente.
      */
     @Override
+    @RetentarEmConflito
     public void subtrairEstoque(Set<ProdutoAtualizarEstoqueDto> dtos) {
-        dtos
-            .stream()
-            .forEach(dto -> produtoRepository
-                .findById(dto.id())
-                .ifPresentOrElse(p -> {
-                    if (p.getEstoque() < dto.quantidade()) {
-                        throw new ProdutoNotFoundException(MessageFormat.format(
-                            "Ops! O produto {0} não possui estoque suficiente",
-                            p.getNome()
-                        ));
-                    }
-                    p.setEstoque(p.getEstoque() - dto.quantidade());
-                    produtoRepository.save(p);
-                    log.info(
-                        "Produto {} com {} itens subtraídos do estoque. Estoque atual: {}",
-                        p.getNome(),
-                        dto.quantidade(),
-                        p.getEstoque()
-                    );
-                }, () -> {
-                    log.info("Produto não encontrado com id {}", dto.id());
-                    throw new ProdutoNotFoundException(dto.id());
-                }));
+        subtrairEstoque(dtos, Causa.SUBTRACAO);
+    }
+
+    /**
+     * Subtrai {@linkplain ProdutoEntity produtos} do estoque como em {@link #subtrairEstoque(Set)},
+     * registrando os movimentos no diário com a causa informada.
+     *
+     * @param dtos  a lista de produtos a terem seus estoques subtraídos.
+     * @param causa a causa da subtração.
+     *
+     * @throws ProdutoNotFoundException caso o produto não seja encontrado ou o estoque é insuficiente.
+     */
+    @Override
+    @RetentarEmConflito
+    public void subtrairEstoque(Set<ProdutoAtualizarEstoqueDto> dtos, Causa causa) {
+        Map<Long, Integer> quantidades = agruparQuantidades(dtos);
+        produtoRepository.bloquearProdutos(quantidades.keySet());
+        Set<Long> naoAplicados = produtoRepository.subtrairEstoque(quantidades);
+        if (!naoAplicados.isEmpty()) {
+            Long id = naoAplicados
+                .iterator()
+                .next();
+            throw produtoRepository
+                .findById(id)
+                .map(p -> {
+                    log.info("Produto {} sem estoque suficiente", p.getNome());
+                    return new ProdutoNotFoundException(MessageFormat.format(
+                        "Ops! O produto {0} não possui estoque suficiente",
+                        p.getNome()
+                    ));
+                })
+                .orElseGet(() -> {
+                    log.info("Produto não encontrado com id {}", id);
+                    return new ProdutoNotFoundException(id);
+                });
+        }
+        produtoRepository.registrarMovimentos(negativas(quantidades), causa);
+        eventPublisher.publishEvent(new EstoqueAlteradoEvento(Set.copyOf(quantidades.keySet())));
+        quantidades.forEach((id, quantidade) -> log.info(
+            "Produto com id {} com {} itens subtraídos do estoque",
+            id,
+            quantidade
+        ));
     }
 
     /**
      * Retorna {@linkplain ProdutoEntity produtos} ao estoque, dado a lista de {@linkplain ProdutoAtualizarEstoqueDto produtos}.
+     * Os produtos são bloqueados em ordem de {@code id} e todas as linhas são aplicadas em um único lote de {@code UPDATE}.
      *
      * @param dtos a lista de produtos a serem retornados ao estoque.
      *
      * @throws ProdutoNotFoundException caso o produto não seja encontrado.
      */
     @Override
+    @RetentarEmConflito
     public void retornarEstoque(Set<ProdutoAtualizarEstoqueDto> dtos) {
-        dtos
-            .stream()
-            .forEach(dto -> produtoRepository
-                .findById(dto.id())
-                .ifPresentOrElse(p -> {
-                    p.setEstoque(p.getEstoque() + dto.quantidade());
-                    produtoRepository.save(p);
-                    log.info(
-                        "Produto {} com {} itens retornados ao estoque. Estoque atual: {}",
-                        p.getNome(),
-                        dto.quantidade(),
-                        p.getEstoque()
-                    );
-                }, () -> {
-                    log.info("Produto não encontrado com id {}", dto.id());
-                    throw new ProdutoNotFoundException(dto.id());
-                }));
+        Map<Long, Integer> quantidades = agruparQuantidades(dtos);
+        produtoRepository.bloquearProdutos(quantidades.keySet());
+        Set<Long> naoEncontrados = produtoRepository.retornarEstoque(quantidades);
+        if (!naoEncontrados.isEmpty()) {
+            Long id = naoEncontrados
+                .iterator()
+                .next();
+            log.info("Produto não encontrado com id {}", id);
+            throw new ProdutoNotFoundException(id);
+        }
+        produtoRepository.registrarMovimentos(quantidades, Causa.RETORNO);
+        eventPublisher.publishEvent(new EstoqueAlteradoEvento(Set.copyOf(quantidades.keySet())));
+        quantidades.forEach((id, quantidade) -> log.info(
+            "Produto com id {} com {} itens retornados ao estoque",
+            id,
+            quantidade
+        ));
+    }
+
+    /**
+     * Subtrai {@linkplain ProdutoEntity produtos} do estoque, dado a lista de {@linkplain ProdutoAtualizarEstoqueDto produtos},
+     * aplicando apenas as linhas válidas. Produtos inexistentes ou inativos são ignorados e as demais linhas
+     * são aplicadas em um único lote de {@code UPDATE} condicionais. Linhas sem estoque suficiente não são
+     * aplicadas e não desfazem as demais.
+     *
+     * @param dtos a lista de produtos a terem seus estoques subtraídos.
+     *
+     * @return o resultado de cada produto, em ordem de {@code id}.
+     */
+    @Override
+    @RetentarEmConflito
+    public List<ResultadoEstoqueDto> subtrairEstoqueParcial(Set<ProdutoAtualizarEstoqueDto> dtos) {
+        return aplicarParcial(dtos, true, produtoRepository::subtrairEstoque, SituacaoEstoque.INSUFICIENTE,
+            Causa.SUBTRACAO);
+    }
+
+    /**
+     * Retorna {@linkplain ProdutoEntity produtos} ao estoque, dado a lista de {@linkplain ProdutoAtualizarEstoqueDto produtos},
+     * aplicando apenas as linhas válidas. Produtos inexistentes são ignorados e as demais linhas são aplicadas
+     * em um único lote de {@code UPDATE}. Assim como em {@link #retornarEstoque(Set)}, produtos inativos
+     * também recebem o estoque de volta.
+     *
+     * @param dtos a lista de produtos a serem retornados ao estoque.
+     *
+     * @return o resultado de cada produto, em ordem de {@code id}.
+     */
+    @Override
+    @RetentarEmConflito
+    public List<ResultadoEstoqueDto> retornarEstoqueParcial(Set<ProdutoAtualizarEstoqueDto> dtos) {
+        return aplicarParcial(dtos, false, produtoRepository::retornarEstoque, SituacaoEstoque.NAO_ENCONTRADO,
+            Causa.RETORNO);
+    }
+
+    private List<ResultadoEstoqueDto> aplicarParcial(
+        Set<ProdutoAtualizarEstoqueDto> dtos,
+        boolean exigirAtivo,
+        Function<Map<Long, Integer>, Set<Long>> aplicar,
+        SituacaoEstoque situacaoNaoAplicado,
+        Causa causa
+    ) {
+        Map<Long, Integer> quantidades = agruparQuantidades(dtos);
+        Map<Long, Boolean> ativos = produtoRepository.consultarAtivos(quantidades.keySet());
+        Map<Long, SituacaoEstoque> situacoes = new TreeMap<>();
+        Map<Long, Integer> validas = new TreeMap<>();
+        quantidades.forEach((id, quantidade) -> {
+            Boolean ativo = ativos.get(id);
+            if (ativo == null) {
+                situacoes.put(id, SituacaoEstoque.NAO_ENCONTRADO);
+            } else if (exigirAtivo && !ativo) {
+                situacoes.put(id, SituacaoEstoque.INATIVO);
+            } else {
+                validas.put(id, quantidade);
+            }
+        });
+        if (!validas.isEmpty()) {
+            produtoRepository.bloquearProdutos(validas.keySet());
+            Set<Long> naoAplicados = aplicar.apply(validas);
+            validas
+                .keySet()
+                .forEach(id -> situacoes.put(id, naoAplicados.contains(id)
+                    ? situacaoNaoAplicado
+                    : SituacaoEstoque.APLICADO));
+            Map<Long, Integer> aplicadas = new TreeMap<>(validas);
+            aplicadas
+                .keySet()
+                .removeAll(naoAplicados);
+            produtoRepository.registrarMovimentos(causa == Causa.RETORNO
+                ? aplicadas
+                : negativas(aplicadas), causa);
+            if (!aplicadas.isEmpty()) {
+                eventPublisher.publishEvent(new EstoqueAlteradoEvento(Set.copyOf(aplicadas.keySet())));
+            }
+        }
+        List<ResultadoEstoqueDto> resultados = new ArrayList<>(situacoes.size());
+        situacoes.forEach((id, situacao) -> {
+            log.info("Produto com id {}: {} itens {}", id, quantidades.get(id), situacao);
+            resultados.add(new ResultadoEstoqueDto(id, quantidades.get(id), situacao));
+        });
+        return resultados;
+    }
+
+    /**
+     * Busca uma categoria na árvore em memória e, caso não esteja nela, no banco de dados, para aceitar as
+     * categorias cadastradas por outras instâncias desde a última reconstrução da árvore.
+     *
+     * @param id o id da categoria.
+     *
+     * @return a categoria, ou vazio caso não exista.
+     */
+    private Optional<CategoriaEntity> buscarCategoria(Long id) {
+        return arvoreService
+            .consultarCategoria(id)
+            .map(categoriaMapper::toCategoria)
+            .or(() -> categoriaRepository.findById(id));
+    }
+
+    private Optional<SubcategoriaEntity> buscarSubcategoria(Long id) {
+        return arvoreService
+            .consultarSubcategoria(id)
+            .map(subcategoriaMapper::toSubcategoria)
+            .or(() -> subcategoriaRepository.findById(id));
+    }
+
+    private void publicarAlteracao(ProdutoEntity produto) {
+        eventPublisher.publishEvent(new ProdutoAlteradoEvento(
+            produto.getId(),
+            produto.getNome(),
+            produto.getDescricao(),
+            produto.isAtivo()
+        ));
+    }
+
+    private static Map<Long, Integer> negativas(Map<Long, Integer> quantidades) {
+        Map<Long, Integer> variacoes = new TreeMap<>();
+        quantidades.forEach((id, quantidade) -> variacoes.put(id, -quantidade));
+        return variacoes;
     }
 
 }
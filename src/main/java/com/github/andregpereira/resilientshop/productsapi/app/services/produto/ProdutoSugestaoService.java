@@ -0,0 +1,11 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.SugestaoDto;
+
+import java.util.List;
+
+public interface ProdutoSugestaoService {
+
+    List<SugestaoDto> sugerir(String prefixo, int limite);
+
+}
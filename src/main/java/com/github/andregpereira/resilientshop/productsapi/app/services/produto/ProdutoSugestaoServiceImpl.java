@@ -0,0 +1,223 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoResumoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.SugestaoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.SugestaoDto.TipoSugestao;
+import com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao.DadosAlteradosEvento;
+import com.github.andregpereira.resilientshop.productsapi.cross.replica.LeituraPrimaria;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.Tokenizador;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.TrieSugestoes;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.SugestoesProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Classe de serviço de sugestões de {@link ProdutoEntity produtos} e categorias por prefixo, para a caixa de
+ * busca.
+ * <p>
+ * As sugestões são respondidas de uma {@link TrieSugestoes} em memória sobre os nomes dos produtos ativos e
+ * das suas categorias, com uma chave para cada palavra do nome em diante, de modo que {@code "caf"} sugere
+ * {@code "Pó de Café"}. Os produtos são ordenados pelo rating e as categorias pelo maior rating entre os seus
+ * produtos ativos.
+ * <p>
+ * A árvore é construída quando a aplicação fica pronta e reconstruída em segundo plano após alterações de
+ * produtos ou um {@link DadosAlteradosEvento}, esperando {@link SugestoesProperties#atrasoReconstrucao()} para
+ * agrupar alterações próximas em uma única reconstrução. Consultas continuam usando a árvore anterior até a nova ser publicada.
+ *
+ * @author André Garcia
+ * @see ProdutoSugestaoService
+ */
+@Slf4j
+@Service
+public class ProdutoSugestaoServiceImpl implements ProdutoSugestaoService {
+
+    private final AtomicBoolean reconstrucaoAgendada = new AtomicBoolean();
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para percorrer os produtos ativos na construção das
+     * sugestões.
+     */
+    private final ProdutoRepository repository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final SugestoesProperties properties;
+
+    private final Timer consultas;
+
+    private final ScheduledExecutorService executor;
+
+    private volatile TrieSugestoes<SugestaoDto> sugestoes = TrieSugestoes.vazia();
+
+    public ProdutoSugestaoServiceImpl(
+        ProdutoRepository repository,
+        PlatformTransactionManager transactionManager,
+        SugestoesProperties properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.properties = properties;
+        this.consultas = Timer
+            .builder("produtos.sugestoes.consulta")
+            .description("Tempo de resposta das sugestões por prefixo")
+            .publishPercentiles(0.5, 0.99)
+            .register(meterRegistry);
+        Gauge
+            .builder("produtos.sugestoes.nos", this, s -> s.sugestoes.nos())
+            .description("Quantidade de nós da árvore de sugestões")
+            .register(meterRegistry);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sugestoes-reconstrucao");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void encerrar() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Sugere produtos e categorias cujo nome tenha alguma palavra iniciada por {@code prefixo}, sem
+     * distinção de acentos e maiúsculas. O prefixo pode conter várias palavras.
+     *
+     * @param prefixo o prefixo digitado.
+     * @param limite  a quantidade máxima de sugestões, limitada a {@link SugestoesProperties#limiteMaximo()}.
+     *
+     * @return as sugestões, em ordem decrescente de rating.
+     */
+    @Override
+    public List<SugestaoDto> sugerir(String prefixo, int limite) {
+        long inicio = System.nanoTime();
+        try {
+            String normalizado = Tokenizador.normalizar(prefixo);
+            return normalizado.isEmpty()
+                ? List.of()
+                : sugestoes.sugerir(normalizado, Math.min(limite, properties.limiteMaximo()));
+        } finally {
+            consultas.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Constrói as sugestões quando a aplicação fica pronta.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void carregar() {
+        reconstruir();
+    }
+
+    /**
+     * Agenda a reconstrução das sugestões após a confirmação da alteração de um produto, caso ainda não
+     * haja uma reconstrução agendada.
+     *
+     * @param evento o produto alterado.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterar(ProdutoAlteradoEvento evento) {
+        agendarReconstrucao();
+    }
+
+    /**
+     * Agenda a reconstrução das sugestões quando não se sabe quais produtos ou categorias foram alterados.
+     *
+     * @param evento a alteração.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void aoAlterarDados(DadosAlteradosEvento evento) {
+        agendarReconstrucao();
+    }
+
+    private void agendarReconstrucao() {
+        if (reconstrucaoAgendada.compareAndSet(false, true)) {
+            executor.schedule(this::reconstruirAgendado, properties
+                .atrasoReconstrucao()
+                .toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void reconstruirAgendado() {
+        try {
+            reconstruir();
+        } catch (RuntimeException e) {
+            log.error("Erro ao reconstruir as sugestões de produtos", e);
+        }
+    }
+
+    void reconstruir() {
+        reconstrucaoAgendada.set(false);
+        long inicio = System.nanoTime();
+        TrieSugestoes.Construtor<SugestaoDto> construtor = TrieSugestoes.construtor(properties.limiteMaximo());
+        Map<Long, SugestaoDto> categorias = new HashMap<>();
+        LeituraPrimaria.executar(() -> transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<ProdutoResumoDto> produtos = repository.streamResumosAtivos()) {
+                produtos.forEach(p -> {
+                    BigDecimal rating = p.rating() == null
+                        ? BigDecimal.ZERO
+                        : p.rating();
+                    construtor.adicionar(new SugestaoDto(TipoSugestao.PRODUTO, p.id(), p.nome(), rating),
+                        rating.doubleValue(), chaves(p.nome()));
+                    categorias.merge(p.categoriaId(),
+                        new SugestaoDto(TipoSugestao.CATEGORIA, p.categoriaId(), p.categoriaNome(), rating),
+                        (atual, nova) -> atual.rating().compareTo(nova.rating()) >= 0
+                            ? atual
+                            : nova);
+                });
+            }
+        }));
+        categorias
+            .values()
+            .forEach(c -> construtor.adicionar(c, c
+                .rating()
+                .doubleValue(), chaves(c.texto())));
+        TrieSugestoes<SugestaoDto> construida = construtor.construir();
+        sugestoes = construida;
+        log.info("Sugestões construídas com {} itens e {} nós em {} ms", construida.itens(), construida.nos(),
+            (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /**
+     * Gera uma chave para cada palavra do texto normalizado em diante: {@code "po de cafe"},
+     * {@code "de cafe"} e {@code "cafe"}.
+     */
+    private static List<String> chaves(String texto) {
+        String normalizado = Tokenizador.normalizar(texto);
+        List<String> chaves = new ArrayList<>();
+        int inicio = 0;
+        while (inicio < normalizado.length()) {
+            chaves.add(normalizado.substring(inicio));
+            int espaco = normalizado.indexOf(' ', inicio);
+            if (espaco < 0) {
+                break;
+            }
+            inicio = espaco + 1;
+        }
+        return chaves;
+    }
+
+}
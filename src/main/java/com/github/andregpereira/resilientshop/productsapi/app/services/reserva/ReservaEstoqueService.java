@@ -0,0 +1,17 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.reserva;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.reserva.ReservaDto;
+
+import java.util.Set;
+import java.util.UUID;
+
+public interface ReservaEstoqueService {
+
+    ReservaDto reservar(Set<ProdutoAtualizarEstoqueDto> dtos);
+
+    void confirmar(UUID id);
+
+    void liberar(UUID id);
+
+}
@@ -0,0 +1,258 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.reserva;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.reserva.ReservaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoManutencaoService;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ReservaNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.HashedTimingWheel;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.HashedTimingWheel.Agendamento;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.ReservaProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ReservaEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ReservaEstoqueRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static com.github.andregpereira.resilientshop.productsapi.cross.utils.EstoqueUtils.agruparQuantidades;
+
+/**
+ * Classe de serviço de reservas de estoque.
+ * <p>
+ * As reservas são gravadas na tabela {@code tb_reservas_estoque}, com uma linha por produto, e podem ser
+ * confirmadas ou liberadas por qualquer instância da aplicação. A quantidade reservada não é subtraída do
+ * estoque: o estoque disponível para uma nova reserva é o estoque do banco menos a soma das reservas ainda
+ * não expiradas, verificado com as linhas dos produtos bloqueadas em ordem de {@code id}, de modo que duas
+ * reservas concorrentes do mesmo produto não retêm mais do que o estoque. Apenas a confirmação subtrai o
+ * estoque, com a mesma garantia de {@link ProdutoManutencaoService#subtrairEstoque(Set)}, na mesma transação
+ * que remove a reserva. A reserva, a liberação e a expiração são registradas no diário de movimentos sem
+ * variação do estoque, com a quantidade retida.
+ * <p>
+ * As demais subtrações de estoque, como a baixa de um pedido sem reserva, também não consomem o estoque
+ * reservado: elas verificam o estoque menos a soma das reservas não expiradas com as mesmas linhas
+ * bloqueadas. Os produtos com estoque fragmentado têm os fragmentos bloqueados antes das linhas dos
+ * produtos, pois as subtrações dos fragmentos não bloqueiam a linha do produto.
+ * <p>
+ * Uma reserva deixa de reter o estoque assim que expira, pois toda verificação compara a expiração com o
+ * relógio atual. A remoção das reservas expiradas do banco é garantida apenas por
+ * {@link #removerExpiradas()}, executada a cada {@link ReservaProperties#intervaloExpiracao()} em todas as
+ * instâncias, que alcança as reservas de qualquer instância e as que sobreviveram a uma reinicialização. A
+ * {@link HashedTimingWheel} é apenas um gatilho local e antecipado para as reservas criadas nesta
+ * instância: ela não é persistida nem replicada, e um agendamento perdido é coberto pela próxima
+ * verificação periódica.
+ *
+ * @author André Garcia
+ * @see ReservaEstoqueService
+ */
+@Slf4j
+@Service
+public class ReservaEstoqueServiceImpl implements ReservaEstoqueService {
+
+    private final Map<UUID, Agendamento> agendamentos = new ConcurrentHashMap<>();
+
+    /**
+     * Injeção da dependência {@link ProdutoRepository} para bloquear e consultar o estoque atual dos produtos.
+     */
+    private final ProdutoRepository produtoRepository;
+
+    /**
+     * Injeção da dependência {@link ReservaEstoqueRepository} para gravar e remover as reservas.
+     */
+    private final ReservaEstoqueRepository reservaRepository;
+
+    /**
+     * Injeção da dependência {@link ProdutoManutencaoService} para subtrair o estoque na confirmação.
+     */
+    private final ProdutoManutencaoService manutencaoService;
+
+    /**
+     * Injeção da dependência {@link HashedTimingWheel} para antecipar a remoção das reservas expiradas criadas
+     * nesta instância.
+     */
+    private final HashedTimingWheel timingWheel;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReservaProperties properties;
+
+    public ReservaEstoqueServiceImpl(
+        ProdutoRepository produtoRepository,
+        ReservaEstoqueRepository reservaRepository,
+        ProdutoManutencaoService manutencaoService,
+        HashedTimingWheel timingWheel,
+        PlatformTransactionManager transactionManager,
+        ReservaProperties properties
+    ) {
+        this.produtoRepository = produtoRepository;
+        this.reservaRepository = reservaRepository;
+        this.manutencaoService = manutencaoService;
+        this.timingWheel = timingWheel;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    /**
+     * Reserva {@linkplain ProdutoAtualizarEstoqueDto produtos}, dado a lista de produtos e quantidades.
+     * Retorna a {@linkplain ReservaDto reserva} criada.
+     *
+     * @param dtos a lista de produtos a serem reservados.
+     *
+     * @return a reserva criada.
+     *
+     * @throws ProdutoNotFoundException caso o produto não seja encontrado ou o estoque disponível é insuficiente.
+     */
+    @Override
+    public ReservaDto reservar(Set<ProdutoAtualizarEstoqueDto> dtos) {
+        Map<Long, Integer> quantidades = agruparQuantidades(dtos);
+        UUID id = UUID.randomUUID();
+        LocalDateTime expiraEm = LocalDateTime
+            .now()
+            .plus(properties.ttl());
+        transactionTemplate.executeWithoutResult(status -> {
+            produtoRepository.bloquearFragmentados(quantidades.keySet());
+            Map<Long, Integer> estoques = produtoRepository.bloquearEstoques(quantidades.keySet());
+            Map<Long, Integer> reservados = produtoRepository.consultarReservados(quantidades.keySet());
+            quantidades.forEach((produtoId, quantidade) -> {
+                Integer estoque = estoques.get(produtoId);
+                if (estoque == null) {
+                    log.info("Produto não encontrado com id {}", produtoId);
+                    throw new ProdutoNotFoundException(produtoId);
+                }
+                if (estoque - reservados.getOrDefault(produtoId, 0) < quantidade) {
+                    log.info("Produto com id {} sem estoque disponível para reserva", produtoId);
+                    throw new ProdutoNotFoundException(MessageFormat.format(
+                        "Ops! O produto com id {0} não possui estoque disponível",
+                        produtoId
+                    ));
+                }
+            });
+            List<ReservaEstoqueEntity> itens = quantidades
+                .entrySet()
+                .stream()
+                .map(e -> new ReservaEstoqueEntity(id, e.getKey(), e.getValue(), expiraEm))
+                .toList();
+            reservaRepository.saveAll(itens);
+            produtoRepository.registrarMovimentosReserva(itens, Causa.RESERVA);
+        });
+        agendamentos.put(id, timingWheel.agendar(() -> expirar(id), properties
+            .ttl()
+            .plus(properties.tick())));
+        log.info("Reserva {} criada com {} produtos", id, quantidades.size());
+        return new ReservaDto(id, expiraEm, dtos);
+    }
+
+    /**
+     * Confirma uma reserva por {@code id}, subtraindo do estoque os produtos reservados. A reserva só é
+     * removida se o estoque for subtraído; caso contrário, ela continua ativa até ser liberada ou expirar.
+     *
+     * @param id o id da reserva.
+     *
+     * @throws ReservaNotFoundException caso a reserva não seja encontrada ou já tenha expirado.
+     * @throws ProdutoNotFoundException caso o produto não seja encontrado ou o estoque é insuficiente.
+     */
+    @Override
+    public void confirmar(UUID id) {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<ReservaEstoqueEntity> itens = remover(id);
+            manutencaoService.subtrairEstoque(itens
+                .stream()
+                .map(i -> new ProdutoAtualizarEstoqueDto(i.getProdutoId(), i.getQuantidade()))
+                .collect(Collectors.toSet()), Causa.CONFIRMACAO_RESERVA);
+        });
+        cancelarAgendamento(id);
+        log.info("Reserva {} confirmada", id);
+    }
+
+    /**
+     * Libera uma reserva por {@code id}, devolvendo os produtos reservados ao estoque disponível.
+     *
+     * @param id o id da reserva.
+     *
+     * @throws ReservaNotFoundException caso a reserva não seja encontrada ou já tenha expirado.
+     */
+    @Override
+    public void liberar(UUID id) {
+        transactionTemplate.executeWithoutResult(status -> produtoRepository.registrarMovimentosReserva(remover(id),
+            Causa.LIBERACAO));
+        cancelarAgendamento(id);
+        log.info("Reserva {} liberada", id);
+    }
+
+    /**
+     * Remove do banco as reservas expiradas, inclusive as criadas por outras instâncias. As linhas são
+     * bloqueadas antes da remoção, de modo que instâncias concorrentes não removem a mesma reserva.
+     */
+    @Scheduled(
+        fixedDelayString = "${resilientshop.reserva.intervalo-expiracao:1m}",
+        initialDelayString = "${resilientshop.reserva.intervalo-expiracao:1m}"
+    )
+    public void removerExpiradas() {
+        try {
+            List<ReservaEstoqueEntity> expiradas = transactionTemplate.execute(status -> {
+                List<ReservaEstoqueEntity> itens = reservaRepository.findAllByExpiraEmLessThanEqual(
+                    LocalDateTime.now());
+                reservaRepository.deleteAllInBatch(itens);
+                produtoRepository.registrarMovimentosReserva(itens, Causa.EXPIRACAO);
+                return itens;
+            });
+            if (expiradas != null && !expiradas.isEmpty()) {
+                log.info("{} reservas expiradas removidas", expiradas
+                    .stream()
+                    .map(ReservaEstoqueEntity::getReservaId)
+                    .distinct()
+                    .count());
+            }
+        } catch (RuntimeException e) {
+            log.error("Erro ao remover as reservas expiradas", e);
+        }
+    }
+
+    private List<ReservaEstoqueEntity> remover(UUID id) {
+        List<ReservaEstoqueEntity> itens = reservaRepository.findAllByReservaIdAndExpiraEmAfter(id,
+            LocalDateTime.now());
+        if (itens.isEmpty()) {
+            log.info("Reserva não encontrada com id {}", id);
+            throw new ReservaNotFoundException(id);
+        }
+        reservaRepository.deleteAllInBatch(itens);
+        return itens;
+    }
+
+    private void expirar(UUID id) {
+        agendamentos.remove(id);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<ReservaEstoqueEntity> itens = reservaRepository.findAllByReservaIdAndExpiraEmLessThanEqual(id,
+                    LocalDateTime.now());
+                if (!itens.isEmpty()) {
+                    reservaRepository.deleteAllInBatch(itens);
+                    produtoRepository.registrarMovimentosReserva(itens, Causa.EXPIRACAO);
+                    log.info("Reserva {} expirada", id);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Erro ao expirar a reserva {}; ela será removida na próxima verificação", id, e);
+        }
+    }
+
+    private void cancelarAgendamento(UUID id) {
+        Agendamento agendamento = agendamentos.remove(id);
+        if (agendamento != null) {
+            agendamento.cancelar();
+        }
+    }
+
+}
@@ -2,8 +2,10 @@ package com.github.andregpereira.resilientshop.productsapi.app.services.subcateg
 
 import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDetalhesDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaArvoreService;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.SubcategoriaNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.mappers.SubcategoriaMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.PaginacaoMemoria;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.SubcategoriaRepository;
 import lombok.RequiredArgsConstructor;
@@ -11,9 +13,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Comparator;
+import java.util.Map;
 
 /**
  * Classe de serviço de consulta de {@link SubcategoriaEntity}.
+ * <p>
+ * As consultas são respondidas da {@linkplain CategoriaArvoreService árvore de categorias em memória}; apenas
+ * as listagens ordenadas por propriedades diferentes de {@code id}, {@code nome} e {@code descricao}
+ * consultam o banco de dados.
  *
  * @author André Garcia
  * @see SubcategoriaConsultaService
@@ -21,8 +31,15 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 @Slf4j
 @Service
+@Transactional(readOnly = true)
 public class SubcategoriaConsultaServiceImpl implements SubcategoriaConsultaService {
 
+    private static final Map<String, Comparator<SubcategoriaDto>> ORDENACOES = Map.of(
+        "id", Comparator.comparing(SubcategoriaDto::id),
+        "nome", Comparator.comparing(SubcategoriaDto::nome),
+        "descricao", Comparator.comparing(SubcategoriaDto::descricao)
+    );
+
     /**
      * Injeção da dependência {@link SubcategoriaRepository} para realizar operações de
      * consulta na tabela de subcategorias no banco de dados.
@@ -35,6 +52,11 @@ public class SubcategoriaConsultaServiceImpl implements SubcategoriaConsultaServ
      */
     private final SubcategoriaMapper mapper;
 
+    /**
+     * Injeção da dependência {@link CategoriaArvoreService} para consultar as subcategorias em memória.
+     */
+    private final CategoriaArvoreService arvoreService;
+
     /**
      * Lista todas as {@linkplain SubcategoriaEntity subcategorias} cadastradas.
      * Retorna uma {@linkplain Page sublista} de {@linkplain SubcategoriaDto subcategorias}.
@@ -48,9 +70,12 @@ public class SubcategoriaConsultaServiceImpl implements SubcategoriaConsultaServ
     @Override
     public Page<SubcategoriaDto> listar(Pageable pageable) {
         log.info("Retornando subcategorias");
-        return repository
-            .findAll(pageable)
-            .map(mapper::toSubcategoriaDto);
+        return PaginacaoMemoria
+            .ordenar(arvoreService.listarSubcategorias(), pageable.getSort(), ORDENACOES)
+            .map(subcategorias -> PaginacaoMemoria.paginar(subcategorias, pageable))
+            .orElseGet(() -> repository
+                .findAll(pageable)
+                .map(mapper::toSubcategoriaDto));
     }
 
     /**
@@ -66,9 +91,8 @@ public class SubcategoriaConsultaServiceImpl implements SubcategoriaConsultaServ
     @Override
     public SubcategoriaDetalhesDto consultarPorId(Long id) {
         log.info("Retornando subcategoria com id {}", id);
-        return repository
-            .findById(id)
-            .map(mapper::toSubcategoriaDetalhesDto)
+        return arvoreService
+            .consultarSubcategoria(id)
             .orElseThrow(() -> {
                 log.info("Subcategoria não encontrada com id {}", id);
                 return new SubcategoriaNotFoundException(id);
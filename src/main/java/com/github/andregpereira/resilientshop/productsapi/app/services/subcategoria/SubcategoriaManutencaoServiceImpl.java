@@ -2,6 +2,7 @@ package com.github.andregpereira.resilientshop.productsapi.app.services.subcateg
 
 import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDetalhesDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaRegistroDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriasAlteradasEvento;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.CategoriaNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.SubcategoriaAlreadyExistsException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.SubcategoriaNotFoundException;
@@ -11,6 +12,7 @@ import com.github.andregpereira.resilientshop.productsapi.infra.repositories.Cat
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.SubcategoriaRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -46,6 +48,12 @@ public class SubcategoriaManutencaoServiceImpl implements SubcategoriaManutencao
      */
     private final CategoriaRepository categoriaRepository;
 
+    /**
+     * Injeção da dependência {@link ApplicationEventPublisher} para publicar as alterações, aplicadas à árvore
+     * de categorias em memória após a confirmação da transação.
+     */
+    private final ApplicationEventPublisher eventPublisher;
+
     /**
      * Cadastra uma {@linkplain SubcategoriaRegistroDto subcategoria}.
      * Retorna uma {@linkplain SubcategoriaDetalhesDto subcategoria detalhada}.
@@ -69,6 +77,7 @@ public class SubcategoriaManutencaoServiceImpl implements SubcategoriaManutencao
                 SubcategoriaEntity subcategoria = mapper.toSubcategoria(dto);
                 subcategoria.setCategoria(c);
                 subcategoriaRepository.save(subcategoria);
+                eventPublisher.publishEvent(new CategoriasAlteradasEvento());
                 log.info("Subcategoria criada");
                 return mapper.toSubcategoriaDetalhesDto(subcategoria);
             })
@@ -107,6 +116,7 @@ public class SubcategoriaManutencaoServiceImpl implements SubcategoriaManutencao
                         subcategoriaAtualizada.setId(id);
                         subcategoriaAtualizada.setCategoria(c);
                         subcategoriaRepository.save(subcategoriaAtualizada);
+                        eventPublisher.publishEvent(new CategoriasAlteradasEvento());
                         log.info("Subcategoria com id {} atualizada", id);
                         return mapper.toSubcategoriaDetalhesDto(subcategoriaAtualizada);
                     })
@@ -137,6 +147,7 @@ public class SubcategoriaManutencaoServiceImpl implements SubcategoriaManutencao
             .findById(id)
             .map(c -> {
                 subcategoriaRepository.deleteById(id);
+                eventPublisher.publishEvent(new CategoriasAlteradasEvento());
                 log.info("Subcategoria com id {} removida", id);
                 return MessageFormat.format("Subcategoria com id {0} removida com sucesso", id);
             })
@@ -0,0 +1,9 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.exceptions;
+
+public class EstoqueIndisponivelException extends RuntimeException {
+
+    public EstoqueIndisponivelException(String mensagem) {
+        super(mensagem);
+    }
+
+}
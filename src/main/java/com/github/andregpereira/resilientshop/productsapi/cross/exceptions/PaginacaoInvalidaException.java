@@ -0,0 +1,9 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.exceptions;
+
+public class PaginacaoInvalidaException extends RuntimeException {
+
+    public PaginacaoInvalidaException(String mensagem) {
+        super(mensagem);
+    }
+
+}
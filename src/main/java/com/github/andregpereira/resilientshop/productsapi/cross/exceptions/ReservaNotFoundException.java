@@ -0,0 +1,12 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.exceptions;
+
+import java.text.MessageFormat;
+import java.util.UUID;
+
+public class ReservaNotFoundException extends RuntimeException {
+
+    public ReservaNotFoundException(UUID id) {
+        super(MessageFormat.format("Ops! Nenhuma reserva ativa foi encontrada com o id {0}", id));
+    }
+
+}
@@ -2,6 +2,7 @@ package com.github.andregpereira.resilientshop.productsapi.cross.exceptions;
 
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -39,6 +40,11 @@ public class TratadorDeErros {
                 new DadoInvalido(e.getParameterName(), "O campo " + e.getParameterName() + " é obrigatório"));
     }
 
+    @ExceptionHandler(PaginacaoInvalidaException.class)
+    public ResponseEntity<String> erro400(PaginacaoInvalidaException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
     @ExceptionHandler(ProdutoNotFoundException.class)
     public ResponseEntity<String> erro404(ProdutoNotFoundException e) {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -54,6 +60,11 @@ public class TratadorDeErros {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
     }
 
+    @ExceptionHandler(ReservaNotFoundException.class)
+    public ResponseEntity<String> erro404(ReservaNotFoundException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
     @ExceptionHandler(ProdutoAlreadyExistsException.class)
     public ResponseEntity<String> erro409(ProdutoAlreadyExistsException e) {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
@@ -69,6 +80,17 @@ public class TratadorDeErros {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
     }
 
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<String> erro409(ConcurrencyFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                "Ops! O produto está sendo atualizado por outra operação. Tente novamente");
+    }
+
+    @ExceptionHandler(EstoqueIndisponivelException.class)
+    public ResponseEntity<String> erro503(EstoqueIndisponivelException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Stream<DadoInvalido>> erro422(MethodArgumentNotValidException e) {
         return ResponseEntity.unprocessableEntity().body(e.getFieldErrors().stream().map(DadoInvalido::new));
@@ -0,0 +1,51 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.idempotencia;
+
+import java.util.Optional;
+
+/**
+ * Armazenamento das chaves de idempotência e dos resultados das requisições concluídas.
+ * <p>
+ * Uma chave é reservada antes da requisição ser processada. Se a requisição for concluída
+ * com sucesso, o resultado é armazenado até expirar. Caso contrário, a reserva é liberada
+ * para que a requisição possa ser repetida. Reservas não concluídas também expiram, para que
+ * uma instância interrompida durante o processamento não bloqueie a chave indefinidamente.
+ *
+ * @author André Garcia
+ */
+public interface IdempotenciaStore {
+
+    /**
+     * Reserva uma chave de idempotência.
+     *
+     * @param chave a chave de idempotência.
+     *
+     * @return {@code true} caso a chave tenha sido reservada, {@code false} caso a chave
+     * já esteja reservada ou concluída.
+     */
+    boolean reservar(String chave);
+
+    /**
+     * Consulta o resultado de uma requisição concluída.
+     *
+     * @param chave a chave de idempotência.
+     *
+     * @return o resultado, ou vazio caso a requisição ainda esteja em andamento ou a chave não exista.
+     */
+    Optional<ResultadoIdempotente> consultar(String chave);
+
+    /**
+     * Armazena o resultado de uma requisição concluída com sucesso.
+     *
+     * @param chave     a chave de idempotência.
+     * @param resultado o resultado da requisição.
+     */
+    void concluir(String chave, ResultadoIdempotente resultado);
+
+    /**
+     * Libera a reserva de uma requisição não concluída.
+     *
+     * @param chave a chave de idempotência.
+     */
+    void liberar(String chave);
+
+}
@@ -0,0 +1,86 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.idempotencia;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Implementação em memória de {@link IdempotenciaStore}, para uma única instância.
+ * As chaves são mantidas em ordem de acesso e, ao atingir a capacidade, a chave
+ * acessada há mais tempo é descartada. Chaves expiradas são descartadas ao serem acessadas.
+ *
+ * @author André Garcia
+ * @see IdempotenciaStore
+ */
+public class IdempotenciaStoreMemoria implements IdempotenciaStore {
+
+    private final Map<String, Entrada> entradas;
+
+    private final Duration ttl;
+
+    private final Duration ttlEmAndamento;
+
+    private final Clock clock;
+
+    public IdempotenciaStoreMemoria(int capacidade, Duration ttl, Duration ttlEmAndamento, Clock clock) {
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entrada> eldest) {
+                return size() > capacidade;
+            }
+
+        };
+        this.ttl = ttl;
+        this.ttlEmAndamento = ttlEmAndamento;
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized boolean reservar(String chave) {
+        Instant agora = clock.instant();
+        Entrada entrada = entradas.get(chave);
+        if (entrada != null && entrada.expiraEm.isAfter(agora)) {
+            return false;
+        }
+        entradas.put(chave, new Entrada(null, agora.plus(ttlEmAndamento)));
+        return true;
+    }
+
+    @Override
+    public synchronized Optional<ResultadoIdempotente> consultar(String chave) {
+        Entrada entrada = entradas.get(chave);
+        if (entrada == null) {
+            return Optional.empty();
+        }
+        if (!entrada.expiraEm.isAfter(clock.instant())) {
+            entradas.remove(chave);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(entrada.resultado);
+    }
+
+    @Override
+    public synchronized void concluir(String chave, ResultadoIdempotente resultado) {
+        entradas.put(chave, new Entrada(
+            resultado,
+            clock
+                .instant()
+                .plus(ttl)
+        ));
+    }
+
+    @Override
+    public synchronized void liberar(String chave) {
+        Entrada entrada = entradas.get(chave);
+        if (entrada != null && entrada.resultado == null) {
+            entradas.remove(chave);
+        }
+    }
+
+    private record Entrada(ResultadoIdempotente resultado, Instant expiraEm) {}
+
+}
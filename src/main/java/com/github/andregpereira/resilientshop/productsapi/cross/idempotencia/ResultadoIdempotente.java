@@ -0,0 +1,18 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.idempotencia;
+
+/**
+ * Resultado de uma requisição concluída com uma chave de idempotência.
+ *
+ * @param impressao    o hash do método, da URI e do corpo da requisição original.
+ * @param status       o status HTTP da resposta.
+ * @param tipoConteudo o {@code Content-Type} da resposta, ou {@code null} caso a resposta não tenha corpo.
+ * @param corpo        o corpo da resposta.
+ *
+ * @author André Garcia
+ */
+public record ResultadoIdempotente(
+    String impressao,
+    int status,
+    String tipoConteudo,
+    String corpo
+) {}
@@ -0,0 +1,87 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.invalidacao;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Invalidação dos dados em memória enviada entre as instâncias da aplicação pelo {@code NOTIFY} do
+ * PostgreSQL, no formato {@code origem;TIPO;id,id,...}.
+ *
+ * @param origem o identificador da instância que alterou os dados, para que ela ignore as próprias
+ *               invalidações.
+ * @param tipo   o tipo dos dados alterados.
+ * @param ids    os ids alterados; vazio quando todos os dados do tipo devem ser descartados.
+ *
+ * @author André Garcia
+ */
+public record Invalidacao(
+    String origem,
+    Tipo tipo,
+    Set<Long> ids
+) {
+
+    /**
+     * Tamanho máximo em bytes do conteúdo de um {@code NOTIFY}. Invalidações com mais ids são enviadas sem os
+     * ids, descartando todos os dados do tipo.
+     */
+    static final int TAMANHO_MAXIMO = 7999;
+
+    private static final String SEPARADOR = ";";
+
+    /**
+     * @return {@code true} se todos os dados do tipo devem ser descartados.
+     */
+    public boolean total() {
+        return ids.isEmpty();
+    }
+
+    /**
+     * @return o conteúdo do {@code NOTIFY}.
+     */
+    public String formatar() {
+        String conteudo = origem + SEPARADOR + tipo + SEPARADOR + ids
+            .stream()
+            .map(String::valueOf)
+            .collect(Collectors.joining(","));
+        return conteudo.getBytes(StandardCharsets.UTF_8).length > TAMANHO_MAXIMO
+            ? origem + SEPARADOR + tipo + SEPARADOR
+            : conteudo;
+    }
+
+    /**
+     * @param conteudo o conteúdo de um {@code NOTIFY}.
+     *
+     * @return a invalidação, ou vazio caso o conteúdo não esteja no formato esperado.
+     */
+    public static Optional<Invalidacao> interpretar(String conteudo) {
+        String[] partes = conteudo == null ? new String[0] : conteudo.split(SEPARADOR, -1);
+        if (partes.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            Set<Long> ids = partes[2].isEmpty()
+                ? Set.of()
+                : Arrays
+                    .stream(partes[2].split(","))
+                    .map(Long::valueOf)
+                    .collect(Collectors.toUnmodifiableSet());
+            return Optional.of(new Invalidacao(partes[0], Tipo.valueOf(partes[1]), ids));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    public enum Tipo {
+
+        PRODUTOS,
+
+        ESTOQUE,
+
+        CATEGORIAS
+
+    }
+
+}
@@ -19,6 +19,8 @@ public interface CategoriaMapper {
 
     CategoriaEntity toCategoria(CategoriaRegistroDto dto);
 
+    CategoriaEntity toCategoria(CategoriaDto dto);
+
     CategoriaDto toCategoriaDto(CategoriaEntity categoria);
 
 }
@@ -0,0 +1,22 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.mappers;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.MovimentoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import org.mapstruct.Mapper;
+
+import static org.mapstruct.InjectionStrategy.CONSTRUCTOR;
+import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
+import static org.mapstruct.ReportingPolicy.IGNORE;
+
+/**
+ * Interface mapper de {@link MovimentoEstoqueEntity} e {@link MovimentoEstoqueDto}.
+ *
+ * @author André Garcia
+ * @see ProdutoMapper
+ */
+@Mapper(componentModel = SPRING, injectionStrategy = CONSTRUCTOR, unmappedTargetPolicy = IGNORE)
+public interface MovimentoEstoqueMapper {
+
+    MovimentoEstoqueDto toMovimentoEstoqueDto(MovimentoEstoqueEntity movimento);
+
+}
@@ -6,6 +6,7 @@ import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.Produt
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoRegistroDto;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import static org.mapstruct.InjectionStrategy.CONSTRUCTOR;
 import static org.mapstruct.MappingConstants.ComponentModel.SPRING;
@@ -29,8 +30,10 @@ public interface ProdutoMapper {
 
     ProdutoEntity toProduto(ProdutoAtualizacaoDto dto);
 
+    @Mapping(target = "estoque", source = "estoqueDisponivel")
     ProdutoDto toProdutoDto(ProdutoEntity produto);
 
+    @Mapping(target = "estoque", source = "estoqueDisponivel")
     ProdutoDetalhesDto toProdutoDetalhesDto(ProdutoEntity produto);
 
 }
@@ -26,6 +26,8 @@ public interface SubcategoriaMapper {
 
     SubcategoriaEntity toSubcategoria(SubcategoriaRegistroDto dto);
 
+    SubcategoriaEntity toSubcategoria(SubcategoriaDetalhesDto dto);
+
     SubcategoriaDto toSubcategoriaDto(SubcategoriaEntity subcategoria);
 
     SubcategoriaDetalhesDto toSubcategoriaDetalhesDto(SubcategoriaEntity subcategoria);
@@ -0,0 +1,82 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.replica;
+
+import lombok.experimental.UtilityClass;
+
+import java.util.function.Supplier;
+
+/**
+ * Força as transações somente leitura da thread atual a lerem do banco primário, e não da réplica, para
+ * leituras que precisam ver as escritas recém-confirmadas, que a réplica pode ainda não ter recebido.
+ * <p>
+ * O escopo vale para as conexões obtidas enquanto está aberto; uma transação que já obteve a sua conexão
+ * continua nela até o fim. Escopos podem ser aninhados.
+ *
+ * @author André Garcia
+ * @see RoteamentoDataSource
+ */
+@UtilityClass
+public class LeituraPrimaria {
+
+    private static final ThreadLocal<int[]> ABERTOS = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Abre um escopo de leitura primária, a ser fechado com {@code try}-with-resources.
+     *
+     * @return o escopo aberto.
+     */
+    public static Escopo abrir() {
+        ABERTOS.get()[0]++;
+        return new Escopo();
+    }
+
+    /**
+     * Executa a ação em um escopo de leitura primária.
+     *
+     * @param acao a ação.
+     * @param <T>  o tipo do resultado.
+     *
+     * @return o resultado da ação.
+     */
+    public static <T> T executar(Supplier<T> acao) {
+        try (Escopo escopo = abrir()) {
+            return acao.get();
+        }
+    }
+
+    /**
+     * Executa a ação em um escopo de leitura primária.
+     *
+     * @param acao a ação.
+     */
+    public static void executar(Runnable acao) {
+        try (Escopo escopo = abrir()) {
+            acao.run();
+        }
+    }
+
+    /**
+     * @return {@code true} se há um escopo de leitura primária aberto na thread atual.
+     */
+    public static boolean ativa() {
+        return ABERTOS.get()[0] > 0;
+    }
+
+    public static final class Escopo implements AutoCloseable {
+
+        private boolean fechado;
+
+        private Escopo() {}
+
+        @Override
+        public void close() {
+            if (!fechado) {
+                fechado = true;
+                if (--ABERTOS.get()[0] == 0) {
+                    ABERTOS.remove();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.replica;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * {@link DataSource} que encaminha as transações somente leitura para a réplica e todo o resto, inclusive as
+ * consultas fora de transação, para o banco primário. As transações somente leitura abertas em um escopo de
+ * {@link LeituraPrimaria} também vão para o primário.
+ * <p>
+ * O destino é decidido quando a conexão é obtida, por isso este {@link DataSource} deve ser usado através de
+ * um {@link LazyConnectionDataSourceProxy}: o gerenciador de transações obtém a conexão antes de marcar a
+ * transação como somente leitura, e o proxy adia a obtenção até a primeira instrução.
+ *
+ * @author André Garcia
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    public RoteamentoDataSource(DataSource primario, DataSource replica) {
+        setTargetDataSources(Map.of(Destino.PRIMARIO, primario, Destino.REPLICA, replica));
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Cria o {@link DataSource} de roteamento envolvido pelo proxy que adia a obtenção das conexões.
+     *
+     * @param primario o banco primário.
+     * @param replica  a réplica.
+     *
+     * @return o {@link DataSource} a ser usado pela aplicação.
+     */
+    public static DataSource criar(DataSource primario, DataSource replica) {
+        return new LazyConnectionDataSourceProxy(new RoteamentoDataSource(primario, replica));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return destino();
+    }
+
+    /**
+     * @return o destino das conexões obtidas agora na thread atual.
+     */
+    public static Destino destino() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !LeituraPrimaria.ativa()
+            ? Destino.REPLICA
+            : Destino.PRIMARIO;
+    }
+
+    public enum Destino {
+
+        PRIMARIO,
+
+        REPLICA
+
+    }
+
+}
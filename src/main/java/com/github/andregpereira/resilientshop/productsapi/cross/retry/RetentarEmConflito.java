@@ -0,0 +1,21 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.retry;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marca um método transacional para ser executado novamente quando a transação
+ * falhar por conflito de versão (lock otimista) ou por deadlock.
+ *
+ * @author André Garcia
+ * @see RetentarEmConflitoInterceptor
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetentarEmConflito {
+
+}
@@ -0,0 +1,136 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.retry;
+
+import com.github.andregpereira.resilientshop.productsapi.infra.config.RetentativaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Interceptor dos métodos anotados com {@link RetentarEmConflito}. Executa o método
+ * novamente, com espera exponencial e aleatória, sempre que a transação falhar por
+ * conflito de versão ou for escolhida como vítima de um deadlock. Deve envolver o
+ * interceptor de transação, para que cada tentativa seja uma nova transação.
+ * <p>
+ * Falhas ao obter um bloqueio no modo {@code NOWAIT} ou {@code SKIP LOCKED} não são
+ * retentadas, pois o objetivo desses modos é rejeitar a operação rapidamente.
+ *
+ * @author André Garcia
+ * @see RetentarEmConflito
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class RetentarEmConflitoInterceptor implements MethodInterceptor {
+
+    private static final String METRICA_CONFLITOS = "produtos.concorrencia.conflitos";
+
+    private static final String METRICA_RETENTATIVAS = "produtos.concorrencia.retentativas";
+
+    private static final String METRICA_DEADLOCKS = "produtos.concorrencia.deadlocks";
+
+    private static final String METRICA_BLOQUEIOS_REJEITADOS = "produtos.concorrencia.bloqueios.rejeitados";
+
+    /**
+     * SQLStates de deadlock ({@code 40P01} no PostgreSQL) e de falha de serialização ({@code 40001}),
+     * usado também pelo H2 para deadlocks.
+     */
+    private static final Set<String> SQL_STATES_DEADLOCK = Set.of("40P01", "40001");
+
+    private final ObjectProvider<RetentativaProperties> properties;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return invocation.proceed();
+        }
+        RetentativaProperties config = properties.getObject();
+        String metodo = invocation
+            .getMethod()
+            .getName();
+        int tentativa = 1;
+        while (true) {
+            try {
+                return invocation instanceof ProxyMethodInvocation proxyInvocation
+                    ? proxyInvocation
+                    .invocableClone()
+                    .proceed()
+                    : invocation.proceed();
+            } catch (ConcurrencyFailureException e) {
+                String motivo;
+                if (e instanceof OptimisticLockingFailureException) {
+                    motivo = "Conflito de versão";
+                    contador(METRICA_CONFLITOS, metodo).increment();
+                } else if (isDeadlock(e)) {
+                    motivo = "Deadlock";
+                    contador(METRICA_DEADLOCKS, metodo).increment();
+                } else {
+                    log.info("Bloqueio indisponível em {}", metodo);
+                    contador(METRICA_BLOQUEIOS_REJEITADOS, metodo).increment();
+                    throw e;
+                }
+                if (tentativa >= config.maxTentativas() || !(invocation instanceof ProxyMethodInvocation)) {
+                    log.warn("{} em {} após {} tentativas", motivo, metodo, tentativa);
+                    throw e;
+                }
+                long espera = calcularEspera(config, tentativa);
+                log.info("{} em {}. Nova tentativa em {} ms", motivo, metodo, espera);
+                contador(METRICA_RETENTATIVAS, metodo).increment();
+                Thread.sleep(espera);
+                tentativa++;
+            }
+        }
+    }
+
+    /**
+     * Calcula a espera antes da próxima tentativa, sorteada entre zero e o teto
+     * exponencial da tentativa atual, limitado à espera máxima.
+     *
+     * @param config    a configuração de retentativas.
+     * @param tentativa o número da tentativa que falhou.
+     *
+     * @return a espera em milissegundos.
+     */
+    public static long calcularEspera(RetentativaProperties config, int tentativa) {
+        long teto = Math.min(
+            config
+                .esperaMaxima()
+                .toMillis(),
+            config
+                .esperaInicial()
+                .toMillis() << Math.min(tentativa - 1, 20)
+        );
+        return ThreadLocalRandom
+            .current()
+            .nextLong(teto + 1);
+    }
+
+    private static boolean isDeadlock(Throwable e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof SQLException sqlException && SQL_STATES_DEADLOCK.contains(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Counter contador(String nome, String metodo) {
+        return Counter
+            .builder(nome)
+            .tag("metodo", metodo)
+            .register(meterRegistry.getObject());
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaArvoreDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Cópia imutável de todas as categorias e subcategorias, em ordem de {@code id}. Uma nova cópia é construída
+ * a cada alteração e substitui a anterior por inteiro, de modo que quem lê uma cópia nunca a vê parcialmente
+ * atualizada. A {@linkplain #impressao() impressão} do conteúdo identifica a cópia nas respostas condicionais.
+ *
+ * @author André Garcia
+ */
+public final class ArvoreCategorias {
+
+    private final List<CategoriaArvoreDto> arvore;
+
+    private final List<CategoriaDto> categorias;
+
+    private final List<SubcategoriaDto> subcategorias;
+
+    private final Map<Long, CategoriaDto> categoriasPorId;
+
+    private final Map<Long, SubcategoriaDetalhesDto> subcategoriasPorId;
+
+    private final long impressao;
+
+    /**
+     * @param categorias    todas as categorias.
+     * @param subcategorias todas as subcategorias, com as suas categorias.
+     */
+    public ArvoreCategorias(Collection<CategoriaDto> categorias, Collection<SubcategoriaDetalhesDto> subcategorias) {
+        List<CategoriaDto> categoriasOrdenadas = new ArrayList<>(categorias);
+        categoriasOrdenadas.sort(Comparator.comparing(CategoriaDto::id));
+        List<SubcategoriaDetalhesDto> subcategoriasOrdenadas = new ArrayList<>(subcategorias);
+        subcategoriasOrdenadas.sort(Comparator.comparing(SubcategoriaDetalhesDto::id));
+
+        Map<Long, List<SubcategoriaDto>> porCategoria = new LinkedHashMap<>();
+        categoriasOrdenadas.forEach(c -> porCategoria.put(c.id(), new ArrayList<>()));
+        List<SubcategoriaDto> listaSubcategorias = new ArrayList<>(subcategoriasOrdenadas.size());
+        Map<Long, SubcategoriaDetalhesDto> subcategoriasPorIdMutavel = new LinkedHashMap<>();
+        subcategoriasOrdenadas.forEach(s -> {
+            SubcategoriaDto subcategoria = new SubcategoriaDto(s.id(), s.nome(), s.descricao());
+            listaSubcategorias.add(subcategoria);
+            subcategoriasPorIdMutavel.put(s.id(), s);
+            if (s.categoria() != null) {
+                List<SubcategoriaDto> daCategoria = porCategoria.get(s
+                    .categoria()
+                    .id());
+                if (daCategoria != null) {
+                    daCategoria.add(subcategoria);
+                }
+            }
+        });
+
+        List<CategoriaArvoreDto> arvoreMutavel = new ArrayList<>(categoriasOrdenadas.size());
+        Map<Long, CategoriaDto> categoriasPorIdMutavel = new LinkedHashMap<>();
+        categoriasOrdenadas.forEach(c -> {
+            arvoreMutavel.add(new CategoriaArvoreDto(c.id(), c.nome(), List.copyOf(porCategoria.get(c.id()))));
+            categoriasPorIdMutavel.put(c.id(), c);
+        });
+
+        this.arvore = List.copyOf(arvoreMutavel);
+        this.categorias = List.copyOf(categoriasOrdenadas);
+        this.subcategorias = List.copyOf(listaSubcategorias);
+        this.categoriasPorId = Map.copyOf(categoriasPorIdMutavel);
+        this.subcategoriasPorId = Map.copyOf(subcategoriasPorIdMutavel);
+        this.impressao = EtagUtils.impressao(this.categorias, subcategoriasOrdenadas);
+    }
+
+    /**
+     * @return as categorias com as suas subcategorias.
+     */
+    public List<CategoriaArvoreDto> arvore() {
+        return arvore;
+    }
+
+    public List<CategoriaDto> categorias() {
+        return categorias;
+    }
+
+    public List<SubcategoriaDto> subcategorias() {
+        return subcategorias;
+    }
+
+    public Optional<CategoriaDto> categoria(Long id) {
+        return Optional.ofNullable(id == null ? null : categoriasPorId.get(id));
+    }
+
+    public Optional<SubcategoriaDetalhesDto> subcategoria(Long id) {
+        return Optional.ofNullable(id == null ? null : subcategoriasPorId.get(id));
+    }
+
+    /**
+     * @return o CRC32 de todas as categorias e subcategorias, igual entre cópias com o mesmo conteúdo.
+     */
+    public long impressao() {
+        return impressao;
+    }
+
+}
@@ -0,0 +1,543 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Conjunto de inteiros não negativos comprimido no formato do Roaring Bitmap: os valores são agrupados pelos
+ * 16 bits mais altos, e cada grupo guarda os 16 bits mais baixos em um contêiner escolhido pela densidade.
+ * Grupos com até {@value #LIMITE_ARRAY} valores usam um array ordenado de {@code char}, com dois bytes por
+ * valor; grupos mais densos usam um mapa de 65536 bits, com 8 KiB fixos. Interseções e uniões são feitas
+ * contêiner a contêiner, com contagem de bits por palavra nos mapas.
+ * <p>
+ * Não é seguro para uso concorrente; o {@link IndiceFacetas} o protege com o seu bloqueio.
+ *
+ * @author André Garcia
+ */
+public final class BitmapCompacto {
+
+    static final int LIMITE_ARRAY = 4096;
+
+    private static final char[] SEM_CHAVES = new char[0];
+
+    private static final Container[] SEM_CONTAINERS = new Container[0];
+
+    private char[] chaves;
+
+    private Container[] containers;
+
+    private int tamanho;
+
+    public BitmapCompacto() {
+        this(SEM_CHAVES, SEM_CONTAINERS, 0);
+    }
+
+    private BitmapCompacto(char[] chaves, Container[] containers, int tamanho) {
+        this.chaves = chaves;
+        this.containers = containers;
+        this.tamanho = tamanho;
+    }
+
+    /**
+     * Adiciona um valor ao conjunto.
+     *
+     * @param valor o valor, não negativo.
+     */
+    public void adicionar(int valor) {
+        char alta = (char) (valor >>> 16);
+        int i = buscar(alta);
+        if (i >= 0) {
+            containers[i] = containers[i].adicionar((char) valor);
+            return;
+        }
+        i = -i - 1;
+        if (tamanho == chaves.length) {
+            int capacidade = Math.max(4, tamanho * 2);
+            chaves = Arrays.copyOf(chaves, capacidade);
+            containers = Arrays.copyOf(containers, capacidade);
+        }
+        System.arraycopy(chaves, i, chaves, i + 1, tamanho - i);
+        System.arraycopy(containers, i, containers, i + 1, tamanho - i);
+        chaves[i] = alta;
+        containers[i] = new ContainerArray().adicionar((char) valor);
+        tamanho++;
+    }
+
+    /**
+     * Remove um valor do conjunto, se presente.
+     *
+     * @param valor o valor.
+     */
+    public void remover(int valor) {
+        int i = buscar((char) (valor >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Container container = containers[i].remover((char) valor);
+        if (container.cardinalidade() > 0) {
+            containers[i] = container;
+            return;
+        }
+        System.arraycopy(chaves, i + 1, chaves, i, tamanho - i - 1);
+        System.arraycopy(containers, i + 1, containers, i, tamanho - i - 1);
+        containers[--tamanho] = null;
+    }
+
+    public boolean contem(int valor) {
+        int i = buscar((char) (valor >>> 16));
+        return i >= 0 && containers[i].contem((char) valor);
+    }
+
+    public long cardinalidade() {
+        long total = 0;
+        for (int i = 0; i < tamanho; i++) {
+            total += containers[i].cardinalidade();
+        }
+        return total;
+    }
+
+    public boolean isVazio() {
+        return tamanho == 0;
+    }
+
+    /**
+     * @param outro o outro conjunto.
+     *
+     * @return um novo conjunto com os valores presentes nos dois.
+     */
+    public BitmapCompacto e(BitmapCompacto outro) {
+        int capacidade = Math.min(tamanho, outro.tamanho);
+        char[] novasChaves = new char[capacidade];
+        Container[] novos = new Container[capacidade];
+        int n = 0;
+        int i = 0, j = 0;
+        while (i < tamanho && j < outro.tamanho) {
+            if (chaves[i] < outro.chaves[j]) {
+                i++;
+            } else if (chaves[i] > outro.chaves[j]) {
+                j++;
+            } else {
+                Container container = containers[i].e(outro.containers[j]);
+                if (container.cardinalidade() > 0) {
+                    novasChaves[n] = chaves[i];
+                    novos[n++] = container;
+                }
+                i++;
+                j++;
+            }
+        }
+        return new BitmapCompacto(novasChaves, novos, n);
+    }
+
+    /**
+     * @param outro o outro conjunto.
+     *
+     * @return um novo conjunto com os valores presentes em qualquer um dos dois.
+     */
+    public BitmapCompacto ou(BitmapCompacto outro) {
+        int capacidade = tamanho + outro.tamanho;
+        char[] novasChaves = new char[capacidade];
+        Container[] novos = new Container[capacidade];
+        int n = 0;
+        int i = 0, j = 0;
+        while (i < tamanho || j < outro.tamanho) {
+            if (j == outro.tamanho || i < tamanho && chaves[i] < outro.chaves[j]) {
+                novasChaves[n] = chaves[i];
+                novos[n++] = containers[i++].copiar();
+            } else if (i == tamanho || outro.chaves[j] < chaves[i]) {
+                novasChaves[n] = outro.chaves[j];
+                novos[n++] = outro.containers[j++].copiar();
+            } else {
+                novasChaves[n] = chaves[i];
+                novos[n++] = containers[i++].ou(outro.containers[j++]);
+            }
+        }
+        return new BitmapCompacto(novasChaves, novos, n);
+    }
+
+    /**
+     * Conta os valores presentes nos dois conjuntos sem criar a interseção.
+     *
+     * @param outro o outro conjunto.
+     *
+     * @return a cardinalidade da interseção.
+     */
+    public long cardinalidadeE(BitmapCompacto outro) {
+        long total = 0;
+        int i = 0, j = 0;
+        while (i < tamanho && j < outro.tamanho) {
+            if (chaves[i] < outro.chaves[j]) {
+                i++;
+            } else if (chaves[i] > outro.chaves[j]) {
+                j++;
+            } else {
+                total += containers[i++].cardinalidadeE(outro.containers[j++]);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Percorre os valores em ordem crescente.
+     *
+     * @param acao a ação executada para cada valor.
+     */
+    public void paraCada(IntConsumer acao) {
+        for (int i = 0; i < tamanho; i++) {
+            containers[i].paraCada(chaves[i] << 16, acao);
+        }
+    }
+
+    /**
+     * Retorna uma página dos valores em ordem crescente, pulando contêineres inteiros até o início.
+     *
+     * @param inicio a posição do primeiro valor retornado.
+     * @param limite a quantidade máxima de valores.
+     *
+     * @return os valores da página.
+     */
+    public int[] pagina(long inicio, int limite) {
+        int[] pagina = new int[(int) Math.max(0, Math.min(limite, cardinalidade() - inicio))];
+        long pular = inicio;
+        int n = 0;
+        for (int i = 0; i < tamanho && n < pagina.length; i++) {
+            int cardinalidade = containers[i].cardinalidade();
+            if (pular >= cardinalidade) {
+                pular -= cardinalidade;
+                continue;
+            }
+            n = containers[i].copiarPara(chaves[i] << 16, (int) pular, pagina, n);
+            pular = 0;
+        }
+        return pagina;
+    }
+
+    private int buscar(char alta) {
+        return Arrays.binarySearch(chaves, 0, tamanho, alta);
+    }
+
+    private sealed interface Container permits ContainerArray, ContainerMapa {
+
+        Container adicionar(char valor);
+
+        Container remover(char valor);
+
+        boolean contem(char valor);
+
+        int cardinalidade();
+
+        Container e(Container outro);
+
+        Container ou(Container outro);
+
+        int cardinalidadeE(Container outro);
+
+        void paraCada(int alta, IntConsumer acao);
+
+        /**
+         * Copia os valores a partir da posição {@code pular} para {@code destino}, até enchê-lo.
+         *
+         * @return a próxima posição livre de {@code destino}.
+         */
+        int copiarPara(int alta, int pular, int[] destino, int posicao);
+
+        Container copiar();
+
+    }
+
+    private static final class ContainerArray implements Container {
+
+        private char[] valores;
+
+        private int cardinalidade;
+
+        ContainerArray() {
+            this(new char[4], 0);
+        }
+
+        ContainerArray(char[] valores, int cardinalidade) {
+            this.valores = valores;
+            this.cardinalidade = cardinalidade;
+        }
+
+        @Override
+        public Container adicionar(char valor) {
+            int i = Arrays.binarySearch(valores, 0, cardinalidade, valor);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinalidade >= LIMITE_ARRAY) {
+                return paraMapa().adicionar(valor);
+            }
+            i = -i - 1;
+            if (cardinalidade == valores.length) {
+                valores = Arrays.copyOf(valores, Math.min(LIMITE_ARRAY, cardinalidade * 2));
+            }
+            System.arraycopy(valores, i, valores, i + 1, cardinalidade - i);
+            valores[i] = valor;
+            cardinalidade++;
+            return this;
+        }
+
+        @Override
+        public Container remover(char valor) {
+            int i = Arrays.binarySearch(valores, 0, cardinalidade, valor);
+            if (i >= 0) {
+                System.arraycopy(valores, i + 1, valores, i, cardinalidade - i - 1);
+                cardinalidade--;
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contem(char valor) {
+            return Arrays.binarySearch(valores, 0, cardinalidade, valor) >= 0;
+        }
+
+        @Override
+        public int cardinalidade() {
+            return cardinalidade;
+        }
+
+        @Override
+        public Container e(Container outro) {
+            char[] resultado = new char[Math.min(cardinalidade, outro.cardinalidade())];
+            int n = 0;
+            if (outro instanceof ContainerArray array) {
+                int i = 0, j = 0;
+                while (i < cardinalidade && j < array.cardinalidade) {
+                    if (valores[i] < array.valores[j]) {
+                        i++;
+                    } else if (valores[i] > array.valores[j]) {
+                        j++;
+                    } else {
+                        resultado[n++] = valores[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinalidade; i++) {
+                    if (outro.contem(valores[i])) {
+                        resultado[n++] = valores[i];
+                    }
+                }
+            }
+            return new ContainerArray(resultado, n);
+        }
+
+        @Override
+        public Container ou(Container outro) {
+            if (outro instanceof ContainerMapa mapa) {
+                return mapa.ou(this);
+            }
+            ContainerArray array = (ContainerArray) outro;
+            char[] resultado = new char[cardinalidade + array.cardinalidade];
+            int n = 0;
+            int i = 0, j = 0;
+            while (i < cardinalidade || j < array.cardinalidade) {
+                if (j == array.cardinalidade || i < cardinalidade && valores[i] < array.valores[j]) {
+                    resultado[n++] = valores[i++];
+                } else if (i == cardinalidade || array.valores[j] < valores[i]) {
+                    resultado[n++] = array.valores[j++];
+                } else {
+                    resultado[n++] = valores[i];
+                    i++;
+                    j++;
+                }
+            }
+            ContainerArray uniao = new ContainerArray(resultado, n);
+            return n > LIMITE_ARRAY
+                ? uniao.paraMapa()
+                : uniao;
+        }
+
+        @Override
+        public int cardinalidadeE(Container outro) {
+            int total = 0;
+            for (int i = 0; i < cardinalidade; i++) {
+                if (outro.contem(valores[i])) {
+                    total++;
+                }
+            }
+            return total;
+        }
+
+        @Override
+        public void paraCada(int alta, IntConsumer acao) {
+            for (int i = 0; i < cardinalidade; i++) {
+                acao.accept(alta | valores[i]);
+            }
+        }
+
+        @Override
+        public int copiarPara(int alta, int pular, int[] destino, int posicao) {
+            for (int i = pular; i < cardinalidade && posicao < destino.length; i++) {
+                destino[posicao++] = alta | valores[i];
+            }
+            return posicao;
+        }
+
+        @Override
+        public Container copiar() {
+            return new ContainerArray(Arrays.copyOf(valores, Math.max(cardinalidade, 4)), cardinalidade);
+        }
+
+        private ContainerMapa paraMapa() {
+            ContainerMapa mapa = new ContainerMapa();
+            for (int i = 0; i < cardinalidade; i++) {
+                mapa.adicionar(valores[i]);
+            }
+            return mapa;
+        }
+
+    }
+
+    private static final class ContainerMapa implements Container {
+
+        private final long[] palavras;
+
+        private int cardinalidade;
+
+        ContainerMapa() {
+            this(new long[1024], 0);
+        }
+
+        ContainerMapa(long[] palavras, int cardinalidade) {
+            this.palavras = palavras;
+            this.cardinalidade = cardinalidade;
+        }
+
+        @Override
+        public Container adicionar(char valor) {
+            long antes = palavras[valor >>> 6];
+            palavras[valor >>> 6] = antes | 1L << valor;
+            if (antes != palavras[valor >>> 6]) {
+                cardinalidade++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remover(char valor) {
+            long antes = palavras[valor >>> 6];
+            palavras[valor >>> 6] = antes & ~(1L << valor);
+            if (antes != palavras[valor >>> 6]) {
+                cardinalidade--;
+            }
+            return cardinalidade <= LIMITE_ARRAY
+                ? paraArray()
+                : this;
+        }
+
+        @Override
+        public boolean contem(char valor) {
+            return (palavras[valor >>> 6] & 1L << valor) != 0;
+        }
+
+        @Override
+        public int cardinalidade() {
+            return cardinalidade;
+        }
+
+        @Override
+        public Container e(Container outro) {
+            if (outro instanceof ContainerArray array) {
+                return array.e(this);
+            }
+            ContainerMapa mapa = (ContainerMapa) outro;
+            long[] resultado = new long[1024];
+            int total = 0;
+            for (int i = 0; i < 1024; i++) {
+                resultado[i] = palavras[i] & mapa.palavras[i];
+                total += Long.bitCount(resultado[i]);
+            }
+            ContainerMapa intersecao = new ContainerMapa(resultado, total);
+            return total <= LIMITE_ARRAY
+                ? intersecao.paraArray()
+                : intersecao;
+        }
+
+        @Override
+        public Container ou(Container outro) {
+            long[] resultado = palavras.clone();
+            int total = cardinalidade;
+            if (outro instanceof ContainerMapa mapa) {
+                total = 0;
+                for (int i = 0; i < 1024; i++) {
+                    resultado[i] |= mapa.palavras[i];
+                    total += Long.bitCount(resultado[i]);
+                }
+                return new ContainerMapa(resultado, total);
+            }
+            ContainerMapa uniao = new ContainerMapa(resultado, total);
+            outro.paraCada(0, v -> uniao.adicionar((char) v));
+            return uniao;
+        }
+
+        @Override
+        public int cardinalidadeE(Container outro) {
+            if (outro instanceof ContainerArray array) {
+                return array.cardinalidadeE(this);
+            }
+            ContainerMapa mapa = (ContainerMapa) outro;
+            int total = 0;
+            for (int i = 0; i < 1024; i++) {
+                total += Long.bitCount(palavras[i] & mapa.palavras[i]);
+            }
+            return total;
+        }
+
+        @Override
+        public void paraCada(int alta, IntConsumer acao) {
+            for (int i = 0; i < 1024; i++) {
+                long palavra = palavras[i];
+                while (palavra != 0) {
+                    acao.accept(alta | i << 6 | Long.numberOfTrailingZeros(palavra));
+                    palavra &= palavra - 1;
+                }
+            }
+        }
+
+        @Override
+        public int copiarPara(int alta, int pular, int[] destino, int posicao) {
+            for (int i = 0; i < 1024 && posicao < destino.length; i++) {
+                long palavra = palavras[i];
+                int bits = Long.bitCount(palavra);
+                if (pular >= bits) {
+                    pular -= bits;
+                    continue;
+                }
+                while (palavra != 0 && posicao < destino.length) {
+                    if (pular > 0) {
+                        pular--;
+                    } else {
+                        destino[posicao++] = alta | i << 6 | Long.numberOfTrailingZeros(palavra);
+                    }
+                    palavra &= palavra - 1;
+                }
+            }
+            return posicao;
+        }
+
+        @Override
+        public Container copiar() {
+            return new ContainerMapa(palavras.clone(), cardinalidade);
+        }
+
+        private ContainerArray paraArray() {
+            char[] valores = new char[Math.max(cardinalidade, 4)];
+            int n = 0;
+            for (int i = 0; i < 1024; i++) {
+                long palavra = palavras[i];
+                while (palavra != 0) {
+                    valores[n++] = (char) (i << 6 | Long.numberOfTrailingZeros(palavra));
+                    palavra &= palavra - 1;
+                }
+            }
+            return new ContainerArray(valores, n);
+        }
+
+    }
+
+}
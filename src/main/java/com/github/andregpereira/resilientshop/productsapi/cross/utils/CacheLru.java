@@ -0,0 +1,148 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache em memória limitado por quantidade e por tempo. As entradas são mantidas em ordem de acesso e, ao
+ * atingir a capacidade, a entrada acessada há mais tempo é descartada. Entradas expiradas são descartadas ao
+ * serem acessadas.
+ * <p>
+ * Para que um valor lido do banco antes de uma invalidação não seja armazenado depois dela, quem carrega um
+ * valor lê a {@linkplain #geracao() geração} antes da leitura e a informa ao armazenar; o valor é descartado
+ * se alguma chave foi invalidada no meio tempo.
+ *
+ * @param <K> o tipo das chaves.
+ * @param <V> o tipo dos valores.
+ *
+ * @author André Garcia
+ */
+public class CacheLru<K, V> {
+
+    private final Map<K, Entrada<V>> entradas;
+
+    private final Duration ttl;
+
+    private final Clock clock;
+
+    private long geracao;
+
+    private long acertos;
+
+    private long falhas;
+
+    private long armazenamentos;
+
+    private long expulsoes;
+
+    public CacheLru(int capacidade, Duration ttl, Clock clock) {
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> eldest) {
+                if (size() > capacidade) {
+                    expulsoes++;
+                    return true;
+                }
+                return false;
+            }
+
+        };
+        this.ttl = ttl;
+        this.clock = clock;
+    }
+
+    /**
+     * @param chave a chave.
+     *
+     * @return o valor armazenado, ou {@code null} caso não exista ou tenha expirado.
+     */
+    public synchronized V consultar(K chave) {
+        Entrada<V> entrada = entradas.get(chave);
+        if (entrada != null && !entrada.expiraEm.isAfter(clock.instant())) {
+            entradas.remove(chave);
+            expulsoes++;
+            entrada = null;
+        }
+        if (entrada == null) {
+            falhas++;
+            return null;
+        }
+        acertos++;
+        return entrada.valor;
+    }
+
+    /**
+     * Armazena um valor, caso nenhuma chave tenha sido invalidada desde a geração informada.
+     *
+     * @param chave       a chave.
+     * @param valor       o valor.
+     * @param geracaoLida a geração lida antes de carregar o valor.
+     *
+     * @return se o valor foi armazenado.
+     */
+    public synchronized boolean armazenar(K chave, V valor, long geracaoLida) {
+        if (geracaoLida != geracao) {
+            return false;
+        }
+        entradas.put(chave, new Entrada<>(
+            valor,
+            clock
+                .instant()
+                .plus(ttl)
+        ));
+        armazenamentos++;
+        return true;
+    }
+
+    /**
+     * Remove uma chave e avança a geração.
+     *
+     * @param chave a chave.
+     */
+    public synchronized void invalidar(K chave) {
+        geracao++;
+        entradas.remove(chave);
+    }
+
+    /**
+     * Remove todas as chaves e avança a geração.
+     */
+    public synchronized void invalidarTodos() {
+        geracao++;
+        entradas.clear();
+    }
+
+    public synchronized long geracao() {
+        return geracao;
+    }
+
+    public synchronized int tamanho() {
+        return entradas.size();
+    }
+
+    public synchronized long acertos() {
+        return acertos;
+    }
+
+    public synchronized long falhas() {
+        return falhas;
+    }
+
+    public synchronized long armazenamentos() {
+        return armazenamentos;
+    }
+
+    /**
+     * @return a quantidade de entradas descartadas por capacidade ou por expiração.
+     */
+    public synchronized long expulsoes() {
+        return expulsoes;
+    }
+
+    private record Entrada<V>(V valor, Instant expiraEm) {}
+
+}
@@ -0,0 +1,124 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.PaginacaoInvalidaException;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.MessageFormat;
+import java.util.Base64;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Posição na paginação de produtos por cursor: a propriedade e a direção da ordenação e a chave do último
+ * produto retornado, formada pelo valor da propriedade e pelo {@code id}, que desempata valores repetidos.
+ * A posição inicial não tem chave. O cursor entregue ao cliente é a posição codificada em Base64, sem
+ * significado para ele.
+ *
+ * @param propriedade a propriedade da ordenação: {@code id}, {@code nome} ou {@code valorUnitario}.
+ * @param direcao     a direção da ordenação.
+ * @param valor       o valor da propriedade no último produto retornado.
+ * @param id          o id do último produto retornado.
+ *
+ * @author André Garcia
+ */
+public record CursorProduto(String propriedade, Sort.Direction direcao, Object valor, Long id) {
+
+    private static final Map<String, Function<String, Object>> PROPRIEDADES = Map.of(
+        "id", Long::valueOf,
+        "nome", valor -> valor,
+        "valorUnitario", BigDecimal::new
+    );
+
+    private static final String SEPARADOR = "|";
+
+    /**
+     * Retorna a posição inicial de uma ordenação.
+     *
+     * @param ordem a ordenação.
+     *
+     * @return a posição inicial.
+     *
+     * @throws PaginacaoInvalidaException caso a propriedade da ordenação não seja suportada.
+     */
+    public static CursorProduto inicio(Sort.Order ordem) {
+        if (!PROPRIEDADES.containsKey(ordem.getProperty())) {
+            throw new PaginacaoInvalidaException(MessageFormat.format(
+                "Ops! A ordenação por {0} não é suportada na paginação por cursor",
+                ordem.getProperty()
+            ));
+        }
+        return new CursorProduto(ordem.getProperty(), ordem.getDirection(), null, null);
+    }
+
+    /**
+     * Decodifica um cursor recebido do cliente.
+     *
+     * @param cursor o cursor.
+     *
+     * @return a posição codificada no cursor.
+     *
+     * @throws PaginacaoInvalidaException caso o cursor seja inválido.
+     */
+    public static CursorProduto decodificar(String cursor) {
+        try {
+            String[] partes = new String(Base64
+                .getUrlDecoder()
+                .decode(cursor), StandardCharsets.UTF_8).split("\\" + SEPARADOR, 4);
+            if (partes.length != 4 || !PROPRIEDADES.containsKey(partes[0])) {
+                throw new IllegalArgumentException(cursor);
+            }
+            return new CursorProduto(
+                partes[0],
+                Sort.Direction.valueOf(partes[1]),
+                PROPRIEDADES
+                    .get(partes[0])
+                    .apply(partes[3]),
+                Long.valueOf(partes[2])
+            );
+        } catch (IllegalArgumentException e) {
+            throw new PaginacaoInvalidaException("Ops! O cursor informado é inválido");
+        }
+    }
+
+    /**
+     * Verifica se esta é a posição inicial, sem produto anterior.
+     *
+     * @return {@code true} caso seja a posição inicial.
+     */
+    public boolean isInicio() {
+        return id == null;
+    }
+
+    /**
+     * Retorna a posição seguinte a um produto, na mesma ordenação.
+     *
+     * @param produto o último produto retornado.
+     *
+     * @return a posição seguinte ao produto.
+     */
+    public CursorProduto apos(ProdutoDto produto) {
+        Object valorProduto = switch (propriedade) {
+            case "nome" -> produto.nome();
+            case "valorUnitario" -> produto.valorUnitario();
+            default -> produto.id();
+        };
+        return new CursorProduto(propriedade, direcao, valorProduto, produto.id());
+    }
+
+    /**
+     * Codifica a posição como um cursor opaco para o cliente.
+     *
+     * @return o cursor.
+     */
+    public String codificar() {
+        String posicao = String.join(SEPARADOR, propriedade, direcao.name(), String.valueOf(id), String.valueOf(valor));
+        return Base64
+            .getUrlEncoder()
+            .withoutPadding()
+            .encodeToString(posicao.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
+import lombok.experimental.UtilityClass;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+@UtilityClass
+public class EstoqueUtils {
+
+    /**
+     * Soma as quantidades de linhas repetidas de um mesmo produto e as ordena por {@code id}.
+     *
+     * @param dtos a lista de produtos e quantidades.
+     *
+     * @return as quantidades por id de produto.
+     */
+    public static Map<Long, Integer> agruparQuantidades(Collection<ProdutoAtualizarEstoqueDto> dtos) {
+        return dtos
+            .stream()
+            .collect(Collectors.toMap(
+                ProdutoAtualizarEstoqueDto::id,
+                ProdutoAtualizarEstoqueDto::quantidade,
+                Integer::sum,
+                TreeMap::new
+            ));
+    }
+
+}
@@ -0,0 +1,145 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+/**
+ * Geração e comparação de ETags para as consultas condicionais ({@code If-None-Match}).
+ *
+ * @author André Garcia
+ */
+@UtilityClass
+public class EtagUtils {
+
+    /**
+     * Monta uma ETag forte, para representações que são idênticas sempre que as partes forem iguais.
+     *
+     * @param partes os valores de que a representação depende.
+     *
+     * @return a ETag entre aspas.
+     */
+    public static String forte(Object... partes) {
+        return new ETag(juntar(partes), false).formattedTag();
+    }
+
+    /**
+     * Monta uma ETag fraca, para representações validadas por uma impressão agregada, e não pelo conteúdo.
+     *
+     * @param partes os valores da impressão.
+     *
+     * @return a ETag entre aspas, com o prefixo {@code W/}.
+     */
+    public static String fraca(Object... partes) {
+        return new ETag(juntar(partes), true).formattedTag();
+    }
+
+    /**
+     * Calcula o CRC32 do texto das partes, para resumir conteúdos inteiros em uma ETag curta.
+     *
+     * @param partes os valores a serem resumidos.
+     *
+     * @return o CRC32 das partes.
+     */
+    public static long impressao(Object... partes) {
+        CRC32 crc = new CRC32();
+        crc.update(Arrays.deepToString(partes).getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Verifica se o cabeçalho {@code If-None-Match} contém a ETag atual, pela comparação fraca, como definido
+     * para consultas condicionais.
+     *
+     * @param seNenhumCorresponder o valor do cabeçalho {@code If-None-Match}, ou {@code null}.
+     * @param etag                 a ETag atual.
+     *
+     * @return {@code true} se o cliente já tem a representação atual.
+     */
+    public static boolean corresponde(String seNenhumCorresponder, String etag) {
+        if (seNenhumCorresponder == null || seNenhumCorresponder.isBlank()) {
+            return false;
+        }
+        ETag atual = ETag.create(etag);
+        return ETag
+            .parse(seNenhumCorresponder)
+            .stream()
+            .anyMatch(e -> e.isWildcard() || e.compare(atual, false));
+    }
+
+    /**
+     * Responde {@code 304 Not Modified} quando o cliente já tem a representação atual, sem montar o corpo, ou
+     * {@code 200 OK} com o corpo e a ETag.
+     *
+     * @param seNenhumCorresponder o valor do cabeçalho {@code If-None-Match}, ou {@code null}.
+     * @param etag                 a ETag atual, obtida antes do corpo.
+     * @param corpo                a consulta do corpo.
+     * @param <T>                  o tipo do corpo.
+     *
+     * @return a resposta condicional.
+     */
+    public static <T> ResponseEntity<T> responder(String seNenhumCorresponder, String etag, Supplier<T> corpo) {
+        if (corresponde(seNenhumCorresponder, etag)) {
+            return naoModificado(etag);
+        }
+        return ResponseEntity
+            .ok()
+            .eTag(etag)
+            .body(corpo.get());
+    }
+
+    /**
+     * Responde {@code 304 Not Modified} quando o cliente já tem a representação atual, ou {@code 200 OK} com o
+     * corpo e a ETag, para representações cuja ETag é calculada do próprio corpo. O corpo é sempre consultado,
+     * mas não é serializado nem transferido quando o cliente já o tem.
+     *
+     * @param seNenhumCorresponder o valor do cabeçalho {@code If-None-Match}, ou {@code null}.
+     * @param corpo                a consulta do corpo.
+     * @param etag                 o cálculo da ETag a partir do corpo.
+     * @param <T>                  o tipo do corpo.
+     *
+     * @return a resposta condicional.
+     */
+    public static <T> ResponseEntity<T> responderPeloCorpo(
+        String seNenhumCorresponder, Supplier<T> corpo, Function<? super T, String> etag
+    ) {
+        T valor = corpo.get();
+        String atual = etag.apply(valor);
+        if (corresponde(seNenhumCorresponder, atual)) {
+            return naoModificado(atual);
+        }
+        return ResponseEntity
+            .ok()
+            .eTag(atual)
+            .body(valor);
+    }
+
+    /**
+     * @param etag a ETag atual.
+     * @param <T>  o tipo do corpo.
+     *
+     * @return uma resposta {@code 304 Not Modified} com a ETag.
+     */
+    public static <T> ResponseEntity<T> naoModificado(String etag) {
+        return ResponseEntity
+            .status(HttpStatus.NOT_MODIFIED)
+            .eTag(etag)
+            .build();
+    }
+
+    private static String juntar(Object... partes) {
+        return Arrays
+            .stream(partes)
+            .map(String::valueOf)
+            .collect(Collectors.joining("-"));
+    }
+
+}
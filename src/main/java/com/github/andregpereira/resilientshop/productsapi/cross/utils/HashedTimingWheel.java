@@ -0,0 +1,157 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Temporizador em roda com hash. Cada agendamento é colocado no slot do seu prazo,
+ * e a cada {@code tick} apenas o slot corrente é percorrido, de modo que agendar e
+ * cancelar custam O(1), independentemente da quantidade de agendamentos pendentes.
+ * <p>
+ * Os slots são manipulados apenas pela thread da roda. Novos agendamentos passam
+ * por uma fila concorrente e são distribuídos no início de cada {@code tick}.
+ *
+ * @author André Garcia
+ */
+@Slf4j
+public class HashedTimingWheel implements AutoCloseable {
+
+    private final long tickNanos;
+
+    private final int mascara;
+
+    private final Queue<Agendamento>[] slots;
+
+    private final Queue<Agendamento> pendentes = new ConcurrentLinkedQueue<>();
+
+    private final ScheduledExecutorService executor;
+
+    private final long inicio;
+
+    private long tick;
+
+    /**
+     * Cria e inicia a roda.
+     *
+     * @param duracaoTick a duração de cada {@code tick}.
+     * @param quantidadeSlots a quantidade de slots, arredondada para a próxima potência de 2.
+     */
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(Duration duracaoTick, int quantidadeSlots) {
+        this.tickNanos = duracaoTick.toNanos();
+        int tamanho = Integer.highestOneBit(Math.max(quantidadeSlots, 2) - 1) << 1;
+        this.mascara = tamanho - 1;
+        this.slots = new Queue[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "hashed-timing-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.inicio = System.nanoTime();
+        executor.scheduleAtFixedRate(this::avancar, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Agenda uma tarefa para ser executada após o atraso informado.
+     *
+     * @param tarefa a tarefa a ser executada.
+     * @param atraso o atraso até a execução.
+     *
+     * @return o agendamento, que pode ser cancelado.
+     */
+    public Agendamento agendar(Runnable tarefa, Duration atraso) {
+        Agendamento agendamento = new Agendamento(tarefa, System.nanoTime() - inicio + atraso.toNanos());
+        pendentes.add(agendamento);
+        return agendamento;
+    }
+
+    private void avancar() {
+        try {
+            distribuirPendentes();
+            Iterator<Agendamento> iterator = slots[(int) (tick & mascara)].iterator();
+            while (iterator.hasNext()) {
+                Agendamento agendamento = iterator.next();
+                if (agendamento.cancelado.get()) {
+                    iterator.remove();
+                } else if (agendamento.voltasRestantes <= 0) {
+                    iterator.remove();
+                    agendamento.executar();
+                } else {
+                    agendamento.voltasRestantes--;
+                }
+            }
+            tick++;
+        } catch (RuntimeException e) {
+            log.error("Erro ao avançar a roda de agendamentos", e);
+        }
+    }
+
+    private void distribuirPendentes() {
+        Agendamento agendamento;
+        while ((agendamento = pendentes.poll()) != null) {
+            if (agendamento.cancelado.get()) {
+                continue;
+            }
+            long tickPrazo = Math.max(agendamento.prazoNanos / tickNanos, tick);
+            agendamento.voltasRestantes = (tickPrazo - tick) / slots.length;
+            slots[(int) (tickPrazo & mascara)].add(agendamento);
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Agendamento de uma tarefa na roda.
+     */
+    public static final class Agendamento {
+
+        private final Runnable tarefa;
+
+        private final long prazoNanos;
+
+        private final AtomicBoolean cancelado = new AtomicBoolean();
+
+        private long voltasRestantes;
+
+        private Agendamento(Runnable tarefa, long prazoNanos) {
+            this.tarefa = tarefa;
+            this.prazoNanos = prazoNanos;
+        }
+
+        /**
+         * Cancela o agendamento.
+         *
+         * @return {@code true} caso o agendamento ainda não tenha sido executado ou cancelado.
+         */
+        public boolean cancelar() {
+            return cancelado.compareAndSet(false, true);
+        }
+
+        private void executar() {
+            if (cancelar()) {
+                try {
+                    tarefa.run();
+                } catch (RuntimeException e) {
+                    log.error("Erro ao executar tarefa agendada", e);
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,393 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.FacetasDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.FiltroProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFacetaDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Índice de atributos de produtos em memória para filtros combinados com contagem de facetas: para cada
+ * valor de cada atributo, o {@linkplain BitmapCompacto conjunto comprimido} dos ids dos produtos com aquele
+ * valor. Um filtro é a interseção dos conjuntos dos atributos filtrados, e a contagem de uma faceta é a
+ * cardinalidade da interseção com o conjunto do valor, sem consultar o banco de dados.
+ * <p>
+ * O preço e o rating são agrupados em faixas. Faixas inteiramente dentro do intervalo filtrado entram
+ * direto na interseção; apenas os produtos das faixas das extremidades são comparados um a um.
+ * <p>
+ * As facetas são disjuntivas: as contagens de um atributo consideram todos os filtros, exceto o do próprio
+ * atributo, de modo que filtrar por uma categoria ainda informa quantos produtos as demais teriam.
+ * <p>
+ * Os ids são guardados como {@code int}, então ids acima de {@link Integer#MAX_VALUE} não são suportados.
+ * Filtros concorrentes compartilham um bloqueio de leitura; alterações usam o bloqueio de escrita.
+ *
+ * @author André Garcia
+ */
+public class IndiceFacetas {
+
+    static final int RATING_MAXIMO = 5;
+
+    private static final BitmapCompacto VAZIO = new BitmapCompacto();
+
+    private final BigDecimal[] limitesPreco;
+
+    private final Map<Integer, ProdutoFacetaDto> produtos = new HashMap<>();
+
+    private final BitmapCompacto todos = new BitmapCompacto();
+
+    private final BitmapCompacto ativos = new BitmapCompacto();
+
+    private final BitmapCompacto inativos = new BitmapCompacto();
+
+    private final BitmapCompacto emEstoque = new BitmapCompacto();
+
+    private final NavigableMap<Long, BitmapCompacto> porCategoria = new TreeMap<>();
+
+    private final NavigableMap<Long, BitmapCompacto> porSubcategoria = new TreeMap<>();
+
+    private final BitmapCompacto[] porFaixaPreco;
+
+    private final BitmapCompacto[] porRating = new BitmapCompacto[RATING_MAXIMO + 1];
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param limitesPreco os limites das faixas de preço, em ordem crescente.
+     */
+    public IndiceFacetas(List<BigDecimal> limitesPreco) {
+        this.limitesPreco = limitesPreco
+            .stream()
+            .sorted()
+            .toArray(BigDecimal[]::new);
+        this.porFaixaPreco = new BitmapCompacto[this.limitesPreco.length + 1];
+        Arrays.setAll(porFaixaPreco, i -> new BitmapCompacto());
+        Arrays.setAll(porRating, i -> new BitmapCompacto());
+    }
+
+    /**
+     * Indexa um produto, substituindo a versão anterior, se houver.
+     *
+     * @param produto os atributos do produto.
+     */
+    public void atualizar(ProdutoFacetaDto produto) {
+        int id = Math.toIntExact(produto.id());
+        lock
+            .writeLock()
+            .lock();
+        try {
+            ProdutoFacetaDto anterior = produtos.put(id, produto);
+            if (anterior != null) {
+                retirar(id, anterior);
+            }
+            todos.adicionar(id);
+            (produto.ativo()
+                ? ativos
+                : inativos).adicionar(id);
+            if (produto.estoque() > 0) {
+                emEstoque.adicionar(id);
+            }
+            porCategoria
+                .computeIfAbsent(produto.categoriaId(), c -> new BitmapCompacto())
+                .adicionar(id);
+            if (produto.subcategoriaId() != null) {
+                porSubcategoria
+                    .computeIfAbsent(produto.subcategoriaId(), s -> new BitmapCompacto())
+                    .adicionar(id);
+            }
+            porFaixaPreco[faixaPreco(produto.valorUnitario())].adicionar(id);
+            porRating[faixaRating(produto.rating())].adicionar(id);
+        } finally {
+            lock
+                .writeLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Remove um produto do índice, se presente.
+     *
+     * @param id o id do produto.
+     */
+    public void remover(long id) {
+        lock
+            .writeLock()
+            .lock();
+        try {
+            int chave = Math.toIntExact(id);
+            ProdutoFacetaDto anterior = produtos.remove(chave);
+            if (anterior != null) {
+                retirar(chave, anterior);
+            }
+        } finally {
+            lock
+                .writeLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * @return a quantidade de produtos indexados.
+     */
+    public int tamanho() {
+        lock
+            .readLock()
+            .lock();
+        try {
+            return produtos.size();
+        } finally {
+            lock
+                .readLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Filtra os produtos pelos atributos informados e conta as facetas.
+     *
+     * @param filtro os filtros; atributos {@code null} não são filtrados.
+     * @param inicio a posição do primeiro id retornado.
+     * @param limite a quantidade máxima de ids retornados.
+     *
+     * @return a página de ids, em ordem crescente, o total de produtos encontrados e as facetas.
+     */
+    public Resultado filtrar(FiltroProdutoDto filtro, long inicio, int limite) {
+        lock
+            .readLock()
+            .lock();
+        try {
+            Map<Dimensao, BitmapCompacto> filtros = filtros(filtro);
+            BitmapCompacto resultado = intersecao(filtros, null);
+            List<Long> ids = new ArrayList<>(limite);
+            for (int id : resultado.pagina(inicio, limite)) {
+                ids.add((long) id);
+            }
+            FacetasDto facetas = new FacetasDto(
+                contar(porCategoria, intersecao(filtros, Dimensao.CATEGORIA)),
+                contar(porSubcategoria, intersecao(filtros, Dimensao.SUBCATEGORIA)),
+                contarFaixasPreco(intersecao(filtros, Dimensao.PRECO)),
+                contarRatings(intersecao(filtros, Dimensao.RATING)),
+                intersecao(filtros, Dimensao.ESTOQUE).cardinalidadeE(emEstoque)
+            );
+            return new Resultado(ids, resultado.cardinalidade(), facetas);
+        } finally {
+            lock
+                .readLock()
+                .unlock();
+        }
+    }
+
+    private Map<Dimensao, BitmapCompacto> filtros(FiltroProdutoDto filtro) {
+        Map<Dimensao, BitmapCompacto> filtros = new EnumMap<>(Dimensao.class);
+        if (filtro.ativo() != null) {
+            filtros.put(Dimensao.ATIVO, filtro.ativo()
+                ? ativos
+                : inativos);
+        }
+        if (filtro.categoriaId() != null) {
+            filtros.put(Dimensao.CATEGORIA, porCategoria.getOrDefault(filtro.categoriaId(), VAZIO));
+        }
+        if (filtro.subcategoriaId() != null) {
+            filtros.put(Dimensao.SUBCATEGORIA, porSubcategoria.getOrDefault(filtro.subcategoriaId(), VAZIO));
+        }
+        if (filtro.precoMinimo() != null || filtro.precoMaximo() != null) {
+            filtros.put(Dimensao.PRECO, filtrarPreco(filtro.precoMinimo(), filtro.precoMaximo()));
+        }
+        if (filtro.ratingMinimo() != null) {
+            filtros.put(Dimensao.RATING, filtrarRating(filtro.ratingMinimo()));
+        }
+        if (Boolean.TRUE.equals(filtro.emEstoque())) {
+            filtros.put(Dimensao.ESTOQUE, emEstoque);
+        }
+        return filtros;
+    }
+
+    /**
+     * Une as faixas de preço dentro do intervalo, comparando um a um apenas os produtos das faixas que o
+     * intervalo corta.
+     */
+    private BitmapCompacto filtrarPreco(BigDecimal minimo, BigDecimal maximo) {
+        BitmapCompacto resultado = new BitmapCompacto();
+        for (int i = 0; i < porFaixaPreco.length; i++) {
+            BigDecimal de = i == 0
+                ? BigDecimal.ZERO
+                : limitesPreco[i - 1];
+            BigDecimal ate = i == limitesPreco.length
+                ? null
+                : limitesPreco[i];
+            boolean abaixo = minimo != null && ate != null && ate.compareTo(minimo) <= 0;
+            boolean acima = maximo != null && de.compareTo(maximo) > 0;
+            if (abaixo || acima) {
+                continue;
+            }
+            boolean inteira = (minimo == null || de.compareTo(minimo) >= 0)
+                && (maximo == null || ate != null && ate.compareTo(maximo) <= 0);
+            resultado = resultado.ou(inteira
+                ? porFaixaPreco[i]
+                : comparar(porFaixaPreco[i], p -> (minimo == null || p
+                    .valorUnitario()
+                    .compareTo(minimo) >= 0) && (maximo == null || p
+                    .valorUnitario()
+                    .compareTo(maximo) <= 0)));
+        }
+        return resultado;
+    }
+
+    private BitmapCompacto filtrarRating(BigDecimal minimo) {
+        BitmapCompacto resultado = new BitmapCompacto();
+        for (int i = 0; i <= RATING_MAXIMO; i++) {
+            BigDecimal de = BigDecimal.valueOf(i);
+            if (de.compareTo(minimo) >= 0) {
+                resultado = resultado.ou(porRating[i]);
+            } else if (i == RATING_MAXIMO || de
+                .add(BigDecimal.ONE)
+                .compareTo(minimo) > 0) {
+                resultado = resultado.ou(comparar(porRating[i], p -> rating(p).compareTo(minimo) >= 0));
+            }
+        }
+        return resultado;
+    }
+
+    private BitmapCompacto comparar(BitmapCompacto faixa, Predicate<ProdutoFacetaDto> condicao) {
+        BitmapCompacto resultado = new BitmapCompacto();
+        faixa.paraCada(id -> {
+            if (condicao.test(produtos.get(id))) {
+                resultado.adicionar(id);
+            }
+        });
+        return resultado;
+    }
+
+    /**
+     * Intersecta os filtros, exceto o da dimensão {@code exceto}, a partir do menor conjunto.
+     */
+    private BitmapCompacto intersecao(Map<Dimensao, BitmapCompacto> filtros, Dimensao exceto) {
+        List<BitmapCompacto> conjuntos = new ArrayList<>(filtros.size());
+        filtros.forEach((dimensao, conjunto) -> {
+            if (dimensao != exceto) {
+                conjuntos.add(conjunto);
+            }
+        });
+        if (conjuntos.isEmpty()) {
+            return todos;
+        }
+        conjuntos.sort((a, b) -> Long.compare(a.cardinalidade(), b.cardinalidade()));
+        BitmapCompacto resultado = conjuntos.get(0);
+        for (int i = 1; i < conjuntos.size() && !resultado.isVazio(); i++) {
+            resultado = resultado.e(conjuntos.get(i));
+        }
+        return resultado;
+    }
+
+    private static Map<Long, Long> contar(NavigableMap<Long, BitmapCompacto> porValor, BitmapCompacto base) {
+        Map<Long, Long> contagens = new LinkedHashMap<>();
+        porValor.forEach((valor, conjunto) -> {
+            long quantidade = base.cardinalidadeE(conjunto);
+            if (quantidade > 0) {
+                contagens.put(valor, quantidade);
+            }
+        });
+        return contagens;
+    }
+
+    private Map<String, Long> contarFaixasPreco(BitmapCompacto base) {
+        Map<String, Long> contagens = new LinkedHashMap<>();
+        for (int i = 0; i < porFaixaPreco.length; i++) {
+            String rotulo = i == limitesPreco.length
+                ? limitesPreco[i - 1].toPlainString() + "+"
+                : (i == 0
+                    ? "0"
+                    : limitesPreco[i - 1].toPlainString()) + "-" + limitesPreco[i].toPlainString();
+            contagens.put(rotulo, base.cardinalidadeE(porFaixaPreco[i]));
+        }
+        return contagens;
+    }
+
+    private Map<Integer, Long> contarRatings(BitmapCompacto base) {
+        Map<Integer, Long> contagens = new LinkedHashMap<>();
+        for (int i = 0; i <= RATING_MAXIMO; i++) {
+            contagens.put(i, base.cardinalidadeE(porRating[i]));
+        }
+        return contagens;
+    }
+
+    private void retirar(int id, ProdutoFacetaDto produto) {
+        todos.remover(id);
+        ativos.remover(id);
+        inativos.remover(id);
+        emEstoque.remover(id);
+        retirar(porCategoria, produto.categoriaId(), id);
+        if (produto.subcategoriaId() != null) {
+            retirar(porSubcategoria, produto.subcategoriaId(), id);
+        }
+        porFaixaPreco[faixaPreco(produto.valorUnitario())].remover(id);
+        porRating[faixaRating(produto.rating())].remover(id);
+    }
+
+    private static void retirar(Map<Long, BitmapCompacto> porValor, Long valor, int id) {
+        BitmapCompacto conjunto = porValor.get(valor);
+        if (conjunto != null) {
+            conjunto.remover(id);
+            if (conjunto.isVazio()) {
+                porValor.remove(valor);
+            }
+        }
+    }
+
+    /**
+     * @return a quantidade de limites menores ou iguais ao valor, ou seja, o índice da faixa.
+     */
+    private int faixaPreco(BigDecimal valor) {
+        int i = Arrays.binarySearch(limitesPreco, valor, BigDecimal::compareTo);
+        return i >= 0
+            ? i + 1
+            : -i - 1;
+    }
+
+    private static int faixaRating(BigDecimal rating) {
+        return Math.clamp(rating == null
+            ? 0
+            : rating
+                .setScale(0, RoundingMode.FLOOR)
+                .intValue(), 0, RATING_MAXIMO);
+    }
+
+    private static BigDecimal rating(ProdutoFacetaDto produto) {
+        return produto.rating() == null
+            ? BigDecimal.ZERO
+            : produto.rating();
+    }
+
+    private enum Dimensao {
+
+        ATIVO,
+        CATEGORIA,
+        SUBCATEGORIA,
+        PRECO,
+        RATING,
+        ESTOQUE
+
+    }
+
+    /**
+     * Página de um filtro no índice.
+     *
+     * @param ids     os ids da página, em ordem crescente.
+     * @param total   o total de produtos encontrados.
+     * @param facetas as contagens por valor de cada atributo.
+     */
+    public record Resultado(List<Long> ids, long total, FacetasDto facetas) {}
+
+}
@@ -0,0 +1,249 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória: para cada termo produzido pelo {@link Tokenizador}, a
+ * {@linkplain ListaPostagens lista comprimida} dos ids dos documentos que o contêm.
+ * <p>
+ * Uma busca retorna os documentos que contêm todos os termos da consulta, sendo que o último termo também
+ * casa como prefixo, para que a busca funcione enquanto o usuário digita. As listas são intersectadas a
+ * partir da menor, e o resultado é paginado em ordem de {@code id}. O índice guarda os termos de cada
+ * documento, de modo que reindexar um documento altera apenas as listas dos termos que mudaram.
+ * <p>
+ * Buscas concorrentes compartilham um bloqueio de leitura; alterações usam o bloqueio de escrita.
+ *
+ * @author André Garcia
+ */
+public class IndiceInvertido {
+
+    private static final long[] VAZIO = new long[0];
+
+    private final NavigableMap<String, ListaPostagens> postagens = new TreeMap<>();
+
+    private final Map<Long, String[]> termosPorDocumento = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Indexa um documento, substituindo a versão anterior, se houver.
+     *
+     * @param id    o id do documento.
+     * @param texto o texto do documento.
+     */
+    public void indexar(long id, String texto) {
+        Set<String> termos = Tokenizador.tokenizar(texto);
+        lock
+            .writeLock()
+            .lock();
+        try {
+            String[] anteriores = termosPorDocumento.get(id);
+            if (anteriores != null) {
+                for (String termo : anteriores) {
+                    if (!termos.contains(termo)) {
+                        removerPostagem(termo, id);
+                    }
+                }
+            }
+            Set<String> existentes = anteriores == null
+                ? Set.of()
+                : Set.of(anteriores);
+            String[] canonicos = new String[termos.size()];
+            int i = 0;
+            for (String termo : termos) {
+                ListaPostagens lista = postagens.get(termo);
+                if (lista == null) {
+                    lista = new ListaPostagens();
+                    postagens.put(termo, lista);
+                } else {
+                    termo = postagens.ceilingKey(termo);
+                }
+                if (!existentes.contains(termo)) {
+                    lista.adicionar(id);
+                }
+                canonicos[i++] = termo;
+            }
+            termosPorDocumento.put(id, canonicos);
+        } finally {
+            lock
+                .writeLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Remove um documento do índice, se presente.
+     *
+     * @param id o id do documento.
+     */
+    public void remover(long id) {
+        lock
+            .writeLock()
+            .lock();
+        try {
+            String[] termos = termosPorDocumento.remove(id);
+            if (termos != null) {
+                for (String termo : termos) {
+                    removerPostagem(termo, id);
+                }
+            }
+        } finally {
+            lock
+                .writeLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * Busca os documentos que contêm todos os termos da consulta, com o último termo casando como prefixo.
+     *
+     * @param consulta o texto da consulta.
+     * @param inicio   a posição do primeiro id retornado.
+     * @param limite   a quantidade máxima de ids retornados.
+     *
+     * @return a página de ids, em ordem crescente, e o total de documentos encontrados.
+     */
+    public Resultado buscar(String consulta, long inicio, int limite) {
+        List<String> termos = new ArrayList<>(Tokenizador.tokenizar(consulta));
+        if (termos.isEmpty()) {
+            return new Resultado(List.of(), 0);
+        }
+        List<long[]> listas = new ArrayList<>(termos.size());
+        lock
+            .readLock()
+            .lock();
+        try {
+            for (int i = 0; i < termos.size() - 1; i++) {
+                ListaPostagens lista = postagens.get(termos.get(i));
+                if (lista == null) {
+                    return new Resultado(List.of(), 0);
+                }
+                listas.add(lista.paraArray());
+            }
+            listas.add(porPrefixo(termos.getLast()));
+        } finally {
+            lock
+                .readLock()
+                .unlock();
+        }
+        listas.sort(Comparator.comparingInt(l -> l.length));
+        long[] ids = listas.getFirst();
+        for (int i = 1; i < listas.size() && ids.length > 0; i++) {
+            ids = intersectar(ids, listas.get(i));
+        }
+        int de = (int) Math.min(inicio, ids.length);
+        int ate = (int) Math.min((long) de + limite, ids.length);
+        List<Long> pagina = new ArrayList<>(ate - de);
+        for (int i = de; i < ate; i++) {
+            pagina.add(ids[i]);
+        }
+        return new Resultado(pagina, ids.length);
+    }
+
+    /**
+     * @return a quantidade de documentos indexados.
+     */
+    public int tamanho() {
+        lock
+            .readLock()
+            .lock();
+        try {
+            return termosPorDocumento.size();
+        } finally {
+            lock
+                .readLock()
+                .unlock();
+        }
+    }
+
+    /**
+     * @return a quantidade de termos distintos indexados.
+     */
+    public int termos() {
+        lock
+            .readLock()
+            .lock();
+        try {
+            return postagens.size();
+        } finally {
+            lock
+                .readLock()
+                .unlock();
+        }
+    }
+
+    private long[] porPrefixo(String prefixo) {
+        long[] ids = VAZIO;
+        for (ListaPostagens lista : postagens
+            .subMap(prefixo, true, prefixo + Character.MAX_VALUE, false)
+            .values()) {
+            ids = ids.length == 0
+                ? lista.paraArray()
+                : unir(ids, lista.paraArray());
+        }
+        return ids;
+    }
+
+    private void removerPostagem(String termo, long id) {
+        ListaPostagens lista = postagens.get(termo);
+        if (lista != null) {
+            lista.remover(id);
+            if (lista.isVazia()) {
+                postagens.remove(termo);
+            }
+        }
+    }
+
+    private static long[] intersectar(long[] a, long[] b) {
+        long[] resultado = new long[Math.min(a.length, b.length)];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                resultado[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    private static long[] unir(long[] a, long[] b) {
+        long[] resultado = new long[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || i < a.length && a[i] < b[j]) {
+                resultado[n++] = a[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                resultado[n++] = b[j++];
+            } else {
+                resultado[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(resultado, n);
+    }
+
+    /**
+     * Página de uma busca no índice.
+     *
+     * @param ids   os ids da página, em ordem crescente.
+     * @param total o total de documentos encontrados.
+     */
+    public record Resultado(List<Long> ids, long total) {}
+
+}
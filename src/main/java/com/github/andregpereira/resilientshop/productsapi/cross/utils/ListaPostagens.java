@@ -0,0 +1,134 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import java.util.Arrays;
+
+/**
+ * Lista de postagens de um termo: os ids dos documentos que o contêm, em ordem crescente, guardados como
+ * diferenças entre ids consecutivos em varint. Ids próximos ocupam um ou dois bytes em vez de oito.
+ * <p>
+ * Adicionar um id maior que o último, como na carga inicial em ordem de {@code id}, apenas acrescenta os
+ * bytes da diferença. Os demais casos decodificam e recodificam a lista. Não é segura para uso concorrente;
+ * o {@link IndiceInvertido} a protege com o seu bloqueio.
+ *
+ * @author André Garcia
+ */
+final class ListaPostagens {
+
+    private byte[] dados = new byte[4];
+
+    private int bytes;
+
+    private int tamanho;
+
+    private long ultimo;
+
+    /**
+     * Adiciona um id à lista, se ausente.
+     *
+     * @param id o id do documento.
+     */
+    void adicionar(long id) {
+        if (tamanho == 0 || id > ultimo) {
+            escrever(id - ultimo);
+            ultimo = id;
+            tamanho++;
+            return;
+        }
+        long[] ids = paraArray();
+        int posicao = Arrays.binarySearch(ids, id);
+        if (posicao >= 0) {
+            return;
+        }
+        int insercao = -posicao - 1;
+        long[] novos = new long[ids.length + 1];
+        System.arraycopy(ids, 0, novos, 0, insercao);
+        novos[insercao] = id;
+        System.arraycopy(ids, insercao, novos, insercao + 1, ids.length - insercao);
+        recodificar(novos);
+    }
+
+    /**
+     * Remove um id da lista, se presente.
+     *
+     * @param id o id do documento.
+     */
+    void remover(long id) {
+        if (tamanho == 0 || id > ultimo) {
+            return;
+        }
+        long[] ids = paraArray();
+        int posicao = Arrays.binarySearch(ids, id);
+        if (posicao < 0) {
+            return;
+        }
+        long[] novos = new long[ids.length - 1];
+        System.arraycopy(ids, 0, novos, 0, posicao);
+        System.arraycopy(ids, posicao + 1, novos, posicao, novos.length - posicao);
+        recodificar(novos);
+    }
+
+    /**
+     * Decodifica a lista.
+     *
+     * @return os ids, em ordem crescente.
+     */
+    long[] paraArray() {
+        long[] ids = new long[tamanho];
+        long anterior = 0;
+        int posicao = 0;
+        for (int i = 0; i < tamanho; i++) {
+            long diferenca = 0;
+            int deslocamento = 0;
+            byte b;
+            do {
+                b = dados[posicao++];
+                diferenca |= (long) (b & 0x7F) << deslocamento;
+                deslocamento += 7;
+            } while (b < 0);
+            anterior += diferenca;
+            ids[i] = anterior;
+        }
+        return ids;
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    boolean isVazia() {
+        return tamanho == 0;
+    }
+
+    /**
+     * @return a quantidade de bytes ocupados pelos ids codificados.
+     */
+    int bytes() {
+        return bytes;
+    }
+
+    private void recodificar(long[] ids) {
+        bytes = 0;
+        tamanho = 0;
+        ultimo = 0;
+        for (long id : ids) {
+            escrever(id - ultimo);
+            ultimo = id;
+            tamanho++;
+        }
+        if (dados.length > 4 * Math.max(bytes, 4)) {
+            dados = Arrays.copyOf(dados, Math.max(bytes, 4));
+        }
+    }
+
+    private void escrever(long valor) {
+        if (dados.length - bytes < 10) {
+            dados = Arrays.copyOf(dados, Math.max(dados.length * 2, bytes + 10));
+        }
+        while ((valor & ~0x7FL) != 0) {
+            dados[bytes++] = (byte) ((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        dados[bytes++] = (byte) valor;
+    }
+
+}
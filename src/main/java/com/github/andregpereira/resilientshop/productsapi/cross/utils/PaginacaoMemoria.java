@@ -0,0 +1,80 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@UtilityClass
+public class PaginacaoMemoria {
+
+    /**
+     * Ordena uma lista em memória pelas propriedades de uma ordenação.
+     *
+     * @param itens        os itens, que não são alterados.
+     * @param sort         a ordenação solicitada.
+     * @param comparadores os comparadores de cada propriedade ordenável.
+     *
+     * @return os itens ordenados, ou vazio caso alguma propriedade da ordenação não tenha comparador.
+     */
+    public static <T> Optional<List<T>> ordenar(List<T> itens, Sort sort, Map<String, Comparator<T>> comparadores) {
+        Comparator<T> comparador = null;
+        for (Sort.Order order : sort) {
+            Comparator<T> daPropriedade = comparadores.get(order.getProperty());
+            if (daPropriedade == null) {
+                return Optional.empty();
+            }
+            if (order.isDescending()) {
+                daPropriedade = daPropriedade.reversed();
+            }
+            comparador = comparador == null ? daPropriedade : comparador.thenComparing(daPropriedade);
+        }
+        if (comparador == null) {
+            return Optional.of(itens);
+        }
+        List<T> ordenados = new ArrayList<>(itens);
+        ordenados.sort(comparador);
+        return Optional.of(ordenados);
+    }
+
+    /**
+     * @param itens    todos os itens, já ordenados.
+     * @param pageable o pageable padrão; a ordenação é ignorada.
+     *
+     * @return a página dos itens, com o total.
+     */
+    public static <T> Page<T> paginar(List<T> itens, Pageable pageable) {
+        return new PageImpl<>(trecho(itens, pageable), pageable, itens.size());
+    }
+
+    /**
+     * @param itens    todos os itens, já ordenados.
+     * @param pageable o pageable padrão; a ordenação é ignorada.
+     *
+     * @return o trecho dos itens, indicando se há um próximo.
+     */
+    public static <T> Slice<T> fatiar(List<T> itens, Pageable pageable) {
+        List<T> trecho = trecho(itens, pageable);
+        boolean temProximo = pageable.isPaged() && pageable.getOffset() + trecho.size() < itens.size();
+        return new SliceImpl<>(trecho, pageable, temProximo);
+    }
+
+    private static <T> List<T> trecho(List<T> itens, Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return List.copyOf(itens);
+        }
+        int inicio = (int) Math.min(pageable.getOffset(), itens.size());
+        int fim = (int) Math.min((long) inicio + pageable.getPageSize(), itens.size());
+        return List.copyOf(itens.subList(inicio, fim));
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import lombok.experimental.UtilityClass;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Divide textos em termos para o {@link IndiceInvertido} e a {@link TrieSugestoes}: remove os acentos,
+ * converte para minúsculas e separa nos caracteres que não são letras nem dígitos. Assim, {@code "Café-Coado"}
+ * e {@code "cafe coado"} produzem os mesmos termos.
+ *
+ * @author André Garcia
+ */
+@UtilityClass
+public class Tokenizador {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Divide um texto em termos.
+     *
+     * @param texto o texto, possivelmente {@code null}.
+     *
+     * @return os termos distintos, na ordem em que aparecem.
+     */
+    public static Set<String> tokenizar(String texto) {
+        return new LinkedHashSet<>(dividir(texto));
+    }
+
+    /**
+     * Normaliza um texto para comparação por prefixo: os termos, na ordem em que aparecem, separados por um
+     * espaço. Assim, {@code "  Pó de Café!"} é normalizado para {@code "po de cafe"}.
+     *
+     * @param texto o texto, possivelmente {@code null}.
+     *
+     * @return o texto normalizado, vazio caso não haja termos.
+     */
+    public static String normalizar(String texto) {
+        return String.join(" ", dividir(texto));
+    }
+
+    private static List<String> dividir(String texto) {
+        List<String> termos = new ArrayList<>();
+        if (texto == null || texto.isBlank()) {
+            return termos;
+        }
+        String normalizado = ACENTOS
+            .matcher(Normalizer.normalize(texto, Normalizer.Form.NFD))
+            .replaceAll("")
+            .toLowerCase(Locale.ROOT);
+        for (String termo : SEPARADORES.split(normalizado)) {
+            if (!termo.isEmpty()) {
+                termos.add(termo);
+            }
+        }
+        return termos;
+    }
+
+}
@@ -0,0 +1,296 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Árvore de prefixos compacta e imutável para sugestões: cada nó guarda um trecho de chave em vez de um
+ * único caractere, de modo que a árvore tem no máximo o dobro de nós que chaves distintas, e cada nó guarda
+ * os {@code k} itens de maior pontuação entre todas as chaves abaixo dele.
+ * <p>
+ * Os itens são numerados em ordem decrescente de pontuação na construção, então os melhores itens de um nó
+ * são os menores números entre os dos filhos. Uma consulta percorre apenas os caracteres do prefixo e copia
+ * os itens já ordenados do nó alcançado, sem percorrer as chaves abaixo dele.
+ * <p>
+ * Por ser imutável, pode ser consultada por várias threads sem bloqueio; alterações exigem construir uma
+ * nova árvore e substituir a referência.
+ *
+ * @param <T> o tipo dos itens sugeridos.
+ *
+ * @author André Garcia
+ */
+public final class TrieSugestoes<T> {
+
+    private static final int[] NENHUM = new int[0];
+
+    private static final char[] SEM_FILHOS = new char[0];
+
+    private final No raiz;
+
+    private final Object[] itens;
+
+    private final int nos;
+
+    private TrieSugestoes(No raiz, Object[] itens, int nos) {
+        this.raiz = raiz;
+        this.itens = itens;
+        this.nos = nos;
+    }
+
+    /**
+     * @param <T> o tipo dos itens sugeridos.
+     *
+     * @return uma árvore sem chaves.
+     */
+    public static <T> TrieSugestoes<T> vazia() {
+        return new TrieSugestoes<>(null, new Object[0], 0);
+    }
+
+    /**
+     * Inicia a construção de uma árvore.
+     *
+     * @param k   a quantidade máxima de itens guardados por nó e, portanto, retornados por consulta.
+     * @param <T> o tipo dos itens sugeridos.
+     *
+     * @return o construtor da árvore.
+     */
+    public static <T> Construtor<T> construtor(int k) {
+        return new Construtor<>(k);
+    }
+
+    /**
+     * Busca os itens de maior pontuação com alguma chave iniciada por {@code prefixo}, sem repetições.
+     *
+     * @param prefixo o prefixo, normalizado da mesma forma que as chaves.
+     * @param limite  a quantidade máxima de itens, limitada ao {@code k} da construção.
+     *
+     * @return os itens, em ordem decrescente de pontuação.
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> sugerir(String prefixo, int limite) {
+        No no = raiz;
+        int posicao = 0;
+        while (no != null) {
+            int n = Math.min(no.rotulo.length(), prefixo.length() - posicao);
+            if (!prefixo.regionMatches(posicao, no.rotulo, 0, n)) {
+                return List.of();
+            }
+            posicao += n;
+            if (posicao == prefixo.length()) {
+                int quantidade = Math.min(limite, no.melhores.length);
+                List<T> sugestoes = new ArrayList<>(quantidade);
+                for (int i = 0; i < quantidade; i++) {
+                    sugestoes.add((T) itens[no.melhores[i]]);
+                }
+                return sugestoes;
+            }
+            int filho = Arrays.binarySearch(no.letras, prefixo.charAt(posicao));
+            no = filho < 0
+                ? null
+                : no.filhos[filho];
+        }
+        return List.of();
+    }
+
+    /**
+     * @return a quantidade de itens distintos.
+     */
+    public int itens() {
+        return itens.length;
+    }
+
+    /**
+     * @return a quantidade de nós da árvore.
+     */
+    public int nos() {
+        return nos;
+    }
+
+    private static final class No {
+
+        private final String rotulo;
+
+        private final char[] letras;
+
+        private final No[] filhos;
+
+        private final int[] melhores;
+
+        private No(String rotulo, char[] letras, No[] filhos, int[] melhores) {
+            this.rotulo = rotulo;
+            this.letras = letras;
+            this.filhos = filhos;
+            this.melhores = melhores;
+        }
+
+    }
+
+    /**
+     * Construtor de uma {@link TrieSugestoes}. Um mesmo item pode ser adicionado com várias chaves, por
+     * exemplo uma para cada palavra do nome, e é retornado uma única vez por consulta.
+     *
+     * @param <T> o tipo dos itens sugeridos.
+     */
+    public static final class Construtor<T> {
+
+        private final int k;
+
+        private final List<T> itens = new ArrayList<>();
+
+        private final List<Double> pontuacoes = new ArrayList<>();
+
+        private final List<String> chaves = new ArrayList<>();
+
+        private final List<Integer> itemDaChave = new ArrayList<>();
+
+        private String[] chavesOrdenadas;
+
+        private int[] numeros;
+
+        private int nos;
+
+        private Construtor(int k) {
+            this.k = k;
+        }
+
+        /**
+         * Adiciona um item.
+         *
+         * @param item      o item.
+         * @param pontuacao a pontuação do item; maiores pontuações são sugeridas primeiro.
+         * @param chaves    as chaves pelas quais o item é encontrado, já normalizadas. Chaves vazias são
+         *                  ignoradas.
+         *
+         * @return este construtor.
+         */
+        public Construtor<T> adicionar(T item, double pontuacao, Iterable<String> chaves) {
+            int indice = itens.size();
+            itens.add(item);
+            pontuacoes.add(pontuacao);
+            for (String chave : chaves) {
+                if (!chave.isEmpty()) {
+                    this.chaves.add(chave);
+                    itemDaChave.add(indice);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * @return a árvore com os itens adicionados.
+         */
+        public TrieSugestoes<T> construir() {
+            Integer[] ordem = new Integer[itens.size()];
+            Arrays.setAll(ordem, i -> i);
+            Arrays.sort(ordem, Comparator.comparingDouble((Integer i) -> pontuacoes.get(i)).reversed());
+            int[] numeroDoItem = new int[ordem.length];
+            Object[] porNumero = new Object[ordem.length];
+            for (int numero = 0; numero < ordem.length; numero++) {
+                numeroDoItem[ordem[numero]] = numero;
+                porNumero[numero] = itens.get(ordem[numero]);
+            }
+            Chave[] ordenadas = new Chave[chaves.size()];
+            for (int i = 0; i < ordenadas.length; i++) {
+                ordenadas[i] = new Chave(chaves.get(i), numeroDoItem[itemDaChave.get(i)]);
+            }
+            Arrays.sort(ordenadas);
+            chavesOrdenadas = new String[ordenadas.length];
+            numeros = new int[ordenadas.length];
+            for (int i = 0; i < ordenadas.length; i++) {
+                chavesOrdenadas[i] = ordenadas[i].texto;
+                numeros[i] = ordenadas[i].numero;
+            }
+            No raiz = chavesOrdenadas.length == 0
+                ? null
+                : construir(0, chavesOrdenadas.length, 0);
+            return new TrieSugestoes<>(raiz, porNumero, nos);
+        }
+
+        /**
+         * Constrói o nó das chaves {@code [inicio, fim)}, que compartilham os primeiros {@code profundidade}
+         * caracteres. Como as chaves estão ordenadas, o prefixo comum a todas é o comum à primeira e à última.
+         */
+        private No construir(int inicio, int fim, int profundidade) {
+            nos++;
+            String primeira = chavesOrdenadas[inicio];
+            String ultima = chavesOrdenadas[fim - 1];
+            int comum = profundidade;
+            int maximo = Math.min(primeira.length(), ultima.length());
+            while (comum < maximo && primeira.charAt(comum) == ultima.charAt(comum)) {
+                comum++;
+            }
+            int i = inicio;
+            while (i < fim && chavesOrdenadas[i].length() == comum) {
+                i++;
+            }
+            int[] candidatos = unir(NENHUM, Arrays.copyOfRange(numeros, inicio, i));
+            List<Character> letras = new ArrayList<>();
+            List<No> filhos = new ArrayList<>();
+            while (i < fim) {
+                char letra = chavesOrdenadas[i].charAt(comum);
+                int j = i;
+                while (j < fim && chavesOrdenadas[j].charAt(comum) == letra) {
+                    j++;
+                }
+                No filho = construir(i, j, comum);
+                letras.add(letra);
+                filhos.add(filho);
+                candidatos = unir(candidatos, filho.melhores);
+                i = j;
+            }
+            char[] arrayLetras = letras.isEmpty()
+                ? SEM_FILHOS
+                : new char[letras.size()];
+            for (int l = 0; l < arrayLetras.length; l++) {
+                arrayLetras[l] = letras.get(l);
+            }
+            return new No(
+                primeira.substring(profundidade, comum),
+                arrayLetras,
+                filhos.toArray(new No[0]),
+                candidatos
+            );
+        }
+
+        private record Chave(String texto, int numero) implements Comparable<Chave> {
+
+            @Override
+            public int compareTo(Chave outra) {
+                int comparacao = texto.compareTo(outra.texto);
+                return comparacao != 0
+                    ? comparacao
+                    : Integer.compare(numero, outra.numero);
+            }
+
+        }
+
+        /**
+         * Une duas listas crescentes de números de itens sem repetições, mantendo os {@code k} menores.
+         */
+        private int[] unir(int[] a, int[] b) {
+            if (a.length == 0 && b.length == 0) {
+                return NENHUM;
+            }
+            int[] resultado = new int[Math.min(k, a.length + b.length)];
+            int i = 0, j = 0, n = 0;
+            while (n < resultado.length && (i < a.length || j < b.length)) {
+                int proximo;
+                if (j == b.length || i < a.length && a[i] <= b[j]) {
+                    proximo = a[i++];
+                } else {
+                    proximo = b[j++];
+                }
+                if (n == 0 || resultado[n - 1] != proximo) {
+                    resultado[n++] = proximo;
+                }
+            }
+            return n == resultado.length
+                ? resultado
+                : Arrays.copyOf(resultado, n);
+        }
+
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do agrupamento de operações de estoque concorrentes em uma única transação.
+ *
+ * @param habilitado        se as operações de estoque devem ser agrupadas.
+ * @param janela            o tempo máximo que uma operação aguarda por outras antes do grupo ser aplicado.
+ * @param tamanhoMaximo     a quantidade máxima de operações por grupo.
+ * @param tempoMaximoEspera o tempo máximo que uma operação aguarda na fila, e o tempo máximo da transação
+ *                          de cada grupo.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.estoque.agrupamento")
+public record AgrupamentoEstoqueProperties(
+    @DefaultValue("false") boolean habilitado,
+    @DefaultValue("5ms") Duration janela,
+    @DefaultValue("256") int tamanhoMaximo,
+    @DefaultValue("5s") Duration tempoMaximoEspera
+) {}
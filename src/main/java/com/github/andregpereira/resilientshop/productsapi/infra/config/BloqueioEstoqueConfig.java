@@ -0,0 +1,8 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(BloqueioEstoqueProperties.class)
+public class BloqueioEstoqueConfig {}
@@ -0,0 +1,52 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração do bloqueio das linhas de produtos nas operações de estoque em lote.
+ *
+ * @param modo o comportamento quando uma linha já está bloqueada por outra transação.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.estoque.bloqueio")
+public record BloqueioEstoqueProperties(
+    @DefaultValue("ESPERAR") ModoBloqueio modo
+) {
+
+    public static final BloqueioEstoqueProperties PADRAO = new BloqueioEstoqueProperties(ModoBloqueio.ESPERAR);
+
+    /**
+     * Comportamento do {@code SELECT ... FOR UPDATE} quando uma linha já está bloqueada.
+     */
+    public enum ModoBloqueio {
+
+        /**
+         * Aguarda a liberação da linha.
+         */
+        ESPERAR(""),
+
+        /**
+         * Falha imediatamente.
+         */
+        NOWAIT(" NOWAIT"),
+
+        /**
+         * Ignora as linhas bloqueadas. A operação falha se algum produto do lote for ignorado.
+         */
+        SKIP_LOCKED(" SKIP LOCKED");
+
+        private final String clausula;
+
+        ModoBloqueio(String clausula) {
+            this.clausula = clausula;
+        }
+
+        public String clausula() {
+            return clausula;
+        }
+
+    }
+
+}
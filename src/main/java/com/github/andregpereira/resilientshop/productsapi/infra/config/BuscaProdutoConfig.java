@@ -0,0 +1,45 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+@Slf4j
+@Configuration
+@EnableConfigurationProperties(BuscaProdutoProperties.class)
+public class BuscaProdutoConfig {
+
+    /**
+     * Extensões, função e índice usados pela busca por trigramas. A função {@code f_unaccent} fixa o
+     * dicionário do {@code unaccent} para que possa ser declarada {@code IMMUTABLE} e indexada.
+     */
+    public static final List<String> DDL_TRIGRAMA = List.of(
+        "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+        "CREATE EXTENSION IF NOT EXISTS unaccent",
+        """
+            CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text
+            LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+            AS $$ SELECT public.unaccent('public.unaccent'::regdictionary, $1) $$
+            """,
+        """
+            CREATE INDEX IF NOT EXISTS idx_produtos_nome_trgm
+            ON tb_produtos USING gin (f_unaccent(nome) gin_trgm_ops)
+            """
+    );
+
+    @Bean
+    @ConditionalOnProperty(prefix = "resilientshop.busca", name = "modo", havingValue = "TRIGRAMA")
+    ApplicationRunner indiceBuscaProduto(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            DDL_TRIGRAMA.forEach(jdbcTemplate::execute);
+            log.info("Índice de trigramas da busca de produtos verificado");
+        };
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração da busca de produtos por nome.
+ *
+ * @param modo a estratégia da busca.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.busca")
+public record BuscaProdutoProperties(
+    @DefaultValue("LIKE") ModoBusca modo
+) {
+
+    public static final BuscaProdutoProperties PADRAO = new BuscaProdutoProperties(ModoBusca.LIKE);
+
+    /**
+     * Estratégia da busca de produtos por nome.
+     */
+    public enum ModoBusca {
+
+        /**
+         * {@code LIKE} sem distinção de maiúsculas, ordenado pelo {@code Pageable}. Compatível com qualquer banco.
+         */
+        LIKE,
+
+        /**
+         * Índice GIN de trigramas do PostgreSQL ({@code pg_trgm}) sobre o nome sem acentos ({@code unaccent}),
+         * ordenado pela relevância. Tolera pequenos erros de digitação.
+         */
+        TRIGRAMA,
+
+        /**
+         * Índice invertido em memória sobre o nome e a descrição dos produtos ativos, sem acentos, ordenado
+         * por {@code id}. Até o índice ser carregado, a busca usa {@link #LIKE}.
+         */
+        MEMORIA
+
+    }
+
+}
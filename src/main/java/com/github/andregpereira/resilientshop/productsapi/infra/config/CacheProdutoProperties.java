@@ -0,0 +1,26 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração do cache de produtos detalhados consultados por {@code id}.
+ *
+ * @param habilitado se as consultas passam pelo cache.
+ * @param capacidade a quantidade máxima de produtos em cache.
+ * @param ttl        o tempo até um produto em cache expirar.
+ * @param ttlEstoque o tempo durante o qual o estoque de um produto em cache é retornado sem ser consultado
+ *                   novamente. Após esse tempo, apenas o estoque é relido do banco. Com {@code 0}, o estoque é
+ *                   sempre relido; com um valor igual ou maior que o {@code ttl}, o estoque segue o produto.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.cache.produto")
+public record CacheProdutoProperties(
+    @DefaultValue("true") boolean habilitado,
+    @DefaultValue("10000") int capacidade,
+    @DefaultValue("10m") Duration ttl,
+    @DefaultValue("5s") Duration ttlEstoque
+) {}
@@ -0,0 +1,19 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração da árvore de categorias e subcategorias em memória.
+ *
+ * @param intervaloReconstrucao o intervalo entre as reconstruções completas da árvore a partir do banco de
+ *                              dados, que incorporam as alterações feitas por outras instâncias da aplicação.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.categorias")
+public record CategoriasProperties(
+    @DefaultValue("5m") Duration intervaloReconstrucao
+) {}
@@ -0,0 +1,26 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuração dos filtros de produtos por atributos em memória.
+ *
+ * @param faixasPreco           os limites das faixas de preço contadas nas facetas, em ordem crescente. Os
+ *                              limites {@code 50, 100} definem as faixas {@code 0-50}, {@code 50-100} e
+ *                              {@code 100+}.
+ * @param intervaloReconstrucao o intervalo entre as reconstruções completas dos filtros a partir do banco de
+ *                              dados, que incorporam as alterações de estoque feitas fora da manutenção de
+ *                              produtos, como a importação e as reservas.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.facetas")
+public record FacetasProperties(
+    @DefaultValue({"50", "100", "200", "500"}) List<BigDecimal> faixasPreco,
+    @DefaultValue("5m") Duration intervaloReconstrucao
+) {}
@@ -0,0 +1,43 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import com.github.andregpereira.resilientshop.productsapi.app.filters.IdempotenciaFilter;
+import com.github.andregpereira.resilientshop.productsapi.cross.idempotencia.IdempotenciaStore;
+import com.github.andregpereira.resilientshop.productsapi.cross.idempotencia.IdempotenciaStoreMemoria;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.IdempotenciaStoreJdbc;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+
+@Configuration
+@EnableConfigurationProperties(IdempotenciaProperties.class)
+public class IdempotenciaConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "resilientshop.idempotencia", name = "armazenamento", havingValue = "MEMORIA",
+        matchIfMissing = true)
+    IdempotenciaStore idempotenciaStoreMemoria(IdempotenciaProperties properties) {
+        return new IdempotenciaStoreMemoria(properties.capacidade(), properties.ttl(), properties.ttlEmAndamento(),
+            Clock.systemUTC());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "resilientshop.idempotencia", name = "armazenamento", havingValue = "BANCO")
+    IdempotenciaStore idempotenciaStoreJdbc(JdbcTemplate jdbcTemplate, IdempotenciaProperties properties) {
+        return new IdempotenciaStoreJdbc(jdbcTemplate, properties.ttl(), properties.ttlEmAndamento(),
+            Clock.systemUTC());
+    }
+
+    @Bean
+    FilterRegistrationBean<IdempotenciaFilter> idempotenciaFilter(IdempotenciaStore store) {
+        FilterRegistrationBean<IdempotenciaFilter> registro = new FilterRegistrationBean<>(
+            new IdempotenciaFilter(store));
+        registro.addUrlPatterns("/produtos/estoque/*");
+        return registro;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração das chaves de idempotência das requisições de alteração de estoque.
+ *
+ * @param armazenamento     onde as chaves são armazenadas.
+ * @param ttl               o tempo até o resultado de uma requisição concluída expirar.
+ * @param ttlEmAndamento    o tempo até a reserva de uma requisição não concluída expirar.
+ * @param capacidade        a quantidade máxima de chaves armazenadas em memória.
+ * @param intervaloLimpeza  o intervalo entre as remoções de chaves expiradas da tabela.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.idempotencia")
+public record IdempotenciaProperties(
+    @DefaultValue("MEMORIA") Armazenamento armazenamento,
+    @DefaultValue("24h") Duration ttl,
+    @DefaultValue("60s") Duration ttlEmAndamento,
+    @DefaultValue("10000") int capacidade,
+    @DefaultValue("5m") Duration intervaloLimpeza
+) {
+
+    public enum Armazenamento {
+
+        /**
+         * Chaves armazenadas em memória, para uma única instância.
+         */
+        MEMORIA,
+
+        /**
+         * Chaves armazenadas na tabela {@code tb_idempotencia}, compartilhada entre as instâncias.
+         */
+        BANCO
+
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração da importação de estoque em massa.
+ *
+ * @param tamanhoLote           a quantidade de linhas aplicadas por lote, cada lote em uma transação.
+ * @param amostraNaoEncontrados a quantidade máxima de skus não encontrados retornados no resumo.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.estoque.importacao")
+public record ImportacaoEstoqueProperties(
+    @DefaultValue("5000") int tamanhoLote,
+    @DefaultValue("100") int amostraNaoEncontrados
+) {}
@@ -0,0 +1,26 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração da invalidação dos dados em memória entre as instâncias da aplicação pelo
+ * {@code LISTEN}/{@code NOTIFY} do PostgreSQL.
+ *
+ * @param habilitado         se as alterações são notificadas e as notificações das outras instâncias são
+ *                           recebidas. Requer o PostgreSQL.
+ * @param canal              o canal do {@code NOTIFY}, comum a todas as instâncias.
+ * @param esperaNotificacoes o tempo máximo de espera por notificações em cada leitura da conexão de escuta.
+ * @param esperaReconexao    o tempo entre as tentativas de reabrir a conexão de escuta após uma falha.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.invalidacao")
+public record InvalidacaoProperties(
+    @DefaultValue("false") boolean habilitado,
+    @DefaultValue("resilientshop_invalidacao") String canal,
+    @DefaultValue("1s") Duration esperaNotificacoes,
+    @DefaultValue("5s") Duration esperaReconexao
+) {}
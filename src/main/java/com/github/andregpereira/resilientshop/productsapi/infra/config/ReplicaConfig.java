@@ -0,0 +1,68 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import com.github.andregpereira.resilientshop.productsapi.app.filters.LeituraPrimariaFilter;
+import com.github.andregpereira.resilientshop.productsapi.cross.replica.RoteamentoDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(prefix = "resilientshop.replica", name = "habilitado", havingValue = "true")
+public class ReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primarioDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties
+            .initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+    }
+
+    @Bean
+    HikariDataSource replicaDataSource(ReplicaProperties properties) {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        replica.setJdbcUrl(properties.url());
+        replica.setUsername(properties.username());
+        replica.setPassword(properties.password());
+        replica.setMaximumPoolSize(properties.maximoConexoes());
+        replica.setReadOnly(true);
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primarioDataSource, HikariDataSource replicaDataSource) {
+        return RoteamentoDataSource.criar(primarioDataSource, replicaDataSource);
+    }
+
+    /**
+     * Com o Open Session in View, a sessão do Hibernate mantém a primeira conexão obtida até o fim da
+     * requisição, e uma escrita depois de uma leitura iria para a réplica. Liberando a conexão ao fim de cada
+     * transação, cada transação obtém a conexão do seu próprio destino.
+     */
+    @Bean
+    HibernatePropertiesCustomizer liberacaoConexaoPorTransacao() {
+        return propriedades -> propriedades.put(AvailableSettings.CONNECTION_HANDLING,
+            PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    FilterRegistrationBean<LeituraPrimariaFilter> leituraPrimariaFilter() {
+        return new FilterRegistrationBean<>(new LeituraPrimariaFilter());
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Configuração da réplica de leitura, que atende as transações somente leitura.
+ *
+ * @param habilitado     se as transações somente leitura são encaminhadas para a réplica. Desabilitada, toda a
+ *                       aplicação usa apenas o banco primário.
+ * @param url            a URL JDBC da réplica.
+ * @param username       o usuário da réplica.
+ * @param password       a senha da réplica.
+ * @param maximoConexoes o tamanho máximo do pool de conexões da réplica.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.replica")
+public record ReplicaProperties(
+    @DefaultValue("false") boolean habilitado,
+    String url,
+    String username,
+    String password,
+    @DefaultValue("10") int maximoConexoes
+) {}
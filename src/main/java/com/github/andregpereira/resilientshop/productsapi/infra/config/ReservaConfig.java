@@ -0,0 +1,17 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.HashedTimingWheel;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(ReservaProperties.class)
+public class ReservaConfig {
+
+    @Bean
+    HashedTimingWheel reservaTimingWheel(ReservaProperties properties) {
+        return new HashedTimingWheel(properties.tick(), properties.slots());
+    }
+
+}
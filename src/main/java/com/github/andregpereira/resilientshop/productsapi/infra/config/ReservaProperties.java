@@ -0,0 +1,25 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração das reservas de estoque.
+ *
+ * @param ttl                o tempo até uma reserva não confirmada expirar.
+ * @param tick               a resolução da roda de expiração.
+ * @param slots              a quantidade de slots da roda de expiração.
+ * @param intervaloExpiracao o intervalo entre as remoções das reservas expiradas no banco, que alcançam as
+ *                           reservas criadas por outras instâncias ou antes de um reinício.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.reserva")
+public record ReservaProperties(
+    @DefaultValue("15m") Duration ttl,
+    @DefaultValue("1s") Duration tick,
+    @DefaultValue("1024") int slots,
+    @DefaultValue("1m") Duration intervaloExpiracao
+) {}
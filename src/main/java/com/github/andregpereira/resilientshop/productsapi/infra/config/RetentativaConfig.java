@@ -0,0 +1,38 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.retry.RetentarEmConflito;
+import com.github.andregpereira.resilientshop.productsapi.cross.retry.RetentarEmConflitoInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+@Configuration
+@EnableConfigurationProperties(RetentativaProperties.class)
+public class RetentativaConfig {
+
+    /**
+     * Registra o advisor de {@link RetentarEmConflito} com precedência maior que a do
+     * advisor de transação, para que cada tentativa seja executada em uma nova transação.
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor retentarEmConflitoAdvisor(
+        ObjectProvider<RetentativaProperties> properties, ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+            AnnotationMatchingPointcut.forMethodAnnotation(RetentarEmConflito.class),
+            new RetentarEmConflitoInterceptor(properties, meterRegistry)
+        );
+        advisor.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return advisor;
+    }
+
+}
@@ -0,0 +1,22 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração das retentativas em caso de conflito de versão.
+ *
+ * @param maxTentativas o número máximo de tentativas, incluindo a primeira.
+ * @param esperaInicial o teto da espera após a primeira falha.
+ * @param esperaMaxima  o teto máximo da espera entre tentativas.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.retentativa")
+public record RetentativaProperties(
+    @DefaultValue("3") int maxTentativas,
+    @DefaultValue("20ms") Duration esperaInicial,
+    @DefaultValue("500ms") Duration esperaMaxima
+) {}
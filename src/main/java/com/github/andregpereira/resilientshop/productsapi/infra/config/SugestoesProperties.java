@@ -0,0 +1,21 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Configuração das sugestões de produtos e categorias por prefixo.
+ *
+ * @param limiteMaximo       a quantidade máxima de sugestões guardadas por prefixo e retornadas por consulta.
+ * @param atrasoReconstrucao a espera entre a primeira alteração de produto e a reconstrução das sugestões,
+ *                           agrupando as alterações seguintes em uma única reconstrução.
+ *
+ * @author André Garcia
+ */
+@ConfigurationProperties(prefix = "resilientshop.sugestoes")
+public record SugestoesProperties(
+    @DefaultValue("10") int limiteMaximo,
+    @DefaultValue("2s") Duration atrasoReconstrucao
+) {}
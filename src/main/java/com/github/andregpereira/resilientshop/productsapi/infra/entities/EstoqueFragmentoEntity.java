@@ -0,0 +1,98 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.ForeignKey;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Fragmento do estoque de um {@link ProdutoEntity produto} com estoque fragmentado.
+ * O estoque do produto é a soma dos seus fragmentos. As linhas são escritas diretamente
+ * via JDBC pelo {@code ProdutoEstoqueRepositoryImpl}, por isso o {@code id} é gerado pelo banco.
+ *
+ * @author André Garcia
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "EstoqueFragmento")
+@Table(
+    name = "tb_estoque_fragmentos",
+    uniqueConstraints = {@UniqueConstraint(name = "uc_produto_indice", columnNames = {"id_produto", "indice"})}
+)
+public class EstoqueFragmentoEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_fragmento")
+    private Long id;
+
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "id_produto", nullable = false, foreignKey = @ForeignKey(name = "fk_fragmento_id_produto"))
+    private ProdutoEntity produto;
+
+    @Column(nullable = false)
+    private int indice;
+
+    @Column(nullable = false)
+    private int estoque;
+
+    @ColumnDefault("LOCALTIMESTAMP")
+    @Column(nullable = false)
+    private LocalDateTime dataModificacao;
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EstoqueFragmentoEntity fragmento)) {
+            return false;
+        }
+        Class<?> oEffectiveClass = o instanceof HibernateProxy hibernateProxy
+            ? hibernateProxy
+            .getHibernateLazyInitializer()
+            .getPersistentClass()
+            : o.getClass();
+        Class<?> thisEffectiveClass = this instanceof HibernateProxy hibernateProxy
+            ? hibernateProxy
+            .getHibernateLazyInitializer()
+            .getPersistentClass()
+            : this.getClass();
+        if (thisEffectiveClass != oEffectiveClass) {
+            return false;
+        }
+        return getId() != null && Objects.equals(getId(), fragmento.getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return this instanceof HibernateProxy hibernateProxy
+            ? hibernateProxy
+            .getHibernateLazyInitializer()
+            .getPersistentClass()
+            .hashCode()
+            : getClass().hashCode();
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Chave de idempotência de uma requisição de alteração de estoque. As linhas são escritas
+ * diretamente via JDBC pelo {@code IdempotenciaStoreJdbc}; a entidade define a tabela.
+ *
+ * @author André Garcia
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "Idempotencia")
+@Table(name = "tb_idempotencia", indexes = {@Index(name = "idx_idempotencia_expira_em", columnList = "expira_em")})
+public class IdempotenciaEntity {
+
+    @Id
+    @Column(length = 255)
+    private String chave;
+
+    @Column(length = 64)
+    private String impressao;
+
+    private Integer status;
+
+    @Column(name = "tipo_conteudo")
+    private String tipoConteudo;
+
+    @ToString.Exclude
+    @Column(length = 1048576)
+    private String corpo;
+
+    @Column(nullable = false)
+    private boolean concluida;
+
+    @Column(name = "expira_em", nullable = false)
+    private Instant expiraEm;
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof IdempotenciaEntity idempotencia)) {
+            return false;
+        }
+        return getChave() != null && Objects.equals(getChave(), idempotencia.getChave());
+    }
+
+    @Override
+    public final int hashCode() {
+        return getClass().hashCode();
+    }
+
+}
@@ -0,0 +1,168 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+/**
+ * Movimento do estoque de um {@link ProdutoEntity produto}. O diário de movimentos é somente de inclusão:
+ * cada alteração de estoque registra a variação, o estoque resultante e a causa. As reservas, que retêm o
+ * estoque sem alterá-lo, são registradas com variação zero e a quantidade retida. As linhas são escritas
+ * diretamente via JDBC pelo {@code ProdutoEstoqueRepositoryImpl}, na mesma transação da alteração.
+ *
+ * @author André Garcia
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Immutable
+@Entity(name = "MovimentoEstoque")
+@Table(
+    name = "tb_movimentos_estoque",
+    indexes = {@Index(name = "idx_movimento_id_produto", columnList = "id_produto, id_movimento")}
+)
+public class MovimentoEstoqueEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_movimento")
+    private Long id;
+
+    @Column(name = "id_produto", nullable = false)
+    private Long produtoId;
+
+    @Column(nullable = false)
+    private int variacao;
+
+    @Column(name = "estoque_resultante", nullable = false)
+    private int estoqueResultante;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private Causa causa;
+
+    @Column(name = "quantidade_reservada")
+    private Integer quantidadeReservada;
+
+    @Column(name = "data_movimento", nullable = false)
+    private LocalDateTime dataMovimento;
+
+    public MovimentoEstoqueEntity(Long produtoId, int variacao, int estoqueResultante, Causa causa) {
+        this(null, produtoId, variacao, estoqueResultante, causa, null, null);
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MovimentoEstoqueEntity movimento)) {
+            return false;
+        }
+        Class<?> oEffectiveClass = o instanceof HibernateProxy hibernateProxy
+            ? hibernateProxy
+            .getHibernateLazyInitializer()
+            .getPersistentClass()
+            : o.getClass();
+        Class<?> thisEffectiveClass = this instanceof HibernateProxy hibernateProxy
+            ? hibernateProxy
+            .getHibernateLazyInitializer()
+            .getPersistentClass()
+            : this.getClass();
+        if (thisEffectiveClass != oEffectiveClass) {
+            return false;
+        }
+        return getId() != null && Objects.equals(getId(), movimento.getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return this instanceof HibernateProxy hibernateProxy
+            ? hibernateProxy
+            .getHibernateLazyInitializer()
+            .getPersistentClass()
+            .hashCode()
+            : getClass().hashCode();
+    }
+
+    public enum Causa {
+
+        /**
+         * Estoque informado no cadastro do produto.
+         */
+        INICIAL,
+
+        /**
+         * Estoque definido manualmente na atualização do produto.
+         */
+        AJUSTE,
+
+        SUBTRACAO,
+
+        RETORNO,
+
+        /**
+         * Subtração na confirmação de uma reserva.
+         */
+        CONFIRMACAO_RESERVA,
+
+        /**
+         * Retenção de estoque por uma reserva, sem variação do estoque.
+         */
+        RESERVA,
+
+        /**
+         * Liberação de uma reserva, sem variação do estoque.
+         */
+        LIBERACAO,
+
+        /**
+         * Expiração de uma reserva não confirmada, sem variação do estoque.
+         */
+        EXPIRACAO,
+
+        /**
+         * Estoque atual registrado sem variação, como ponto de partida para o recálculo.
+         */
+        SNAPSHOT;
+
+        /**
+         * Indica se o movimento define o estoque por completo, servindo de ponto de partida para o recálculo.
+         *
+         * @return {@code true} caso o estoque resultante não dependa dos movimentos anteriores.
+         */
+        public boolean isAbsoluta() {
+            return this == INICIAL || this == AJUSTE || this == SNAPSHOT;
+        }
+
+        /**
+         * Indica se o movimento registra uma reserva, que retém o estoque sem alterá-lo e é ignorada no
+         * recálculo.
+         *
+         * @return {@code true} caso o movimento seja uma reserva, liberação ou expiração.
+         */
+        public boolean isReserva() {
+            return this == RESERVA || this == LIBERACAO || this == EXPIRACAO;
+        }
+
+    }
+
+}
@@ -7,16 +7,20 @@ import jakarta.persistence.ForeignKey;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
 import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.proxy.HibernateProxy;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -24,7 +28,9 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
 import java.util.Objects;
+import java.util.Set;
 
 @Getter
 @Setter
@@ -33,7 +39,15 @@ import java.util.Objects;
 @NoArgsConstructor
 @Entity(name = "Produto")
 @EntityListeners(AuditingEntityListener.class)
-@Table(name = "tb_produtos", uniqueConstraints = {@UniqueConstraint(name = "uc_sku", columnNames = "sku")})
+@Table(
+    name = "tb_produtos",
+    uniqueConstraints = {@UniqueConstraint(name = "uc_sku", columnNames = "sku")},
+    indexes = {
+        @Index(name = "idx_produtos_nome_id", columnList = "nome, id_produto"),
+        @Index(name = "idx_produtos_valor_unitario_id", columnList = "valor_unitario, id_produto"),
+        @Index(name = "idx_produtos_data_modificacao", columnList = "data_modificacao")
+    }
+)
 @SequenceGenerator(name = "produto", sequenceName = "sq_produtos", allocationSize = 1)
 public class ProdutoEntity {
 
@@ -67,12 +81,21 @@ public class ProdutoEntity {
     private LocalDateTime dataCriacao;
 
     @LastModifiedDate
-    @Column(nullable = false, updatable = false)
+    @Column(nullable = false)
     private LocalDateTime dataModificacao;
 
     @Column(nullable = false)
     private boolean ativo;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long versao;
+
+    @ColumnDefault("false")
+    @Column(nullable = false)
+    private boolean estoqueFragmentado;
+
     @ManyToOne
     @JoinColumn(name = "id_categoria", nullable = false, foreignKey = @ForeignKey(name = "fk_id_categoria"))
     private CategoriaEntity categoria;
@@ -81,6 +104,25 @@ public class ProdutoEntity {
     @JoinColumn(name = "id_subcategoria", foreignKey = @ForeignKey(name = "fk_id_subcategoria"))
     private SubcategoriaEntity subcategoria;
 
+    @ToString.Exclude
+    @OneToMany(mappedBy = "produto")
+    private Set<EstoqueFragmentoEntity> fragmentos = new LinkedHashSet<>();
+
+    /**
+     * Retorna o estoque disponível do produto. Com o estoque fragmentado, o estoque é a soma dos
+     * fragmentos, carregados apenas nesse caso, e a coluna {@code estoque} não é mantida.
+     *
+     * @return o estoque disponível.
+     */
+    public int getEstoqueDisponivel() {
+        return estoqueFragmentado
+            ? fragmentos
+            .stream()
+            .mapToInt(EstoqueFragmentoEntity::getEstoque)
+            .sum()
+            : estoque;
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) {
@@ -0,0 +1,100 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.proxy.HibernateProxy;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Item de uma reserva de estoque: a quantidade de um {@link ProdutoEntity produto} retida até a confirmação,
+ * a liberação ou a expiração da reserva. Uma reserva tem uma linha por produto, com o mesmo {@code reservaId}.
+ * A quantidade retida não é subtraída do estoque do produto; o estoque disponível para novas reservas e para
+ * as demais subtrações é o estoque menos a soma das reservas ainda não expiradas.
+ *
+ * @author André Garcia
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity(name = "ReservaEstoque")
+@Table(
+    name = "tb_reservas_estoque",
+    indexes = {
+        @Index(name = "idx_reserva_id_reserva", columnList = "id_reserva"),
+        @Index(name = "idx_reserva_id_produto", columnList = "id_produto, expira_em"),
+        @Index(name = "idx_reserva_expira_em", columnList = "expira_em")
+    }
+)
+public class ReservaEstoqueEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id_item_reserva")
+    private Long id;
+
+    @Column(name = "id_reserva", nullable = false)
+    private UUID reservaId;
+
+    @Column(name = "id_produto", nullable = false)
+    private Long produtoId;
+
+    @Column(nullable = false)
+    private int quantidade;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+
+    public ReservaEstoqueEntity(UUID reservaId, Long produtoId, int quantidade, LocalDateTime expiraEm) {
+        this(null, reservaId, produtoId, quantidade, expiraEm);
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ReservaEstoqueEntity reserva)) {
+            return false;
+        }
+        Class<?> oEffectiveClass = o instanceof HibernateProxy hibernateProxy
+            ? hibernateProxy
+            .getHibernateLazyInitializer()
+            .getPersistentClass()
+            : o.getClass();
+        Class<?> thisEffectiveClass = this instanceof HibernateProxy hibernateProxy
+            ? hibernateProxy
+            .getHibernateLazyInitializer()
+            .getPersistentClass()
+            : this.getClass();
+        if (thisEffectiveClass != oEffectiveClass) {
+            return false;
+        }
+        return getId() != null && Objects.equals(getId(), reserva.getId());
+    }
+
+    @Override
+    public final int hashCode() {
+        return this instanceof HibernateProxy hibernateProxy
+            ? hibernateProxy
+            .getHibernateLazyInitializer()
+            .getPersistentClass()
+            .hashCode()
+            : getClass().hashCode();
+    }
+
+}
@@ -1,12 +1,30 @@
 package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
 
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface CategoriaRepository extends JpaRepository<CategoriaEntity, Long> {
 
     boolean existsByNome(String nome);
 
+    /**
+     * Listagem usada apenas pelas consultas: as categorias são carregadas somente para leitura, sem a cópia
+     * de estado que o Hibernate guarda para detectar alterações.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    Page<CategoriaEntity> findAll(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    Slice<CategoriaEntity> findAllBy(Pageable pageable);
+
 }
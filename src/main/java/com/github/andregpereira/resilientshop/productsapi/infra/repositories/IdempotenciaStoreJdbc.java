@@ -0,0 +1,140 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.idempotencia.IdempotenciaStore;
+import com.github.andregpereira.resilientshop.productsapi.cross.idempotencia.ResultadoIdempotente;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Implementação de {@link IdempotenciaStore} na tabela {@code tb_idempotencia}, compartilhada
+ * entre as instâncias da aplicação. A reserva é feita com um {@code INSERT}, e a chave primária
+ * garante que apenas uma instância reserve cada chave. As operações não participam da transação
+ * de estoque, para que a reserva seja visível às demais instâncias antes da requisição terminar.
+ * As chaves expiradas são removidas periodicamente.
+ *
+ * @author André Garcia
+ * @see IdempotenciaStore
+ */
+@Slf4j
+public class IdempotenciaStoreJdbc implements IdempotenciaStore {
+
+    private static final String RESERVAR = """
+        INSERT INTO tb_idempotencia (chave, concluida, expira_em) VALUES (?, FALSE, ?)
+        """;
+
+    private static final String REMOVER_EXPIRADA = """
+        DELETE FROM tb_idempotencia WHERE chave = ? AND expira_em <= ?
+        """;
+
+    private static final String CONSULTAR = """
+        SELECT impressao, status, tipo_conteudo, corpo FROM tb_idempotencia
+        WHERE chave = ? AND concluida = TRUE AND expira_em > ?
+        """;
+
+    private static final String CONCLUIR = """
+        UPDATE tb_idempotencia SET impressao = ?, status = ?, tipo_conteudo = ?, corpo = ?,
+        concluida = TRUE, expira_em = ? WHERE chave = ?
+        """;
+
+    private static final String LIBERAR = """
+        DELETE FROM tb_idempotencia WHERE chave = ? AND concluida = FALSE
+        """;
+
+    private static final String REMOVER_EXPIRADAS = """
+        DELETE FROM tb_idempotencia WHERE expira_em <= ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Duration ttl;
+
+    private final Duration ttlEmAndamento;
+
+    private final Clock clock;
+
+    public IdempotenciaStoreJdbc(JdbcTemplate jdbcTemplate, Duration ttl, Duration ttlEmAndamento, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+        this.ttlEmAndamento = ttlEmAndamento;
+        this.clock = clock;
+    }
+
+    @Override
+    public boolean reservar(String chave) {
+        Instant agora = clock.instant();
+        if (inserir(chave, agora)) {
+            return true;
+        }
+        return jdbcTemplate.update(REMOVER_EXPIRADA, chave, Timestamp.from(agora)) > 0 && inserir(chave, agora);
+    }
+
+    private boolean inserir(String chave, Instant agora) {
+        try {
+            jdbcTemplate.update(RESERVAR, chave, Timestamp.from(agora.plus(ttlEmAndamento)));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Optional<ResultadoIdempotente> consultar(String chave) {
+        return jdbcTemplate
+            .query(
+                CONSULTAR,
+                (rs, rowNum) -> new ResultadoIdempotente(
+                    rs.getString("impressao"),
+                    rs.getInt("status"),
+                    rs.getString("tipo_conteudo"),
+                    rs.getString("corpo")
+                ),
+                chave,
+                Timestamp.from(clock.instant())
+            )
+            .stream()
+            .findFirst();
+    }
+
+    @Override
+    public void concluir(String chave, ResultadoIdempotente resultado) {
+        jdbcTemplate.update(
+            CONCLUIR,
+            resultado.impressao(),
+            resultado.status(),
+            resultado.tipoConteudo(),
+            resultado.corpo(),
+            Timestamp.from(clock
+                .instant()
+                .plus(ttl)),
+            chave
+        );
+    }
+
+    @Override
+    public void liberar(String chave) {
+        jdbcTemplate.update(LIBERAR, chave);
+    }
+
+    /**
+     * Remove as chaves de idempotência expiradas.
+     */
+    @Scheduled(
+        fixedDelayString = "${resilientshop.idempotencia.intervalo-limpeza:5m}",
+        initialDelayString = "${resilientshop.idempotencia.intervalo-limpeza:5m}"
+    )
+    public void removerExpiradas() {
+        int removidas = jdbcTemplate.update(REMOVER_EXPIRADAS, Timestamp.from(clock.instant()));
+        if (removidas > 0) {
+            log.info("{} chaves de idempotência expiradas removidas", removidas);
+        }
+    }
+
+}
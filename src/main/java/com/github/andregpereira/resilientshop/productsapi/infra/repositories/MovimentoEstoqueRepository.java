@@ -0,0 +1,30 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+
+@Repository
+public interface MovimentoEstoqueRepository extends JpaRepository<MovimentoEstoqueEntity, Long> {
+
+    Page<MovimentoEstoqueEntity> findAllByProdutoId(Long produtoId, Pageable pageable);
+
+    Optional<MovimentoEstoqueEntity> findFirstByProdutoIdAndCausaInOrderByIdDesc(
+        Long produtoId, Collection<Causa> causas);
+
+    @Query("""
+            SELECT COALESCE(SUM(m.variacao), 0) FROM MovimentoEstoque m
+            WHERE m.produtoId = :produtoId AND m.id > :id AND m.causa NOT IN :ignoradas
+            """)
+    long somarVariacoesApos(
+        @Param("produtoId") Long produtoId, @Param("id") Long id, @Param("ignoradas") Collection<Causa> ignoradas);
+
+}
@@ -0,0 +1,25 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.CursorProduto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+
+/**
+ * Fragmento de repositório com as consultas de produtos montadas dinamicamente.
+ *
+ * @author André Garcia
+ * @see ProdutoRepository
+ */
+public interface ProdutoConsultaRepository {
+
+    List<ProdutoDto> findProdutoDtoAposCursor(Long categoriaId, Long subcategoriaId, CursorProduto cursor, int limite);
+
+    Page<ProdutoDto> buscarPorNome(String nome, Pageable pageable);
+
+    Slice<ProdutoDto> buscarPorNomeSemContagem(String nome, Pageable pageable);
+
+}
@@ -0,0 +1,276 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.PaginacaoInvalidaException;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.CursorProduto;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.BuscaProdutoProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.BuscaProdutoProperties.ModoBusca;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository.SELECT_PRODUTO_DTO;
+
+/**
+ * Implementação de {@link ProdutoConsultaRepository}.
+ * <p>
+ * A paginação por cursor usa a chave do último produto retornado no lugar do {@code OFFSET}: a consulta
+ * continua a partir de {@code (propriedade, id)} em uma ordenação estável pelos mesmos campos, e o custo
+ * de uma página não depende da sua profundidade. Não há consulta de contagem.
+ * <p>
+ * A busca por nome depende de {@link BuscaProdutoProperties#modo()}. No modo {@link ModoBusca#TRIGRAMA}, a
+ * consulta nativa usa o índice GIN de trigramas sobre o nome sem acentos, tanto para a busca por trecho
+ * ({@code ILIKE}) quanto para a busca aproximada ({@code <%}), e ordena os produtos pela relevância antes
+ * da ordenação do {@code Pageable}. No modo {@link ModoBusca#LIKE}, padrão e compatível com o H2 dos
+ * testes, a consulta JPQL usa {@code LIKE} sem distinção de maiúsculas.
+ *
+ * @author André Garcia
+ * @see ProdutoConsultaRepository
+ */
+@RequiredArgsConstructor
+public class ProdutoConsultaRepositoryImpl implements ProdutoConsultaRepository {
+
+    private static final String FILTRO_TRIGRAMA = """
+        FROM tb_produtos p
+        WHERE f_unaccent(p.nome) ILIKE '%' || f_unaccent(:padrao) || '%' ESCAPE '\\'
+        OR f_unaccent(:nome) <% f_unaccent(p.nome)
+        """;
+
+    private static final String BUSCAR_TRIGRAMA = """
+        SELECT p.id_produto, p.nome, p.descricao, p.valor_unitario, CAST(
+        """ + ProdutoEstoqueRepositoryImpl.ESTOQUE_DISPONIVEL + """
+         AS INTEGER) AS estoque, p.rating, p.image_url, p.data_criacao, p.data_modificacao, p.ativo
+        """ + FILTRO_TRIGRAMA + """
+        ORDER BY word_similarity(f_unaccent(:nome), f_unaccent(p.nome)) DESC
+        """;
+
+    private static final String CONTAR_TRIGRAMA = "SELECT COUNT(*) " + FILTRO_TRIGRAMA;
+
+    private static final String FILTRO_LIKE = "WHERE LOWER(p.nome) LIKE LOWER(:padrao) ESCAPE '\\'";
+
+    /**
+     * Propriedades aceitas na ordenação da busca por nome, com o caminho JPQL e a coluna correspondentes.
+     */
+    private static final Map<String, String[]> ORDENACOES = Map.of(
+        "id", new String[]{"p.id", "p.id_produto"},
+        "nome", new String[]{"p.nome", "p.nome"},
+        "valorUnitario", new String[]{"p.valorUnitario", "p.valor_unitario"}
+    );
+
+    private static final RowMapper<ProdutoDto> PRODUTO_DTO = (rs, i) -> new ProdutoDto(
+        rs.getLong("id_produto"),
+        rs.getString("nome"),
+        rs.getString("descricao"),
+        rs.getBigDecimal("valor_unitario"),
+        rs.getInt("estoque"),
+        rs.getBigDecimal("rating"),
+        rs.getString("image_url"),
+        rs.getObject("data_criacao", LocalDateTime.class),
+        rs.getObject("data_modificacao", LocalDateTime.class),
+        rs.getBoolean("ativo")
+    );
+
+    private final EntityManager em;
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final ObjectProvider<BuscaProdutoProperties> buscaProperties;
+
+    /**
+     * Busca os produtos seguintes a uma posição, na ordenação da posição.
+     *
+     * @param categoriaId    o id da categoria, ou {@code null} para não filtrar.
+     * @param subcategoriaId o id da subcategoria, ou {@code null} para não filtrar.
+     * @param cursor         a posição a partir da qual os produtos são buscados.
+     * @param limite         a quantidade máxima de produtos.
+     *
+     * @return os produtos seguintes à posição.
+     */
+    @Override
+    public List<ProdutoDto> findProdutoDtoAposCursor(
+        Long categoriaId, Long subcategoriaId, CursorProduto cursor, int limite
+    ) {
+        String propriedade = "p." + cursor.propriedade();
+        String comparacao = cursor.direcao() == Sort.Direction.ASC
+            ? " > "
+            : " < ";
+        List<String> condicoes = new ArrayList<>();
+        if (categoriaId != null) {
+            condicoes.add("p.categoria.id = :categoriaId");
+        }
+        if (subcategoriaId != null) {
+            condicoes.add("p.subcategoria.id = :subcategoriaId");
+        }
+        if (!cursor.isInicio()) {
+            condicoes.add("id".equals(cursor.propriedade())
+                ? "p.id" + comparacao + ":id"
+                : "(" + propriedade + comparacao + ":valor OR (" + propriedade + " = :valor AND p.id" + comparacao
+                    + ":id))");
+        }
+        StringBuilder jpql = new StringBuilder(SELECT_PRODUTO_DTO);
+        if (!condicoes.isEmpty()) {
+            jpql
+                .append("WHERE ")
+                .append(String.join(" AND ", condicoes));
+        }
+        jpql
+            .append(" ORDER BY ")
+            .append(propriedade)
+            .append(' ')
+            .append(cursor.direcao());
+        if (!"id".equals(cursor.propriedade())) {
+            jpql
+                .append(", p.id ")
+                .append(cursor.direcao());
+        }
+        TypedQuery<ProdutoDto> query = em.createQuery(jpql.toString(), ProdutoDto.class);
+        if (categoriaId != null) {
+            query.setParameter("categoriaId", categoriaId);
+        }
+        if (subcategoriaId != null) {
+            query.setParameter("subcategoriaId", subcategoriaId);
+        }
+        if (!cursor.isInicio()) {
+            query.setParameter("id", cursor.id());
+            if (!"id".equals(cursor.propriedade())) {
+                query.setParameter("valor", cursor.valor());
+            }
+        }
+        return query
+            .setMaxResults(limite)
+            .getResultList();
+    }
+
+    /**
+     * Busca produtos pelo trecho do nome, com a contagem do total.
+     *
+     * @param nome     o trecho do nome.
+     * @param pageable o pageable padrão.
+     *
+     * @return uma sublista dos produtos encontrados.
+     */
+    @Override
+    public Page<ProdutoDto> buscarPorNome(String nome, Pageable pageable) {
+        List<ProdutoDto> produtos = buscar(nome, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(produtos, pageable, () -> contar(nome));
+    }
+
+    /**
+     * Busca produtos pelo trecho do nome, sem a contagem do total.
+     *
+     * @param nome     o trecho do nome.
+     * @param pageable o pageable padrão.
+     *
+     * @return um trecho dos produtos encontrados.
+     */
+    @Override
+    public Slice<ProdutoDto> buscarPorNomeSemContagem(String nome, Pageable pageable) {
+        List<ProdutoDto> produtos = buscar(nome, pageable, pageable.getPageSize() + 1);
+        boolean possuiProxima = produtos.size() > pageable.getPageSize();
+        return new SliceImpl<>(
+            possuiProxima
+                ? produtos.subList(0, pageable.getPageSize())
+                : produtos,
+            pageable,
+            possuiProxima
+        );
+    }
+
+    private List<ProdutoDto> buscar(String nome, Pageable pageable, int limite) {
+        if (isTrigrama()) {
+            return namedJdbcTemplate.query(
+                BUSCAR_TRIGRAMA + ordenacao(pageable.getSort(), 1, ", ") + " LIMIT :limite OFFSET :offset",
+                parametros(nome)
+                    .addValue("limite", limite)
+                    .addValue("offset", pageable.getOffset()),
+                PRODUTO_DTO
+            );
+        }
+        String ordem = ordenacao(pageable.getSort(), 0, " ORDER BY ");
+        return em
+            .createQuery(SELECT_PRODUTO_DTO + FILTRO_LIKE + ordem, ProdutoDto.class)
+            .setParameter("padrao", padrao(nome))
+            .setFirstResult((int) pageable.getOffset())
+            .setMaxResults(limite)
+            .getResultList();
+    }
+
+    private long contar(String nome) {
+        if (isTrigrama()) {
+            Long total = namedJdbcTemplate.queryForObject(CONTAR_TRIGRAMA,
+                parametros(nome), Long.class);
+            return total != null
+                ? total
+                : 0;
+        }
+        return em
+            .createQuery("SELECT COUNT(p) FROM Produto p " + FILTRO_LIKE, Long.class)
+            .setParameter("padrao", padrao(nome))
+            .getSingleResult();
+    }
+
+    private boolean isTrigrama() {
+        return buscaProperties
+            .getIfAvailable(() -> BuscaProdutoProperties.PADRAO)
+            .modo() == ModoBusca.TRIGRAMA;
+    }
+
+    private static MapSqlParameterSource parametros(String nome) {
+        return new MapSqlParameterSource()
+            .addValue("nome", nome)
+            .addValue("padrao", escapar(nome));
+    }
+
+    private static String padrao(String nome) {
+        return "%" + escapar(nome) + "%";
+    }
+
+    private static String escapar(String nome) {
+        return nome
+            .replace("\\", "\\\\")
+            .replace("%", "\\%")
+            .replace("_", "\\_");
+    }
+
+    /**
+     * Monta a ordenação do {@code Pageable}, com o {@code id} como desempate.
+     *
+     * @param sort    a ordenação.
+     * @param indice  o índice do caminho em {@link #ORDENACOES}: {@code 0} para JPQL e {@code 1} para SQL.
+     * @param prefixo o prefixo da ordenação.
+     *
+     * @return a cláusula de ordenação.
+     */
+    private static String ordenacao(Sort sort, int indice, String prefixo) {
+        List<String> ordens = new ArrayList<>();
+        for (Sort.Order ordem : sort) {
+            String[] caminhos = ORDENACOES.get(ordem.getProperty());
+            if (caminhos == null) {
+                throw new PaginacaoInvalidaException(MessageFormat.format(
+                    "Ops! A ordenação por {0} não é suportada na busca por nome",
+                    ordem.getProperty()
+                ));
+            }
+            ordens.add(caminhos[indice] + " " + ordem.getDirection());
+        }
+        ordens.add(ORDENACOES.get("id")[indice]);
+        return prefixo + String.join(", ", ordens);
+    }
+
+}
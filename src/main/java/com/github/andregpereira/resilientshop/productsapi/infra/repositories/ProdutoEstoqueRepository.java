@@ -0,0 +1,54 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.DefinicaoEstoquesDto;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ReservaEstoqueEntity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Fragmento de repositório com as operações de estoque de produtos
+ * executadas em lote diretamente no banco de dados.
+ *
+ * @author André Garcia
+ * @see ProdutoRepository
+ */
+public interface ProdutoEstoqueRepository {
+
+    Set<Long> bloquearProdutos(Collection<Long> ids);
+
+    Set<Long> subtrairEstoque(Map<Long, Integer> quantidades);
+
+    Set<Long> retornarEstoque(Map<Long, Integer> quantidades);
+
+    Map<Long, Integer> consultarEstoques(Collection<Long> ids);
+
+    Map<Long, Integer> consultarReservados(Collection<Long> ids);
+
+    Map<Long, Boolean> consultarAtivos(Collection<Long> ids);
+
+    Map<Long, Integer> bloquearEstoques(Collection<Long> ids);
+
+    Set<Long> aplicarVariacoes(Map<Long, Integer> variacoes);
+
+    List<Integer> bloquearFragmentos(Long id);
+
+    Set<Long> bloquearFragmentados(Collection<Long> ids);
+
+    void distribuirFragmentos(Long id, int quantidadeFragmentos, int estoque);
+
+    void removerFragmentos(Long id);
+
+    DefinicaoEstoquesDto definirEstoquesPorSku(Map<Long, Integer> estoquesPorSku);
+
+    void registrarMovimentos(Map<Long, Integer> variacoes, Causa causa);
+
+    void registrarMovimentos(List<MovimentoEstoqueEntity> movimentos);
+
+    void registrarMovimentosReserva(List<ReservaEstoqueEntity> itens, Causa causa);
+
+}
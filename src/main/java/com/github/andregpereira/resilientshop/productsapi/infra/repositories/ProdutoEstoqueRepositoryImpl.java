@@ -0,0 +1,735 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.DefinicaoEstoquesDto;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.BloqueioEstoqueProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.BloqueioEstoqueProperties.ModoBloqueio;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ReservaEstoqueEntity;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.IncorrectUpdateSemanticsDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Statement;
+import java.text.MessageFormat;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implementação de {@link ProdutoEstoqueRepository}. Cada linha do lote é um
+ * {@code UPDATE} condicional e todas são enviadas ao banco em um único lote JDBC.
+ * A quantidade de linhas afetadas por cada comando decide se a linha foi aplicada.
+ * A versão do produto é incrementada para que escritas concorrentes via JPA
+ * detectem a alteração de estoque, e a data de modificação é atualizada para que
+ * a exportação incremental inclua o produto.
+ * <p>
+ * Produtos com estoque fragmentado não são alterados pelo lote. O estoque desses
+ * produtos é dividido em fragmentos na tabela {@code tb_estoque_fragmentos}, e cada
+ * linha é aplicada em um fragmento, sem bloquear a linha do produto. A data de
+ * modificação é mantida no próprio fragmento.
+ * <p>
+ * As subtrações não consomem o estoque retido por reservas ainda não expiradas, gravadas em
+ * {@code tb_reservas_estoque}: o estoque resultante não pode ficar abaixo da soma das reservas do produto.
+ * A verificação só é confiável com as linhas já bloqueadas por um comando anterior da mesma transação,
+ * como em {@link #bloquearProdutos(Collection)}, pois um comando que aguarda um bloqueio não enxerga as
+ * reservas gravadas pela transação que o detinha.
+ *
+ * @author André Garcia
+ * @see ProdutoEstoqueRepository
+ */
+@RequiredArgsConstructor
+public class ProdutoEstoqueRepositoryImpl implements ProdutoEstoqueRepository {
+
+    private static final String SUBTRAIR_ESTOQUE = """
+        UPDATE tb_produtos SET estoque = estoque - ?, versao = versao + 1, data_modificacao = LOCALTIMESTAMP
+        WHERE id_produto = ? AND estoque_fragmentado = FALSE AND estoque - ? >= (
+            SELECT COALESCE(SUM(r.quantidade), 0) FROM tb_reservas_estoque r
+            WHERE r.id_produto = tb_produtos.id_produto AND r.expira_em > ?
+        )
+        """;
+
+    private static final String RETORNAR_ESTOQUE = """
+        UPDATE tb_produtos SET estoque = estoque + ?, versao = versao + 1, data_modificacao = LOCALTIMESTAMP
+        WHERE id_produto = ? AND estoque_fragmentado = FALSE
+        """;
+
+    static final String ESTOQUE_DISPONIVEL = """
+        CASE WHEN p.estoque_fragmentado
+        THEN (SELECT COALESCE(SUM(f.estoque), 0) FROM tb_estoque_fragmentos f WHERE f.id_produto = p.id_produto)
+        ELSE p.estoque END
+        """;
+
+    private static final String CONSULTAR_ESTOQUES = "SELECT p.id_produto, " + ESTOQUE_DISPONIVEL + """
+         AS estoque FROM tb_produtos p
+        WHERE p.id_produto IN (:ids) AND p.ativo = TRUE
+        """;
+
+    private static final String CONSULTAR_ATIVOS = """
+        SELECT id_produto, ativo FROM tb_produtos WHERE id_produto IN (:ids)
+        """;
+
+    private static final String BLOQUEAR_ESTOQUES = "SELECT p.id_produto, " + ESTOQUE_DISPONIVEL + """
+         AS estoque FROM tb_produtos p
+        WHERE p.id_produto IN (:ids) ORDER BY p.id_produto FOR UPDATE
+        """;
+
+    private static final String APLICAR_VARIACAO = """
+        UPDATE tb_produtos SET estoque = estoque + ?, versao = versao + 1, data_modificacao = LOCALTIMESTAMP
+        WHERE id_produto = ? AND estoque_fragmentado = FALSE AND estoque + ? >= CASE WHEN ? < 0 THEN (
+            SELECT COALESCE(SUM(r.quantidade), 0) FROM tb_reservas_estoque r
+            WHERE r.id_produto = tb_produtos.id_produto AND r.expira_em > ?
+        ) ELSE 0 END
+        """;
+
+    private static final String BLOQUEAR_PRODUTOS = """
+        SELECT id_produto FROM tb_produtos
+        WHERE id_produto IN (:ids) AND estoque_fragmentado = FALSE ORDER BY id_produto FOR UPDATE""";
+
+    private static final String CONSULTAR_NAO_FRAGMENTADOS = """
+        SELECT id_produto FROM tb_produtos
+        WHERE id_produto IN (:ids) AND estoque_fragmentado = FALSE
+        """;
+
+    private static final String CONSULTAR_FRAGMENTADOS = """
+        SELECT f.id_produto, COUNT(*) AS quantidade_fragmentos FROM tb_estoque_fragmentos f
+        JOIN tb_produtos p ON p.id_produto = f.id_produto
+        WHERE f.id_produto IN (:ids) AND p.estoque_fragmentado = TRUE
+        GROUP BY f.id_produto
+        """;
+
+    private static final String BLOQUEAR_FRAGMENTO_POR_INDICE = """
+        SELECT estoque FROM tb_estoque_fragmentos WHERE id_produto = ? AND indice = ? FOR UPDATE
+        """;
+
+    private static final String SUBTRAIR_FRAGMENTO_POR_INDICE = """
+        UPDATE tb_estoque_fragmentos SET estoque = estoque - ?, data_modificacao = LOCALTIMESTAMP
+        WHERE id_produto = ? AND indice = ? AND estoque >= ? AND NOT EXISTS (
+            SELECT 1 FROM tb_reservas_estoque r
+            WHERE r.id_produto = tb_estoque_fragmentos.id_produto AND r.expira_em > ?
+        )
+        """;
+
+    private static final String CONSULTAR_RESERVADOS = """
+        SELECT id_produto, SUM(quantidade) AS reservado FROM tb_reservas_estoque
+        WHERE id_produto IN (:ids) AND expira_em > :agora GROUP BY id_produto
+        """;
+
+    private static final String RETORNAR_FRAGMENTO_POR_INDICE = """
+        UPDATE tb_estoque_fragmentos SET estoque = estoque + ?, data_modificacao = LOCALTIMESTAMP
+        WHERE id_produto = ? AND indice = ?
+        """;
+
+    private static final String BLOQUEAR_FRAGMENTOS = """
+        SELECT id_fragmento, estoque FROM tb_estoque_fragmentos
+        WHERE id_produto = ? ORDER BY indice FOR UPDATE
+        """;
+
+    private static final String SUBTRAIR_FRAGMENTO = """
+        UPDATE tb_estoque_fragmentos SET estoque = estoque - ?, data_modificacao = LOCALTIMESTAMP
+        WHERE id_fragmento = ?
+        """;
+
+    private static final String REMOVER_FRAGMENTOS = """
+        DELETE FROM tb_estoque_fragmentos WHERE id_produto = ?
+        """;
+
+    private static final String INSERIR_FRAGMENTO = """
+        INSERT INTO tb_estoque_fragmentos (id_produto, indice, estoque, data_modificacao)
+        VALUES (?, ?, ?, LOCALTIMESTAMP)
+        """;
+
+    private static final String BLOQUEAR_POR_SKU = "SELECT p.id_produto, p.sku, p.estoque_fragmentado, "
+        + ESTOQUE_DISPONIVEL + """
+         AS estoque FROM tb_produtos p
+        WHERE p.sku IN (:skus) ORDER BY p.id_produto FOR UPDATE
+        """;
+
+    private static final String DEFINIR_ESTOQUE = """
+        UPDATE tb_produtos SET estoque = ?, versao = versao + 1, data_modificacao = LOCALTIMESTAMP
+        WHERE id_produto = ?
+        """;
+
+    private static final String REGISTRAR_MOVIMENTO_ATUAL = """
+        INSERT INTO tb_movimentos_estoque (id_produto, variacao, estoque_resultante, causa, data_movimento)
+        """ + "SELECT p.id_produto, ?, " + ESTOQUE_DISPONIVEL + """
+         , ?, LOCALTIMESTAMP FROM tb_produtos p WHERE p.id_produto = ?
+        """;
+
+    private static final String REGISTRAR_MOVIMENTO = """
+        INSERT INTO tb_movimentos_estoque (id_produto, variacao, estoque_resultante, causa, data_movimento)
+        VALUES (?, ?, ?, ?, LOCALTIMESTAMP)
+        """;
+
+    private static final String REGISTRAR_MOVIMENTO_RESERVA = """
+        INSERT INTO tb_movimentos_estoque (id_produto, variacao, estoque_resultante, causa, quantidade_reservada,
+        data_movimento)
+        """ + "SELECT p.id_produto, 0, " + ESTOQUE_DISPONIVEL + """
+         , ?, ?, LOCALTIMESTAMP FROM tb_produtos p WHERE p.id_produto = ?
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    private final ObjectProvider<BloqueioEstoqueProperties> bloqueioProperties;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+
+    /**
+     * Bloqueia as linhas dos produtos informados até o fim da transação corrente, com um único
+     * {@code SELECT ... FOR UPDATE} em ordem crescente de {@code id}. Como todas as transações bloqueiam
+     * os produtos na mesma ordem, lotes com os mesmos produtos em ordens diferentes não entram em deadlock.
+     * Produtos com estoque fragmentado não são bloqueados. O tempo de espera é registrado na métrica
+     * {@code produtos.estoque.bloqueio.espera}.
+     *
+     * @param ids os ids dos produtos.
+     *
+     * @return os ids dos produtos bloqueados.
+     *
+     * @throws CannotAcquireLockException caso algum produto já esteja bloqueado e o modo de bloqueio seja
+     *                                    {@link ModoBloqueio#NOWAIT} ou {@link ModoBloqueio#SKIP_LOCKED}.
+     */
+    @Override
+    public Set<Long> bloquearProdutos(Collection<Long> ids) {
+        Set<Long> bloqueados = new HashSet<>();
+        if (ids.isEmpty()) {
+            return bloqueados;
+        }
+        ModoBloqueio modo = modoBloqueio();
+        cronometrarBloqueio(modo, () -> bloqueados.addAll(namedJdbcTemplate.queryForList(
+            BLOQUEAR_PRODUTOS + modo.clausula(),
+            Map.of("ids", ids),
+            Long.class
+        )));
+        if (modo == ModoBloqueio.SKIP_LOCKED && bloqueados.size() < ids.size()) {
+            verificarIgnorados(namedJdbcTemplate.queryForList(
+                CONSULTAR_NAO_FRAGMENTADOS,
+                Map.of("ids", ids),
+                Long.class
+            ), bloqueados);
+        }
+        return bloqueados;
+    }
+
+    /**
+     * Subtrai do estoque as quantidades informadas por {@code id} de produto.
+     * Uma linha só é aplicada se o produto existir e possuir estoque suficiente, sem contar o estoque retido
+     * por reservas ainda não expiradas.
+     *
+     * @param quantidades as quantidades a serem subtraídas, por id de produto.
+     *
+     * @return os ids dos produtos que não tiveram o estoque subtraído.
+     */
+    @Override
+    public Set<Long> subtrairEstoque(Map<Long, Integer> quantidades) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Entry<Long, Integer>> linhas = new ArrayList<>(quantidades.entrySet());
+        List<Object[]> parametros = linhas
+            .stream()
+            .map(e -> new Object[]{e.getValue(), e.getKey(), e.getValue(), agora})
+            .toList();
+        Set<Long> naoAplicadas = linhasNaoAplicadas(linhas, jdbcTemplate.batchUpdate(SUBTRAIR_ESTOQUE, parametros));
+        Map<Long, Integer> fragmentados = consultarFragmentados(naoAplicadas);
+        naoAplicadas.removeIf(id -> fragmentados.containsKey(id)
+            && subtrairFragmentos(id, fragmentados.get(id), quantidades.get(id), agora));
+        return naoAplicadas;
+    }
+
+    /**
+     * Retorna ao estoque as quantidades informadas por {@code id} de produto.
+     *
+     * @param quantidades as quantidades a serem retornadas, por id de produto.
+     *
+     * @return os ids dos produtos que não foram encontrados.
+     */
+    @Override
+    public Set<Long> retornarEstoque(Map<Long, Integer> quantidades) {
+        List<Entry<Long, Integer>> linhas = new ArrayList<>(quantidades.entrySet());
+        List<Object[]> parametros = linhas
+            .stream()
+            .map(e -> new Object[]{e.getValue(), e.getKey()})
+            .toList();
+        Set<Long> naoAplicadas = linhasNaoAplicadas(linhas, jdbcTemplate.batchUpdate(RETORNAR_ESTOQUE, parametros));
+        Map<Long, Integer> fragmentados = consultarFragmentados(naoAplicadas);
+        naoAplicadas.removeIf(id -> fragmentados.containsKey(id)
+            && retornarFragmento(id, fragmentados.get(id), quantidades.get(id)));
+        return naoAplicadas;
+    }
+
+    /**
+     * Consulta o estoque atual dos produtos ativos informados, em uma única consulta.
+     *
+     * @param ids os ids dos produtos.
+     *
+     * @return o estoque por id de produto. Produtos inexistentes ou inativos não são retornados.
+     */
+    @Override
+    public Map<Long, Integer> consultarEstoques(Collection<Long> ids) {
+        Map<Long, Integer> estoques = new HashMap<>();
+        if (ids.isEmpty()) {
+            return estoques;
+        }
+        namedJdbcTemplate.query(
+            CONSULTAR_ESTOQUES,
+            Map.of("ids", ids),
+            rs -> {
+                estoques.put(rs.getLong("id_produto"), rs.getInt("estoque"));
+            }
+        );
+        return estoques;
+    }
+
+    /**
+     * Consulta o estoque retido por reservas ainda não expiradas dos produtos informados, em uma única
+     * consulta. Para que a soma não mude até o fim da transação, as linhas dos produtos e, se houver, os
+     * fragmentos de estoque devem estar bloqueados.
+     *
+     * @param ids os ids dos produtos.
+     *
+     * @return a quantidade reservada, por id de produto. Produtos sem reservas não são retornados.
+     */
+    @Override
+    public Map<Long, Integer> consultarReservados(Collection<Long> ids) {
+        return consultarReservados(ids, LocalDateTime.now());
+    }
+
+    /**
+     * Consulta se os produtos informados estão ativos, em uma única consulta.
+     *
+     * @param ids os ids dos produtos.
+     *
+     * @return se o produto está ativo, por id de produto. Produtos inexistentes não são retornados.
+     */
+    @Override
+    public Map<Long, Boolean> consultarAtivos(Collection<Long> ids) {
+        Map<Long, Boolean> ativos = new HashMap<>();
+        if (ids.isEmpty()) {
+            return ativos;
+        }
+        namedJdbcTemplate.query(
+            CONSULTAR_ATIVOS,
+            Map.of("ids", ids),
+            rs -> {
+                ativos.put(rs.getLong("id_produto"), rs.getBoolean("ativo"));
+            }
+        );
+        return ativos;
+    }
+
+    /**
+     * Bloqueia as linhas dos produtos informados até o fim da transação corrente e retorna o estoque atual.
+     * As linhas são bloqueadas em ordem crescente de {@code id}, a mesma ordem usada pelos lotes de
+     * {@code UPDATE}, para que transações concorrentes não entrem em deadlock. O bloqueio segue o
+     * {@linkplain BloqueioEstoqueProperties modo configurado}, e o tempo de espera é registrado na mesma
+     * métrica de {@link #bloquearProdutos(Collection)}.
+     *
+     * @param ids os ids dos produtos.
+     *
+     * @return o estoque por id de produto. Produtos inexistentes não são retornados.
+     *
+     * @throws CannotAcquireLockException caso algum produto já esteja bloqueado e o modo de bloqueio seja
+     *                                    {@link ModoBloqueio#NOWAIT} ou {@link ModoBloqueio#SKIP_LOCKED}.
+     */
+    @Override
+    public Map<Long, Integer> bloquearEstoques(Collection<Long> ids) {
+        Map<Long, Integer> estoques = new HashMap<>();
+        if (ids.isEmpty()) {
+            return estoques;
+        }
+        ModoBloqueio modo = modoBloqueio();
+        cronometrarBloqueio(modo, () -> namedJdbcTemplate.query(
+            BLOQUEAR_ESTOQUES + modo.clausula(),
+            Map.of("ids", ids),
+            rs -> {
+                estoques.put(rs.getLong("id_produto"), rs.getInt("estoque"));
+            }
+        ));
+        if (modo == ModoBloqueio.SKIP_LOCKED && estoques.size() < ids.size()) {
+            verificarIgnorados(consultarAtivos(ids).keySet(), estoques.keySet());
+        }
+        return estoques;
+    }
+
+    /**
+     * Aplica ao estoque a variação líquida informada por {@code id} de produto, positiva ou negativa.
+     * Uma linha só é aplicada se o produto existir e, caso a variação seja negativa, o estoque resultante não
+     * for menor que o estoque retido por reservas ainda não expiradas.
+     *
+     * @param variacoes as variações a serem aplicadas, por id de produto.
+     *
+     * @return os ids dos produtos que não tiveram a variação aplicada.
+     */
+    @Override
+    public Set<Long> aplicarVariacoes(Map<Long, Integer> variacoes) {
+        LocalDateTime agora = LocalDateTime.now();
+        List<Entry<Long, Integer>> linhas = new ArrayList<>(variacoes.entrySet());
+        List<Object[]> parametros = linhas
+            .stream()
+            .map(e -> new Object[]{e.getValue(), e.getKey(), e.getValue(), e.getValue(), agora})
+            .toList();
+        Set<Long> naoAplicadas = linhasNaoAplicadas(linhas, jdbcTemplate.batchUpdate(APLICAR_VARIACAO, parametros));
+        Map<Long, Integer> fragmentados = consultarFragmentados(naoAplicadas);
+        naoAplicadas.removeIf(id -> {
+            int variacao = variacoes.get(id);
+            return fragmentados.containsKey(id) && (variacao < 0
+                ? subtrairFragmentos(id, fragmentados.get(id), -variacao, agora)
+                : retornarFragmento(id, fragmentados.get(id), variacao));
+        });
+        return naoAplicadas;
+    }
+
+    /**
+     * Bloqueia os fragmentos de estoque de um produto até o fim da transação corrente.
+     *
+     * @param id o id do produto.
+     *
+     * @return o estoque de cada fragmento, em ordem de índice.
+     */
+    @Override
+    public List<Integer> bloquearFragmentos(Long id) {
+        return jdbcTemplate.query(BLOQUEAR_FRAGMENTOS, (rs, i) -> rs.getInt("estoque"), id);
+    }
+
+    /**
+     * Bloqueia os fragmentos de estoque dos produtos informados que têm estoque fragmentado, em ordem de
+     * {@code id} e de índice, até o fim da transação corrente. Deve ser chamado antes de bloquear as linhas
+     * dos produtos, a mesma ordem usada pela atualização do produto, para que a soma dos fragmentos
+     * consultada em seguida não mude até o fim da transação.
+     *
+     * @param ids os ids dos produtos.
+     *
+     * @return os ids dos produtos com estoque fragmentado.
+     */
+    @Override
+    public Set<Long> bloquearFragmentados(Collection<Long> ids) {
+        Set<Long> fragmentados = new TreeSet<>(consultarFragmentados(ids).keySet());
+        fragmentados.forEach(this::bloquearFragmentos);
+        return fragmentados;
+    }
+
+    /**
+     * Substitui os fragmentos de estoque de um produto, distribuindo o estoque total igualmente entre eles.
+     * O resto da divisão é distribuído a partir do primeiro fragmento.
+     *
+     * @param id                    o id do produto.
+     * @param quantidadeFragmentos  a quantidade de fragmentos.
+     * @param estoque               o estoque total a ser distribuído.
+     */
+    @Override
+    public void distribuirFragmentos(Long id, int quantidadeFragmentos, int estoque) {
+        jdbcTemplate.update(REMOVER_FRAGMENTOS, id);
+        List<Object[]> parametros = new ArrayList<>(quantidadeFragmentos);
+        for (int indice = 0; indice < quantidadeFragmentos; indice++) {
+            int parte = estoque / quantidadeFragmentos + (indice < estoque % quantidadeFragmentos
+                ? 1
+                : 0);
+            parametros.add(new Object[]{id, indice, parte});
+        }
+        jdbcTemplate.batchUpdate(INSERIR_FRAGMENTO, parametros);
+    }
+
+    /**
+     * Remove os fragmentos de estoque de um produto.
+     *
+     * @param id o id do produto.
+     */
+    @Override
+    public void removerFragmentos(Long id) {
+        jdbcTemplate.update(REMOVER_FRAGMENTOS, id);
+    }
+
+    /**
+     * Define o estoque dos produtos informados por {@code sku}, como em uma contagem de inventário.
+     * As linhas são localizadas pela restrição única {@code uc_sku} e bloqueadas em ordem de {@code id}
+     * com um único {@code SELECT ... FOR UPDATE}. Apenas os produtos com estoque diferente são alterados,
+     * em um único lote de {@code UPDATE}, e cada alteração é registrada no diário como um ajuste.
+     * Produtos com estoque fragmentado têm o novo estoque redistribuído entre os fragmentos.
+     *
+     * @param estoquesPorSku o novo estoque, por sku de produto.
+     *
+     * @return os ids dos produtos com o estoque alterado e os skus que não foram encontrados.
+     */
+    @Override
+    public DefinicaoEstoquesDto definirEstoquesPorSku(Map<Long, Integer> estoquesPorSku) {
+        Set<Long> naoEncontrados = new LinkedHashSet<>(estoquesPorSku.keySet());
+        Set<Long> alterados = new LinkedHashSet<>();
+        if (estoquesPorSku.isEmpty()) {
+            return new DefinicaoEstoquesDto(alterados, naoEncontrados);
+        }
+        List<Object[]> alteracoes = new ArrayList<>();
+        List<MovimentoEstoqueEntity> movimentos = new ArrayList<>();
+        List<long[]> fragmentados = new ArrayList<>();
+        namedJdbcTemplate.query(
+            BLOQUEAR_POR_SKU,
+            Map.of("skus", estoquesPorSku.keySet()),
+            rs -> {
+                long id = rs.getLong("id_produto");
+                long sku = rs.getLong("sku");
+                int anterior = rs.getInt("estoque");
+                int estoque = estoquesPorSku.get(sku);
+                naoEncontrados.remove(sku);
+                if (rs.getBoolean("estoque_fragmentado")) {
+                    fragmentados.add(new long[]{id, estoque});
+                } else if (anterior != estoque) {
+                    alteracoes.add(new Object[]{estoque, id});
+                    alterados.add(id);
+                    movimentos.add(new MovimentoEstoqueEntity(id, estoque - anterior, estoque, Causa.AJUSTE));
+                }
+            }
+        );
+        if (!alteracoes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DEFINIR_ESTOQUE, alteracoes);
+        }
+        for (long[] fragmentado : fragmentados) {
+            long id = fragmentado[0];
+            int estoque = (int) fragmentado[1];
+            List<Integer> fragmentos = bloquearFragmentos(id);
+            int anterior = fragmentos
+                .stream()
+                .mapToInt(Integer::intValue)
+                .sum();
+            if (anterior != estoque) {
+                distribuirFragmentos(id, fragmentos.size(), estoque);
+                alterados.add(id);
+                movimentos.add(new MovimentoEstoqueEntity(id, estoque - anterior, estoque, Causa.AJUSTE));
+            }
+        }
+        registrarMovimentos(movimentos);
+        return new DefinicaoEstoquesDto(alterados, naoEncontrados);
+    }
+
+    /**
+     * Registra no diário os movimentos de estoque já aplicados, em um único lote JDBC. O estoque resultante
+     * de cada movimento é lido do banco no próprio {@code INSERT}, após a alteração. Deve ser chamado na
+     * mesma transação da alteração, com as linhas dos produtos ainda bloqueadas.
+     *
+     * @param variacoes as variações aplicadas, por id de produto.
+     * @param causa     a causa dos movimentos.
+     */
+    @Override
+    public void registrarMovimentos(Map<Long, Integer> variacoes, Causa causa) {
+        if (variacoes.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            REGISTRAR_MOVIMENTO_ATUAL,
+            variacoes
+                .entrySet()
+                .stream()
+                .map(e -> new Object[]{e.getValue(), causa.name(), e.getKey()})
+                .toList()
+        );
+    }
+
+    /**
+     * Registra no diário os movimentos de estoque informados, com o estoque resultante já calculado,
+     * em um único lote JDBC.
+     *
+     * @param movimentos os movimentos a serem registrados.
+     */
+    @Override
+    public void registrarMovimentos(List<MovimentoEstoqueEntity> movimentos) {
+        if (movimentos.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            REGISTRAR_MOVIMENTO,
+            movimentos
+                .stream()
+                .map(m -> new Object[]{
+                    m.getProdutoId(), m.getVariacao(), m.getEstoqueResultante(), m
+                    .getCausa()
+                    .name()
+                })
+                .toList()
+        );
+    }
+
+    /**
+     * Registra no diário a reserva, a liberação ou a expiração dos itens de reserva informados, em um único
+     * lote JDBC. Os movimentos não alteram o estoque: a variação é zero, o estoque resultante é o estoque
+     * atual, lido do banco no próprio {@code INSERT}, e a quantidade retida é registrada à parte.
+     *
+     * @param itens os itens de reserva.
+     * @param causa a causa dos movimentos.
+     */
+    @Override
+    public void registrarMovimentosReserva(List<ReservaEstoqueEntity> itens, Causa causa) {
+        if (itens.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+            REGISTRAR_MOVIMENTO_RESERVA,
+            itens
+                .stream()
+                .map(i -> new Object[]{causa.name(), i.getQuantidade(), i.getProdutoId()})
+                .toList()
+        );
+    }
+
+    private ModoBloqueio modoBloqueio() {
+        return bloqueioProperties
+            .getIfAvailable(() -> BloqueioEstoqueProperties.PADRAO)
+            .modo();
+    }
+
+    private void cronometrarBloqueio(ModoBloqueio modo, Runnable bloqueio) {
+        long inicio = System.nanoTime();
+        try {
+            bloqueio.run();
+        } finally {
+            meterRegistry.ifAvailable(registry -> Timer
+                .builder("produtos.estoque.bloqueio.espera")
+                .description("Tempo de espera pelo bloqueio das linhas de produtos")
+                .tag("modo", modo.name())
+                .register(registry)
+                .record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS));
+        }
+    }
+
+    /**
+     * Verifica, no modo {@link ModoBloqueio#SKIP_LOCKED}, se alguma linha existente foi ignorada por já
+     * estar bloqueada por outra transação.
+     */
+    private static void verificarIgnorados(Collection<Long> existentes, Set<Long> bloqueados) {
+        List<Long> ignorados = new ArrayList<>(existentes);
+        ignorados.removeAll(bloqueados);
+        if (!ignorados.isEmpty()) {
+            throw new CannotAcquireLockException(MessageFormat.format(
+                "Ops! O produto com id {0} está sendo atualizado por outra operação",
+                ignorados.getFirst()
+            ));
+        }
+    }
+
+    /**
+     * Consulta, entre os ids informados, os produtos com estoque fragmentado e a quantidade de
+     * fragmentos de cada um. Os índices dos fragmentos vão de zero à quantidade de fragmentos menos um.
+     */
+    private Map<Long, Integer> consultarReservados(Collection<Long> ids, LocalDateTime agora) {
+        Map<Long, Integer> reservados = new HashMap<>();
+        if (ids.isEmpty()) {
+            return reservados;
+        }
+        namedJdbcTemplate.query(
+            CONSULTAR_RESERVADOS,
+            Map.of("ids", ids, "agora", agora),
+            rs -> {
+                reservados.put(rs.getLong("id_produto"), rs.getInt("reservado"));
+            }
+        );
+        return reservados;
+    }
+
+    private Map<Long, Integer> consultarFragmentados(Collection<Long> ids) {
+        Map<Long, Integer> fragmentados = new HashMap<>();
+        if (ids.isEmpty()) {
+            return fragmentados;
+        }
+        namedJdbcTemplate.query(
+            CONSULTAR_FRAGMENTADOS,
+            Map.of("ids", ids),
+            rs -> {
+                fragmentados.put(rs.getLong("id_produto"), rs.getInt("quantidade_fragmentos"));
+            }
+        );
+        return fragmentados;
+    }
+
+    /**
+     * Subtrai a quantidade de um fragmento sorteado, se ele tiver estoque suficiente e o produto não tiver
+     * reservas ainda não expiradas. O índice é sorteado na aplicação e o fragmento é bloqueado e alterado
+     * pela chave única {@code (id_produto, indice)}, sem percorrer os demais fragmentos. O bloqueio antecede
+     * a alteração para que a verificação das reservas enxergue as reservas gravadas por uma transação que
+     * detinha os fragmentos. Caso contrário, bloqueia todos os fragmentos do produto e subtrai a quantidade
+     * de cada um deles em ordem de índice, se a soma dos fragmentos menos o estoque reservado for suficiente.
+     */
+    private boolean subtrairFragmentos(Long id, int quantidadeFragmentos, int quantidade, LocalDateTime agora) {
+        int indice = ThreadLocalRandom
+            .current()
+            .nextInt(quantidadeFragmentos);
+        List<Integer> sorteado = jdbcTemplate.queryForList(BLOQUEAR_FRAGMENTO_POR_INDICE, Integer.class, id, indice);
+        if (!sorteado.isEmpty() && sorteado.getFirst() >= quantidade && jdbcTemplate.update(
+            SUBTRAIR_FRAGMENTO_POR_INDICE, quantidade, id, indice, quantidade, agora) > 0) {
+            return true;
+        }
+        List<long[]> fragmentos = jdbcTemplate.query(
+            BLOQUEAR_FRAGMENTOS,
+            (rs, i) -> new long[]{rs.getLong("id_fragmento"), rs.getInt("estoque")},
+            id
+        );
+        int reservado = consultarReservados(List.of(id), agora).getOrDefault(id, 0);
+        if (fragmentos
+            .stream()
+            .mapToLong(f -> f[1])
+            .sum() - reservado < quantidade) {
+            return false;
+        }
+        List<Object[]> parametros = new ArrayList<>();
+        int restante = quantidade;
+        for (long[] fragmento : fragmentos) {
+            if (restante == 0) {
+                break;
+            }
+            int parte = (int) Math.min(fragmento[1], restante);
+            if (parte > 0) {
+                parametros.add(new Object[]{parte, fragmento[0]});
+                restante -= parte;
+            }
+        }
+        jdbcTemplate.batchUpdate(SUBTRAIR_FRAGMENTO, parametros);
+        return true;
+    }
+
+    /**
+     * Retorna a quantidade a um fragmento sorteado, alterado pela chave única {@code (id_produto, indice)}.
+     */
+    private boolean retornarFragmento(Long id, int quantidadeFragmentos, int quantidade) {
+        int indice = ThreadLocalRandom
+            .current()
+            .nextInt(quantidadeFragmentos);
+        return jdbcTemplate.update(RETORNAR_FRAGMENTO_POR_INDICE, quantidade, id, indice) > 0;
+    }
+
+    /**
+     * Retorna as linhas do lote que não afetaram nenhuma linha. {@link Statement#SUCCESS_NO_INFO}, retornado
+     * por drivers que reescrevem o lote, indica que o comando foi executado com sucesso e a linha é considerada
+     * aplicada. {@link Statement#EXECUTE_FAILED} indica que o comando falhou e interrompe a operação.
+     */
+    private static Set<Long> linhasNaoAplicadas(List<Entry<Long, Integer>> linhas, int[] linhasAfetadas) {
+        Set<Long> naoAplicadas = new LinkedHashSet<>();
+        for (int i = 0; i < linhasAfetadas.length; i++) {
+            if (linhasAfetadas[i] == Statement.EXECUTE_FAILED) {
+                throw new IncorrectUpdateSemanticsDataAccessException(MessageFormat.format(
+                    "Falha na execução do lote de estoque para o produto com id {0}",
+                    linhas
+                        .get(i)
+                        .getKey()
+                ));
+            }
+            if (linhasAfetadas[i] == 0) {
+                naoAplicadas.add(linhas
+                    .get(i)
+                    .getKey());
+            }
+        }
+        return naoAplicadas;
+    }
+
+}
@@ -1,17 +1,60 @@
 package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFacetaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoResumoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoTextoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoVersaoDto;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
 
 @Repository
-public interface ProdutoRepository extends JpaRepository<ProdutoEntity, Long> {
+public interface ProdutoRepository extends JpaRepository<ProdutoEntity, Long>, ProdutoEstoqueRepository,
+    ProdutoConsultaRepository {
+
+    /**
+     * Projeção de {@link ProdutoDto} selecionada direto das colunas de {@code tb_produtos}, sem carregar a
+     * entidade, a categoria e a subcategoria. Com o estoque fragmentado, o estoque é a soma dos fragmentos.
+     */
+    String SELECT_PRODUTO_DTO = """
+        SELECT new com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto(
+            p.id, p.nome, p.descricao, p.valorUnitario,
+            CAST(CASE WHEN p.estoqueFragmentado = TRUE
+                THEN (SELECT COALESCE(SUM(f.estoque), 0) FROM EstoqueFragmento f WHERE f.produto.id = p.id)
+                ELSE p.estoque END AS Integer),
+            p.rating, p.imageUrl, p.dataCriacao, p.dataModificacao, p.ativo)
+        FROM Produto p
+        """;
+
+    /**
+     * Projeção de {@link ProdutoFacetaDto} com os atributos filtrados em memória. Com o estoque fragmentado,
+     * o estoque é a soma dos fragmentos.
+     */
+    String SELECT_PRODUTO_FACETA_DTO = """
+        SELECT new com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFacetaDto(
+            p.id, p.categoria.id, s.id, p.valorUnitario, p.rating,
+            CAST(CASE WHEN p.estoqueFragmentado = TRUE
+                THEN (SELECT COALESCE(SUM(f.estoque), 0) FROM EstoqueFragmento f WHERE f.produto.id = p.id)
+                ELSE p.estoque END AS Integer),
+            p.ativo)
+        FROM Produto p LEFT JOIN p.subcategoria s
+        """;
 
     boolean existsBySku(Long sku);
 
@@ -21,14 +64,121 @@ public interface ProdutoRepository extends JpaRepository<ProdutoEntity, Long> {
 
     Optional<ProdutoEntity> findByIdAndAtivoFalse(Long id);
 
-    @Query(value = """
-            SELECT * FROM tb_produtos p
-            WHERE p.nome ILIKE %:nome%
-            """, nativeQuery = true)
-    Page<ProdutoEntity> findByName(@Param("nome") String nome, Pageable pageable);
-
     Page<ProdutoEntity> findAllBySubcategoriaId(Long id, Pageable pageable);
 
     Page<ProdutoEntity> findAllByCategoriaId(Long id, Pageable pageable);
 
+    @Query(value = SELECT_PRODUTO_DTO, countQuery = "SELECT COUNT(p) FROM Produto p")
+    Page<ProdutoDto> findAllProdutoDto(Pageable pageable);
+
+    @Query(value = SELECT_PRODUTO_DTO + "WHERE p.subcategoria.id = :id", countQuery = """
+        SELECT COUNT(p) FROM Produto p WHERE p.subcategoria.id = :id
+        """)
+    Page<ProdutoDto> findAllProdutoDtoBySubcategoriaId(@Param("id") Long id, Pageable pageable);
+
+    @Query(value = SELECT_PRODUTO_DTO + "WHERE p.categoria.id = :id", countQuery = """
+        SELECT COUNT(p) FROM Produto p WHERE p.categoria.id = :id
+        """)
+    Page<ProdutoDto> findAllProdutoDtoByCategoriaId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Consulta o estoque, a data de modificação e as categorias de um produto, sem carregar a entidade, para
+     * validar a ETag do produto antes de consultá-lo por inteiro.
+     *
+     * @param id o id do produto.
+     *
+     * @return a versão do produto, ou vazio caso não exista.
+     */
+    @Query("""
+        SELECT new com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoVersaoDto(
+            p.id,
+            CAST(CASE WHEN p.estoqueFragmentado = TRUE
+                THEN (SELECT COALESCE(SUM(f.estoque), 0) FROM EstoqueFragmento f WHERE f.produto.id = p.id)
+                ELSE p.estoque END AS Integer),
+            p.dataModificacao, p.categoria.id, s.id)
+        FROM Produto p LEFT JOIN p.subcategoria s WHERE p.id = :id
+        """)
+    Optional<ProdutoVersaoDto> findProdutoVersaoDtoById(@Param("id") Long id);
+
+    @Query(SELECT_PRODUTO_DTO)
+    Slice<ProdutoDto> findSliceProdutoDto(Pageable pageable);
+
+    @Query(SELECT_PRODUTO_DTO + "WHERE p.subcategoria.id = :id")
+    Slice<ProdutoDto> findSliceProdutoDtoBySubcategoriaId(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_PRODUTO_DTO + "WHERE p.categoria.id = :id")
+    Slice<ProdutoDto> findSliceProdutoDtoByCategoriaId(@Param("id") Long id, Pageable pageable);
+
+    @Query(SELECT_PRODUTO_DTO + "WHERE p.id IN :ids")
+    List<ProdutoDto> findAllProdutoDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Percorre todos os produtos em ordem de {@code id}, buscando as linhas do banco em blocos, sem carregar a
+     * tabela inteira na memória. Deve ser consumido dentro de uma transação e fechado ao final.
+     *
+     * @return todos os produtos.
+     */
+    @Query(SELECT_PRODUTO_DTO + "ORDER BY p.id")
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProdutoDto> streamProdutoDto();
+
+    /**
+     * Percorre os produtos modificados a partir de uma data como em {@link #streamProdutoDto()}. As alterações
+     * de estoque atualizam a data de modificação do produto ou, com o estoque fragmentado, a do fragmento.
+     *
+     * @param desde a data de modificação mínima, inclusiva.
+     *
+     * @return os produtos modificados a partir da data.
+     */
+    @Query(SELECT_PRODUTO_DTO + """
+        WHERE p.dataModificacao >= :desde OR EXISTS (
+            SELECT 1 FROM EstoqueFragmento f WHERE f.produto.id = p.id AND f.dataModificacao >= :desde
+        )
+        ORDER BY p.id
+        """)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProdutoDto> streamProdutoDtoModificadosDesde(@Param("desde") LocalDateTime desde);
+
+    /**
+     * Percorre o nome e a descrição dos produtos ativos em ordem de {@code id}, buscando as linhas do banco
+     * em blocos, sem carregar a tabela inteira na memória. Deve ser consumido dentro de uma transação e
+     * fechado ao final.
+     *
+     * @return os textos dos produtos ativos.
+     */
+    @Query("""
+        SELECT new com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoTextoDto(
+            p.id, p.nome, p.descricao)
+        FROM Produto p WHERE p.ativo = TRUE ORDER BY p.id
+        """)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProdutoTextoDto> streamTextosAtivos();
+
+    /**
+     * Percorre o nome, o rating e a categoria dos produtos ativos, buscando as linhas do banco em blocos.
+     * Deve ser consumido dentro de uma transação e fechado ao final.
+     *
+     * @return os resumos dos produtos ativos.
+     */
+    @Query("""
+        SELECT new com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoResumoDto(
+            p.id, p.nome, p.rating, c.id, c.nome)
+        FROM Produto p JOIN p.categoria c WHERE p.ativo = TRUE
+        """)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProdutoResumoDto> streamResumosAtivos();
+
+    @Query(SELECT_PRODUTO_FACETA_DTO + "WHERE p.id IN :ids")
+    List<ProdutoFacetaDto> findAllProdutoFacetaDtoByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Percorre os atributos filtrados em memória de todos os produtos, ativos e inativos, buscando as linhas
+     * do banco em blocos. Deve ser consumido dentro de uma transação e fechado ao final.
+     *
+     * @return os atributos dos produtos.
+     */
+    @Query(SELECT_PRODUTO_FACETA_DTO)
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "1000"))
+    Stream<ProdutoFacetaDto> streamFacetas();
+
 }
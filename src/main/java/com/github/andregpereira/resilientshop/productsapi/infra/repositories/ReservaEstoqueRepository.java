@@ -0,0 +1,25 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ReservaEstoqueEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReservaEstoqueRepository extends JpaRepository<ReservaEstoqueEntity, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ReservaEstoqueEntity> findAllByReservaIdAndExpiraEmAfter(UUID reservaId, LocalDateTime agora);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ReservaEstoqueEntity> findAllByReservaIdAndExpiraEmLessThanEqual(UUID reservaId, LocalDateTime agora);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ReservaEstoqueEntity> findAllByExpiraEmLessThanEqual(LocalDateTime agora);
+
+}
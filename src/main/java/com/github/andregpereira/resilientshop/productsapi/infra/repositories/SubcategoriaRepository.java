@@ -1,12 +1,26 @@
 package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
 
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
 @Repository
 public interface SubcategoriaRepository extends JpaRepository<SubcategoriaEntity, Long> {
 
     boolean existsByNome(String nome);
 
+    /**
+     * Listagem usada apenas pelas consultas: as subcategorias são carregadas somente para leitura, sem a
+     * cópia de estado que o Hibernate guarda para detectar alterações.
+     */
+    @Override
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    Page<SubcategoriaEntity> findAll(Pageable pageable);
+
 }
@@ -4,8 +4,11 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.andregpereira.resilientshop.productsapi.app.config.ObjectMapperTestConfig;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaArvoreDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaRegistroDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaArvoreService;
 import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaConsultaService;
 import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaManutencaoService;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.CategoriaAlreadyExistsException;
@@ -19,11 +22,13 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultMatcher;
 
 import java.util.ArrayList;
+import java.util.List;
 
 import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.ROOT_JSON_PATH;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.CategoriaMockFactory.getCategoriaDto;
@@ -32,11 +37,14 @@ import static com.github.andregpereira.resilientshop.productsapi.util.mock.facto
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Import(ObjectMapperTestConfig.class)
@@ -53,6 +61,9 @@ class CategoriaControllerTest {
     @MockBean
     private CategoriaConsultaService consultaService;
 
+    @MockBean
+    private CategoriaArvoreService arvoreService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -209,4 +220,52 @@ class CategoriaControllerTest {
             .andExpect(ROOT_JSON_PATH.value(msg));
     }
 
+    @Test
+    void listarCategoriasSemContagemRetornaOkESliceEnxuto() throws Exception {
+        given(consultaService.listarSemContagem(any(Pageable.class))).willReturn(
+            new SliceImpl<>(List.of(getCategoriaDto()), PageRequest.of(0, 1), true));
+        mockMvc
+            .perform(get(ROOT_URL.concat("/slice")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.conteudo[0].nome").value(getCategoriaDto().nome()))
+            .andExpect(jsonPath("$.pagina").value(0))
+            .andExpect(jsonPath("$.tamanho").value(1))
+            .andExpect(jsonPath("$.possuiProxima").value(true))
+            .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void consultarArvoreCategoriasRetornaOkECategoriasComSubcategorias() throws Exception {
+        given(arvoreService.consultarArvore()).willReturn(List.of(
+            new CategoriaArvoreDto(1L, "Eletrônicos", List.of(new SubcategoriaDto(10L, "Smartphones", "Celulares"))),
+            new CategoriaArvoreDto(2L, "Casa", List.of())
+        ));
+        mockMvc
+            .perform(get(ROOT_URL.concat("/arvore")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(1))
+            .andExpect(jsonPath("$[0].subcategorias[0].nome").value("Smartphones"))
+            .andExpect(jsonPath("$[1].nome").value("Casa"))
+            .andExpect(jsonPath("$[1].subcategorias").isEmpty());
+    }
+
+    @Test
+    void consultarArvoreCategoriasRetornaETagDaImpressaoDaArvore() throws Exception {
+        given(arvoreService.consultarImpressao()).willReturn(255L);
+        given(arvoreService.consultarArvore()).willReturn(List.of());
+        mockMvc
+            .perform(get(ROOT_URL.concat("/arvore")))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"categorias-ff\""));
+    }
+
+    @Test
+    void consultarCategoriaPorIdComETagAtualRetornaNotModifiedSemConsultarCategoria() throws Exception {
+        given(arvoreService.consultarImpressao()).willReturn(255L);
+        mockMvc
+            .perform(get(ID_URL, 1).header("If-None-Match", "\"categorias-ff\""))
+            .andExpect(status().isNotModified());
+        then(consultaService).shouldHaveNoInteractions();
+    }
+
 }
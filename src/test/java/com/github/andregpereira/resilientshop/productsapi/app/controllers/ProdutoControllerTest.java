@@ -4,10 +4,31 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.andregpereira.resilientshop.productsapi.app.config.ObjectMapperTestConfig;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.FacetasDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.FiltroProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ImportacaoEstoqueDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizacaoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoCursorDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFiltradoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoLoteDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoRegistroDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ResultadoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ResultadoEstoqueDto.SituacaoEstoque;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.SugestaoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.SugestaoDto.TipoSugestao;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.VerificacaoEstoqueDto;
 import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoConsultaService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoEstoqueFragmentadoService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoEstoqueMovimentoService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoEtagService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoExportacaoService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoFacetasService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoImportacaoEstoqueService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoImportacaoEstoqueService.Formato;
 import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoManutencaoService;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoSugestaoService;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.PaginacaoInvalidaException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoAlreadyExistsException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.SubcategoriaNotFoundException;
@@ -16,10 +37,23 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultMatcher;
 
+import java.io.OutputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 
 import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.ROOT_JSON_PATH;
@@ -29,20 +63,28 @@ import static com.github.andregpereira.resilientshop.productsapi.util.mock.facto
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoAtualizacaoDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoAtualizarEstoqueDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoDetalhesDto;
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoRegistroDto;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.never;
+import static org.mockito.BDDMockito.then;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -56,8 +98,16 @@ class ProdutoControllerTest {
 
     private static final String URL_ID_PRODUTO = URL_TEMPLATE.concat(ID_PATH);
 
+    private static final String URL_CURSOR = URL_TEMPLATE.concat("/cursor");
+
     private static final String URL_NOME_PRODUTO = URL_TEMPLATE.concat("/nome");
 
+    private static final String URL_SUGESTOES = URL_TEMPLATE.concat("/sugestoes");
+
+    private static final String URL_FILTRO = URL_TEMPLATE.concat("/filtro");
+
+    private static final String URL_LOTE = URL_TEMPLATE.concat("/lote");
+
     private static final String URL_REATIVAR = URL_TEMPLATE
         .concat("/reativar")
         .concat(ID_PATH);
@@ -68,6 +118,24 @@ class ProdutoControllerTest {
 
     private static final String URL_ESTOQUE_RETORNAR = URL_ESTOQUE.concat("/retornar");
 
+    private static final String URL_ESTOQUE_SUBTRAIR_PARCIAL = URL_ESTOQUE_SUBTRAIR.concat("/parcial");
+
+    private static final String URL_ESTOQUE_RETORNAR_PARCIAL = URL_ESTOQUE_RETORNAR.concat("/parcial");
+
+    private static final String URL_IMPORTACAO_ESTOQUE = URL_TEMPLATE.concat("/importacao/estoque");
+
+    private static final String URL_ID_ESTOQUE = URL_ID_PRODUTO.concat("/estoque");
+
+    private static final String URL_ID_ESTOQUE_FRAGMENTAR = URL_ID_ESTOQUE.concat("/fragmentar");
+
+    private static final String URL_ID_ESTOQUE_DESFRAGMENTAR = URL_ID_ESTOQUE.concat("/desfragmentar");
+
+    private static final String URL_ID_ESTOQUE_REBALANCEAR = URL_ID_ESTOQUE.concat("/rebalancear");
+
+    private static final String URL_ID_ESTOQUE_VERIFICACAO = URL_ID_ESTOQUE.concat("/verificacao");
+
+    private static final String URL_ID_ESTOQUE_SNAPSHOT = URL_ID_ESTOQUE.concat("/snapshot");
+
     private static final String URL_ID_CATEGORIA = URL_TEMPLATE
         .concat("/categoria")
         .concat(ID_PATH);
@@ -82,6 +150,27 @@ class ProdutoControllerTest {
     @MockBean
     private ProdutoConsultaService consultaService;
 
+    @MockBean
+    private ProdutoEstoqueFragmentadoService estoqueFragmentadoService;
+
+    @MockBean
+    private ProdutoEstoqueMovimentoService estoqueMovimentoService;
+
+    @MockBean
+    private ProdutoImportacaoEstoqueService importacaoEstoqueService;
+
+    @MockBean
+    private ProdutoSugestaoService sugestaoService;
+
+    @MockBean
+    private ProdutoFacetasService facetasService;
+
+    @MockBean
+    private ProdutoEtagService etagService;
+
+    @MockBean
+    private ProdutoExportacaoService exportacaoService;
+
     @Autowired
     private MockMvc mockMvc;
 
@@ -234,6 +323,19 @@ class ProdutoControllerTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    void subtrairProdutosComProdutoBloqueadoRetornaConflict() throws Exception {
+        willThrow(CannotAcquireLockException.class)
+            .given(manutencaoService)
+            .subtrairEstoque(anySet());
+        mockMvc
+            .perform(put(URL_ESTOQUE_SUBTRAIR)
+                .content(asString(Set.of(getProdutoAtualizarEstoqueDto())))
+                .contentType(APPLICATION_JSON))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPathRoot("Ops! O produto está sendo atualizado por outra operação. Tente novamente"));
+    }
+
     @Test
     void retornarProdutosComIdsExistentesRetornaOk() throws Exception {
         willDoNothing()
@@ -258,6 +360,141 @@ class ProdutoControllerTest {
             .andExpect(status().isNotFound());
     }
 
+    @Test
+    void subtrairProdutosParcialmenteRetornaOkEResultadoDeCadaProduto() throws Exception {
+        given(manutencaoService.subtrairEstoqueParcial(anySet())).willReturn(List.of(
+            new ResultadoEstoqueDto(1L, 2, SituacaoEstoque.APLICADO),
+            new ResultadoEstoqueDto(2L, 5, SituacaoEstoque.INSUFICIENTE)
+        ));
+        mockMvc
+            .perform(put(URL_ESTOQUE_SUBTRAIR_PARCIAL)
+                .content(asString(Set.of(
+                    getProdutoAtualizarEstoqueDto(),
+                    new ProdutoAtualizarEstoqueDto(2L, 5)
+                )))
+                .contentType(APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(1))
+            .andExpect(jsonPath("$[0].situacao").value("APLICADO"))
+            .andExpect(jsonPath("$[1].id").value(2))
+            .andExpect(jsonPath("$[1].quantidade").value(5))
+            .andExpect(jsonPath("$[1].situacao").value("INSUFICIENTE"));
+    }
+
+    @Test
+    void retornarProdutosParcialmenteRetornaOkEResultadoDeCadaProduto() throws Exception {
+        given(manutencaoService.retornarEstoqueParcial(anySet())).willReturn(
+            List.of(new ResultadoEstoqueDto(1L, 2, SituacaoEstoque.NAO_ENCONTRADO)));
+        mockMvc
+            .perform(put(URL_ESTOQUE_RETORNAR_PARCIAL)
+                .content(asString(Set.of(getProdutoAtualizarEstoqueDto())))
+                .contentType(APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].situacao").value("NAO_ENCONTRADO"));
+    }
+
+    @Test
+    void importarEstoqueCsvRetornaOkEResumo() throws Exception {
+        given(importacaoEstoqueService.importar(any(Reader.class), eq(Formato.CSV))).willReturn(
+            new ImportacaoEstoqueDto(2, 1, 1, List.of(300L), 1, List.of(5L), 6));
+        mockMvc
+            .perform(put(URL_IMPORTACAO_ESTOQUE)
+                .content("sku,estoque\n100,5\n300,2\nx\n")
+                .contentType("text/csv"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.linhasProcessadas").value(2))
+            .andExpect(jsonPath("$.skusNaoEncontrados").value(1))
+            .andExpect(jsonPath("$.amostraSkusNaoEncontrados[0]").value(300));
+    }
+
+    @Test
+    void importarEstoqueComTipoDeConteudoNaoSuportadoRetornaUnsupportedMediaType() throws Exception {
+        mockMvc
+            .perform(put(URL_IMPORTACAO_ESTOQUE)
+                .content("{}")
+                .contentType(APPLICATION_JSON))
+            .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void verificarEstoqueDeProdutoExistenteRetornaOkEVerificacao() throws Exception {
+        given(estoqueMovimentoService.verificar(1L)).willReturn(new VerificacaoEstoqueDto(1L, 10, 8, false));
+        mockMvc
+            .perform(get(URL_ID_ESTOQUE_VERIFICACAO, 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.estoqueAtual").value(10))
+            .andExpect(jsonPath("$.estoqueRecalculado").value(8))
+            .andExpect(jsonPath("$.consistente").value(false));
+    }
+
+    @Test
+    void verificarEstoqueDeProdutoInexistenteRetornaNotFound() throws Exception {
+        given(estoqueMovimentoService.verificar(anyLong())).willThrow(ProdutoNotFoundException.class);
+        mockMvc
+            .perform(get(URL_ID_ESTOQUE_VERIFICACAO, 10))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void registrarSnapshotDeEstoqueDeProdutoExistenteRetornaOk() throws Exception {
+        given(estoqueMovimentoService.registrarSnapshot(1L)).willReturn(new VerificacaoEstoqueDto(1L, 10, 10, true));
+        mockMvc
+            .perform(put(URL_ID_ESTOQUE_SNAPSHOT, 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.consistente").value(true));
+    }
+
+    @Test
+    void fragmentarEstoqueDeProdutoExistenteRetornaOkEProdutoDetalhesDto() throws Exception {
+        given(estoqueFragmentadoService.fragmentar(1L, 8)).willReturn(getProdutoDetalhesDto());
+        mockMvc
+            .perform(put(URL_ID_ESTOQUE_FRAGMENTAR, 1).queryParam("fragmentos", "8"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPathRoot(getProdutoDetalhesDto()));
+    }
+
+    @Test
+    void fragmentarEstoqueComQuantidadeDeFragmentosInvalidaRetornaBadRequest() throws Exception {
+        mockMvc
+            .perform(put(URL_ID_ESTOQUE_FRAGMENTAR, 1).queryParam("fragmentos", "1"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].mensagem").value("O estoque deve ter pelo menos 2 fragmentos"));
+    }
+
+    @Test
+    void fragmentarEstoqueDeProdutoInexistenteRetornaNotFound() throws Exception {
+        given(estoqueFragmentadoService.fragmentar(anyLong(), anyInt())).willThrow(ProdutoNotFoundException.class);
+        mockMvc
+            .perform(put(URL_ID_ESTOQUE_FRAGMENTAR, 1))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void desfragmentarEstoqueDeProdutoExistenteRetornaOkEProdutoDetalhesDto() throws Exception {
+        given(estoqueFragmentadoService.desfragmentar(1L)).willReturn(getProdutoDetalhesDto());
+        mockMvc
+            .perform(put(URL_ID_ESTOQUE_DESFRAGMENTAR, 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPathRoot(getProdutoDetalhesDto()));
+    }
+
+    @Test
+    void rebalancearEstoqueDeProdutoExistenteRetornaOkEProdutoDetalhesDto() throws Exception {
+        given(estoqueFragmentadoService.rebalancear(1L)).willReturn(getProdutoDetalhesDto());
+        mockMvc
+            .perform(put(URL_ID_ESTOQUE_REBALANCEAR, 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPathRoot(getProdutoDetalhesDto()));
+    }
+
+    @Test
+    void rebalancearEstoqueDeProdutoInexistenteRetornaNotFound() throws Exception {
+        given(estoqueFragmentadoService.rebalancear(anyLong())).willThrow(ProdutoNotFoundException.class);
+        mockMvc
+            .perform(put(URL_ID_ESTOQUE_REBALANCEAR, 1))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     void listarProdutosExistentesRetornaOk() throws Exception {
         given(consultaService.listar(any(Pageable.class))).willReturn(getPageIdProdutos());
@@ -267,6 +504,26 @@ class ProdutoControllerTest {
             .andExpect(jsonPathPageRoot(getPageIdProdutos()));
     }
 
+    @Test
+    void listarProdutosComETagAtualRetornaNotModifiedSemCorpo() throws Exception {
+        given(consultaService.listar(any(Pageable.class))).willReturn(getPageIdProdutos());
+        given(etagService.gerarEtagProdutos(eq("produtos"), any())).willReturn("W/\"produtos-0-10-3-abc\"");
+        mockMvc
+            .perform(get(URL_TEMPLATE).header("If-None-Match", "W/\"produtos-0-10-3-abc\""))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    void listarProdutosRetornaETagDaPagina() throws Exception {
+        given(consultaService.listar(any(Pageable.class))).willReturn(getPageIdProdutos());
+        given(etagService.gerarEtagProdutos(eq("produtos"), any())).willReturn("W/\"produtos-0-10-3-abc\"");
+        mockMvc
+            .perform(get(URL_TEMPLATE))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "W/\"produtos-0-10-3-abc\""));
+    }
+
     @Test
     void listarProdutosInexistentesRetornaNotFound() throws Exception {
         given(consultaService.listar(any(Pageable.class))).willThrow(ProdutoNotFoundException.class);
@@ -284,6 +541,42 @@ class ProdutoControllerTest {
             .andExpect(jsonPathRoot(getProdutoDetalhesDto()));
     }
 
+    @Test
+    void consultarProdutoPorIdRetornaETagDoProduto() throws Exception {
+        given(consultaService.consultarPorId(anyLong())).willReturn(getProdutoDetalhesDto());
+        given(etagService.gerarEtag(getProdutoDetalhesDto())).willReturn("\"1-10-abc\"");
+        mockMvc
+            .perform(get(URL_ID_PRODUTO, 1))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1-10-abc\""));
+        then(etagService)
+            .should(never())
+            .consultarEtag(anyLong());
+    }
+
+    @Test
+    void consultarProdutoPorIdComETagAtualRetornaNotModifiedSemConsultarProduto() throws Exception {
+        given(etagService.consultarEtag(1L)).willReturn(Optional.of("\"1-10-abc\""));
+        mockMvc
+            .perform(get(URL_ID_PRODUTO, 1).header("If-None-Match", "\"1-10-abc\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string("ETag", "\"1-10-abc\""))
+            .andExpect(content().string(""));
+        verifyNoInteractions(consultaService);
+    }
+
+    @Test
+    void consultarProdutoPorIdComETagDesatualizadaRetornaOk() throws Exception {
+        given(etagService.consultarEtag(1L)).willReturn(Optional.of("\"1-9-abc\""));
+        given(consultaService.consultarPorId(1L)).willReturn(getProdutoDetalhesDto());
+        given(etagService.gerarEtag(getProdutoDetalhesDto())).willReturn("\"1-9-abc\"");
+        mockMvc
+            .perform(get(URL_ID_PRODUTO, 1).header("If-None-Match", "\"1-10-abc\""))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"1-9-abc\""))
+            .andExpect(jsonPathRoot(getProdutoDetalhesDto()));
+    }
+
     @Test
     void consultarProdutoPorIdInexistenteRetornaNotFound() throws Exception {
         given(consultaService.consultarPorId(anyLong())).willThrow(ProdutoNotFoundException.class);
@@ -371,6 +664,100 @@ class ProdutoControllerTest {
             .andExpect(jsonPathRoot("Informação inválida. Verifique os dados e tente novamente"));
     }
 
+    @Test
+    void sugerirProdutosPorPrefixoRetornaOkESugestoes() throws Exception {
+        given(sugestaoService.sugerir("caf", 5)).willReturn(List.of(
+            new SugestaoDto(TipoSugestao.PRODUTO, 1L, "Café Coado", BigDecimal.valueOf(4.5)),
+            new SugestaoDto(TipoSugestao.CATEGORIA, 2L, "Cafés", BigDecimal.valueOf(4.5))
+        ));
+        mockMvc
+            .perform(get(URL_SUGESTOES)
+                .queryParam("prefixo", "caf")
+                .queryParam("limite", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].tipo").value("PRODUTO"))
+            .andExpect(jsonPath("$[0].texto").value("Café Coado"))
+            .andExpect(jsonPath("$[1].tipo").value("CATEGORIA"))
+            .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    void sugerirProdutosComPrefixoCurtoRetornaBadRequest() throws Exception {
+        mockMvc
+            .perform(get(URL_SUGESTOES).queryParam("prefixo", "c"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].mensagem").value("O prefixo deve ter pelo menos 2 caracteres"));
+        verifyNoInteractions(sugestaoService);
+    }
+
+    @Test
+    void consultarProdutosPorIdsRetornaOkNaOrdemInformada() throws Exception {
+        given(consultaService.consultarPorIds(List.of(2L, 1L))).willReturn(List.of(
+            new ProdutoLoteDto(2L, false, null),
+            new ProdutoLoteDto(1L, true, getProdutoDto())
+        ));
+        mockMvc
+            .perform(get(URL_LOTE).queryParam("ids", "2,1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].id").value(2))
+            .andExpect(jsonPath("$[0].encontrado").value(false))
+            .andExpect(jsonPath("$[1].encontrado").value(true))
+            .andExpect(jsonPath("$[1].produto.nome").value(getProdutoDto().nome()));
+    }
+
+    @Test
+    void consultarProdutosPorIdsNoCorpoRetornaOk() throws Exception {
+        given(consultaService.consultarPorIds(List.of(1L))).willReturn(List.of(
+            new ProdutoLoteDto(1L, true, getProdutoDto())
+        ));
+        mockMvc
+            .perform(post(URL_LOTE)
+                .content(asString(List.of(1L)))
+                .contentType(APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].encontrado").value(true));
+    }
+
+    @Test
+    void consultarProdutosPorIdsComListaVaziaRetornaBadRequest() throws Exception {
+        mockMvc
+            .perform(post(URL_LOTE)
+                .content(asString(List.of()))
+                .contentType(APPLICATION_JSON))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].mensagem").value("Informe de 1 a 1000 ids"));
+        verifyNoInteractions(consultaService);
+    }
+
+    @Test
+    void filtrarProdutosRetornaOkProdutosEFacetas() throws Exception {
+        FiltroProdutoDto filtro = new FiltroProdutoDto(10L, null, BigDecimal.valueOf(20), null, null, true, true);
+        given(facetasService.filtrar(eq(filtro), any(Pageable.class))).willReturn(new ProdutoFiltradoDto(
+            new PageImpl<>(List.of(getProdutoDto()), PageRequest.of(0, 10), 1),
+            new FacetasDto(Map.of(10L, 1L), Map.of(), Map.of("0-50", 1L), Map.of(4, 1L), 1)
+        ));
+        mockMvc
+            .perform(get(URL_FILTRO)
+                .queryParam("categoria", "10")
+                .queryParam("precoMinimo", "20")
+                .queryParam("emEstoque", "true")
+                .queryParam("size", "10"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.produtos.content[0].id").value(getProdutoDto().id()))
+            .andExpect(jsonPath("$.produtos.totalElements").value(1))
+            .andExpect(jsonPath("$.facetas.categorias['10']").value(1))
+            .andExpect(jsonPath("$.facetas.emEstoque").value(1));
+    }
+
+    @Test
+    void filtrarProdutosComPrecoNegativoRetornaBadRequest() throws Exception {
+        mockMvc
+            .perform(get(URL_FILTRO).queryParam("precoMinimo", "-1"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$[0].mensagem").value("O preço mínimo não pode ser negativo"));
+        verifyNoInteractions(facetasService);
+    }
+
     @Test
     void inserirParametroNomeVazioThrowsException() throws Exception {
         mockMvc
@@ -393,4 +780,80 @@ class ProdutoControllerTest {
             );
     }
 
+    @Test
+    void listarProdutosPorCursorRetornaOkEProximoCursor() throws Exception {
+        given(consultaService.listar(null, Sort.by("nome"), 1)).willReturn(
+            new ProdutoCursorDto(List.of(getProdutoDto()), 1, "cursor"));
+        mockMvc
+            .perform(get(URL_CURSOR)
+                .param("tamanho", "1")
+                .param("sort", "nome"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.conteudo").isArray())
+            .andExpect(jsonPath("$.tamanho").value(1))
+            .andExpect(jsonPath("$.proximoCursor").value("cursor"));
+    }
+
+    @Test
+    void listarProdutosPorCursorInvalidoRetornaBadRequest() throws Exception {
+        given(consultaService.listar(anyString(), any(Sort.class), anyInt())).willThrow(
+            PaginacaoInvalidaException.class);
+        mockMvc
+            .perform(get(URL_CURSOR).param("cursor", "invalido"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listarProdutosPorCursorComTamanhoInvalidoRetornaBadRequest() throws Exception {
+        mockMvc
+            .perform(get(URL_CURSOR).param("tamanho", "0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void listarProdutosSemContagemRetornaOkESliceEnxuto() throws Exception {
+        given(consultaService.listarSemContagem(any(Pageable.class))).willReturn(
+            new SliceImpl<>(List.of(getProdutoDto()), PageRequest.of(0, 1), false));
+        mockMvc
+            .perform(get(URL_TEMPLATE.concat("/slice")))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.conteudo").isArray())
+            .andExpect(jsonPath("$.possuiProxima").value(false))
+            .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    void consultarProdutosPorCategoriaSemContagemRetornaOk() throws Exception {
+        given(consultaService.consultarPorCategoriaSemContagem(anyLong(), any(Pageable.class))).willReturn(
+            new SliceImpl<>(List.of(getProdutoDto())));
+        mockMvc
+            .perform(get(URL_ID_CATEGORIA.concat("/slice"), 1))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.conteudo").isArray());
+    }
+
+    @Test
+    void exportarProdutosRetornaOkNdjsonModificadosDesdeAData() throws Exception {
+        given(exportacaoService.exportar(eq(LocalDateTime.of(2024, 1, 31, 10, 15)), any(OutputStream.class)))
+            .willAnswer(invocation -> {
+                invocation
+                    .getArgument(1, OutputStream.class)
+                    .write("{\"id\":1}\n".getBytes(StandardCharsets.UTF_8));
+                return 1L;
+            });
+        mockMvc
+            .perform(get(URL_TEMPLATE.concat("/exportar")).param("modificadoDesde", "2024-01-31T10:15:00"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Type", "application/x-ndjson;charset=UTF-8"))
+            .andExpect(content().string("{\"id\":1}\n"));
+    }
+
+    @Test
+    void exportarProdutosComDataInvalidaRetornaBadRequest() throws Exception {
+        mockMvc
+            .perform(get(URL_TEMPLATE.concat("/exportar")).param("modificadoDesde", "31/01/2024"))
+            .andExpect(status().isBadRequest());
+        verifyNoInteractions(exportacaoService);
+    }
+
 }
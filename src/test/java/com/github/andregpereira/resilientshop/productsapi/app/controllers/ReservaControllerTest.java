@@ -0,0 +1,114 @@
+package com.github.andregpereira.resilientshop.productsapi.app.controllers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.andregpereira.resilientshop.productsapi.app.config.ObjectMapperTestConfig;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.reserva.ReservaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.reserva.ReservaEstoqueService;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ReservaNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoAtualizarEstoqueDto;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@Import(ObjectMapperTestConfig.class)
+@WebMvcTest(ReservaController.class)
+class ReservaControllerTest {
+
+    private static final String ROOT_URL = "/produtos/estoque/reservas";
+
+    private static final String ID_URL = ROOT_URL.concat("/{id}");
+
+    private static final UUID ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @MockBean
+    private ReservaEstoqueService reservaService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String asString(Object dto) throws JsonProcessingException {
+        return objectMapper.writeValueAsString(dto);
+    }
+
+    @Test
+    void reservarProdutosComEstoqueDisponivelRetornaCreated() throws Exception {
+        given(reservaService.reservar(anySet())).willReturn(
+            new ReservaDto(ID, LocalDateTime.now(), Set.of(getProdutoAtualizarEstoqueDto())));
+        mockMvc
+            .perform(post(ROOT_URL)
+                .content(asString(Set.of(getProdutoAtualizarEstoqueDto())))
+                .contentType(APPLICATION_JSON))
+            .andExpect(status().isCreated())
+            .andExpect(header().string("Location", ROOT_URL + "/" + ID))
+            .andExpect(jsonPath("$.id").value(ID.toString()));
+    }
+
+    @Test
+    void reservarProdutosSemEstoqueDisponivelRetornaNotFound() throws Exception {
+        given(reservaService.reservar(anySet())).willThrow(ProdutoNotFoundException.class);
+        mockMvc
+            .perform(post(ROOT_URL)
+                .content(asString(Set.of(getProdutoAtualizarEstoqueDto())))
+                .contentType(APPLICATION_JSON))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void confirmarReservaExistenteRetornaOk() throws Exception {
+        mockMvc
+            .perform(put(ID_URL.concat("/confirmar"), ID))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void confirmarReservaInexistenteRetornaNotFound() throws Exception {
+        willThrow(ReservaNotFoundException.class)
+            .given(reservaService)
+            .confirmar(any(UUID.class));
+        mockMvc
+            .perform(put(ID_URL.concat("/confirmar"), ID))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void liberarReservaExistenteRetornaOk() throws Exception {
+        mockMvc
+            .perform(delete(ID_URL, ID))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void liberarReservaInexistenteRetornaNotFound() throws Exception {
+        willThrow(ReservaNotFoundException.class)
+            .given(reservaService)
+            .liberar(any(UUID.class));
+        mockMvc
+            .perform(delete(ID_URL, ID))
+            .andExpect(status().isNotFound());
+    }
+
+}
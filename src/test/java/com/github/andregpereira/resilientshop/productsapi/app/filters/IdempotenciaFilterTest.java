@@ -0,0 +1,158 @@
+package com.github.andregpereira.resilientshop.productsapi.app.filters;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.idempotencia.IdempotenciaStoreMemoria;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class IdempotenciaFilterTest {
+
+    private static final String CORPO = "[{\"id\":1,\"estoque\":5}]";
+
+    private final IdempotenciaStoreMemoria store = new IdempotenciaStoreMemoria(100, Duration.ofHours(24),
+        Duration.ofSeconds(60), Clock.systemUTC());
+
+    private final IdempotenciaFilter filter = new IdempotenciaFilter(store);
+
+    private final AtomicInteger execucoes = new AtomicInteger();
+
+    private final FilterChain sucesso = (request, response) -> {
+        execucoes.incrementAndGet();
+        then(StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8)).isEqualTo(CORPO);
+        ((HttpServletResponse) response).setStatus(200);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response
+            .getWriter()
+            .write("{\"ok\":true}");
+    };
+
+    @Test
+    void requisicaoRepetidaRetornaRespostaArmazenadaSemExecutarNovamente() throws Exception {
+        filter.doFilter(requisicao("chave", CORPO), new MockHttpServletResponse(), sucesso);
+        MockHttpServletResponse sut = new MockHttpServletResponse();
+
+        filter.doFilter(requisicao("chave", CORPO), sut, sucesso);
+
+        then(execucoes).hasValue(1);
+        then(sut.getStatus()).isEqualTo(200);
+        then(sut.getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        then(sut.getContentAsString()).isEqualTo("{\"ok\":true}");
+        then(sut.getHeader(IdempotenciaFilter.CABECALHO_REPETIDA)).isEqualTo("true");
+    }
+
+    @Test
+    void requisicaoComErroNaoArmazenaResposta() throws Exception {
+        FilterChain erro = (request, response) -> {
+            execucoes.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(404);
+        };
+        filter.doFilter(requisicao("chave", CORPO), new MockHttpServletResponse(), erro);
+        MockHttpServletResponse sut = new MockHttpServletResponse();
+
+        filter.doFilter(requisicao("chave", CORPO), sut, sucesso);
+
+        then(execucoes).hasValue(2);
+        then(sut.getStatus()).isEqualTo(200);
+        then(sut.getHeader(IdempotenciaFilter.CABECALHO_REPETIDA)).isNull();
+    }
+
+    @Test
+    void chaveReutilizadaComOutraRequisicaoRetorna422() throws Exception {
+        filter.doFilter(requisicao("chave", CORPO), new MockHttpServletResponse(), sucesso);
+        MockHttpServletResponse sut = new MockHttpServletResponse();
+
+        filter.doFilter(requisicao("chave", "[{\"id\":2,\"estoque\":5}]"), sut, sucesso);
+
+        then(execucoes).hasValue(1);
+        then(sut.getStatus()).isEqualTo(422);
+        then(sut.getContentAsString()).isEqualTo("Ops! A chave de idempotência já foi utilizada com outra requisição");
+    }
+
+    @Test
+    void requisicaoComChaveEmAndamentoRetorna409() throws Exception {
+        store.reservar("chave");
+        MockHttpServletResponse sut = new MockHttpServletResponse();
+
+        filter.doFilter(requisicao("chave", CORPO), sut, sucesso);
+
+        then(execucoes).hasValue(0);
+        then(sut.getStatus()).isEqualTo(409);
+    }
+
+    @Test
+    void requisicaoSemChaveNaoEArmazenada() throws Exception {
+        MockHttpServletRequest requisicao = requisicao("chave", CORPO);
+        requisicao.removeHeader(IdempotenciaFilter.CABECALHO_CHAVE);
+
+        filter.doFilter(requisicao, new MockHttpServletResponse(), sucesso);
+
+        then(execucoes).hasValue(1);
+        then(store.reservar("chave")).isTrue();
+    }
+
+    @Test
+    void requisicaoComChaveEmBrancoRetorna400() throws Exception {
+        MockHttpServletResponse sut = new MockHttpServletResponse();
+
+        filter.doFilter(requisicao(" ", CORPO), sut, sucesso);
+
+        then(execucoes).hasValue(0);
+        then(sut.getStatus()).isEqualTo(400);
+    }
+
+    @Test
+    void leituraAssincronaDoCorpoAvisaOReadListener() throws Exception {
+        List<String> avisos = new ArrayList<>();
+        FilterChain assincrona = (request, response) -> {
+            ServletInputStream entrada = request.getInputStream();
+            entrada.setReadListener(new ReadListener() {
+
+                @Override
+                public void onDataAvailable() throws IOException {
+                    avisos.add(new String(entrada.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    avisos.add("fim");
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    avisos.add("erro");
+                }
+
+            });
+            ((HttpServletResponse) response).setStatus(200);
+        };
+
+        filter.doFilter(requisicao("chave", CORPO), new MockHttpServletResponse(), assincrona);
+
+        then(avisos).containsExactly(CORPO, "fim");
+    }
+
+    private static MockHttpServletRequest requisicao(String chave, String corpo) {
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("PUT", "/produtos/estoque/subtrair");
+        requisicao.addHeader(IdempotenciaFilter.CABECALHO_CHAVE, chave);
+        requisicao.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        requisicao.setContent(corpo.getBytes(StandardCharsets.UTF_8));
+        return requisicao;
+    }
+
+}
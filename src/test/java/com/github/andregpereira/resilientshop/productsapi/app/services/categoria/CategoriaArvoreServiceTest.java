@@ -0,0 +1,153 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.categoria;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaArvoreDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.CategoriaMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.SubcategoriaMapper;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.CategoriasProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.CategoriaRepository;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.SubcategoriaRepository;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class CategoriaArvoreServiceTest {
+
+    private static final CategoriaDto ELETRONICOS = new CategoriaDto(1L, "Eletrônicos");
+
+    private static final CategoriaDto CASA = new CategoriaDto(2L, "Casa");
+
+    private static final SubcategoriaDetalhesDto SMARTPHONES =
+        new SubcategoriaDetalhesDto(10L, "Smartphones", "Telefones celulares", ELETRONICOS);
+
+    private final CategoriaEntity eletronicos = new CategoriaEntity();
+
+    private final CategoriaEntity casa = new CategoriaEntity();
+
+    private final SubcategoriaEntity smartphones = new SubcategoriaEntity();
+
+    @Mock
+    private CategoriaRepository categoriaRepository;
+
+    @Mock
+    private SubcategoriaRepository subcategoriaRepository;
+
+    @Mock
+    private CategoriaMapper categoriaMapper;
+
+    @Mock
+    private SubcategoriaMapper subcategoriaMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CategoriaArvoreServiceImpl arvoreService;
+
+    @BeforeEach
+    void beforeEach() {
+        arvoreService = new CategoriaArvoreServiceImpl(categoriaRepository, subcategoriaRepository, categoriaMapper,
+            subcategoriaMapper, transactionManager, new CategoriasProperties(Duration.ofHours(1)));
+    }
+
+    @AfterEach
+    void afterEach() {
+        arvoreService.encerrar();
+    }
+
+    private void dadoBancoComCategorias(CategoriaEntity... categorias) {
+        given(categoriaRepository.findAll(any(Sort.class))).willReturn(List.of(categorias));
+        given(subcategoriaRepository.findAll(any(Sort.class))).willReturn(List.of(smartphones));
+        given(categoriaMapper.toCategoriaDto(eletronicos)).willReturn(ELETRONICOS);
+        given(subcategoriaMapper.toSubcategoriaDetalhesDto(smartphones)).willReturn(SMARTPHONES);
+    }
+
+    @Test
+    void consultasAposCargaNaoAcessamOBanco() {
+        dadoBancoComCategorias(eletronicos);
+        arvoreService.carregar();
+
+        final var arvore = arvoreService.consultarArvore();
+        final var categoria = arvoreService.consultarCategoria(1L);
+        final var subcategoria = arvoreService.consultarSubcategoria(10L);
+
+        BDDAssertions
+            .then(arvore)
+            .extracting(CategoriaArvoreDto::nome)
+            .containsExactly("Eletrônicos");
+        BDDAssertions
+            .then(categoria)
+            .contains(ELETRONICOS);
+        BDDAssertions
+            .then(subcategoria)
+            .contains(SMARTPHONES);
+        then(categoriaRepository)
+            .should(times(1))
+            .findAll(any(Sort.class));
+    }
+
+    @Test
+    void consultarAntesDaCargaConstroiAArvore() {
+        dadoBancoComCategorias(eletronicos);
+
+        final var sut = arvoreService.listarCategorias();
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(ELETRONICOS);
+    }
+
+    @Test
+    void aoAlterarSubstituiAArvore() {
+        dadoBancoComCategorias(eletronicos);
+        arvoreService.carregar();
+        final var anterior = arvoreService.consultarArvore();
+        given(categoriaRepository.findAll(any(Sort.class))).willReturn(List.of(eletronicos, casa));
+        given(categoriaMapper.toCategoriaDto(casa)).willReturn(CASA);
+
+        arvoreService.aoAlterar(new CategoriasAlteradasEvento());
+
+        BDDAssertions
+            .then(arvoreService.listarCategorias())
+            .containsExactly(ELETRONICOS, CASA);
+        BDDAssertions
+            .then(anterior)
+            .hasSize(1);
+    }
+
+    @Test
+    void aoAlterarComFalhaDescartaAArvoreParaReconstruirNaProximaConsulta() {
+        dadoBancoComCategorias(eletronicos);
+        arvoreService.carregar();
+        given(categoriaRepository.findAll(any(Sort.class)))
+            .willThrow(new DataAccessResourceFailureException("indisponível"))
+            .willReturn(List.of(eletronicos, casa));
+        given(categoriaMapper.toCategoriaDto(casa)).willReturn(CASA);
+
+        arvoreService.aoAlterar(new CategoriasAlteradasEvento());
+        final var sut = arvoreService.consultarCategoria(2L);
+
+        BDDAssertions
+            .then(sut)
+            .contains(CASA);
+    }
+
+}
@@ -1,10 +1,10 @@
 package com.github.andregpereira.resilientshop.productsapi.app.services.categoria;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.CategoriaNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.mappers.CategoriaMapper;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.CategoriaRepository;
-import com.github.andregpereira.resilientshop.productsapi.util.mock.factory.CategoriaMockFactory;
 import org.assertj.core.api.BDDAssertions;
 import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
 import org.junit.jupiter.api.Test;
@@ -12,17 +12,18 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.PAGEABLE_ID;
+import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.PAGEABLE_NOME;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.CategoriaMockFactory.getCategoriaDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.CategoriaMockFactory.getCategoriaEntity;
-import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.CategoriaMockFactory.getPageIdCategorias;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -32,6 +33,12 @@ import static org.mockito.BDDMockito.then;
 @ExtendWith(MockitoExtension.class)
 class CategoriaConsultaServiceTest {
 
+    private static final List<CategoriaDto> CATEGORIAS = List.of(
+        new CategoriaDto(1L, "Eletrônicos"),
+        new CategoriaDto(2L, "Casa"),
+        new CategoriaDto(3L, "Moda")
+    );
+
     @InjectMocks
     private CategoriaConsultaServiceImpl service;
 
@@ -41,10 +48,12 @@ class CategoriaConsultaServiceTest {
     @Mock
     private CategoriaRepository repository;
 
+    @Mock
+    private CategoriaArvoreService arvoreService;
+
     @Test
     void consultarCategoriaPorIdExistenteRetornaCategoriaDto() {
-        given(repository.findById(anyLong())).willReturn(Optional.of(getCategoriaEntity()));
-        given(mapper.toCategoriaDto(any(CategoriaEntity.class))).willReturn(getCategoriaDto());
+        given(arvoreService.consultarCategoria(anyLong())).willReturn(Optional.of(getCategoriaDto()));
 
         final var sut = service.consultarPorId(1L);
 
@@ -52,65 +61,93 @@ class CategoriaConsultaServiceTest {
             .then(sut)
             .isNotNull()
             .isEqualTo(getCategoriaDto());
-        then(repository)
-            .should()
-            .findById(anyLong());
-        then(mapper)
-            .should()
-            .toCategoriaDto(any(CategoriaEntity.class));
+        then(repository).shouldHaveNoInteractions();
+        then(mapper).shouldHaveNoInteractions();
     }
 
     @Test
     void consultarCategoriaPorIdInexistenteThrowsException() {
-        given(repository.findById(anyLong())).willReturn(Optional.empty());
+        given(arvoreService.consultarCategoria(anyLong())).willReturn(Optional.empty());
 
         final ThrowingCallable sut = () -> service.consultarPorId(10L);
 
         assertThatThrownBy(sut)
             .isInstanceOf(CategoriaNotFoundException.class)
             .hasMessage("Ops! Nenhuma categoria foi encontrada com o id 10");
-        then(repository)
-            .should()
-            .findById(anyLong());
-        then(mapper).shouldHaveNoInteractions();
+        then(repository).shouldHaveNoInteractions();
     }
 
     @Test
     void listarCategoriasExistentesRetornaPageCategoriaDto() {
-        final var listaCategorias = new ArrayList<CategoriaEntity>();
-        listaCategorias.add(getCategoriaEntity());
-        final var pageCategorias = new PageImpl<>(listaCategorias, PAGEABLE_ID, 10);
-        given(repository.findAll(any(Pageable.class))).willReturn(pageCategorias);
-        given(mapper.toCategoriaDto(any(CategoriaEntity.class))).willReturn(getCategoriaDto());
+        given(arvoreService.listarCategorias()).willReturn(CATEGORIAS);
 
-        final var sut = service.listar(PAGEABLE_ID);
+        final var sut = service.listar(PageRequest.of(0, 2, Direction.ASC, "id"));
 
         BDDAssertions
             .then(sut)
-            .isNotEmpty()
-            .containsExactlyInAnyOrder(getCategoriaDto());
-        then(repository)
-            .should()
-            .findAll(any(Pageable.class));
-        then(mapper)
-            .should()
-            .toCategoriaDto(any(CategoriaEntity.class));
+            .containsExactly(CATEGORIAS.get(0), CATEGORIAS.get(1));
+        BDDAssertions
+            .then(sut.getTotalElements())
+            .isEqualTo(3);
+        then(repository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void listarCategoriasPorNomeRetornaPageOrdenada() {
+        given(arvoreService.listarCategorias()).willReturn(CATEGORIAS);
+
+        final var sut = service.listar(PAGEABLE_NOME);
+
+        BDDAssertions
+            .then(sut)
+            .extracting(CategoriaDto::nome)
+            .containsExactly("Casa", "Eletrônicos", "Moda");
+        then(repository).shouldHaveNoInteractions();
     }
 
     @Test
     void listar_CategoriasInexistentes_RetornaPageVazia() {
-        given(repository.findAll(any(Pageable.class))).willReturn(Page.empty());
+        given(arvoreService.listarCategorias()).willReturn(List.of());
 
         final var sut = service.listar(PAGEABLE_ID);
 
         BDDAssertions
             .then(sut)
             .isEmpty();
+        then(repository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void listarCategoriasPorPropriedadeNaoOrdenavelConsultaBanco() {
+        final var pageable = PageRequest.of(0, 10, Direction.ASC, "produtos");
+        given(arvoreService.listarCategorias()).willReturn(CATEGORIAS);
+        given(repository.findAll(any(Pageable.class))).willReturn(
+            new PageImpl<>(List.of(getCategoriaEntity()), pageable, 1));
+        given(mapper.toCategoriaDto(any(CategoriaEntity.class))).willReturn(getCategoriaDto());
+
+        final var sut = service.listar(pageable);
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(getCategoriaDto());
         then(repository)
             .should()
-            .findAll(any(Pageable.class));
-        then(mapper).shouldHaveNoInteractions();
+            .findAll(pageable);
     }
 
-}
+    @Test
+    void listarCategoriasSemContagemRetornaSliceCategoriaDto() {
+        given(arvoreService.listarCategorias()).willReturn(CATEGORIAS);
+
+        final var sut = service.listarSemContagem(PageRequest.of(0, 2, Direction.ASC, "id"));
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(CATEGORIAS.get(0), CATEGORIAS.get(1));
+        BDDAssertions
+            .then(sut.hasNext())
+            .isTrue();
+        then(repository).shouldHaveNoInteractions();
+    }
 
+}
@@ -13,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Optional;
 
@@ -39,6 +40,9 @@ class CategoriaManutencaoServiceTest {
     @Mock
     private CategoriaRepository repository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Test
     void criarCategoriaComDadosValidosRetornaCategoriaDto() {
         given(repository.existsByNome(anyString())).willReturn(false);
@@ -64,6 +68,9 @@ class CategoriaManutencaoServiceTest {
         then(mapper)
             .should()
             .toCategoriaDto(any(CategoriaEntity.class));
+        then(eventPublisher)
+            .should()
+            .publishEvent(new CategoriasAlteradasEvento());
     }
 
     @Test
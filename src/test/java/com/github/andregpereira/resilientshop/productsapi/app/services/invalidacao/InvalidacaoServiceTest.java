@@ -0,0 +1,140 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriasAlteradasEvento;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.EstoqueAlteradoEvento;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoAlteradoEvento;
+import com.github.andregpereira.resilientshop.productsapi.cross.invalidacao.Invalidacao;
+import com.github.andregpereira.resilientshop.productsapi.cross.invalidacao.Invalidacao.Tipo;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.InvalidacaoProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.never;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class InvalidacaoServiceTest {
+
+    private static final String CANAL = "resilientshop_invalidacao";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ProdutoRepository repository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private InvalidacaoServiceImpl service;
+
+    @BeforeEach
+    void beforeEach() {
+        service = new InvalidacaoServiceImpl(jdbcTemplate, repository, eventPublisher, new DataSourceProperties(),
+            new InvalidacaoProperties(true, CANAL, Duration.ofSeconds(1), Duration.ofSeconds(5)));
+    }
+
+    private String notificado() {
+        ArgumentCaptor<String> conteudo = ArgumentCaptor.forClass(String.class);
+        then(jdbcTemplate)
+            .should()
+            .queryForObject(eq("SELECT pg_notify(?, ?)"), eq(String.class), eq(CANAL), conteudo.capture());
+        return conteudo.getValue();
+    }
+
+    @Test
+    void aoAlterarEstoqueNotificaOsIds() {
+        service.aoAlterarEstoque(new EstoqueAlteradoEvento(Set.of(1L, 2L)));
+
+        final var sut = Invalidacao.interpretar(notificado());
+
+        BDDAssertions
+            .then(sut)
+            .hasValueSatisfying(i -> {
+                BDDAssertions
+                    .then(i.tipo())
+                    .isEqualTo(Tipo.ESTOQUE);
+                BDDAssertions
+                    .then(i.ids())
+                    .containsExactlyInAnyOrder(1L, 2L);
+            });
+    }
+
+    @Test
+    void invalidacaoDaPropriaInstanciaEIgnorada() {
+        service.aoAlterarCategorias(new CategoriasAlteradasEvento());
+        final var propria = Invalidacao
+            .interpretar(notificado())
+            .orElseThrow();
+
+        service.receber(propria);
+
+        then(eventPublisher).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void receberEstoquePublicaAlteracaoDeEstoque() {
+        service.receber(new Invalidacao("outra", Tipo.ESTOQUE, Set.of(1L)));
+
+        then(eventPublisher)
+            .should()
+            .publishEvent(new EstoqueAlteradoEvento(Set.of(1L)));
+    }
+
+    @Test
+    void receberProdutosReleOsProdutosETrataOsAusentesComoInativos() {
+        given(repository.findAllProdutoDtoByIdIn(anySet())).willReturn(List.of(
+            new ProdutoDto(1L, "Café", "Café em grãos", BigDecimal.TEN, 5, BigDecimal.ONE, null, null, null, true)));
+
+        service.receber(new Invalidacao("outra", Tipo.PRODUTOS, Set.of(1L, 2L)));
+
+        then(eventPublisher)
+            .should()
+            .publishEvent(new ProdutoAlteradoEvento(1L, "Café", "Café em grãos", true));
+        then(eventPublisher)
+            .should()
+            .publishEvent(new ProdutoAlteradoEvento(2L, null, null, false));
+    }
+
+    @Test
+    void receberInvalidacaoTotalEsvaziaOsDadosEmMemoria() {
+        service.receber(new Invalidacao("outra", Tipo.PRODUTOS, Set.of()));
+
+        then(eventPublisher)
+            .should()
+            .publishEvent(any(DadosAlteradosEvento.class));
+        then(repository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void receberCategoriasReconstroiApenasAArvoreDeCategorias() {
+        service.receber(new Invalidacao("outra", Tipo.CATEGORIAS, Set.of()));
+
+        then(eventPublisher)
+            .should()
+            .publishEvent(any(CategoriasAlteradasEvento.class));
+        then(eventPublisher)
+            .should(never())
+            .publishEvent(any(DadosAlteradosEvento.class));
+    }
+
+}
@@ -0,0 +1,167 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriasAlteradasEvento;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.CacheProdutoProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import com.github.andregpereira.resilientshop.productsapi.util.mock.RelogioAjustavel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoDetalhesDto;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoCacheServiceTest {
+
+    @Mock
+    private ProdutoRepository repository;
+
+    private final RelogioAjustavel relogio = new RelogioAjustavel();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger carregamentos = new AtomicInteger();
+
+    private final Supplier<ProdutoDetalhesDto> carregar = () -> {
+        carregamentos.incrementAndGet();
+        return getProdutoDetalhesDto();
+    };
+
+    private ProdutoCacheServiceImpl cacheService(boolean habilitado) {
+        return new ProdutoCacheServiceImpl(repository, new CacheProdutoProperties(habilitado, 100,
+            Duration.ofMinutes(10), Duration.ofSeconds(5)), meterRegistry, relogio);
+    }
+
+    @Test
+    void consultarProdutoEmCacheNaoCarregaNovamente() {
+        final var cacheService = cacheService(true);
+
+        cacheService.consultar(1L, carregar);
+        final var sut = cacheService.consultar(1L, carregar);
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo(getProdutoDetalhesDto());
+        BDDAssertions
+            .then(carregamentos.get())
+            .isEqualTo(1);
+        then(repository).shouldHaveNoInteractions();
+        BDDAssertions
+            .then(meterRegistry
+                .get("cache.gets")
+                .tag("cache", "produtos")
+                .tag("result", "hit")
+                .functionCounter()
+                .count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void consultarComEstoqueVencidoReleApenasOEstoque() {
+        final var cacheService = cacheService(true);
+        cacheService.consultar(1L, carregar);
+        relogio.avancar(Duration.ofSeconds(5));
+        given(repository.consultarEstoques(List.of(1L))).willReturn(Map.of(1L, 3));
+
+        final var sut = cacheService.consultar(1L, carregar);
+
+        BDDAssertions
+            .then(sut.estoque())
+            .isEqualTo(3);
+        BDDAssertions
+            .then(sut.nome())
+            .isEqualTo(getProdutoDetalhesDto().nome());
+        BDDAssertions
+            .then(carregamentos.get())
+            .isEqualTo(1);
+        BDDAssertions
+            .then(cacheService
+                .consultar(1L, carregar)
+                .estoque())
+            .isEqualTo(3);
+        then(repository)
+            .should()
+            .consultarEstoques(List.of(1L));
+    }
+
+    @Test
+    void consultarComEstoqueVencidoDeProdutoInativoCarregaNovamente() {
+        final var cacheService = cacheService(true);
+        cacheService.consultar(1L, carregar);
+        relogio.avancar(Duration.ofSeconds(5));
+        given(repository.consultarEstoques(List.of(1L))).willReturn(Map.of());
+
+        cacheService.consultar(1L, carregar);
+
+        BDDAssertions
+            .then(carregamentos.get())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void aoAlterarRemoveOProdutoDoCache() {
+        final var cacheService = cacheService(true);
+        cacheService.consultar(1L, carregar);
+
+        cacheService.aoAlterar(new ProdutoAlteradoEvento(1L, "Café", null, true));
+        cacheService.consultar(1L, carregar);
+
+        BDDAssertions
+            .then(carregamentos.get())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void aoAlterarEstoqueRemoveOsProdutosDoCache() {
+        final var cacheService = cacheService(true);
+        cacheService.consultar(1L, carregar);
+
+        cacheService.aoAlterarEstoque(new EstoqueAlteradoEvento(Set.of(1L, 2L)));
+        cacheService.consultar(1L, carregar);
+
+        BDDAssertions
+            .then(carregamentos.get())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void aoAlterarCategoriasEsvaziaOCache() {
+        final var cacheService = cacheService(true);
+        cacheService.consultar(1L, carregar);
+        cacheService.consultar(2L, carregar);
+
+        cacheService.aoAlterarCategorias(new CategoriasAlteradasEvento());
+        cacheService.consultar(1L, carregar);
+        cacheService.consultar(2L, carregar);
+
+        BDDAssertions
+            .then(carregamentos.get())
+            .isEqualTo(4);
+    }
+
+    @Test
+    void consultarComCacheDesabilitadoSempreCarrega() {
+        final var cacheService = cacheService(false);
+
+        cacheService.consultar(1L, carregar);
+        cacheService.consultar(1L, carregar);
+
+        BDDAssertions
+            .then(carregamentos.get())
+            .isEqualTo(2);
+    }
+
+}
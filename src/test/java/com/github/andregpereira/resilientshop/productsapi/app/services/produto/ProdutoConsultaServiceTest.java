@@ -1,7 +1,12 @@
 package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoLoteDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.PaginacaoInvalidaException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.mappers.ProdutoMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.CursorProduto;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
 import org.assertj.core.api.BDDAssertions;
@@ -11,12 +16,19 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
-import java.util.ArrayList;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
 import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.PAGEABLE_ID;
 import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.PAGEABLE_NOME;
@@ -25,8 +37,13 @@ import static com.github.andregpereira.resilientshop.productsapi.util.mock.facto
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoEntity;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.times;
@@ -43,15 +60,19 @@ class ProdutoConsultaServiceTest {
     @Mock
     private ProdutoRepository repository;
 
+    @Mock
+    private ObjectProvider<ProdutoIndiceBuscaService> indiceBusca;
+
+    @Mock
+    private ProdutoIndiceBuscaService indice;
+
+    @Mock
+    private ProdutoCacheService cache;
+
     @Test
     void listarProdutosExistentesRetornaPageProdutoDto() {
-        final var listaProdutos = new ArrayList<ProdutoEntity>();
-        listaProdutos.add(getProdutoEntity());
-        listaProdutos.add(getProdutoEntity());
-        final var pageProdutos = new PageImpl<>(listaProdutos, PAGEABLE_ID, 10);
-        given(repository.findAll(any(Pageable.class))).willReturn(pageProdutos);
-        given(mapper.toProdutoDto(any(ProdutoEntity.class))).willReturn(getProdutoDto());
-//        given(mapper.toProdutoDto(any(ProdutoEntity.class))).willReturn(PRODUTO_DTO_ATUALIZADO);
+        final var pageProdutos = new PageImpl<>(List.of(getProdutoDto(), getProdutoDto()), PAGEABLE_ID, 10);
+        given(repository.findAllProdutoDto(any(Pageable.class))).willReturn(pageProdutos);
 
         final var sut = produtoConsultaService.listar(PAGEABLE_ID);
 
@@ -61,15 +82,13 @@ class ProdutoConsultaServiceTest {
             .containsExactlyInAnyOrder(getProdutoDto(), getProdutoDto());
         then(repository)
             .should()
-            .findAll(any(Pageable.class));
-        then(mapper)
-            .should(times(2))
-            .toProdutoDto(any(ProdutoEntity.class));
+            .findAllProdutoDto(any(Pageable.class));
+        then(mapper).shouldHaveNoInteractions();
     }
 
     @Test
     void listarProdutosInexistentesRetornaEmpty() {
-        given(repository.findAll(any(Pageable.class))).willReturn(Page.empty());
+        given(repository.findAllProdutoDto(any(Pageable.class))).willReturn(Page.empty());
 
         final var sut = produtoConsultaService.listar(PAGEABLE_ID);
 
@@ -78,13 +97,16 @@ class ProdutoConsultaServiceTest {
             .isEmpty();
         then(repository)
             .should()
-            .findAll(any(Pageable.class));
+            .findAllProdutoDto(any(Pageable.class));
         then(mapper).shouldHaveNoInteractions();
     }
 
     @Test
     void consultarProdutoPorIdExistenteRetornaProdutoDetalhesDto() {
         final var dto = getProdutoDetalhesDto();
+        given(cache.consultar(anyLong(), any())).willAnswer(i -> i
+            .<Supplier<ProdutoDetalhesDto>>getArgument(1)
+            .get());
         given(repository.findById(anyLong())).willReturn(Optional.of(getProdutoEntity()));
         given(mapper.toProdutoDetalhesDto(any(ProdutoEntity.class))).willReturn(dto);
 
@@ -101,8 +123,55 @@ class ProdutoConsultaServiceTest {
             .toProdutoDetalhesDto(any(ProdutoEntity.class));
     }
 
+    @Test
+    void consultarProdutosPorIdsRetornaNaOrdemInformadaComOsNaoEncontradosMarcados() {
+        final var produto1 = produtoDto(1L, "a");
+        final var produto3 = produtoDto(3L, "c");
+        given(repository.findAllProdutoDtoByIdIn(anyList())).willReturn(List.of(produto1, produto3));
+
+        final var sut = produtoConsultaService.consultarPorIds(List.of(3L, 2L, 1L, 3L));
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(
+                new ProdutoLoteDto(3L, true, produto3),
+                new ProdutoLoteDto(2L, false, null),
+                new ProdutoLoteDto(1L, true, produto1),
+                new ProdutoLoteDto(3L, true, produto3)
+            );
+        then(repository)
+            .should()
+            .findAllProdutoDtoByIdIn(List.of(3L, 2L, 1L));
+        then(mapper).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void consultarProdutosPorIdsDivideOsIdsEmBlocos() {
+        given(repository.findAllProdutoDtoByIdIn(anyList())).willReturn(List.of());
+        final var ids = LongStream
+            .rangeClosed(1, ProdutoConsultaServiceImpl.TAMANHO_BLOCO_IDS * 2L + 1)
+            .boxed()
+            .toList();
+
+        final var sut = produtoConsultaService.consultarPorIds(ids);
+
+        BDDAssertions
+            .then(sut)
+            .hasSize(ids.size())
+            .noneMatch(ProdutoLoteDto::encontrado);
+        then(repository)
+            .should(times(3))
+            .findAllProdutoDtoByIdIn(anyList());
+        then(repository)
+            .should()
+            .findAllProdutoDtoByIdIn(List.of(ids.getLast()));
+    }
+
     @Test
     void consultarProdutoPorIdInexistenteThrowsException() {
+        given(cache.consultar(anyLong(), any())).willAnswer(i -> i
+            .<Supplier<ProdutoDetalhesDto>>getArgument(1)
+            .get());
         given(repository.findById(anyLong())).willReturn(Optional.empty());
 
         final ThrowingCallable sut = () -> produtoConsultaService.consultarPorId(10L);
@@ -118,15 +187,10 @@ class ProdutoConsultaServiceTest {
 
     @Test
     void consultarProdutoPorNomeExistenteRetornaProdutoDto() {
-        final var listaProdutos = new ArrayList<ProdutoEntity>();
-        listaProdutos.add(getProdutoEntity());
-        listaProdutos.add(getProdutoEntity());
-        final var pageProdutos = new PageImpl<>(listaProdutos, PAGEABLE_NOME, 10);
-        given(repository.findByName(anyString(), any(Pageable.class))).willReturn(pageProdutos);
-        given(mapper.toProdutoDto(any(ProdutoEntity.class))).willReturn(getProdutoDto());
-//        given(mapper.toProdutoDto(any(ProdutoEntity.class))).willReturn(PRODUTO_DTO_ATUALIZADO);
+        final var pageProdutos = new PageImpl<>(List.of(getProdutoDto(), getProdutoDto()), PAGEABLE_NOME, 10);
+        given(repository.buscarPorNome(anyString(), any(Pageable.class))).willReturn(pageProdutos);
 
-        final var sut = produtoConsultaService.consultarPorNome("nome", PAGEABLE_NOME);
+        final var sut = produtoConsultaService.consultarPorNome(" nome ", PAGEABLE_NOME);
 
         BDDAssertions
             .then(sut)
@@ -134,15 +198,30 @@ class ProdutoConsultaServiceTest {
             .containsExactlyInAnyOrder(getProdutoDto(), getProdutoDto());
         then(repository)
             .should()
-            .findByName(anyString(), any(Pageable.class));
-        then(mapper)
-            .should(times(2))
-            .toProdutoDto(any(ProdutoEntity.class));
+            .buscarPorNome("nome", PAGEABLE_NOME);
+        then(mapper).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void consultarProdutoPorNomeComIndiceEmMemoriaNaoConsultaRepository() {
+        final var pageProdutos = new PageImpl<>(List.of(getProdutoDto()), PAGEABLE_NOME, 1);
+        given(indiceBusca.getIfAvailable()).willReturn(indice);
+        given(indice.buscar(anyString(), any(Pageable.class))).willReturn(pageProdutos);
+
+        final var sut = produtoConsultaService.consultarPorNome(" nome ", PAGEABLE_NOME);
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(getProdutoDto());
+        then(indice)
+            .should()
+            .buscar("nome", PAGEABLE_NOME);
+        then(repository).shouldHaveNoInteractions();
     }
 
     @Test
     void consultarProdutoPorNomeInexistenteRetornaEmpty() {
-        given(repository.findByName(anyString(), any(Pageable.class))).willReturn(Page.empty());
+        given(repository.buscarPorNome(anyString(), any(Pageable.class))).willReturn(Page.empty());
 
         final var sut = produtoConsultaService.consultarPorNome("produto", PAGEABLE_NOME);
 
@@ -151,7 +230,7 @@ class ProdutoConsultaServiceTest {
             .isEmpty();
         then(repository)
             .should()
-            .findByName(anyString(), any(Pageable.class));
+            .buscarPorNome(anyString(), any(Pageable.class));
         then(mapper).shouldHaveNoInteractions();
     }
 
@@ -165,29 +244,24 @@ class ProdutoConsultaServiceTest {
 
     @Test
     void consultarProdutoPorSubcategoriaExistenteRetornaProdutoDto() {
-        final var listaProdutos = new ArrayList<ProdutoEntity>();
-        listaProdutos.add(getProdutoEntity());
-        final var pageProdutos = new PageImpl<>(listaProdutos, PAGEABLE_ID, 10);
-        given(repository.findAllBySubcategoriaId(anyLong(), any(Pageable.class))).willReturn(pageProdutos);
-        given(mapper.toProdutoDto(any(ProdutoEntity.class))).willReturn(getProdutoDto());
+        final var pageProdutos = new PageImpl<>(List.of(getProdutoDto(), getProdutoDto()), PAGEABLE_ID, 10);
+        given(repository.findAllProdutoDtoBySubcategoriaId(anyLong(), any(Pageable.class))).willReturn(pageProdutos);
 
         final var sut = produtoConsultaService.consultarPorSubcategoria(1L, PAGEABLE_ID);
 
         BDDAssertions
             .then(sut)
             .isNotEmpty()
-            .containsExactlyInAnyOrder(getProdutoDto());
+            .containsExactlyInAnyOrder(getProdutoDto(), getProdutoDto());
         then(repository)
             .should()
-            .findAllBySubcategoriaId(anyLong(), any(Pageable.class));
-        then(mapper)
-            .should()
-            .toProdutoDto(any(ProdutoEntity.class));
+            .findAllProdutoDtoBySubcategoriaId(anyLong(), any(Pageable.class));
+        then(mapper).shouldHaveNoInteractions();
     }
 
     @Test
     void consultarProdutoPorSubcategoriaInexistenteRetornaEmpty() {
-        given(repository.findAllBySubcategoriaId(anyLong(), any(Pageable.class))).willReturn(Page.empty());
+        given(repository.findAllProdutoDtoBySubcategoriaId(anyLong(), any(Pageable.class))).willReturn(Page.empty());
 
         final var sut = produtoConsultaService.consultarPorSubcategoria(1L, PAGEABLE_ID);
 
@@ -196,30 +270,116 @@ class ProdutoConsultaServiceTest {
             .isEmpty();
         then(repository)
             .should()
-            .findAllBySubcategoriaId(anyLong(), any(Pageable.class));
+            .findAllProdutoDtoBySubcategoriaId(anyLong(), any(Pageable.class));
         then(mapper).shouldHaveNoInteractions();
     }
 
     @Test
     void consultarProdutoPorCategoriaExistenteRetornaProdutoDto() {
-        final var listaProdutos = new ArrayList<ProdutoEntity>();
-        listaProdutos.add(getProdutoEntity());
-        final var pageProdutos = new PageImpl<>(listaProdutos, PAGEABLE_ID, 10);
-        given(repository.findAllByCategoriaId(anyLong(), any(Pageable.class))).willReturn(pageProdutos);
-        given(mapper.toProdutoDto(any(ProdutoEntity.class))).willReturn(getProdutoDto());
+        final var pageProdutos = new PageImpl<>(List.of(getProdutoDto(), getProdutoDto()), PAGEABLE_ID, 10);
+        given(repository.findAllProdutoDtoByCategoriaId(anyLong(), any(Pageable.class))).willReturn(pageProdutos);
 
         final var sut = produtoConsultaService.consultarPorCategoria(1L, PAGEABLE_ID);
 
         BDDAssertions
             .then(sut)
             .isNotEmpty()
-            .containsExactlyInAnyOrder(getProdutoDto());
+            .containsExactlyInAnyOrder(getProdutoDto(), getProdutoDto());
         then(repository)
             .should()
-            .findAllByCategoriaId(anyLong(), any(Pageable.class));
-        then(mapper)
+            .findAllProdutoDtoByCategoriaId(anyLong(), any(Pageable.class));
+        then(mapper).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void consultarProdutoPorCategoriaInexistenteRetornaEmpty() {
+        given(repository.findAllProdutoDtoByCategoriaId(anyLong(), any(Pageable.class))).willReturn(Page.empty());
+
+        final var sut = produtoConsultaService.consultarPorCategoria(1L, PAGEABLE_ID);
+
+        BDDAssertions
+            .then(sut)
+            .isEmpty();
+        then(repository)
             .should()
-            .toProdutoDto(any(ProdutoEntity.class));
+            .findAllProdutoDtoByCategoriaId(anyLong(), any(Pageable.class));
+        then(mapper).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void listarProdutosPorCursorComMaisProdutosRetornaPaginaEProximoCursor() {
+        given(repository.findProdutoDtoAposCursor(isNull(), isNull(), any(CursorProduto.class), eq(3))).willReturn(
+            List.of(produtoDto(1L, "a"), produtoDto(2L, "b"), produtoDto(3L, "c")));
+
+        final var sut = produtoConsultaService.listar(null, Sort.by("nome"), 2);
+
+        BDDAssertions
+            .then(sut.conteudo())
+            .extracting(ProdutoDto::id)
+            .containsExactly(1L, 2L);
+        BDDAssertions
+            .then(CursorProduto.decodificar(sut.proximoCursor()))
+            .isEqualTo(new CursorProduto("nome", Sort.Direction.ASC, "b", 2L));
+        then(repository)
+            .should()
+            .findProdutoDtoAposCursor(isNull(), isNull(), argThat(CursorProduto::isInicio), eq(3));
+    }
+
+    @Test
+    void listarProdutosPorCursorNaUltimaPaginaRetornaProximoCursorNulo() {
+        final var cursor = new CursorProduto("valorUnitario", Sort.Direction.DESC, new BigDecimal("10.59"), 7L);
+        given(repository.findProdutoDtoAposCursor(isNull(), eq(1L), eq(cursor), eq(3))).willReturn(
+            List.of(produtoDto(8L, "a")));
+
+        final var sut = produtoConsultaService.consultarPorSubcategoria(1L, cursor.codificar(), Sort.unsorted(), 2);
+
+        BDDAssertions
+            .then(sut.conteudo())
+            .hasSize(1);
+        BDDAssertions
+            .then(sut.proximoCursor())
+            .isNull();
+    }
+
+    @Test
+    void listarProdutosPorCursorInvalidoThrowsException() {
+        final ThrowingCallable sut = () -> produtoConsultaService.consultarPorCategoria(1L, "invalido", Sort.unsorted(),
+            2);
+
+        assertThatThrownBy(sut)
+            .isInstanceOf(PaginacaoInvalidaException.class)
+            .hasMessage("Ops! O cursor informado é inválido");
+        then(repository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void listarProdutosPorCursorComOrdenacaoNaoSuportadaThrowsException() {
+        final ThrowingCallable sut = () -> produtoConsultaService.listar(null, Sort.by("rating"), 2);
+
+        assertThatThrownBy(sut).isInstanceOf(PaginacaoInvalidaException.class);
+        then(repository)
+            .should(times(0))
+            .findProdutoDtoAposCursor(any(), any(), any(), anyInt());
+    }
+
+    private static ProdutoDto produtoDto(Long id, String nome) {
+        return new ProdutoDto(id, nome, "descricao", BigDecimal.TEN, 1, BigDecimal.ONE, "http://", LocalDateTime.now(),
+            LocalDateTime.now(), true);
+    }
+
+    @Test
+    void listarProdutosSemContagemRetornaSliceProdutoDto() {
+        final var slice = new SliceImpl<>(List.of(getProdutoDto()), PAGEABLE_ID, true);
+        given(repository.findSliceProdutoDto(any(Pageable.class))).willReturn(slice);
+
+        final var sut = produtoConsultaService.listarSemContagem(PAGEABLE_ID);
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo(slice);
+        then(repository)
+            .should(times(0))
+            .findAllProdutoDto(any(Pageable.class));
     }
 
 }
@@ -0,0 +1,251 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoEstoqueAgrupadoServiceImpl.Operacao;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.EstoqueIndisponivelException;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.AgrupamentoEstoqueProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.RetentativaProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoAtualizarEstoqueDto;
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoEntity;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.BDDAssertions.thenThrownBy;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.never;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoEstoqueAgrupadoServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Captor
+    private ArgumentCaptor<List<MovimentoEstoqueEntity>> movimentos;
+
+    private ProdutoEstoqueAgrupadoServiceImpl agrupadoService;
+
+    @BeforeEach
+    void beforeEach() {
+        agrupadoService = new ProdutoEstoqueAgrupadoServiceImpl(
+            produtoRepository,
+            transactionManager,
+            eventPublisher,
+            new AgrupamentoEstoqueProperties(true, Duration.ofMillis(5), 256, Duration.ofMillis(50)),
+            new RetentativaProperties(3, Duration.ZERO, Duration.ZERO),
+            new SimpleMeterRegistry()
+        );
+    }
+
+    @Test
+    void aplicarGrupoValidoAplicaUmaVariacaoLiquidaPorProduto() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willReturn(new HashMap<>(Map.of(1L, 10, 2L, 5)));
+        given(produtoRepository.aplicarVariacoes(anyMap())).willReturn(Set.of());
+        final var subtrair = new Operacao(new TreeMap<>(Map.of(1L, 4, 2L, 5)), -1);
+        final var retornar = new Operacao(new TreeMap<>(Map.of(1L, 1)), 1);
+        final var subtrairNovamente = new Operacao(new TreeMap<>(Map.of(1L, 2)), -1);
+
+        agrupadoService.aplicar(List.of(subtrair, retornar, subtrairNovamente));
+
+        then(produtoRepository)
+            .should()
+            .aplicarVariacoes(Map.of(1L, -5, 2L, -5));
+        then(eventPublisher)
+            .should()
+            .publishEvent(new EstoqueAlteradoEvento(Set.of(1L, 2L)));
+        BDDAssertions.then(subtrair.resultado()).isCompleted();
+        BDDAssertions.then(retornar.resultado()).isCompleted();
+        BDDAssertions.then(subtrairNovamente.resultado()).isCompleted();
+    }
+
+    @Test
+    void aplicarGrupoRegistraUmMovimentoPorOperacaoValidaComEstoqueResultante() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willReturn(new HashMap<>(Map.of(1L, 10)));
+        given(produtoRepository.aplicarVariacoes(anyMap())).willReturn(Set.of());
+        final var subtrair = new Operacao(new TreeMap<>(Map.of(1L, 4)), -1);
+        final var retornar = new Operacao(new TreeMap<>(Map.of(1L, 1)), 1);
+
+        agrupadoService.aplicar(List.of(subtrair, retornar));
+
+        then(produtoRepository)
+            .should()
+            .registrarMovimentos(movimentos.capture());
+        BDDAssertions
+            .then(movimentos.getValue())
+            .extracting(MovimentoEstoqueEntity::getVariacao, MovimentoEstoqueEntity::getEstoqueResultante,
+                MovimentoEstoqueEntity::getCausa)
+            .containsExactly(tuple(-4, 6, Causa.SUBTRACAO), tuple(1, 7, Causa.RETORNO));
+    }
+
+    @Test
+    void aplicarGrupoComEstoqueInsuficienteFalhaApenasAOperacaoInvalida() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willReturn(new HashMap<>(Map.of(1L, 10)));
+        given(produtoRepository.aplicarVariacoes(anyMap())).willReturn(Set.of());
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(getProdutoEntity()));
+        final var valida = new Operacao(new TreeMap<>(Map.of(1L, 8)), -1);
+        final var invalida = new Operacao(new TreeMap<>(Map.of(1L, 3)), -1);
+
+        agrupadoService.aplicar(List.of(valida, invalida));
+
+        then(produtoRepository)
+            .should()
+            .aplicarVariacoes(Map.of(1L, -8));
+        BDDAssertions.then(valida.resultado()).isCompleted();
+        thenThrownBy(() -> invalida
+            .resultado()
+            .join())
+            .hasCauseInstanceOf(ProdutoNotFoundException.class)
+            .hasMessageContaining("não possui estoque suficiente");
+    }
+
+    @Test
+    void aplicarGrupoNaoSubtraiOEstoqueReservado() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willReturn(new HashMap<>(Map.of(1L, 10)));
+        given(produtoRepository.consultarReservados(anyCollection())).willReturn(Map.of(1L, 4));
+        given(produtoRepository.aplicarVariacoes(anyMap())).willReturn(Set.of());
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(getProdutoEntity()));
+        final var valida = new Operacao(new TreeMap<>(Map.of(1L, 6)), -1);
+        final var invalida = new Operacao(new TreeMap<>(Map.of(1L, 1)), -1);
+
+        agrupadoService.aplicar(List.of(valida, invalida));
+
+        then(produtoRepository)
+            .should()
+            .bloquearFragmentados(Set.of(1L));
+        then(produtoRepository)
+            .should()
+            .aplicarVariacoes(Map.of(1L, -6));
+        BDDAssertions.then(valida.resultado()).isCompleted();
+        thenThrownBy(() -> invalida
+            .resultado()
+            .join())
+            .hasCauseInstanceOf(ProdutoNotFoundException.class)
+            .hasMessageContaining("não possui estoque suficiente");
+    }
+
+    @Test
+    void aplicarGrupoComIdInexistenteFalhaENaoAplicaVariacao() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willReturn(new HashMap<>());
+        final var operacao = new Operacao(new TreeMap<>(Map.of(10L, 1)), 1);
+
+        agrupadoService.aplicar(List.of(operacao));
+
+        then(produtoRepository)
+            .should(never())
+            .aplicarVariacoes(anyMap());
+        then(eventPublisher).shouldHaveNoInteractions();
+        thenThrownBy(() -> operacao
+            .resultado()
+            .join())
+            .hasCauseInstanceOf(ProdutoNotFoundException.class)
+            .hasMessageContaining("Ops! Nenhum produto foi encontrado com o id 10");
+    }
+
+    @Test
+    void aplicarGrupoComErroNoBancoDeDadosFalhaTodasAsOperacoes() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willThrow(IllegalStateException.class);
+        final var primeira = new Operacao(new TreeMap<>(Map.of(1L, 1)), -1);
+        final var segunda = new Operacao(new TreeMap<>(Map.of(2L, 1)), 1);
+
+        agrupadoService.aplicar(List.of(primeira, segunda));
+
+        BDDAssertions.then(primeira.resultado()).isCompletedExceptionally();
+        BDDAssertions.then(segunda.resultado()).isCompletedExceptionally();
+    }
+
+    @Test
+    void aplicarGrupoComConflitoRetentaOGrupo() {
+        given(produtoRepository.bloquearEstoques(anyCollection()))
+            .willThrow(new CannotAcquireLockException("bloqueado"))
+            .willReturn(new HashMap<>(Map.of(1L, 10)));
+        given(produtoRepository.aplicarVariacoes(anyMap())).willReturn(Set.of());
+        final var operacao = new Operacao(new TreeMap<>(Map.of(1L, 4)), -1);
+
+        agrupadoService.aplicar(List.of(operacao));
+
+        then(produtoRepository)
+            .should(times(2))
+            .bloquearEstoques(anyCollection());
+        BDDAssertions.then(operacao.resultado()).isCompleted();
+    }
+
+    @Test
+    void aplicarGrupoComErroReaplicaAsOperacoesIsoladamente() {
+        given(produtoRepository.bloquearEstoques(Set.of(1L, 2L))).willThrow(IllegalStateException.class);
+        given(produtoRepository.bloquearEstoques(Set.of(1L))).willReturn(new HashMap<>(Map.of(1L, 10)));
+        given(produtoRepository.bloquearEstoques(Set.of(2L))).willThrow(IllegalStateException.class);
+        given(produtoRepository.aplicarVariacoes(anyMap())).willReturn(Set.of());
+        final var primeira = new Operacao(new TreeMap<>(Map.of(1L, 1)), -1);
+        final var segunda = new Operacao(new TreeMap<>(Map.of(2L, 1)), 1);
+
+        agrupadoService.aplicar(List.of(primeira, segunda));
+
+        then(produtoRepository)
+            .should()
+            .aplicarVariacoes(Map.of(1L, -1));
+        BDDAssertions.then(primeira.resultado()).isCompleted();
+        BDDAssertions.then(segunda.resultado()).isCompletedExceptionally();
+    }
+
+    @Test
+    void subtrairEstoqueNaoAplicadoNoTempoMaximoDeEsperaLancaExceptionENaoAplicaAOperacao() {
+        thenThrownBy(() -> agrupadoService.subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto())))
+            .isInstanceOf(EstoqueIndisponivelException.class)
+            .hasMessage("Ops! O estoque está sobrecarregado no momento. Tente novamente");
+        then(produtoRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void aplicarOperacaoCanceladaPeloChamadorNaoAplicaAOperacao() {
+        final var operacao = new Operacao(new TreeMap<>(Map.of(1L, 1)), -1);
+        operacao.reivindicar();
+
+        agrupadoService.aplicar(List.of(operacao));
+
+        then(produtoRepository).shouldHaveNoInteractions();
+        BDDAssertions.then(operacao.resultado()).isNotDone();
+    }
+
+    @Test
+    void subtrairEstoqueAposEncerramentoLancaException() {
+        agrupadoService.encerrar();
+
+        thenThrownBy(() -> agrupadoService.subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto())))
+            .isInstanceOf(EstoqueIndisponivelException.class)
+            .hasMessage("Ops! O agrupamento de operações de estoque foi encerrado");
+        then(produtoRepository).shouldHaveNoInteractions();
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.ProdutoMapper;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import org.assertj.core.api.BDDAssertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoDetalhesDto;
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoEntity;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.any;
+import static org.mockito.BDDMockito.anyInt;
+import static org.mockito.BDDMockito.anyLong;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.never;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoEstoqueFragmentadoServiceTest {
+
+    @InjectMocks
+    private ProdutoEstoqueFragmentadoServiceImpl estoqueFragmentadoService;
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private ProdutoMapper mapper;
+
+    @Test
+    void fragmentarEstoqueDeProdutoNaoFragmentadoDistribuiEstoqueAtual() {
+        final var produto = getProdutoEntity();
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(produto));
+        given(produtoRepository.save(any(ProdutoEntity.class))).willReturn(produto);
+        given(mapper.toProdutoDetalhesDto(any(ProdutoEntity.class))).willReturn(getProdutoDetalhesDto());
+
+        final var sut = estoqueFragmentadoService.fragmentar(1L, 4);
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo(getProdutoDetalhesDto());
+        BDDAssertions
+            .then(produto.isEstoqueFragmentado())
+            .isTrue();
+        BDDAssertions
+            .then(produto.getEstoque())
+            .isZero();
+        then(produtoRepository)
+            .should()
+            .distribuirFragmentos(1L, 4, getProdutoEntity().getEstoque());
+    }
+
+    @Test
+    void fragmentarEstoqueDeProdutoFragmentadoRedistribuiSomaDosFragmentos() {
+        final var produto = getProdutoEntity();
+        produto.setEstoqueFragmentado(true);
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(produto));
+        given(produtoRepository.bloquearFragmentos(1L)).willReturn(List.of(1, 2, 3));
+        given(produtoRepository.save(any(ProdutoEntity.class))).willReturn(produto);
+        given(mapper.toProdutoDetalhesDto(any(ProdutoEntity.class))).willReturn(getProdutoDetalhesDto());
+
+        estoqueFragmentadoService.fragmentar(1L, 8);
+
+        then(produtoRepository)
+            .should()
+            .distribuirFragmentos(1L, 8, 6);
+    }
+
+    @Test
+    void fragmentarEstoqueDeProdutoInexistenteThrowsException() {
+        given(produtoRepository.findById(10L)).willReturn(Optional.empty());
+
+        final ThrowingCallable sut = () -> estoqueFragmentadoService.fragmentar(10L, 8);
+
+        assertThatThrownBy(sut)
+            .isInstanceOf(ProdutoNotFoundException.class)
+            .hasMessage("Ops! Nenhum produto foi encontrado com o id 10");
+        then(produtoRepository)
+            .should(never())
+            .distribuirFragmentos(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    void desfragmentarEstoqueDeProdutoFragmentadoSomaFragmentosAoEstoque() {
+        final var produto = getProdutoEntity();
+        produto.setEstoqueFragmentado(true);
+        produto.setEstoque(0);
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(produto));
+        given(produtoRepository.bloquearFragmentos(1L)).willReturn(List.of(4, 0, 3));
+        given(produtoRepository.save(any(ProdutoEntity.class))).willReturn(produto);
+        given(mapper.toProdutoDetalhesDto(any(ProdutoEntity.class))).willReturn(getProdutoDetalhesDto());
+
+        estoqueFragmentadoService.desfragmentar(1L);
+
+        BDDAssertions
+            .then(produto.isEstoqueFragmentado())
+            .isFalse();
+        BDDAssertions
+            .then(produto.getEstoque())
+            .isEqualTo(7);
+        then(produtoRepository)
+            .should()
+            .removerFragmentos(1L);
+    }
+
+    @Test
+    void rebalancearEstoqueDeProdutoFragmentadoRedistribuiNaMesmaQuantidadeDeFragmentos() {
+        final var produto = getProdutoEntity();
+        produto.setEstoqueFragmentado(true);
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(produto));
+        given(produtoRepository.bloquearFragmentos(1L)).willReturn(List.of(0, 0, 9, 1));
+        given(mapper.toProdutoDetalhesDto(any(ProdutoEntity.class))).willReturn(getProdutoDetalhesDto());
+
+        estoqueFragmentadoService.rebalancear(1L);
+
+        then(produtoRepository)
+            .should()
+            .distribuirFragmentos(1L, 4, 10);
+        then(produtoRepository)
+            .should(never())
+            .save(any(ProdutoEntity.class));
+    }
+
+    @Test
+    void rebalancearEstoqueDeProdutoNaoFragmentadoNaoAlteraFragmentos() {
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(getProdutoEntity()));
+        given(mapper.toProdutoDetalhesDto(any(ProdutoEntity.class))).willReturn(getProdutoDetalhesDto());
+
+        estoqueFragmentadoService.rebalancear(1L);
+
+        then(produtoRepository)
+            .should(never())
+            .distribuirFragmentos(anyLong(), anyInt(), anyInt());
+    }
+
+}
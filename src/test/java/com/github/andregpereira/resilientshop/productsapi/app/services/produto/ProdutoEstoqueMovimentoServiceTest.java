@@ -0,0 +1,149 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.VerificacaoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.MovimentoEstoqueMapper;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.MovimentoEstoqueRepository;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import org.assertj.core.api.BDDAssertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoEntity;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.anyCollection;
+import static org.mockito.BDDMockito.anyList;
+import static org.mockito.BDDMockito.anyLong;
+import static org.mockito.BDDMockito.argThat;
+import static org.mockito.BDDMockito.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.inOrder;
+import static org.mockito.BDDMockito.never;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoEstoqueMovimentoServiceTest {
+
+    @InjectMocks
+    private ProdutoEstoqueMovimentoServiceImpl estoqueMovimentoService;
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private MovimentoEstoqueRepository movimentoRepository;
+
+    @Mock
+    private MovimentoEstoqueMapper mapper;
+
+    @Test
+    void verificarEstoqueRecalculaAPartirDoUltimoMovimentoAbsoluto() {
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(getProdutoEntity()));
+        given(produtoRepository.bloquearEstoques(List.of(1L))).willReturn(Map.of(1L, 7));
+        given(movimentoRepository.findFirstByProdutoIdAndCausaInOrderByIdDesc(
+            1L,
+            List.of(Causa.INICIAL, Causa.AJUSTE, Causa.SNAPSHOT)
+        )).willReturn(Optional.of(new MovimentoEstoqueEntity(5L, 1L, 5, 10, Causa.AJUSTE, null,
+            LocalDateTime.now())));
+        given(movimentoRepository.somarVariacoesApos(1L, 5L, List.of(Causa.RESERVA, Causa.LIBERACAO,
+            Causa.EXPIRACAO))).willReturn(-3L);
+
+        final var sut = estoqueMovimentoService.verificar(1L);
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo(new VerificacaoEstoqueDto(1L, 7, 7, true));
+    }
+
+    @Test
+    void verificarEstoqueSemMovimentoAbsolutoSomaTodasAsVariacoes() {
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(getProdutoEntity()));
+        given(produtoRepository.bloquearEstoques(List.of(1L))).willReturn(Map.of(1L, 7));
+        given(movimentoRepository.findFirstByProdutoIdAndCausaInOrderByIdDesc(anyLong(), anyCollection())).willReturn(
+            Optional.empty());
+        given(movimentoRepository.somarVariacoesApos(eq(1L), eq(0L), anyCollection())).willReturn(-3L);
+
+        final var sut = estoqueMovimentoService.verificar(1L);
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo(new VerificacaoEstoqueDto(1L, 7, -3, false));
+    }
+
+    @Test
+    void verificarEstoqueFragmentadoBloqueiaFragmentosAntesDoProduto() {
+        final var produto = getProdutoEntity();
+        produto.setEstoqueFragmentado(true);
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(produto));
+        given(produtoRepository.bloquearEstoques(List.of(1L))).willReturn(Map.of(1L, 7));
+        given(movimentoRepository.findFirstByProdutoIdAndCausaInOrderByIdDesc(anyLong(), anyCollection())).willReturn(
+            Optional.empty());
+
+        estoqueMovimentoService.verificar(1L);
+
+        final var inOrder = inOrder(produtoRepository);
+        then(produtoRepository)
+            .should(inOrder)
+            .bloquearFragmentos(1L);
+        then(produtoRepository)
+            .should(inOrder)
+            .bloquearEstoques(List.of(1L));
+    }
+
+    @Test
+    void verificarEstoqueDeProdutoInexistenteThrowsException() {
+        given(produtoRepository.findById(10L)).willReturn(Optional.empty());
+
+        final ThrowingCallable sut = () -> estoqueMovimentoService.verificar(10L);
+
+        assertThatThrownBy(sut)
+            .isInstanceOf(ProdutoNotFoundException.class)
+            .hasMessage("Ops! Nenhum produto foi encontrado com o id 10");
+        then(movimentoRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void registrarSnapshotRegistraEstoqueAtualSemVariacao() {
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(getProdutoEntity()));
+        given(produtoRepository.bloquearEstoques(List.of(1L))).willReturn(Map.of(1L, 7));
+
+        final var sut = estoqueMovimentoService.registrarSnapshot(1L);
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo(new VerificacaoEstoqueDto(1L, 7, 7, true));
+        then(produtoRepository)
+            .should()
+            .registrarMovimentos(argThat(movimentos -> movimentos.size() == 1 && movimentos
+                .getFirst()
+                .getCausa() == Causa.SNAPSHOT && movimentos
+                .getFirst()
+                .getVariacao() == 0 && movimentos
+                .getFirst()
+                .getEstoqueResultante() == 7));
+    }
+
+    @Test
+    void registrarSnapshotDeProdutoInexistenteThrowsException() {
+        given(produtoRepository.findById(10L)).willReturn(Optional.empty());
+
+        final ThrowingCallable sut = () -> estoqueMovimentoService.registrarSnapshot(10L);
+
+        assertThatThrownBy(sut).isInstanceOf(ProdutoNotFoundException.class);
+        then(produtoRepository)
+            .should(never())
+            .registrarMovimentos(anyList());
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoVersaoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaArvoreService;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoEtagServiceTest {
+
+    private static final LocalDateTime MODIFICACAO = LocalDateTime.of(2026, 10, 18, 10, 30, 15, 123456000);
+
+    private static final CategoriaDto ELETRONICOS = new CategoriaDto(1L, "Eletrônicos");
+
+    private static final SubcategoriaDetalhesDto SMARTPHONES =
+        new SubcategoriaDetalhesDto(10L, "Smartphones", "Telefones celulares", ELETRONICOS);
+
+    @InjectMocks
+    private ProdutoEtagServiceImpl etagService;
+
+    @Mock
+    private ProdutoRepository repository;
+
+    @Mock
+    private CategoriaArvoreService arvoreService;
+
+    private static ProdutoDetalhesDto produto(int estoque, LocalDateTime dataModificacao) {
+        return new ProdutoDetalhesDto(5L, 123L, "Smartphone", "Smartphone 128GB", BigDecimal.TEN, estoque,
+            BigDecimal.ONE, null, MODIFICACAO, dataModificacao, true, ELETRONICOS,
+            new SubcategoriaDto(10L, "Smartphones", "Telefones celulares"));
+    }
+
+    private static ProdutoDto produtoDto(int estoque) {
+        return new ProdutoDto(5L, "Smartphone", "Smartphone 128GB", BigDecimal.TEN, estoque, BigDecimal.ONE, null,
+            MODIFICACAO, MODIFICACAO, true);
+    }
+
+    private void dadoVersao(int estoque) {
+        given(repository.findProdutoVersaoDtoById(5L)).willReturn(
+            Optional.of(new ProdutoVersaoDto(5L, estoque, MODIFICACAO, 1L, 10L)));
+        given(arvoreService.consultarCategoria(1L)).willReturn(Optional.of(ELETRONICOS));
+        given(arvoreService.consultarSubcategoria(10L)).willReturn(Optional.of(SMARTPHONES));
+    }
+
+    @Test
+    void consultarEtagIgualAEtagDoProdutoComOsMesmosCampos() {
+        dadoVersao(7);
+
+        final var sut = etagService.consultarEtag(5L);
+
+        BDDAssertions
+            .then(sut)
+            .contains(etagService.gerarEtag(produto(7, MODIFICACAO)))
+            .hasValueSatisfying(e -> BDDAssertions
+                .then(e)
+                .startsWith("\"5-7-"));
+    }
+
+    @Test
+    void consultarEtagMudaComOEstoqueEComADataDeModificacao() {
+        dadoVersao(6);
+
+        final var sut = etagService.consultarEtag(5L);
+
+        BDDAssertions
+            .then(sut)
+            .isPresent()
+            .isNotEqualTo(Optional.of(etagService.gerarEtag(produto(7, MODIFICACAO))));
+        BDDAssertions
+            .then(etagService.gerarEtag(produto(6, MODIFICACAO.plusSeconds(1))))
+            .isNotEqualTo(sut.orElseThrow());
+    }
+
+    @Test
+    void consultarEtagDeProdutoInexistenteRetornaVazio() {
+        given(repository.findProdutoVersaoDtoById(5L)).willReturn(Optional.empty());
+
+        final var sut = etagService.consultarEtag(5L);
+
+        BDDAssertions
+            .then(sut)
+            .isEmpty();
+    }
+
+    @Test
+    void gerarEtagProdutosRetornaEtagFracaDaPaginaSemConsultarORepositorio() {
+        final var pagina = new PageImpl<>(List.of(produtoDto(7)), PageRequest.of(0, 10), 1);
+
+        final var sut = etagService.gerarEtagProdutos("categoria-1", pagina);
+
+        BDDAssertions
+            .then(sut)
+            .startsWith("W/\"categoria-1-0-10-1-")
+            .isEqualTo(etagService.gerarEtagProdutos("categoria-1", pagina));
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void gerarEtagProdutosMudaComOConteudoDaPagina() {
+        final var sut = etagService.gerarEtagProdutos("produtos",
+            new PageImpl<>(List.of(produtoDto(7)), PageRequest.of(0, 10), 1));
+
+        BDDAssertions
+            .then(sut)
+            .isNotEqualTo(etagService.gerarEtagProdutos("produtos",
+                new PageImpl<>(List.of(produtoDto(6)), PageRequest.of(0, 10), 1)));
+    }
+
+}
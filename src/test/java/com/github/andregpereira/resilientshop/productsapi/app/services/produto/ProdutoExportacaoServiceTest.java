@@ -0,0 +1,121 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoExportacaoServiceTest {
+
+    private static final LocalDateTime DATA = LocalDateTime.of(2024, 1, 31, 10, 15);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private ProdutoRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ProdutoExportacaoServiceImpl exportacaoService;
+
+    @BeforeEach
+    void beforeEach() {
+        exportacaoService = new ProdutoExportacaoServiceImpl(repository, transactionManager, objectMapper);
+    }
+
+    private static ProdutoDto produto(long id) {
+        return new ProdutoDto(id, "Produto " + id, "Descrição", BigDecimal.TEN, 5, BigDecimal.ONE, null, DATA,
+            DATA, true);
+    }
+
+    @Test
+    void exportarEscreveUmProdutoPorLinhaEmOrdem() throws IOException {
+        AtomicBoolean fechado = new AtomicBoolean();
+        given(repository.streamProdutoDto()).willReturn(Stream
+            .of(produto(1), produto(2))
+            .onClose(() -> fechado.set(true)));
+        ByteArrayOutputStream saida = new ByteArrayOutputStream();
+
+        final var sut = exportacaoService.exportar(null, saida);
+
+        String[] linhas = saida
+            .toString(StandardCharsets.UTF_8)
+            .split("\n");
+        BDDAssertions
+            .then(sut)
+            .isEqualTo(2);
+        BDDAssertions
+            .then(linhas)
+            .hasSize(2);
+        BDDAssertions
+            .then(objectMapper.readValue(linhas[1], ProdutoDto.class))
+            .isEqualTo(produto(2));
+        BDDAssertions
+            .then(saida.toString(StandardCharsets.UTF_8))
+            .endsWith("}\n");
+        BDDAssertions
+            .then(fechado)
+            .isTrue();
+    }
+
+    @Test
+    void exportarComModificadoDesdeConsultaApenasOsProdutosModificados() throws IOException {
+        given(repository.streamProdutoDtoModificadosDesde(DATA)).willReturn(Stream.of(produto(3)));
+
+        final var sut = exportacaoService.exportar(DATA, new ByteArrayOutputStream());
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo(1);
+        then(repository)
+            .should()
+            .streamProdutoDtoModificadosDesde(DATA);
+    }
+
+    @Test
+    void exportarComErroNaEscritaInterrompeAExportacaoEFechaOCursor() {
+        AtomicBoolean fechado = new AtomicBoolean();
+        given(repository.streamProdutoDto()).willReturn(IntStream
+            .rangeClosed(1, ProdutoExportacaoServiceImpl.LINHAS_POR_DESCARGA * 3)
+            .mapToObj(ProdutoExportacaoServiceTest::produto)
+            .onClose(() -> fechado.set(true)));
+        OutputStream saida = new OutputStream() {
+
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("Conexão encerrada pelo cliente");
+            }
+
+        };
+
+        assertThatThrownBy(() -> exportacaoService.exportar(null, saida))
+            .isInstanceOf(IOException.class)
+            .hasMessage("Conexão encerrada pelo cliente");
+        BDDAssertions
+            .then(fechado)
+            .isTrue();
+    }
+
+}
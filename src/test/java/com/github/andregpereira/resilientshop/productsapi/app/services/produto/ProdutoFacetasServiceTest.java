@@ -0,0 +1,182 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.FiltroProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFacetaDto;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.FacetasProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoFacetasServiceTest {
+
+    private static final FiltroProdutoDto ATIVOS = new FiltroProdutoDto(null, null, null, null, null, null, true);
+
+    @Mock
+    private ProdutoRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProdutoFacetasServiceImpl facetasService;
+
+    @BeforeEach
+    void beforeEach() {
+        facetasService = new ProdutoFacetasServiceImpl(
+            repository,
+            transactionManager,
+            new FacetasProperties(List.of(BigDecimal.valueOf(50)), Duration.ofHours(1)),
+            meterRegistry
+        );
+    }
+
+    @AfterEach
+    void afterEach() {
+        facetasService.encerrar();
+    }
+
+    @Test
+    void filtrarAposCargaHidrataApenasAPaginaEContaAsFacetas() {
+        given(repository.streamFacetas()).willReturn(Stream.of(
+            faceta(1L, 10, "20.00", 5, true),
+            faceta(2L, 10, "80.00", 0, true),
+            faceta(3L, 20, "30.00", 1, true),
+            faceta(4L, 20, "30.00", 1, false)
+        ));
+        given(repository.findAllProdutoDtoByIdIn(anyCollection())).willReturn(List.of(produtoDto(3L)));
+        facetasService.carregar();
+
+        final var sut = facetasService.filtrar(ATIVOS, PageRequest.of(1, 2));
+
+        BDDAssertions
+            .then(sut
+                .produtos()
+                .getContent())
+            .extracting(ProdutoDto::id)
+            .containsExactly(3L);
+        BDDAssertions
+            .then(sut
+                .produtos()
+                .getTotalElements())
+            .isEqualTo(3);
+        BDDAssertions
+            .then(sut
+                .facetas()
+                .categorias())
+            .containsEntry(10L, 2L)
+            .containsEntry(20L, 1L);
+        BDDAssertions
+            .then(sut
+                .facetas()
+                .faixasPreco())
+            .containsEntry("0-50", 2L)
+            .containsEntry("50+", 1L);
+        then(repository)
+            .should()
+            .findAllProdutoDtoByIdIn(List.of(3L));
+        BDDAssertions
+            .then(meterRegistry
+                .get("produtos.facetas.produtos")
+                .gauge()
+                .value())
+            .isEqualTo(4);
+    }
+
+    @Test
+    void aoAlterarEstoqueReleOsProdutosAlterados() {
+        given(repository.streamFacetas()).willReturn(Stream.of(faceta(1L, 10, "20.00", 5, true)));
+        facetasService.carregar();
+        given(repository.findAllProdutoFacetaDtoByIdIn(anyCollection())).willReturn(List.of(
+            faceta(1L, 10, "20.00", 0, true)
+        ));
+
+        facetasService.aoAlterarEstoque(new EstoqueAlteradoEvento(Set.of(1L)));
+
+        BDDAssertions
+            .then(facetasService
+                .filtrar(new FiltroProdutoDto(null, null, null, null, null, true, null), PageRequest.of(0, 10))
+                .produtos()
+                .getTotalElements())
+            .isZero();
+    }
+
+    @Test
+    void aoAlterarRemoveProdutosNaoEncontrados() {
+        given(repository.streamFacetas()).willReturn(Stream.of(faceta(1L, 10, "20.00", 5, true)));
+        facetasService.carregar();
+        given(repository.findAllProdutoFacetaDtoByIdIn(anyCollection())).willReturn(List.of());
+
+        facetasService.aoAlterar(new ProdutoAlteradoEvento(1L, "Café Coado", null, true));
+
+        BDDAssertions
+            .then(meterRegistry
+                .get("produtos.facetas.produtos")
+                .gauge()
+                .value())
+            .isZero();
+    }
+
+    @Test
+    void aoAlterarDuranteAReconstrucaoReleOProdutoNoNovoIndice() {
+        given(repository.streamFacetas()).willAnswer(i -> {
+            facetasService.aoAlterar(new ProdutoAlteradoEvento(2L, "Chá Verde", null, true));
+            return Stream.of(faceta(1L, 10, "20.00", 5, true));
+        });
+        given(repository.findAllProdutoFacetaDtoByIdIn(anyCollection())).willReturn(List.of(
+            faceta(2L, 20, "10.00", 3, true)
+        ));
+
+        facetasService.carregar();
+
+        BDDAssertions
+            .then(facetasService
+                .filtrar(ATIVOS, PageRequest.of(0, 10))
+                .facetas()
+                .categorias())
+            .containsEntry(10L, 1L)
+            .containsEntry(20L, 1L);
+        then(repository)
+            .should(times(2))
+            .findAllProdutoFacetaDtoByIdIn(Set.of(2L));
+    }
+
+    private static ProdutoFacetaDto faceta(
+        Long id,
+        long categoriaId,
+        String valorUnitario,
+        int estoque,
+        boolean ativo
+    ) {
+        return new ProdutoFacetaDto(id, categoriaId, null, new BigDecimal(valorUnitario), BigDecimal.valueOf(4),
+            estoque, ativo);
+    }
+
+    private static ProdutoDto produtoDto(Long id) {
+        return new ProdutoDto(id, "Produto " + id, "Descrição", BigDecimal.TEN, 1, BigDecimal.valueOf(4),
+            null, LocalDateTime.now(), LocalDateTime.now(), true);
+    }
+
+}
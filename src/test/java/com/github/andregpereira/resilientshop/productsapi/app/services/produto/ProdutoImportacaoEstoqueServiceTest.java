@@ -0,0 +1,152 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.DefinicaoEstoquesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoImportacaoEstoqueService.Formato;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.ImportacaoEstoqueProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.inOrder;
+import static org.mockito.BDDMockito.never;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoImportacaoEstoqueServiceTest {
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProdutoImportacaoEstoqueServiceImpl importacaoService;
+
+    @BeforeEach
+    void beforeEach() {
+        importacaoService = new ProdutoImportacaoEstoqueServiceImpl(
+            produtoRepository,
+            transactionManager,
+            eventPublisher,
+            new ImportacaoEstoqueProperties(2, 1),
+            new ObjectMapper(),
+            meterRegistry
+        );
+    }
+
+    @Test
+    void importarCsvAplicaLinhasEmLotesEPublicaEventoPorLote() throws IOException {
+        given(produtoRepository.definirEstoquesPorSku(anyMap()))
+            .willReturn(new DefinicaoEstoquesDto(Set.of(1L, 2L), Set.of()))
+            .willReturn(new DefinicaoEstoquesDto(Set.of(3L), Set.of()));
+
+        final var sut = importacaoService.importar(new StringReader("""
+            sku,estoque
+            100,5
+            200;0
+
+            300, 7
+            """), Formato.CSV);
+
+        final var inOrder = inOrder(produtoRepository);
+        then(produtoRepository)
+            .should(inOrder)
+            .definirEstoquesPorSku(Map.of(100L, 5, 200L, 0));
+        then(produtoRepository)
+            .should(inOrder)
+            .definirEstoquesPorSku(Map.of(300L, 7));
+        then(eventPublisher)
+            .should()
+            .publishEvent(new EstoqueAlteradoEvento(Set.of(1L, 2L)));
+        then(eventPublisher)
+            .should()
+            .publishEvent(new EstoqueAlteradoEvento(Set.of(3L)));
+        BDDAssertions
+            .then(sut.linhasProcessadas())
+            .isEqualTo(3);
+        BDDAssertions
+            .then(sut.lotes())
+            .isEqualTo(2);
+        BDDAssertions
+            .then(sut.duracaoLotesMs())
+            .hasSize(2);
+        BDDAssertions
+            .then(meterRegistry
+                .get("produtos.estoque.importacao.linhas")
+                .counter()
+                .count())
+            .isEqualTo(3);
+    }
+
+    @Test
+    void importarNdjsonIgnoraLinhasInvalidas() throws IOException {
+        given(produtoRepository.definirEstoquesPorSku(anyMap())).willReturn(
+            new DefinicaoEstoquesDto(Set.of(1L), Set.of()));
+
+        final var sut = importacaoService.importar(new StringReader("""
+            {"sku": 100, "estoque": 5}
+            {"sku": 200, "estoque": -1}
+            {"sku": "abc", "estoque": 1}
+            nao e json
+            """), Formato.NDJSON);
+
+        then(produtoRepository)
+            .should()
+            .definirEstoquesPorSku(Map.of(100L, 5));
+        BDDAssertions
+            .then(sut.linhasProcessadas())
+            .isEqualTo(1);
+        BDDAssertions
+            .then(sut.linhasInvalidas())
+            .isEqualTo(3);
+    }
+
+    @Test
+    void importarComSkusInexistentesRetornaQuantidadeEAmostra() throws IOException {
+        given(produtoRepository.definirEstoquesPorSku(anyMap())).willReturn(
+            new DefinicaoEstoquesDto(Set.of(), Set.of(100L, 200L)));
+
+        final var sut = importacaoService.importar(new StringReader("100,1\n200,2\n"), Formato.CSV);
+
+        BDDAssertions
+            .then(sut.skusNaoEncontrados())
+            .isEqualTo(2);
+        BDDAssertions
+            .then(sut.amostraSkusNaoEncontrados())
+            .hasSize(1);
+        then(eventPublisher).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void importarArquivoVazioNaoAplicaLotes() throws IOException {
+        final var sut = importacaoService.importar(new StringReader("sku,estoque\n"), Formato.CSV);
+
+        then(produtoRepository)
+            .should(never())
+            .definirEstoquesPorSku(anyMap());
+        BDDAssertions
+            .then(sut.lotes())
+            .isZero();
+    }
+
+}
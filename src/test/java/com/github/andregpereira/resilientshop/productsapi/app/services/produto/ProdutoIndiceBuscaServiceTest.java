@@ -0,0 +1,172 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoTextoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.invalidacao.DadosAlteradosEvento;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.never;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoIndiceBuscaServiceTest {
+
+    @Mock
+    private ProdutoRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProdutoIndiceBuscaServiceImpl indiceBuscaService;
+
+    @BeforeEach
+    void beforeEach() {
+        indiceBuscaService = new ProdutoIndiceBuscaServiceImpl(repository, transactionManager, meterRegistry);
+    }
+
+    @Test
+    void buscarAntesDaCargaConsultaRepository() {
+        given(repository.buscarPorNome(anyString(), any(Pageable.class))).willReturn(Page.empty());
+
+        indiceBuscaService.buscar("cafe", PageRequest.of(0, 10));
+
+        then(repository)
+            .should()
+            .buscarPorNome("cafe", PageRequest.of(0, 10));
+    }
+
+    @Test
+    void buscarAposCargaHidrataApenasAPaginaEmOrdemDeId() {
+        given(repository.streamTextosAtivos()).willReturn(Stream.of(
+            new ProdutoTextoDto(1L, "Café Coado", null),
+            new ProdutoTextoDto(2L, "Caneca", "Para café"),
+            new ProdutoTextoDto(3L, "Café Solúvel", "Pote")
+        ));
+        given(repository.findAllProdutoDtoByIdIn(anyCollection())).willReturn(List.of(
+            produtoDto(3L),
+            produtoDto(2L)
+        ));
+        indiceBuscaService.carregar();
+
+        final var sut = indiceBuscaService.buscar("CAFE", PageRequest.of(1, 2));
+
+        BDDAssertions
+            .then(sut.getContent())
+            .extracting(ProdutoDto::id)
+            .containsExactly(3L);
+        BDDAssertions
+            .then(sut.getTotalElements())
+            .isEqualTo(3);
+        then(repository)
+            .should()
+            .findAllProdutoDtoByIdIn(List.of(3L));
+        then(repository)
+            .should(never())
+            .buscarPorNome(anyString(), any(Pageable.class));
+        BDDAssertions
+            .then(meterRegistry
+                .get("produtos.busca.indice.documentos")
+                .gauge()
+                .value())
+            .isEqualTo(3);
+    }
+
+    @Test
+    void buscarSemContagemIndicaProximaPagina() {
+        given(repository.streamTextosAtivos()).willReturn(Stream.of(
+            new ProdutoTextoDto(1L, "Café Coado", null),
+            new ProdutoTextoDto(2L, "Café Solúvel", null)
+        ));
+        given(repository.findAllProdutoDtoByIdIn(anyCollection())).willReturn(List.of(produtoDto(1L)));
+        indiceBuscaService.carregar();
+
+        final var sut = indiceBuscaService.buscarSemContagem("cafe", PageRequest.of(0, 1));
+
+        BDDAssertions
+            .then(sut.getContent())
+            .extracting(ProdutoDto::id)
+            .containsExactly(1L);
+        BDDAssertions
+            .then(sut.hasNext())
+            .isTrue();
+        then(repository)
+            .should()
+            .findAllProdutoDtoByIdIn(List.of(1L));
+    }
+
+    @Test
+    void aoAlterarDuranteACargaAplicaAlteracaoAoFinal() {
+        given(repository.streamTextosAtivos()).willAnswer(i -> {
+            indiceBuscaService.aoAlterar(new ProdutoAlteradoEvento(1L, "Café Coado", null, false));
+            return Stream.of(new ProdutoTextoDto(1L, "Café Coado", null));
+        });
+        indiceBuscaService.carregar();
+
+        indiceBuscaService.aoAlterar(new ProdutoAlteradoEvento(2L, "Chá Verde", "Folhas", true));
+
+        BDDAssertions
+            .then(indiceBuscaService
+                .buscar("cafe", PageRequest.of(0, 10))
+                .getTotalElements())
+            .isZero();
+        given(repository.findAllProdutoDtoByIdIn(anyCollection())).willReturn(List.of(produtoDto(2L)));
+        BDDAssertions
+            .then(indiceBuscaService
+                .buscar("folhas", PageRequest.of(0, 10))
+                .getContent())
+            .extracting(ProdutoDto::id)
+            .containsExactly(2L);
+    }
+
+    @Test
+    void aoAlterarDadosRecarregaOIndiceSemOsProdutosRemovidos() {
+        given(repository.streamTextosAtivos()).willReturn(
+            Stream.of(new ProdutoTextoDto(1L, "Café Coado", null), new ProdutoTextoDto(2L, "Café Solúvel", null)),
+            Stream.of(new ProdutoTextoDto(2L, "Café Solúvel", null)));
+        indiceBuscaService.carregar();
+
+        indiceBuscaService.aoAlterarDados(new DadosAlteradosEvento());
+
+        BDDAssertions
+            .then(meterRegistry
+                .get("produtos.busca.indice.documentos")
+                .gauge()
+                .value())
+            .isEqualTo(1);
+        given(repository.findAllProdutoDtoByIdIn(anyCollection())).willReturn(List.of(produtoDto(2L)));
+        BDDAssertions
+            .then(indiceBuscaService
+                .buscar("cafe", PageRequest.of(0, 10))
+                .getContent())
+            .extracting(ProdutoDto::id)
+            .containsExactly(2L);
+    }
+
+    private static ProdutoDto produtoDto(Long id) {
+        return new ProdutoDto(id, "Produto " + id, "Descrição", BigDecimal.TEN, 10, BigDecimal.ONE, "url",
+            LocalDateTime.now(), null, true);
+    }
+
+}
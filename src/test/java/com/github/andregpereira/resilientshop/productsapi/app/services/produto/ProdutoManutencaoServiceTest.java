@@ -1,11 +1,20 @@
 package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizacaoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoRegistroDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ResultadoEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ResultadoEstoqueDto.SituacaoEstoque;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaArvoreService;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.CategoriaNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoAlreadyExistsException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.CategoriaMapper;
 import com.github.andregpereira.resilientshop.productsapi.cross.mappers.ProdutoMapper;
+import com.github.andregpereira.resilientshop.productsapi.cross.mappers.SubcategoriaMapper;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.CategoriaRepository;
 import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
@@ -17,11 +26,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
 
 import java.text.MessageFormat;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.CategoriaMockFactory.getCategoriaDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.CategoriaMockFactory.getCategoriaEntity;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoAtualizacaoDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoAtualizarEstoqueDto;
@@ -29,12 +43,18 @@ import static com.github.andregpereira.resilientshop.productsapi.util.mock.facto
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoEntity;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoRegistroDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.jsonInvalido;
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.SubcategoriaMockFactory.getSubcategoriaDetalhesDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.SubcategoriaMockFactory.getSubcategoriaEntity;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.any;
+import static org.mockito.BDDMockito.anyCollection;
+import static org.mockito.BDDMockito.anyList;
 import static org.mockito.BDDMockito.anyLong;
+import static org.mockito.BDDMockito.anyMap;
 import static org.mockito.BDDMockito.anyString;
+import static org.mockito.BDDMockito.argThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.inOrder;
 import static org.mockito.BDDMockito.never;
 import static org.mockito.BDDMockito.then;
 
@@ -56,6 +76,18 @@ class ProdutoManutencaoServiceTest {
     @Mock
     private CategoriaRepository categoriaRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CategoriaArvoreService arvoreService;
+
+    @Mock
+    private CategoriaMapper categoriaMapper;
+
+    @Mock
+    private SubcategoriaMapper subcategoriaMapper;
+
     @Test
     void criarProdutoComDadosValidosRetornaProdutoDetalhesDto() {
         given(produtoRepository.existsBySku(anyLong())).willReturn(false);
@@ -76,6 +108,56 @@ class ProdutoManutencaoServiceTest {
             .save(any(ProdutoEntity.class));
     }
 
+    @Test
+    void criarProdutoComCategoriaEmMemoriaNaoConsultaCategoriasNoBanco() {
+        final var produto = getProdutoEntity();
+        final var categoria = getCategoriaEntity();
+        final var subcategoria = getSubcategoriaEntity();
+        given(produtoRepository.existsBySku(anyLong())).willReturn(false);
+        given(produtoRepository.existsByNome(anyString())).willReturn(false);
+        given(mapper.toProduto(any(ProdutoRegistroDto.class))).willReturn(produto);
+        given(arvoreService.consultarCategoria(anyLong())).willReturn(Optional.of(getCategoriaDto()));
+        given(categoriaMapper.toCategoria(any(CategoriaDto.class))).willReturn(categoria);
+        given(arvoreService.consultarSubcategoria(anyLong())).willReturn(Optional.of(getSubcategoriaDetalhesDto()));
+        given(subcategoriaMapper.toSubcategoria(any(SubcategoriaDetalhesDto.class))).willReturn(subcategoria);
+        given(produtoRepository.save(any(ProdutoEntity.class))).willReturn(produto);
+        given(mapper.toProdutoDetalhesDto(any(ProdutoEntity.class))).willReturn(getProdutoDetalhesDto());
+
+        final var sut = manutencaoService.criar(getProdutoRegistroDto());
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo(getProdutoDetalhesDto());
+        BDDAssertions
+            .then(produto.getCategoria())
+            .isSameAs(categoria);
+        BDDAssertions
+            .then(produto.getSubcategoria())
+            .isSameAs(subcategoria);
+        then(categoriaRepository).shouldHaveNoInteractions();
+        then(subcategoriaRepository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void criarProdutoRegistraMovimentoInicial() {
+        final var produto = getProdutoEntity();
+        given(produtoRepository.existsBySku(anyLong())).willReturn(false);
+        given(produtoRepository.existsByNome(anyString())).willReturn(false);
+        given(mapper.toProduto(any(ProdutoRegistroDto.class))).willReturn(produto);
+        given(categoriaRepository.findById(anyLong())).willReturn(Optional.of(getCategoriaEntity()));
+        given(produtoRepository.save(any(ProdutoEntity.class))).willReturn(produto);
+
+        manutencaoService.criar(getProdutoRegistroDto());
+
+        then(produtoRepository)
+            .should()
+            .registrarMovimentos(argThat(movimentos -> movimentos.size() == 1 && movimentos
+                .getFirst()
+                .getCausa() == Causa.INICIAL && movimentos
+                .getFirst()
+                .getEstoqueResultante() == produto.getEstoque()));
+    }
+
     @Test
     void criarProdutoComDadosValidosSemSubcategoriaRetornaProdutoDetalhesDto() {
         final var mock = getProdutoRegistroDto();
@@ -208,6 +290,87 @@ class ProdutoManutencaoServiceTest {
             .save(any(ProdutoEntity.class));
     }
 
+    @Test
+    void atualizarProdutoComEstoqueFragmentadoRedistribuiEstoqueEntreOsFragmentos() {
+        final var produto = getProdutoEntity();
+        produto.setEstoqueFragmentado(true);
+        final var dto = getProdutoAtualizacaoDto();
+        given(produtoRepository.findById(anyLong())).willReturn(Optional.of(produto));
+        given(produtoRepository.existsByNome(anyString())).willReturn(false);
+        given(categoriaRepository.findById(anyLong())).willReturn(Optional.of(getCategoriaEntity()));
+        given(subcategoriaRepository.findById(anyLong())).willReturn(Optional.of(getSubcategoriaEntity()));
+        given(produtoRepository.bloquearFragmentos(1L)).willReturn(List.of(3, 4, 5, 6));
+        given(produtoRepository.save(any(ProdutoEntity.class))).willReturn(produto);
+        given(mapper.toProdutoDetalhesDto(any(ProdutoEntity.class))).willReturn(getProdutoDetalhesDto());
+
+        manutencaoService.atualizar(1L, dto);
+
+        then(produtoRepository)
+            .should()
+            .distribuirFragmentos(1L, 4, dto.estoque());
+        BDDAssertions
+            .then(produto.getEstoque())
+            .isEqualTo(getProdutoEntity().getEstoque());
+    }
+
+    @Test
+    void atualizarProdutoComEstoqueAlteradoRegistraMovimentoDeAjuste() {
+        final var produto = getProdutoEntity();
+        final var mock = getProdutoAtualizacaoDto();
+        final var dto = new ProdutoAtualizacaoDto(
+            mock.nome(),
+            mock.descricao(),
+            mock.valorUnitario(),
+            produto.getEstoque() + 5,
+            mock.imageUrl(),
+            mock.ativo(),
+            mock.categoriaId(),
+            null
+        );
+        given(produtoRepository.findById(anyLong())).willReturn(Optional.of(produto));
+        given(produtoRepository.existsByNome(anyString())).willReturn(false);
+        given(categoriaRepository.findById(anyLong())).willReturn(Optional.of(getCategoriaEntity()));
+        given(produtoRepository.save(any(ProdutoEntity.class))).willReturn(produto);
+
+        manutencaoService.atualizar(1L, dto);
+
+        then(produtoRepository)
+            .should()
+            .registrarMovimentos(argThat(movimentos -> movimentos.size() == 1 && movimentos
+                .getFirst()
+                .getCausa() == Causa.AJUSTE && movimentos
+                .getFirst()
+                .getVariacao() == 5 && movimentos
+                .getFirst()
+                .getEstoqueResultante() == dto.estoque()));
+    }
+
+    @Test
+    void atualizarProdutoComEstoqueInalteradoNaoRegistraMovimento() {
+        final var produto = getProdutoEntity();
+        final var mock = getProdutoAtualizacaoDto();
+        final var dto = new ProdutoAtualizacaoDto(
+            mock.nome(),
+            mock.descricao(),
+            mock.valorUnitario(),
+            produto.getEstoque(),
+            mock.imageUrl(),
+            mock.ativo(),
+            mock.categoriaId(),
+            null
+        );
+        given(produtoRepository.findById(anyLong())).willReturn(Optional.of(produto));
+        given(produtoRepository.existsByNome(anyString())).willReturn(false);
+        given(categoriaRepository.findById(anyLong())).willReturn(Optional.of(getCategoriaEntity()));
+        given(produtoRepository.save(any(ProdutoEntity.class))).willReturn(produto);
+
+        manutencaoService.atualizar(1L, dto);
+
+        then(produtoRepository)
+            .should(never())
+            .registrarMovimentos(anyList());
+    }
+
     @Test
     void atualizarProdutoComDadosValidosSemSubcategoriaRetornaProdutoDetalhesDto() {
         final var mock = getProdutoAtualizacaoDto();
@@ -321,6 +484,9 @@ class ProdutoManutencaoServiceTest {
         then(produtoRepository)
             .should()
             .save(any(ProdutoEntity.class));
+        then(eventPublisher)
+            .should()
+            .publishEvent(argThat((Object e) -> e instanceof ProdutoAlteradoEvento evento && !evento.ativo()));
     }
 
     @Test
@@ -335,6 +501,7 @@ class ProdutoManutencaoServiceTest {
         then(produtoRepository)
             .should(never())
             .save(any(ProdutoEntity.class));
+        then(eventPublisher).shouldHaveNoInteractions();
     }
 
     @Test
@@ -352,6 +519,9 @@ class ProdutoManutencaoServiceTest {
         then(produtoRepository)
             .should()
             .save(any(ProdutoEntity.class));
+        then(eventPublisher)
+            .should()
+            .publishEvent(argThat((Object e) -> e instanceof ProdutoAlteradoEvento evento && evento.ativo()));
     }
 
     @Test
@@ -370,20 +540,111 @@ class ProdutoManutencaoServiceTest {
 
     @Test
     void subtrairProdutosComIdsExistentes() {
-        given(produtoRepository.findById(anyLong())).willReturn(Optional.of(getProdutoEntity()));
+        given(produtoRepository.subtrairEstoque(anyMap())).willReturn(Set.of());
 
         manutencaoService.subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto()));
 
         then(produtoRepository)
             .should()
+            .subtrairEstoque(Map.of(1L, 2));
+        then(produtoRepository)
+            .should(never())
             .findById(anyLong());
         then(produtoRepository)
-            .should()
+            .should(never())
             .save(any(ProdutoEntity.class));
     }
 
+    @Test
+    void subtrairProdutosRegistraMovimentosComVariacaoNegativa() {
+        given(produtoRepository.subtrairEstoque(anyMap())).willReturn(Set.of());
+
+        manutencaoService.subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto()));
+
+        then(produtoRepository)
+            .should()
+            .registrarMovimentos(Map.of(1L, -2), Causa.SUBTRACAO);
+        then(eventPublisher)
+            .should()
+            .publishEvent(new EstoqueAlteradoEvento(Set.of(1L)));
+    }
+
+    @Test
+    void subtrairProdutosComCausaRegistraMovimentosComACausa() {
+        given(produtoRepository.subtrairEstoque(anyMap())).willReturn(Set.of());
+
+        manutencaoService.subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto()), Causa.CONFIRMACAO_RESERVA);
+
+        then(produtoRepository)
+            .should()
+            .registrarMovimentos(Map.of(1L, -2), Causa.CONFIRMACAO_RESERVA);
+    }
+
+    @Test
+    void subtrairProdutosComEstoqueInsuficienteNaoRegistraMovimentos() {
+        given(produtoRepository.subtrairEstoque(anyMap())).willReturn(Set.of(1L));
+        given(produtoRepository.findById(1L)).willReturn(Optional.of(getProdutoEntity()));
+
+        final ThrowingCallable sut = () -> manutencaoService.subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto()));
+
+        assertThatThrownBy(sut).isInstanceOf(ProdutoNotFoundException.class);
+        then(produtoRepository)
+            .should(never())
+            .registrarMovimentos(anyMap(), any(Causa.class));
+        then(eventPublisher).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void subtrairProdutosComIdsRepetidosSomaQuantidades() {
+        given(produtoRepository.subtrairEstoque(anyMap())).willReturn(Set.of());
+
+        manutencaoService.subtrairEstoque(Set.of(
+            new ProdutoAtualizarEstoqueDto(1L, 2),
+            new ProdutoAtualizarEstoqueDto(1L, 3),
+            new ProdutoAtualizarEstoqueDto(2L, 1)
+        ));
+
+        then(produtoRepository)
+            .should()
+            .subtrairEstoque(Map.of(1L, 5, 2L, 1));
+    }
+
+    @Test
+    void subtrairProdutosBloqueiaProdutosEmOrdemDeIdAntesDoLote() {
+        given(produtoRepository.subtrairEstoque(anyMap())).willReturn(Set.of());
+
+        manutencaoService.subtrairEstoque(Set.of(
+            new ProdutoAtualizarEstoqueDto(3L, 1),
+            new ProdutoAtualizarEstoqueDto(1L, 1),
+            new ProdutoAtualizarEstoqueDto(2L, 1)
+        ));
+
+        final var inOrder = inOrder(produtoRepository);
+        then(produtoRepository)
+            .should(inOrder)
+            .bloquearProdutos(argThat(ids -> List
+                .copyOf(ids)
+                .equals(List.of(1L, 2L, 3L))));
+        then(produtoRepository)
+            .should(inOrder)
+            .subtrairEstoque(anyMap());
+    }
+
+    @Test
+    void subtrairProdutosComProdutoBloqueadoThrowsExceptionSemAplicarLote() {
+        given(produtoRepository.bloquearProdutos(anyCollection())).willThrow(CannotAcquireLockException.class);
+
+        final ThrowingCallable sut = () -> manutencaoService.subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto()));
+
+        assertThatThrownBy(sut).isInstanceOf(CannotAcquireLockException.class);
+        then(produtoRepository)
+            .should(never())
+            .subtrairEstoque(anyMap());
+    }
+
     @Test
     void subtrairProdutosComIdsInexistentesThrowsException() {
+        given(produtoRepository.subtrairEstoque(anyMap())).willReturn(Set.of(1L));
         given(produtoRepository.findById(anyLong())).willReturn(Optional.empty());
 
         final ThrowingCallable sut = () -> manutencaoService.subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto()));
@@ -400,6 +661,7 @@ class ProdutoManutencaoServiceTest {
     void subtrairProdutosComEstoqueInsuficienteThrowsException() {
         final var produto = getProdutoEntity();
         produto.setEstoque(0);
+        given(produtoRepository.subtrairEstoque(anyMap())).willReturn(Set.of(1L));
         given(produtoRepository.findById(anyLong())).willReturn(Optional.of(produto));
 
         final ThrowingCallable sut = () -> manutencaoService.subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto()));
@@ -414,21 +676,21 @@ class ProdutoManutencaoServiceTest {
 
     @Test
     void retornarProdutosComIdsExistentes() {
-        given(produtoRepository.findById(anyLong())).willReturn(Optional.of(getProdutoEntity()));
+        given(produtoRepository.retornarEstoque(anyMap())).willReturn(Set.of());
 
         manutencaoService.retornarEstoque(Set.of(getProdutoAtualizarEstoqueDto()));
 
         then(produtoRepository)
             .should()
-            .findById(anyLong());
+            .retornarEstoque(Map.of(1L, 2));
         then(produtoRepository)
-            .should()
+            .should(never())
             .save(any(ProdutoEntity.class));
     }
 
     @Test
     void retornarProdutosComIdsInexistentesThrowsException() {
-        given(produtoRepository.findById(anyLong())).willReturn(Optional.empty());
+        given(produtoRepository.retornarEstoque(anyMap())).willReturn(Set.of(1L));
 
         final ThrowingCallable sut = () -> manutencaoService.retornarEstoque(Set.of(getProdutoAtualizarEstoqueDto()));
 
@@ -440,4 +702,79 @@ class ProdutoManutencaoServiceTest {
             .save(any(ProdutoEntity.class));
     }
 
+    @Test
+    void subtrairProdutosParcialmenteAplicaApenasLinhasValidas() {
+        given(produtoRepository.consultarAtivos(anyCollection())).willReturn(Map.of(1L, true, 2L, true, 3L, false));
+        given(produtoRepository.subtrairEstoque(anyMap())).willReturn(Set.of(2L));
+
+        final var sut = manutencaoService.subtrairEstoqueParcial(Set.of(
+            new ProdutoAtualizarEstoqueDto(4L, 1),
+            new ProdutoAtualizarEstoqueDto(3L, 1),
+            new ProdutoAtualizarEstoqueDto(2L, 9),
+            new ProdutoAtualizarEstoqueDto(1L, 2)
+        ));
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(
+                new ResultadoEstoqueDto(1L, 2, SituacaoEstoque.APLICADO),
+                new ResultadoEstoqueDto(2L, 9, SituacaoEstoque.INSUFICIENTE),
+                new ResultadoEstoqueDto(3L, 1, SituacaoEstoque.INATIVO),
+                new ResultadoEstoqueDto(4L, 1, SituacaoEstoque.NAO_ENCONTRADO)
+            );
+        final var inOrder = inOrder(produtoRepository);
+        then(produtoRepository)
+            .should(inOrder)
+            .bloquearProdutos(argThat(ids -> List
+                .copyOf(ids)
+                .equals(List.of(1L, 2L))));
+        then(produtoRepository)
+            .should(inOrder)
+            .subtrairEstoque(Map.of(1L, 2, 2L, 9));
+        then(produtoRepository)
+            .should(inOrder)
+            .registrarMovimentos(Map.of(1L, -2), Causa.SUBTRACAO);
+    }
+
+    @Test
+    void subtrairProdutosParcialmenteSemLinhasValidasNaoAplicaLote() {
+        given(produtoRepository.consultarAtivos(anyCollection())).willReturn(Map.of());
+
+        final var sut = manutencaoService.subtrairEstoqueParcial(Set.of(getProdutoAtualizarEstoqueDto()));
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(new ResultadoEstoqueDto(1L, 2, SituacaoEstoque.NAO_ENCONTRADO));
+        then(produtoRepository)
+            .should(never())
+            .bloquearProdutos(anyCollection());
+        then(produtoRepository)
+            .should(never())
+            .subtrairEstoque(anyMap());
+    }
+
+    @Test
+    void retornarProdutosParcialmenteRetornaEstoqueDeProdutosInativos() {
+        given(produtoRepository.consultarAtivos(anyCollection())).willReturn(Map.of(1L, false));
+        given(produtoRepository.retornarEstoque(anyMap())).willReturn(Set.of());
+
+        final var sut = manutencaoService.retornarEstoqueParcial(Set.of(
+            getProdutoAtualizarEstoqueDto(),
+            new ProdutoAtualizarEstoqueDto(2L, 3)
+        ));
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(
+                new ResultadoEstoqueDto(1L, 2, SituacaoEstoque.APLICADO),
+                new ResultadoEstoqueDto(2L, 3, SituacaoEstoque.NAO_ENCONTRADO)
+            );
+        then(produtoRepository)
+            .should()
+            .retornarEstoque(Map.of(1L, 2));
+        then(produtoRepository)
+            .should()
+            .registrarMovimentos(Map.of(1L, 2), Causa.RETORNO);
+    }
+
 }
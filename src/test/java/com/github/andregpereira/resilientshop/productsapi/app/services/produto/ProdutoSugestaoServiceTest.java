@@ -0,0 +1,113 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.produto;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoResumoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.SugestaoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.SugestaoDto.TipoSugestao;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.SugestoesProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class ProdutoSugestaoServiceTest {
+
+    @Mock
+    private ProdutoRepository repository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ProdutoSugestaoServiceImpl sugestaoService;
+
+    @BeforeEach
+    void beforeEach() {
+        sugestaoService = new ProdutoSugestaoServiceImpl(
+            repository,
+            transactionManager,
+            new SugestoesProperties(3, Duration.ofMillis(50)),
+            meterRegistry
+        );
+    }
+
+    @AfterEach
+    void afterEach() {
+        sugestaoService.encerrar();
+    }
+
+    @Test
+    void sugerirRetornaProdutosECategoriasPorRating() {
+        given(repository.streamResumosAtivos()).willReturn(Stream.of(
+            new ProdutoResumoDto(1L, "Pó de Café", BigDecimal.valueOf(4.2), 10L, "Mercearia"),
+            new ProdutoResumoDto(2L, "Cafeteira Elétrica", BigDecimal.valueOf(4.8), 20L, "Cafés e Chás"),
+            new ProdutoResumoDto(3L, "Caneca", null, 20L, "Cafés e Chás")
+        ));
+        sugestaoService.carregar();
+
+        final var sut = sugestaoService.sugerir("  CAF", 10);
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(
+                new SugestaoDto(TipoSugestao.PRODUTO, 2L, "Cafeteira Elétrica", BigDecimal.valueOf(4.8)),
+                new SugestaoDto(TipoSugestao.CATEGORIA, 20L, "Cafés e Chás", BigDecimal.valueOf(4.8)),
+                new SugestaoDto(TipoSugestao.PRODUTO, 1L, "Pó de Café", BigDecimal.valueOf(4.2))
+            );
+        BDDAssertions
+            .then(sugestaoService.sugerir("de caf", 10))
+            .extracting(SugestaoDto::id)
+            .containsExactly(1L);
+        BDDAssertions
+            .then(meterRegistry
+                .get("produtos.sugestoes.consulta")
+                .timer()
+                .count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void sugerirComPrefixoSemTermosRetornaVazio() {
+        BDDAssertions
+            .then(sugestaoService.sugerir(" - ", 10))
+            .isEmpty();
+    }
+
+    @Test
+    void aoAlterarAgrupaAlteracoesEmUmaReconstrucao() throws InterruptedException {
+        given(repository.streamResumosAtivos()).willAnswer(i -> Stream.of(
+            new ProdutoResumoDto(1L, "Caneca", BigDecimal.ONE, 10L, "Cozinha")));
+
+        sugestaoService.aoAlterar(new ProdutoAlteradoEvento(1L, "Caneca", null, true));
+        sugestaoService.aoAlterar(new ProdutoAlteradoEvento(2L, "Chá", null, true));
+
+        then(repository)
+            .should(timeout(2000))
+            .streamResumosAtivos();
+        Thread.sleep(200);
+        then(repository)
+            .should(times(1))
+            .streamResumosAtivos();
+        BDDAssertions
+            .then(sugestaoService.sugerir("can", 10))
+            .extracting(SugestaoDto::id)
+            .containsExactly(1L);
+    }
+
+}
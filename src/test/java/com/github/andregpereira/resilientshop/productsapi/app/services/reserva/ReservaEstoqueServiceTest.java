@@ -0,0 +1,236 @@
+package com.github.andregpereira.resilientshop.productsapi.app.services.reserva;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizarEstoqueDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.produto.ProdutoManutencaoService;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ProdutoNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.ReservaNotFoundException;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.HashedTimingWheel;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.ReservaProperties;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ReservaEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ProdutoRepository;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.ReservaEstoqueRepository;
+import org.assertj.core.api.BDDAssertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoAtualizarEstoqueDto;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.never;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class ReservaEstoqueServiceTest {
+
+    private static final ReservaProperties PROPERTIES = new ReservaProperties(Duration.ofMinutes(15),
+        Duration.ofSeconds(1), 8, Duration.ofMinutes(1));
+
+    @Mock
+    private ProdutoRepository produtoRepository;
+
+    @Mock
+    private ReservaEstoqueRepository reservaRepository;
+
+    @Mock
+    private ProdutoManutencaoService manutencaoService;
+
+    @Mock
+    private HashedTimingWheel timingWheel;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Captor
+    private ArgumentCaptor<List<ReservaEstoqueEntity>> gravados;
+
+    private ReservaEstoqueServiceImpl reservaService;
+
+    @BeforeEach
+    void beforeEach() {
+        reservaService = new ReservaEstoqueServiceImpl(produtoRepository, reservaRepository, manutencaoService,
+            timingWheel, transactionManager, PROPERTIES);
+    }
+
+    @Test
+    void reservarProdutosComEstoqueDisponivelGravaAReserva() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willReturn(Map.of(1L, 10));
+
+        final var sut = reservaService.reservar(Set.of(getProdutoAtualizarEstoqueDto()));
+
+        BDDAssertions
+            .then(sut.itens())
+            .containsExactly(getProdutoAtualizarEstoqueDto());
+        then(produtoRepository)
+            .should()
+            .bloquearFragmentados(Set.of(1L));
+        then(produtoRepository)
+            .should()
+            .bloquearEstoques(Set.of(1L));
+        then(produtoRepository)
+            .should(never())
+            .consultarEstoques(anyCollection());
+        then(reservaRepository)
+            .should()
+            .saveAll(gravados.capture());
+        then(produtoRepository)
+            .should()
+            .registrarMovimentosReserva(gravados.getValue(), Causa.RESERVA);
+        BDDAssertions
+            .then(gravados.getValue())
+            .singleElement()
+            .satisfies(i -> {
+                BDDAssertions
+                    .then(i.getReservaId())
+                    .isEqualTo(sut.id());
+                BDDAssertions
+                    .then(i.getExpiraEm())
+                    .isEqualTo(sut.expiraEm());
+            });
+        then(timingWheel)
+            .should()
+            .agendar(any(Runnable.class), any(Duration.class));
+        then(manutencaoService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void reservarProdutosComEstoqueJaReservadoThrowsException() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willReturn(Map.of(1L, 3));
+        given(produtoRepository.consultarReservados(anyCollection())).willReturn(Map.of(1L, 2));
+
+        final ThrowingCallable sut = () -> reservaService.reservar(Set.of(getProdutoAtualizarEstoqueDto()));
+
+        assertThatThrownBy(sut)
+            .isInstanceOf(ProdutoNotFoundException.class)
+            .hasMessage("Ops! O produto com id 1 não possui estoque disponível");
+        then(reservaRepository)
+            .should(never())
+            .saveAll(anyList());
+        then(timingWheel).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void reservarProdutosComIdInexistenteThrowsException() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willReturn(Map.of(1L, 2));
+        final var dtos = Set.of(new ProdutoAtualizarEstoqueDto(1L, 2), new ProdutoAtualizarEstoqueDto(2L, 1));
+
+        final ThrowingCallable sut = () -> reservaService.reservar(dtos);
+
+        assertThatThrownBy(sut)
+            .isInstanceOf(ProdutoNotFoundException.class)
+            .hasMessage("Ops! Nenhum produto foi encontrado com o id 2");
+        then(reservaRepository)
+            .should(never())
+            .saveAll(anyList());
+    }
+
+    @Test
+    void confirmarReservaExistenteSubtraiEstoqueERemoveAReserva() {
+        final var id = UUID.randomUUID();
+        final var itens = List.of(new ReservaEstoqueEntity(id, 1L, 2, LocalDateTime.MAX));
+        given(reservaRepository.findAllByReservaIdAndExpiraEmAfter(eq(id), any(LocalDateTime.class))).willReturn(
+            itens);
+
+        reservaService.confirmar(id);
+
+        then(reservaRepository)
+            .should()
+            .deleteAllInBatch(itens);
+        then(manutencaoService)
+            .should()
+            .subtrairEstoque(Set.of(getProdutoAtualizarEstoqueDto()), Causa.CONFIRMACAO_RESERVA);
+    }
+
+    @Test
+    void confirmarReservaInexistenteThrowsException() {
+        final var id = UUID.randomUUID();
+        given(reservaRepository.findAllByReservaIdAndExpiraEmAfter(eq(id), any(LocalDateTime.class))).willReturn(
+            List.of());
+
+        final ThrowingCallable sut = () -> reservaService.confirmar(id);
+
+        assertThatThrownBy(sut)
+            .isInstanceOf(ReservaNotFoundException.class)
+            .hasMessage("Ops! Nenhuma reserva ativa foi encontrada com o id " + id);
+        then(manutencaoService)
+            .should(never())
+            .subtrairEstoque(anySet(), any(Causa.class));
+    }
+
+    @Test
+    void liberarReservaExistenteRemoveAReservaSemAlterarEstoque() {
+        final var id = UUID.randomUUID();
+        final var itens = List.of(new ReservaEstoqueEntity(id, 1L, 2, LocalDateTime.MAX));
+        given(reservaRepository.findAllByReservaIdAndExpiraEmAfter(eq(id), any(LocalDateTime.class))).willReturn(
+            itens);
+
+        reservaService.liberar(id);
+
+        then(reservaRepository)
+            .should()
+            .deleteAllInBatch(itens);
+        then(produtoRepository)
+            .should()
+            .registrarMovimentosReserva(itens, Causa.LIBERACAO);
+        then(manutencaoService).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void expirarReservaPelaRodaRemoveAReservaExpirada() {
+        given(produtoRepository.bloquearEstoques(anyCollection())).willReturn(Map.of(1L, 2));
+        final var expiracao = ArgumentCaptor.forClass(Runnable.class);
+        final var reserva = reservaService.reservar(Set.of(getProdutoAtualizarEstoqueDto()));
+        then(timingWheel)
+            .should()
+            .agendar(expiracao.capture(), any(Duration.class));
+        final var itens = List.of(new ReservaEstoqueEntity(reserva.id(), 1L, 2, reserva.expiraEm()));
+        given(reservaRepository.findAllByReservaIdAndExpiraEmLessThanEqual(eq(reserva.id()),
+            any(LocalDateTime.class))).willReturn(itens);
+
+        expiracao
+            .getValue()
+            .run();
+
+        then(reservaRepository)
+            .should()
+            .deleteAllInBatch(itens);
+        then(produtoRepository)
+            .should()
+            .registrarMovimentosReserva(itens, Causa.EXPIRACAO);
+    }
+
+    @Test
+    void removerExpiradasRemoveAsReservasDeTodasAsInstancias() {
+        final var itens = List.of(new ReservaEstoqueEntity(UUID.randomUUID(), 1L, 2, LocalDateTime.MIN));
+        given(reservaRepository.findAllByExpiraEmLessThanEqual(any(LocalDateTime.class))).willReturn(itens);
+
+        reservaService.removerExpiradas();
+
+        then(reservaRepository)
+            .should()
+            .deleteAllInBatch(itens);
+        then(produtoRepository)
+            .should()
+            .registrarMovimentosReserva(itens, Causa.EXPIRACAO);
+    }
+
+}
@@ -1,5 +1,7 @@
 package com.github.andregpereira.resilientshop.productsapi.app.services.subcategoria;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriaArvoreService;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.SubcategoriaNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.mappers.SubcategoriaMapper;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
@@ -11,11 +13,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort.Direction;
 
-import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.PAGEABLE_ID;
@@ -31,6 +34,12 @@ import static org.mockito.BDDMockito.then;
 @ExtendWith(MockitoExtension.class)
 class SubcategoriaConsultaServiceTest {
 
+    private static final List<SubcategoriaDto> SUBCATEGORIAS = List.of(
+        new SubcategoriaDto(1L, "Smartphones", "Telefones celulares"),
+        new SubcategoriaDto(2L, "Cozinha", "Utensílios de cozinha"),
+        new SubcategoriaDto(3L, "Calçados", "Tênis, sapatos e sandálias")
+    );
+
     @InjectMocks
     private SubcategoriaConsultaServiceImpl service;
 
@@ -40,47 +49,57 @@ class SubcategoriaConsultaServiceTest {
     @Mock
     private SubcategoriaRepository repository;
 
+    @Mock
+    private CategoriaArvoreService arvoreService;
+
     @Test
     void listarSubcategoriasExistentesRetornaPageSubcategoriaDto() {
-        final var listaSubcategorias = new ArrayList<SubcategoriaEntity>();
-        listaSubcategorias.add(getSubcategoriaEntity());
-        final var pageSubcategorias = new PageImpl<>(listaSubcategorias, PAGEABLE_ID, 10);
-        given(repository.findAll(any(Pageable.class))).willReturn(pageSubcategorias);
-        given(mapper.toSubcategoriaDto(any(SubcategoriaEntity.class))).willReturn(getSubcategoriaDto());
+        given(arvoreService.listarSubcategorias()).willReturn(SUBCATEGORIAS);
 
-        final var sut = service.listar(PAGEABLE_ID);
+        final var sut = service.listar(PageRequest.of(1, 2, Direction.DESC, "nome"));
 
         BDDAssertions
             .then(sut)
-            .isNotEmpty()
-            .containsExactlyInAnyOrder(getSubcategoriaDto());
-        then(repository)
-            .should()
-            .findAll(any(Pageable.class));
-        then(mapper)
-            .should()
-            .toSubcategoriaDto(any(SubcategoriaEntity.class));
+            .containsExactly(SUBCATEGORIAS.get(2));
+        BDDAssertions
+            .then(sut.getTotalElements())
+            .isEqualTo(3);
+        then(repository).shouldHaveNoInteractions();
     }
 
     @Test
     void listarSubcategoriasInexistentesRetornaPageEmpty() {
-        given(repository.findAll(any(Pageable.class))).willReturn(Page.empty());
+        given(arvoreService.listarSubcategorias()).willReturn(List.of());
 
         final var sut = service.listar(PAGEABLE_ID);
 
         BDDAssertions
             .then(sut)
             .isEmpty();
+        then(repository).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void listarSubcategoriasPorPropriedadeNaoOrdenavelConsultaBanco() {
+        final var pageable = PageRequest.of(0, 10, Direction.ASC, "categoria");
+        given(arvoreService.listarSubcategorias()).willReturn(SUBCATEGORIAS);
+        given(repository.findAll(any(Pageable.class))).willReturn(
+            new PageImpl<>(List.of(getSubcategoriaEntity()), pageable, 1));
+        given(mapper.toSubcategoriaDto(any(SubcategoriaEntity.class))).willReturn(getSubcategoriaDto());
+
+        final var sut = service.listar(pageable);
+
+        BDDAssertions
+            .then(sut)
+            .containsExactly(getSubcategoriaDto());
         then(repository)
             .should()
-            .findAll(any(Pageable.class));
-        then(mapper).shouldHaveNoInteractions();
+            .findAll(pageable);
     }
 
     @Test
     void consultarSubcategoriaPorIdExistenteRetornaSubcategoriaDetalhesDto() {
-        given(repository.findById(anyLong())).willReturn(Optional.of(getSubcategoriaEntity()));
-        given(mapper.toSubcategoriaDetalhesDto(any(SubcategoriaEntity.class))).willReturn(getSubcategoriaDetalhesDto());
+        given(arvoreService.consultarSubcategoria(anyLong())).willReturn(Optional.of(getSubcategoriaDetalhesDto()));
 
         final var sut = service.consultarPorId(1L);
 
@@ -88,28 +107,20 @@ class SubcategoriaConsultaServiceTest {
             .then(sut)
             .isNotNull()
             .isEqualTo(getSubcategoriaDetalhesDto());
-        then(repository)
-            .should()
-            .findById(anyLong());
-        then(mapper)
-            .should()
-            .toSubcategoriaDetalhesDto(any(SubcategoriaEntity.class));
+        then(repository).shouldHaveNoInteractions();
+        then(mapper).shouldHaveNoInteractions();
     }
 
     @Test
     void consultarSubcategoriaPorIdInexistenteThrowsException() {
-        given(repository.findById(anyLong())).willReturn(Optional.empty());
+        given(arvoreService.consultarSubcategoria(anyLong())).willReturn(Optional.empty());
 
         final ThrowingCallable sut = () -> service.consultarPorId(10L);
 
         assertThatThrownBy(sut)
             .isInstanceOf(SubcategoriaNotFoundException.class)
             .hasMessage("Ops! Nenhuma subcategoria foi encontrada com o id 10");
-        then(repository)
-            .should()
-            .findById(anyLong());
-        then(mapper).shouldHaveNoInteractions();
+        then(repository).shouldHaveNoInteractions();
     }
 
 }
-
@@ -1,6 +1,7 @@
 package com.github.andregpereira.resilientshop.productsapi.app.services.subcategoria;
 
 import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaRegistroDto;
+import com.github.andregpereira.resilientshop.productsapi.app.services.categoria.CategoriasAlteradasEvento;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.CategoriaNotFoundException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.SubcategoriaAlreadyExistsException;
 import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.SubcategoriaNotFoundException;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.text.MessageFormat;
 import java.util.Optional;
@@ -48,6 +50,9 @@ class SubcategoriaManutencaoServiceTest {
     @Mock
     private CategoriaRepository categoriaRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Test
     void criarSubcategoriaComDadosValidosRetornaSubcategoriaDetalhesDto() {
         given(subcategoriaRepository.existsByNome(anyString())).willReturn(false);
@@ -77,6 +82,9 @@ class SubcategoriaManutencaoServiceTest {
         then(mapper)
             .should()
             .toSubcategoriaDetalhesDto(any(SubcategoriaEntity.class));
+        then(eventPublisher)
+            .should()
+            .publishEvent(new CategoriasAlteradasEvento());
     }
 
     @Test
@@ -0,0 +1,89 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.idempotencia;
+
+import com.github.andregpereira.resilientshop.productsapi.util.mock.RelogioAjustavel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class IdempotenciaStoreMemoriaTest {
+
+    private static final ResultadoIdempotente RESULTADO = new ResultadoIdempotente("abc", 204, null, "");
+
+    private final RelogioAjustavel relogio = new RelogioAjustavel();
+
+    private final IdempotenciaStoreMemoria store = new IdempotenciaStoreMemoria(2, Duration.ofHours(24),
+        Duration.ofSeconds(60), relogio);
+
+    @Test
+    void reservarChaveJaReservadaRetornaFalse() {
+        then(store.reservar("chave")).isTrue();
+        then(store.reservar("chave")).isFalse();
+        then(store.consultar("chave")).isEmpty();
+    }
+
+    @Test
+    void concluirChaveArmazenaResultado() {
+        store.reservar("chave");
+
+        store.concluir("chave", RESULTADO);
+
+        then(store.reservar("chave")).isFalse();
+        then(store.consultar("chave")).contains(RESULTADO);
+    }
+
+    @Test
+    void liberarChaveEmAndamentoPermiteNovaReserva() {
+        store.reservar("chave");
+
+        store.liberar("chave");
+
+        then(store.reservar("chave")).isTrue();
+    }
+
+    @Test
+    void liberarChaveConcluidaMantemResultado() {
+        store.reservar("chave");
+        store.concluir("chave", RESULTADO);
+
+        store.liberar("chave");
+
+        then(store.consultar("chave")).contains(RESULTADO);
+    }
+
+    @Test
+    void reservarChaveEmAndamentoExpiradaRetornaTrue() {
+        store.reservar("chave");
+
+        relogio.avancar(Duration.ofSeconds(60));
+
+        then(store.reservar("chave")).isTrue();
+    }
+
+    @Test
+    void consultarChaveConcluidaExpiradaRetornaVazio() {
+        store.reservar("chave");
+        store.concluir("chave", RESULTADO);
+
+        relogio.avancar(Duration.ofHours(24));
+
+        then(store.consultar("chave")).isEmpty();
+        then(store.reservar("chave")).isTrue();
+    }
+
+    @Test
+    void reservarAlemDaCapacidadeDescartaChaveMenosRecente() {
+        store.reservar("a");
+        store.concluir("a", RESULTADO);
+        store.reservar("b");
+        store.concluir("b", RESULTADO);
+        store.consultar("a");
+
+        store.reservar("c");
+
+        then(store.consultar("a")).contains(RESULTADO);
+        then(store.consultar("b")).isEmpty();
+    }
+
+}
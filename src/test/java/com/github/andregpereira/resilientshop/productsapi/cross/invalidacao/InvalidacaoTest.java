@@ -0,0 +1,68 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.invalidacao;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.invalidacao.Invalidacao.Tipo;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+class InvalidacaoTest {
+
+    @Test
+    void formatarEInterpretarPreservaAInvalidacao() {
+        final var invalidacao = new Invalidacao("instancia", Tipo.ESTOQUE, Set.of(1L, 2L, 30L));
+
+        final var sut = Invalidacao.interpretar(invalidacao.formatar());
+
+        BDDAssertions
+            .then(sut)
+            .contains(invalidacao);
+    }
+
+    @Test
+    void invalidacaoSemIdsETotal() {
+        final var sut = Invalidacao.interpretar(new Invalidacao("instancia", Tipo.CATEGORIAS, Set.of()).formatar());
+
+        BDDAssertions
+            .then(sut)
+            .hasValueSatisfying(i -> BDDAssertions
+                .then(i.total())
+                .isTrue());
+    }
+
+    @Test
+    void invalidacaoMaiorQueOLimiteDoNotifyEEnviadaSemIds() {
+        final var ids = LongStream
+            .rangeClosed(1_000_000L, 1_002_000L)
+            .boxed()
+            .collect(Collectors.toSet());
+
+        final var sut = new Invalidacao("instancia", Tipo.PRODUTOS, ids).formatar();
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo("instancia;PRODUTOS;");
+        BDDAssertions
+            .then(sut.length())
+            .isLessThanOrEqualTo(Invalidacao.TAMANHO_MAXIMO);
+    }
+
+    @Test
+    void interpretarConteudoInvalidoRetornaEmpty() {
+        BDDAssertions
+            .then(Invalidacao.interpretar("instancia;DESCONHECIDO;1"))
+            .isEmpty();
+        BDDAssertions
+            .then(Invalidacao.interpretar("instancia;PRODUTOS;a,b"))
+            .isEmpty();
+        BDDAssertions
+            .then(Invalidacao.interpretar("sem separadores"))
+            .isEmpty();
+        BDDAssertions
+            .then(Invalidacao.interpretar(null))
+            .isEmpty();
+    }
+
+}
@@ -3,6 +3,7 @@ package com.github.andregpereira.resilientshop.productsapi.cross.mappers;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoAtualizacaoDto;
 import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoRegistroDto;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.EstoqueFragmentoEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
 import org.junit.jupiter.api.Test;
@@ -12,6 +13,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.util.Set;
+
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.CategoriaMockFactory.getCategoriaDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoAtualizacaoDto;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoDetalhesDto;
@@ -65,6 +68,21 @@ class ProdutoMapperTest {
         then(produtoMapper.toProdutoDto(getProdutoEntity())).isEqualTo(getProdutoDto());
     }
 
+    @Test
+    void produtoComEstoqueFragmentadoRetornaProdutoDtoComSomaDosFragmentos() {
+        final var produto = getProdutoEntity();
+        produto.setEstoque(0);
+        produto.setEstoqueFragmentado(true);
+        produto
+            .getFragmentos()
+            .addAll(Set.of(
+                new EstoqueFragmentoEntity(1L, produto, 0, 4, null),
+                new EstoqueFragmentoEntity(2L, produto, 1, 6, null)
+            ));
+
+        then(produtoMapper.toProdutoDto(produto)).isEqualTo(getProdutoDto());
+    }
+
     @Test
     void produtoRetornaProdutoDetalhesDto() {
         given(subcategoriaMapper.toSubcategoriaDto(any(SubcategoriaEntity.class))).willReturn(getSubcategoriaDto());
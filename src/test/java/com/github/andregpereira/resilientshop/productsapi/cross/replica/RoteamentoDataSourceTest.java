@@ -0,0 +1,92 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.replica;
+
+import org.assertj.core.api.BDDAssertions;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+class RoteamentoDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate leitura;
+
+    private TransactionTemplate escrita;
+
+    private static DataSource banco(String nome) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:roteamento-" + nome + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS banco (nome VARCHAR(20))");
+        jdbc.update("DELETE FROM banco");
+        jdbc.update("INSERT INTO banco VALUES (?)", nome);
+        return dataSource;
+    }
+
+    @BeforeEach
+    void beforeEach() {
+        DataSource dataSource = RoteamentoDataSource.criar(banco("primario"), banco("replica"));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        escrita = new TransactionTemplate(transactionManager);
+        leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+    }
+
+    private String bancoAtual() {
+        return jdbcTemplate.queryForObject("SELECT nome FROM banco", String.class);
+    }
+
+    @Test
+    void transacaoSomenteLeituraLeDaReplica() {
+        final var sut = leitura.execute(status -> bancoAtual());
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo("replica");
+    }
+
+    @Test
+    void transacaoDeEscritaEConsultaSemTransacaoUsamOPrimario() {
+        final var sut = escrita.execute(status -> bancoAtual());
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo("primario");
+        BDDAssertions
+            .then(bancoAtual())
+            .isEqualTo("primario");
+    }
+
+    @Test
+    void transacaoSomenteLeituraEmLeituraPrimariaUsaOPrimario() {
+        final var sut = LeituraPrimaria.executar(() -> leitura.execute(status -> bancoAtual()));
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo("primario");
+        BDDAssertions
+            .then(LeituraPrimaria.ativa())
+            .isFalse();
+    }
+
+    @Test
+    void escoposAninhadosMantemALeituraPrimariaAteOUltimoFechar() {
+        try (LeituraPrimaria.Escopo externo = LeituraPrimaria.abrir()) {
+            LeituraPrimaria.executar(() -> {});
+
+            BDDAssertions
+                .then(leitura.execute(status -> bancoAtual()))
+                .isEqualTo("primario");
+        }
+        BDDAssertions
+            .then(leitura.execute(status -> bancoAtual()))
+            .isEqualTo("replica");
+    }
+
+}
@@ -0,0 +1,164 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.retry;
+
+import com.github.andregpereira.resilientshop.productsapi.infra.config.RetentativaProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.BDDAssertions;
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class RetentarEmConflitoInterceptorTest {
+
+    private static final RetentativaProperties PROPERTIES =
+        new RetentativaProperties(3, Duration.ZERO, Duration.ZERO);
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Mock
+    private ObjectProvider<RetentativaProperties> properties;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Mock
+    private ProxyMethodInvocation invocation;
+
+    @Mock
+    private ProxyMethodInvocation tentativa;
+
+    private RetentarEmConflitoInterceptor interceptor() throws NoSuchMethodException {
+        given(properties.getObject()).willReturn(PROPERTIES);
+        given(invocation.getMethod()).willReturn(Object.class.getMethod("toString"));
+        given(invocation.invocableClone()).willReturn(tentativa);
+        return new RetentarEmConflitoInterceptor(properties, meterRegistry);
+    }
+
+    @Test
+    void invocarComConflitoSeguidoDeSucessoRetornaResultado() throws Throwable {
+        given(meterRegistry.getObject()).willReturn(registry);
+        given(tentativa.proceed())
+            .willThrow(new OptimisticLockingFailureException("conflito"))
+            .willReturn("ok");
+
+        final var sut = interceptor().invoke(invocation);
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo("ok");
+        BDDAssertions
+            .then(registry
+            .get("produtos.concorrencia.conflitos")
+            .counter()
+            .count()).isEqualTo(1);
+        BDDAssertions
+            .then(registry
+            .get("produtos.concorrencia.retentativas")
+            .counter()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    void invocarComConflitosAcimaDoLimiteThrowsException() throws Throwable {
+        given(meterRegistry.getObject()).willReturn(registry);
+        given(tentativa.proceed()).willThrow(new OptimisticLockingFailureException("conflito"));
+
+        final var interceptor = interceptor();
+
+        final ThrowingCallable sut = () -> interceptor.invoke(invocation);
+
+        assertThatThrownBy(sut).isInstanceOf(OptimisticLockingFailureException.class);
+        then(tentativa)
+            .should(times(3))
+            .proceed();
+        BDDAssertions
+            .then(registry
+            .get("produtos.concorrencia.conflitos")
+            .counter()
+            .count()).isEqualTo(3);
+    }
+
+    @Test
+    void invocarComDeadlockSeguidoDeSucessoRetornaResultado() throws Throwable {
+        given(meterRegistry.getObject()).willReturn(registry);
+        given(tentativa.proceed())
+            .willThrow(new PessimisticLockingFailureException(
+                "deadlock",
+                new SQLException("deadlock detected", "40P01")
+            ))
+            .willReturn("ok");
+
+        final var sut = interceptor().invoke(invocation);
+
+        BDDAssertions
+            .then(sut)
+            .isEqualTo("ok");
+        BDDAssertions
+            .then(registry
+            .get("produtos.concorrencia.deadlocks")
+            .counter()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    void invocarComBloqueioIndisponivelNaoRetenta() throws Throwable {
+        given(meterRegistry.getObject()).willReturn(registry);
+        given(tentativa.proceed()).willThrow(new CannotAcquireLockException("bloqueado"));
+
+        final var interceptor = interceptor();
+
+        final ThrowingCallable sut = () -> interceptor.invoke(invocation);
+
+        assertThatThrownBy(sut).isInstanceOf(CannotAcquireLockException.class);
+        then(tentativa)
+            .should()
+            .proceed();
+        BDDAssertions
+            .then(registry
+            .get("produtos.concorrencia.bloqueios.rejeitados")
+            .counter()
+            .count()).isEqualTo(1);
+    }
+
+    @Test
+    void invocarComOutraExcecaoNaoRetenta() throws Throwable {
+        given(tentativa.proceed()).willThrow(new IllegalStateException());
+
+        final var interceptor = interceptor();
+
+        final ThrowingCallable sut = () -> interceptor.invoke(invocation);
+
+        assertThatThrownBy(sut).isInstanceOf(IllegalStateException.class);
+        then(tentativa)
+            .should()
+            .proceed();
+    }
+
+    @Test
+    void calcularEsperaRespeitaEsperaMaxima() {
+        final var config = new RetentativaProperties(5, Duration.ofMillis(100), Duration.ofMillis(150));
+
+        final var sut = RetentarEmConflitoInterceptor.calcularEspera(config, 4);
+
+        BDDAssertions
+            .then(sut)
+            .isBetween(0L, 150L);
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaArvoreDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.categoria.CategoriaDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDetalhesDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.subcategoria.SubcategoriaDto;
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArvoreCategoriasTest {
+
+    private static final CategoriaDto ELETRONICOS = new CategoriaDto(1L, "Eletrônicos");
+
+    private static final CategoriaDto CASA = new CategoriaDto(2L, "Casa");
+
+    private static final SubcategoriaDetalhesDto SMARTPHONES =
+        new SubcategoriaDetalhesDto(10L, "Smartphones", "Telefones celulares", ELETRONICOS);
+
+    private static final SubcategoriaDetalhesDto NOTEBOOKS =
+        new SubcategoriaDetalhesDto(11L, "Notebooks", "Computadores portáteis", ELETRONICOS);
+
+    private final ArvoreCategorias arvore = new ArvoreCategorias(List.of(CASA, ELETRONICOS),
+        List.of(NOTEBOOKS, SMARTPHONES));
+
+    @Test
+    void arvoreAgrupaSubcategoriasPorCategoriaEmOrdemDeId() {
+        BDDAssertions
+            .then(arvore.arvore())
+            .containsExactly(
+                new CategoriaArvoreDto(1L, "Eletrônicos", List.of(
+                    new SubcategoriaDto(10L, "Smartphones", "Telefones celulares"),
+                    new SubcategoriaDto(11L, "Notebooks", "Computadores portáteis")
+                )),
+                new CategoriaArvoreDto(2L, "Casa", List.of())
+            );
+        BDDAssertions
+            .then(arvore.subcategorias())
+            .extracting(SubcategoriaDto::id)
+            .containsExactly(10L, 11L);
+    }
+
+    @Test
+    void consultarPorIdRetornaCategoriaESubcategoriaComCategoria() {
+        BDDAssertions
+            .then(arvore.categoria(2L))
+            .contains(CASA);
+        BDDAssertions
+            .then(arvore.subcategoria(11L))
+            .contains(NOTEBOOKS);
+        BDDAssertions
+            .then(arvore.categoria(3L))
+            .isEmpty();
+        BDDAssertions
+            .then(arvore.subcategoria(null))
+            .isEmpty();
+    }
+
+    @Test
+    void impressaoIgualEntreCopiasComOMesmoConteudo() {
+        final var mesmaArvore = new ArvoreCategorias(List.of(ELETRONICOS, CASA), List.of(SMARTPHONES, NOTEBOOKS));
+        final var arvoreAlterada = new ArvoreCategorias(List.of(CASA, new CategoriaDto(1L, "Eletrônica")),
+            List.of(NOTEBOOKS, SMARTPHONES));
+
+        BDDAssertions
+            .then(mesmaArvore.impressao())
+            .isEqualTo(arvore.impressao());
+        BDDAssertions
+            .then(arvoreAlterada.impressao())
+            .isNotEqualTo(arvore.impressao());
+    }
+
+    @Test
+    void listasSaoImutaveis() {
+        final var categorias = arvore.categorias();
+
+        assertThatThrownBy(() -> categorias.add(new CategoriaDto(3L, "Moda"))).isInstanceOf(
+            UnsupportedOperationException.class);
+        assertThatThrownBy(() -> arvore
+            .arvore()
+            .getFirst()
+            .subcategorias()
+            .clear()).isInstanceOf(UnsupportedOperationException.class);
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class BitmapCompactoTest {
+
+    @Test
+    void adicionarERemoverMantemAOrdemEACardinalidade() {
+        final var sut = new BitmapCompacto();
+        sut.adicionar(70_000);
+        sut.adicionar(3);
+        sut.adicionar(3);
+        sut.adicionar(65_536);
+        sut.remover(65_536);
+        sut.remover(42);
+
+        then(sut.cardinalidade()).isEqualTo(2);
+        then(sut.contem(3)).isTrue();
+        then(sut.contem(65_536)).isFalse();
+        then(valores(sut)).containsExactly(3, 70_000);
+    }
+
+    @Test
+    void removerTodosOsValoresEsvaziaOConjunto() {
+        final var sut = new BitmapCompacto();
+        sut.adicionar(1);
+        sut.adicionar(100_000);
+        sut.remover(1);
+        sut.remover(100_000);
+
+        then(sut.isVazio()).isTrue();
+        then(sut.cardinalidade()).isZero();
+    }
+
+    @Test
+    void operacoesEquivalemAsDeUmBitSetEmQualquerDensidade() {
+        Random random = new Random(42);
+        for (int densidade : new int[]{100, 5_000, 60_000}) {
+            BitSet esperadoA = new BitSet();
+            BitSet esperadoB = new BitSet();
+            final var a = new BitmapCompacto();
+            final var b = new BitmapCompacto();
+            for (int i = 0; i < densidade; i++) {
+                int x = random.nextInt(200_000);
+                int y = random.nextInt(200_000);
+                a.adicionar(x);
+                esperadoA.set(x);
+                b.adicionar(y);
+                esperadoB.set(y);
+            }
+            for (int i = 0; i < densidade / 2; i++) {
+                int x = random.nextInt(200_000);
+                a.remover(x);
+                esperadoA.clear(x);
+            }
+            BitSet e = (BitSet) esperadoA.clone();
+            e.and(esperadoB);
+            BitSet ou = (BitSet) esperadoA.clone();
+            ou.or(esperadoB);
+
+            then(a.cardinalidade()).isEqualTo(esperadoA.cardinality());
+            then(valores(a.e(b))).isEqualTo(esperadoA.stream().filter(esperadoB::get).boxed().toList());
+            then(a.cardinalidadeE(b)).isEqualTo(e.cardinality());
+            then(valores(a.ou(b))).isEqualTo(ou.stream().boxed().toList());
+        }
+    }
+
+    @Test
+    void operacoesNaoAlteramOsOperandos() {
+        final var a = new BitmapCompacto();
+        final var b = new BitmapCompacto();
+        a.adicionar(1);
+        b.adicionar(2);
+
+        a.ou(b).adicionar(3);
+
+        then(valores(a)).containsExactly(1);
+        then(valores(b)).containsExactly(2);
+    }
+
+    @Test
+    void paginaPulaContaineresInteiros() {
+        final var sut = new BitmapCompacto();
+        for (int i = 0; i < 10_000; i++) {
+            sut.adicionar(i * 20);
+        }
+
+        then(sut.pagina(9_998, 5)).containsExactly(199_960, 199_980);
+        then(sut.pagina(3_300, 3)).containsExactly(66_000, 66_020, 66_040);
+        then(sut.pagina(10_000, 5)).isEmpty();
+    }
+
+    private static List<Integer> valores(BitmapCompacto bitmap) {
+        List<Integer> valores = new ArrayList<>();
+        bitmap.paraCada(valores::add);
+        return valores;
+    }
+
+}
@@ -0,0 +1,64 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import com.github.andregpereira.resilientshop.productsapi.util.mock.RelogioAjustavel;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class CacheLruTest {
+
+    private final RelogioAjustavel relogio = new RelogioAjustavel();
+
+    private final CacheLru<Long, String> cache = new CacheLru<>(2, Duration.ofMinutes(10), relogio);
+
+    @Test
+    void consultarContaAcertosEFalhas() {
+        then(cache.consultar(1L)).isNull();
+        cache.armazenar(1L, "a", cache.geracao());
+
+        then(cache.consultar(1L)).isEqualTo("a");
+        then(cache.acertos()).isEqualTo(1);
+        then(cache.falhas()).isEqualTo(1);
+        then(cache.armazenamentos()).isEqualTo(1);
+    }
+
+    @Test
+    void armazenarAlemDaCapacidadeDescartaAChaveMenosRecente() {
+        cache.armazenar(1L, "a", cache.geracao());
+        cache.armazenar(2L, "b", cache.geracao());
+        cache.consultar(1L);
+
+        cache.armazenar(3L, "c", cache.geracao());
+
+        then(cache.consultar(1L)).isEqualTo("a");
+        then(cache.consultar(2L)).isNull();
+        then(cache.tamanho()).isEqualTo(2);
+        then(cache.expulsoes()).isEqualTo(1);
+    }
+
+    @Test
+    void consultarChaveExpiradaRetornaNulo() {
+        cache.armazenar(1L, "a", cache.geracao());
+
+        relogio.avancar(Duration.ofMinutes(10));
+
+        then(cache.consultar(1L)).isNull();
+        then(cache.tamanho()).isZero();
+        then(cache.expulsoes()).isEqualTo(1);
+    }
+
+    @Test
+    void armazenarAposInvalidacaoDescartaOValorLidoAntes() {
+        long geracao = cache.geracao();
+
+        cache.invalidar(1L);
+
+        then(cache.armazenar(1L, "antigo", geracao)).isFalse();
+        then(cache.consultar(1L)).isNull();
+        then(cache.armazenar(1L, "novo", cache.geracao())).isTrue();
+        then(cache.consultar(1L)).isEqualTo("novo");
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import org.assertj.core.api.BDDAssertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class EtagUtilsTest {
+
+    @Test
+    void forteEFracaJuntamAsPartesEntreAspas() {
+        BDDAssertions
+            .then(EtagUtils.forte(1, "a", 2L))
+            .isEqualTo("\"1-a-2\"");
+        BDDAssertions
+            .then(EtagUtils.fraca("produtos", 3))
+            .isEqualTo("W/\"produtos-3\"");
+    }
+
+    @Test
+    void impressaoIgualParaConteudosIguais() {
+        BDDAssertions
+            .then(EtagUtils.impressao("a", 1))
+            .isEqualTo(EtagUtils.impressao("a", 1))
+            .isNotEqualTo(EtagUtils.impressao("a", 2));
+    }
+
+    @Test
+    void correspondeComparaAsETagsInformadasPelaComparacaoFraca() {
+        BDDAssertions
+            .then(EtagUtils.corresponde("\"x\", W/\"1-a\"", "\"1-a\""))
+            .isTrue();
+        BDDAssertions
+            .then(EtagUtils.corresponde("*", "\"1-a\""))
+            .isTrue();
+        BDDAssertions
+            .then(EtagUtils.corresponde("\"1-b\"", "\"1-a\""))
+            .isFalse();
+        BDDAssertions
+            .then(EtagUtils.corresponde(null, "\"1-a\""))
+            .isFalse();
+    }
+
+    @Test
+    void responderNaoConsultaOCorpoQuandoAETagCorresponde() {
+        final var sut = EtagUtils.<String>responder("\"1-a\"", "\"1-a\"", () -> {
+            throw new AssertionError("O corpo não deveria ser consultado");
+        });
+
+        BDDAssertions
+            .then(sut.getStatusCode())
+            .isEqualTo(HttpStatus.NOT_MODIFIED);
+        BDDAssertions
+            .then(sut
+                .getHeaders()
+                .getETag())
+            .isEqualTo("\"1-a\"");
+    }
+
+    @Test
+    void responderRetornaOCorpoEAETagQuandoNaoCorresponde() {
+        final var sut = EtagUtils.responder("\"1-b\"", "\"1-a\"", () -> "corpo");
+
+        BDDAssertions
+            .then(sut.getStatusCode())
+            .isEqualTo(HttpStatus.OK);
+        BDDAssertions
+            .then(sut.getBody())
+            .isEqualTo("corpo");
+    }
+
+}
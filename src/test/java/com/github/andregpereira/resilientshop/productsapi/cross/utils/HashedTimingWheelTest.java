@@ -0,0 +1,45 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class HashedTimingWheelTest {
+
+    private final HashedTimingWheel timingWheel = new HashedTimingWheel(Duration.ofMillis(10), 4);
+
+    @AfterEach
+    void afterEach() {
+        timingWheel.close();
+    }
+
+    @Test
+    void agendarTarefaExecutaAposOAtraso() throws InterruptedException {
+        final var executada = new CountDownLatch(1);
+        final var inicio = System.nanoTime();
+
+        timingWheel.agendar(executada::countDown, Duration.ofMillis(100));
+
+        then(executada.await(2, TimeUnit.SECONDS)).isTrue();
+        then(Duration.ofNanos(System.nanoTime() - inicio)).isGreaterThanOrEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    void cancelarAgendamentoNaoExecutaTarefa() throws InterruptedException {
+        final var executada = new AtomicBoolean();
+
+        final var sut = timingWheel.agendar(() -> executada.set(true), Duration.ofMillis(30));
+
+        then(sut.cancelar()).isTrue();
+        Thread.sleep(150);
+        then(executada).isFalse();
+        then(sut.cancelar()).isFalse();
+    }
+
+}
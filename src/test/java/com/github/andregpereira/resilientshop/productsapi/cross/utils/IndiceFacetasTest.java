@@ -0,0 +1,154 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.FiltroProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoFacetaDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.entry;
+import static org.assertj.core.api.BDDAssertions.then;
+
+class IndiceFacetasTest {
+
+    private static final FiltroProdutoDto SEM_FILTROS = new FiltroProdutoDto(null, null, null, null, null, null,
+        null);
+
+    private final IndiceFacetas indice = new IndiceFacetas(List.of(BigDecimal.valueOf(100), BigDecimal.valueOf(50)));
+
+    @BeforeEach
+    void beforeEach() {
+        indice.atualizar(produto(1L, 10L, 100L, "20.00", "4.5", 5, true));
+        indice.atualizar(produto(2L, 10L, 101L, "50.00", "3.9", 0, true));
+        indice.atualizar(produto(3L, 10L, null, "75.50", "4.0", 2, true));
+        indice.atualizar(produto(4L, 20L, 200L, "150.00", null, 8, true));
+        indice.atualizar(produto(5L, 20L, 200L, "99.99", "5.0", 1, false));
+    }
+
+    @Test
+    void filtrarSemFiltrosRetornaTodosOsProdutosEContaAsFacetas() {
+        final var sut = indice.filtrar(SEM_FILTROS, 0, 10);
+
+        then(sut.ids()).containsExactly(1L, 2L, 3L, 4L, 5L);
+        then(sut.total()).isEqualTo(5);
+        then(sut
+            .facetas()
+            .categorias()).containsExactly(entry(10L, 3L), entry(20L, 2L));
+        then(sut
+            .facetas()
+            .subcategorias()).containsExactly(entry(100L, 1L), entry(101L, 1L), entry(200L, 2L));
+        then(sut
+            .facetas()
+            .faixasPreco()).containsExactly(entry("0-50", 1L), entry("50-100", 3L), entry("100+", 1L));
+        then(sut
+            .facetas()
+            .ratings()).containsEntry(0, 1L).containsEntry(3, 1L).containsEntry(4, 2L).containsEntry(5, 1L);
+        then(sut
+            .facetas()
+            .emEstoque()).isEqualTo(4);
+    }
+
+    @Test
+    void filtrarCombinaOsFiltros() {
+        final var sut = indice.filtrar(new FiltroProdutoDto(10L, null, null, null, null, true, true), 0, 10);
+
+        then(sut.ids()).containsExactly(1L, 3L);
+        then(sut.total()).isEqualTo(2);
+    }
+
+    @Test
+    void filtrarPorFaixaDePrecoComparaApenasAsExtremidades() {
+        final var sut = indice.filtrar(new FiltroProdutoDto(null, null, BigDecimal.valueOf(50),
+            new BigDecimal("99.99"), null, null, null), 0, 10);
+
+        then(sut.ids()).containsExactly(2L, 3L, 5L);
+        then(indice
+            .filtrar(new FiltroProdutoDto(null, null, new BigDecimal("75.51"), null, null, null, null), 0, 10)
+            .ids()).containsExactly(4L, 5L);
+    }
+
+    @Test
+    void filtrarPorRatingMinimoIncluiOsValoresDaFaixaParcial() {
+        final var sut = indice.filtrar(new FiltroProdutoDto(null, null, null, null, new BigDecimal("4.2"), null,
+            null), 0, 10);
+
+        then(sut.ids()).containsExactly(1L, 5L);
+    }
+
+    @Test
+    void filtrarContaAsFacetasDeUmAtributoSemOFiltroDoProprioAtributo() {
+        final var sut = indice.filtrar(new FiltroProdutoDto(10L, null, null, null, null, true, null), 0, 10);
+
+        then(sut
+            .facetas()
+            .categorias()).containsExactly(entry(10L, 2L), entry(20L, 2L));
+        then(sut
+            .facetas()
+            .emEstoque()).isEqualTo(2);
+        then(sut
+            .facetas()
+            .subcategorias()).containsExactly(entry(100L, 1L));
+    }
+
+    @Test
+    void filtrarPorCategoriaInexistenteNaoRetornaProdutos() {
+        final var sut = indice.filtrar(new FiltroProdutoDto(99L, null, null, null, null, null, null), 0, 10);
+
+        then(sut.ids()).isEmpty();
+        then(sut.total()).isZero();
+    }
+
+    @Test
+    void atualizarMoveOProdutoEntreOsValores() {
+        indice.atualizar(produto(1L, 20L, null, "500.00", "1.0", 0, false));
+
+        final var sut = indice.filtrar(new FiltroProdutoDto(null, null, null, null, null, null, true), 0, 10);
+
+        then(sut.ids()).containsExactly(2L, 3L, 4L);
+        then(sut
+            .facetas()
+            .categorias()).containsExactly(entry(10L, 2L), entry(20L, 1L));
+        then(indice.tamanho()).isEqualTo(5);
+    }
+
+    @Test
+    void removerRetiraOProdutoDeTodosOsValores() {
+        indice.remover(4L);
+
+        final var sut = indice.filtrar(SEM_FILTROS, 0, 10);
+
+        then(sut.ids()).containsExactly(1L, 2L, 3L, 5L);
+        then(sut
+            .facetas()
+            .faixasPreco()).containsEntry("100+", 0L);
+        then(sut
+            .facetas()
+            .subcategorias()).containsEntry(200L, 1L);
+    }
+
+    @Test
+    void filtrarPaginaEmOrdemDeId() {
+        final var sut = indice.filtrar(SEM_FILTROS, 2, 2);
+
+        then(sut.ids()).containsExactly(3L, 4L);
+        then(sut.total()).isEqualTo(5);
+    }
+
+    private static ProdutoFacetaDto produto(
+        Long id,
+        Long categoriaId,
+        Long subcategoriaId,
+        String valorUnitario,
+        String rating,
+        int estoque,
+        boolean ativo
+    ) {
+        return new ProdutoFacetaDto(id, categoriaId, subcategoriaId, new BigDecimal(valorUnitario),
+            rating == null
+                ? null
+                : new BigDecimal(rating), estoque, ativo);
+    }
+
+}
@@ -0,0 +1,112 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class IndiceInvertidoTest {
+
+    private final IndiceInvertido indice = new IndiceInvertido();
+
+    @Test
+    void buscarIgnoraAcentosEMaiusculas() {
+        indice.indexar(1L, "Café Coado Tradicional");
+        indice.indexar(2L, "Chá-Mate Gelado");
+
+        then(indice
+            .buscar("CAFE", 0, 10)
+            .ids()).containsExactly(1L);
+        then(indice
+            .buscar("cha mate", 0, 10)
+            .ids()).containsExactly(2L);
+    }
+
+    @Test
+    void buscarRetornaApenasDocumentosComTodosOsTermos() {
+        indice.indexar(1L, "café coado");
+        indice.indexar(2L, "café expresso");
+        indice.indexar(3L, "leite coado");
+
+        final var sut = indice.buscar("coado café", 0, 10);
+
+        then(sut.ids()).containsExactly(1L);
+        then(sut.total()).isEqualTo(1);
+    }
+
+    @Test
+    void buscarCasaOUltimoTermoComoPrefixo() {
+        indice.indexar(1L, "cafeteira elétrica");
+        indice.indexar(2L, "café torrado");
+        indice.indexar(3L, "caneca");
+
+        then(indice
+            .buscar("caf", 0, 10)
+            .ids()).containsExactly(1L, 2L);
+        then(indice
+            .buscar("caf eletrica", 0, 10)
+            .ids()).isEmpty();
+    }
+
+    @Test
+    void buscarPaginaEmOrdemDeId() {
+        for (long id = 10; id >= 1; id--) {
+            indice.indexar(id, "produto " + id);
+        }
+
+        final var sut = indice.buscar("produto", 3, 4);
+
+        then(sut.ids()).containsExactly(4L, 5L, 6L, 7L);
+        then(sut.total()).isEqualTo(10);
+        then(indice
+            .buscar("produto", 8, 4)
+            .ids()).containsExactly(9L, 10L);
+        then(indice
+            .buscar("produto", 20, 4)
+            .ids()).isEmpty();
+    }
+
+    @Test
+    void indexarDocumentoExistenteSubstituiOsTermos() {
+        indice.indexar(1L, "caneca azul");
+
+        indice.indexar(1L, "caneca verde");
+
+        then(indice
+            .buscar("azul", 0, 10)
+            .ids()).isEmpty();
+        then(indice
+            .buscar("verde caneca", 0, 10)
+            .ids()).containsExactly(1L);
+        then(indice.tamanho()).isEqualTo(1);
+        then(indice.termos()).isEqualTo(2);
+    }
+
+    @Test
+    void removerDocumentoRemoveDasBuscasETermosSemDocumentos() {
+        indice.indexar(1L, "caneca azul");
+        indice.indexar(2L, "caneca verde");
+
+        indice.remover(1L);
+
+        then(indice
+            .buscar("caneca", 0, 10)
+            .ids()).containsExactly(2L);
+        then(indice
+            .buscar("azul", 0, 10)
+            .ids()).isEmpty();
+        then(indice.tamanho()).isEqualTo(1);
+        then(indice.termos()).isEqualTo(2);
+    }
+
+    @Test
+    void buscarSemTermosRetornaVazio() {
+        indice.indexar(1L, "caneca");
+
+        final var sut = indice.buscar(" - ", 0, 10);
+
+        then(sut).isEqualTo(new IndiceInvertido.Resultado(List.of(), 0));
+    }
+
+}
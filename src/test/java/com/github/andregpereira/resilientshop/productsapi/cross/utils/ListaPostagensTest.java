@@ -0,0 +1,50 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class ListaPostagensTest {
+
+    private final ListaPostagens lista = new ListaPostagens();
+
+    @Test
+    void adicionarIdsEmOrdemCodificaDiferencasEmUmByte() {
+        for (long id = 1_000_000; id < 1_000_100; id++) {
+            lista.adicionar(id);
+        }
+
+        then(lista.tamanho()).isEqualTo(100);
+        then(lista.bytes()).isEqualTo(3 + 99);
+        then(lista.paraArray()).startsWith(1_000_000L, 1_000_001L).endsWith(1_000_099L);
+    }
+
+    @Test
+    void adicionarIdsForaDeOrdemMantemOrdemSemRepetidos() {
+        lista.adicionar(300);
+        lista.adicionar(5);
+        lista.adicionar(70_000);
+        lista.adicionar(5);
+        lista.adicionar(150);
+
+        then(lista.paraArray()).containsExactly(5L, 150L, 300L, 70_000L);
+    }
+
+    @Test
+    void removerIdMantemOsDemais() {
+        lista.adicionar(1);
+        lista.adicionar(2);
+        lista.adicionar(3);
+
+        lista.remover(2);
+        lista.remover(10);
+
+        then(lista.paraArray()).containsExactly(1L, 3L);
+        lista.remover(1);
+        lista.remover(3);
+        then(lista.isVazia()).isTrue();
+        lista.adicionar(7);
+        then(lista.paraArray()).containsExactly(7L);
+    }
+
+}
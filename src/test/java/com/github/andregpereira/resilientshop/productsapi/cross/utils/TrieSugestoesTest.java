@@ -0,0 +1,65 @@
+package com.github.andregpereira.resilientshop.productsapi.cross.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+class TrieSugestoesTest {
+
+    @Test
+    void sugerirRetornaItensComChavesIniciadasPeloPrefixoPorPontuacao() {
+        final var sut = TrieSugestoes
+            .<String>construtor(10)
+            .adicionar("cafe coado", 3.0, List.of("cafe coado"))
+            .adicionar("cafeteira", 4.5, List.of("cafeteira"))
+            .adicionar("caneca", 5.0, List.of("caneca"))
+            .adicionar("cha", 4.9, List.of("cha"))
+            .construir();
+
+        then(sut.sugerir("caf", 10)).containsExactly("cafeteira", "cafe coado");
+        then(sut.sugerir("ca", 10)).containsExactly("caneca", "cafeteira", "cafe coado");
+        then(sut.sugerir("cafe c", 10)).containsExactly("cafe coado");
+        then(sut.sugerir("cafex", 10)).isEmpty();
+        then(sut.sugerir("x", 10)).isEmpty();
+    }
+
+    @Test
+    void sugerirRetornaItemComVariasChavesUmaUnicaVez() {
+        final var sut = TrieSugestoes
+            .<String>construtor(10)
+            .adicionar("po de cafe", 4.0, List.of("po de cafe", "de cafe", "cafe"))
+            .adicionar("cafe em capsulas", 3.0, List.of("cafe em capsulas", "em capsulas", "capsulas"))
+            .construir();
+
+        then(sut.sugerir("ca", 10)).containsExactly("po de cafe", "cafe em capsulas");
+        then(sut.sugerir("de", 10)).containsExactly("po de cafe");
+    }
+
+    @Test
+    void sugerirLimitaAQuantidadeAoMenorEntreLimiteEK() {
+        final var construtor = TrieSugestoes.<Integer>construtor(3);
+        for (int i = 0; i < 20; i++) {
+            construtor.adicionar(i, i, List.of("produto " + i));
+        }
+        final var sut = construtor.construir();
+
+        then(sut.sugerir("prod", 10)).containsExactly(19, 18, 17);
+        then(sut.sugerir("produto 1", 2)).containsExactly(19, 18);
+        then(sut.itens()).isEqualTo(20);
+        then(sut.nos()).isLessThanOrEqualTo(2 * 20);
+    }
+
+    @Test
+    void sugerirEmArvoreVaziaRetornaVazio() {
+        then(TrieSugestoes
+            .<String>vazia()
+            .sugerir("ca", 10)).isEmpty();
+        then(TrieSugestoes
+            .<String>construtor(10)
+            .construir()
+            .sugerir("ca", 10)).isEmpty();
+    }
+
+}
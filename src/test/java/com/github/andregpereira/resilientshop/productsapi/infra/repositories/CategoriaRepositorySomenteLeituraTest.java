@@ -0,0 +1,99 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.PAGEABLE_ID;
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.CategoriaMockFactory.getCategoriaEntity;
+import static org.assertj.core.api.BDDAssertions.then;
+
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CategoriaRepositorySomenteLeituraTest {
+
+    @Autowired
+    private CategoriaRepository repository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate escrita;
+
+    private TransactionTemplate leitura;
+
+    private Long id;
+
+    @BeforeEach
+    void beforeEach() {
+        escrita = new TransactionTemplate(transactionManager);
+        leitura = new TransactionTemplate(transactionManager);
+        leitura.setReadOnly(true);
+        CategoriaEntity categoria = getCategoriaEntity();
+        categoria.setId(null);
+        id = escrita.execute(status -> repository
+            .save(categoria)
+            .getId());
+    }
+
+    @AfterEach
+    void afterEach() {
+        escrita.executeWithoutResult(status -> repository.deleteAll());
+    }
+
+    private String nomeNoBanco() {
+        return escrita.execute(status -> repository
+            .findById(id)
+            .map(CategoriaEntity::getNome)
+            .orElseThrow());
+    }
+
+    @Test
+    void transacaoSomenteLeituraCarregaEntidadesSemDetectarAlteracoes() {
+        final var sut = leitura.execute(status -> {
+            CategoriaEntity categoria = repository
+                .findById(id)
+                .orElseThrow();
+            categoria.setNome("Alterada");
+            return em
+                .unwrap(Session.class)
+                .isReadOnly(categoria);
+        });
+
+        then(sut).isTrue();
+        then(nomeNoBanco()).isNotEqualTo("Alterada");
+    }
+
+    @Test
+    void listagensDeConsultaCarregamEntidadesSomenteLeituraMesmoEmTransacaoDeEscrita() {
+        final var sut = escrita.execute(status -> {
+            CategoriaEntity pagina = repository
+                .findAll(PAGEABLE_ID)
+                .getContent()
+                .getFirst();
+            CategoriaEntity fatia = repository
+                .findAllBy(PAGEABLE_ID)
+                .getContent()
+                .getFirst();
+            pagina.setNome("Alterada");
+            Session session = em.unwrap(Session.class);
+            return session.isReadOnly(pagina) && session.isReadOnly(fatia);
+        });
+
+        then(sut).isTrue();
+        then(nomeNoBanco()).isNotEqualTo("Alterada");
+    }
+
+}
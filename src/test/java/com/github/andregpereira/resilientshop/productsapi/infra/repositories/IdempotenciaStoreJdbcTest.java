@@ -0,0 +1,88 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.cross.idempotencia.ResultadoIdempotente;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+@DataJpaTest
+class IdempotenciaStoreJdbcTest {
+
+    private static final ResultadoIdempotente RESULTADO = new ResultadoIdempotente("abc", 200, "application/json",
+        "{\"ok\":true}");
+
+    private static final Instant AGORA = Instant.parse("2024-01-01T00:00:00Z");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private IdempotenciaStoreJdbc store;
+
+    @BeforeEach
+    void beforeEach() {
+        store = criarStore(AGORA);
+    }
+
+    @Test
+    void reservarChaveJaReservadaRetornaFalse() {
+        then(store.reservar("chave")).isTrue();
+        then(store.reservar("chave")).isFalse();
+        then(store.consultar("chave")).isEmpty();
+    }
+
+    @Test
+    void concluirChaveArmazenaResultado() {
+        store.reservar("chave");
+
+        store.concluir("chave", RESULTADO);
+
+        then(store.reservar("chave")).isFalse();
+        then(store.consultar("chave")).contains(RESULTADO);
+    }
+
+    @Test
+    void liberarChaveEmAndamentoPermiteNovaReserva() {
+        store.reservar("chave");
+
+        store.liberar("chave");
+
+        then(store.reservar("chave")).isTrue();
+    }
+
+    @Test
+    void reservarChaveExpiradaRetornaTrue() {
+        store.reservar("chave");
+        store.concluir("chave", RESULTADO);
+        IdempotenciaStoreJdbc sut = criarStore(AGORA.plus(Duration.ofHours(24)));
+
+        then(sut.consultar("chave")).isEmpty();
+        then(sut.reservar("chave")).isTrue();
+    }
+
+    @Test
+    void removerExpiradasRemoveApenasChavesExpiradas() {
+        store.reservar("a");
+        store.concluir("a", RESULTADO);
+        store.reservar("b");
+        IdempotenciaStoreJdbc sut = criarStore(AGORA.plus(Duration.ofMinutes(5)));
+
+        sut.removerExpiradas();
+
+        then(jdbcTemplate.queryForList("SELECT chave FROM tb_idempotencia", String.class)).containsExactly("a");
+    }
+
+    private IdempotenciaStoreJdbc criarStore(Instant agora) {
+        return new IdempotenciaStoreJdbc(jdbcTemplate, Duration.ofHours(24), Duration.ofSeconds(60),
+            Clock.fixed(agora, ZoneOffset.UTC));
+    }
+
+}
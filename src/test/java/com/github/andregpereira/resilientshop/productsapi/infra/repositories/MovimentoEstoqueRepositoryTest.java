@@ -0,0 +1,153 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.MovimentoEstoqueEntity.Causa;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ReservaEstoqueEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoEntity;
+import static org.assertj.core.api.BDDAssertions.then;
+
+@DataJpaTest
+class MovimentoEstoqueRepositoryTest {
+
+    private static final ProdutoEntity PRODUTO = getProdutoEntity();
+
+    private static final List<Causa> RESERVAS = List.of(Causa.RESERVA, Causa.LIBERACAO, Causa.EXPIRACAO);
+
+    private static final CategoriaEntity CATEGORIA = PRODUTO.getCategoria();
+
+    private static final SubcategoriaEntity SUBCATEGORIA = PRODUTO.getSubcategoria();
+
+    static {
+        SUBCATEGORIA.setCategoria(CATEGORIA);
+    }
+
+    @Autowired
+    private MovimentoEstoqueRepository repository;
+
+    @Autowired
+    private ProdutoRepository produtoRepository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @BeforeEach
+    void beforeEach() {
+        em.persist(CATEGORIA);
+        em.persist(SUBCATEGORIA);
+        em.persist(PRODUTO);
+        em.flush();
+    }
+
+    @AfterEach
+    void afterEach() {
+        PRODUTO.setId(null);
+        CATEGORIA.setId(null);
+        SUBCATEGORIA.setId(null);
+    }
+
+    @Test
+    void registrarMovimentosRegistraEstoqueResultanteLidoDoBanco() {
+        produtoRepository.subtrairEstoque(Map.of(PRODUTO.getId(), 4));
+
+        produtoRepository.registrarMovimentos(Map.of(PRODUTO.getId(), -4), Causa.SUBTRACAO);
+
+        final var sut = repository.findAll();
+        then(sut).hasSize(1);
+        then(sut
+            .getFirst()
+            .getProdutoId()).isEqualTo(PRODUTO.getId());
+        then(sut
+            .getFirst()
+            .getVariacao()).isEqualTo(-4);
+        then(sut
+            .getFirst()
+            .getEstoqueResultante()).isEqualTo(6);
+        then(sut
+            .getFirst()
+            .getCausa()).isEqualTo(Causa.SUBTRACAO);
+        then(sut
+            .getFirst()
+            .getDataMovimento()).isNotNull();
+    }
+
+    @Test
+    void registrarMovimentosComEstoqueResultanteInformadoRegistraOsMovimentos() {
+        produtoRepository.registrarMovimentos(List.of(
+            new MovimentoEstoqueEntity(PRODUTO.getId(), -2, 8, Causa.SUBTRACAO),
+            new MovimentoEstoqueEntity(PRODUTO.getId(), -3, 5, Causa.SUBTRACAO)
+        ));
+
+        final var sut = repository.findAllByProdutoId(PRODUTO.getId(), PageRequest.of(0, 10, Sort.by("id")));
+
+        then(sut.getContent())
+            .extracting(MovimentoEstoqueEntity::getEstoqueResultante)
+            .containsExactly(8, 5);
+    }
+
+    @Test
+    void somarVariacoesAposUltimoMovimentoAbsolutoRecalculaEstoque() {
+        produtoRepository.registrarMovimentos(List.of(
+            new MovimentoEstoqueEntity(PRODUTO.getId(), 10, 10, Causa.INICIAL),
+            new MovimentoEstoqueEntity(PRODUTO.getId(), -4, 6, Causa.SUBTRACAO),
+            new MovimentoEstoqueEntity(PRODUTO.getId(), 14, 20, Causa.AJUSTE),
+            new MovimentoEstoqueEntity(PRODUTO.getId(), -5, 15, Causa.SUBTRACAO),
+            new MovimentoEstoqueEntity(PRODUTO.getId(), 2, 17, Causa.RETORNO)
+        ));
+
+        final var ultimo = repository
+            .findFirstByProdutoIdAndCausaInOrderByIdDesc(
+                PRODUTO.getId(),
+                List.of(Causa.INICIAL, Causa.AJUSTE, Causa.SNAPSHOT)
+            )
+            .orElseThrow();
+        final var sut = ultimo.getEstoqueResultante() + repository.somarVariacoesApos(PRODUTO.getId(), ultimo.getId(),
+            RESERVAS);
+
+        then(ultimo.getCausa()).isEqualTo(Causa.AJUSTE);
+        then(sut).isEqualTo(17);
+    }
+
+    @Test
+    void registrarMovimentosReservaRegistraQuantidadeRetidaSemVariacao() {
+        produtoRepository.registrarMovimentosReserva(List.of(
+            new ReservaEstoqueEntity(UUID.randomUUID(), PRODUTO.getId(), 3, LocalDateTime.now())), Causa.RESERVA);
+
+        final var sut = repository.findAll();
+        then(sut).hasSize(1);
+        then(sut
+            .getFirst()
+            .getVariacao()).isZero();
+        then(sut
+            .getFirst()
+            .getEstoqueResultante()).isEqualTo(PRODUTO.getEstoque());
+        then(sut
+            .getFirst()
+            .getQuantidadeReservada()).isEqualTo(3);
+        then(repository.somarVariacoesApos(PRODUTO.getId(), 0L, RESERVAS)).isZero();
+    }
+
+    @Test
+    void somarVariacoesSemMovimentosRetornaZero() {
+        final var sut = repository.somarVariacoesApos(PRODUTO.getId(), 0L, RESERVAS);
+
+        then(sut).isZero();
+    }
+
+}
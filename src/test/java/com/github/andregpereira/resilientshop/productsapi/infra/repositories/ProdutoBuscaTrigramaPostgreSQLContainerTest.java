@@ -0,0 +1,154 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.infra.config.BuscaProdutoConfig;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.config.PostgreSQLContainerConfig;
+import com.github.andregpereira.resilientshop.productsapi.infra.repositories.config.PostgreSQLContainerConfig.PostgreSQLContainerInitializer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoEntity;
+import static org.assertj.core.api.BDDAssertions.then;
+
+@Slf4j
+@DataJpaTest(properties = "resilientshop.busca.modo=TRIGRAMA")
+@Import(BuscaProdutoConfig.class)
+@ContextConfiguration(initializers = PostgreSQLContainerInitializer.class)
+class ProdutoBuscaTrigramaPostgreSQLContainerTest extends PostgreSQLContainerConfig {
+
+    private static final ProdutoEntity PRODUTO = getProdutoEntity();
+
+    private static final CategoriaEntity CATEGORIA = PRODUTO.getCategoria();
+
+    private static final SubcategoriaEntity SUBCATEGORIA = PRODUTO.getSubcategoria();
+
+    private static final Pageable PAGEABLE = PageRequest.of(0, 10, Sort.by("nome"));
+
+    static {
+        SUBCATEGORIA.setCategoria(CATEGORIA);
+    }
+
+    @Autowired
+    private ProdutoRepository repository;
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void beforeEach() {
+        em.persist(CATEGORIA);
+        em.persist(SUBCATEGORIA);
+        PRODUTO.setNome("Café torrado");
+        em.persist(PRODUTO);
+        persistir(987654321L, "Cafeteira elétrica");
+        persistir(987654322L, "Açúcar cristal");
+        em.flush();
+    }
+
+    @AfterEach
+    void afterEach() {
+        PRODUTO.setId(null);
+        CATEGORIA.setId(null);
+        SUBCATEGORIA.setId(null);
+    }
+
+    @Test
+    void buscarPorNomeIgnoraAcentosEMaiusculas() {
+        final var sut = repository.buscarPorNome("ACUCAR", PAGEABLE);
+
+        then(sut.getContent())
+            .extracting(ProdutoDto::nome)
+            .containsExactly("Açúcar cristal");
+        then(sut.getTotalElements()).isEqualTo(1);
+    }
+
+    @Test
+    void buscarPorNomeOrdenaPelaRelevancia() {
+        final var sut = repository.buscarPorNome("cafe", PAGEABLE);
+
+        then(sut.getContent())
+            .extracting(ProdutoDto::nome)
+            .containsExactly("Café torrado", "Cafeteira elétrica");
+    }
+
+    @Test
+    void buscarPorNomeComErroDeDigitacaoEncontraProduto() {
+        final var sut = repository.buscarPorNomeSemContagem("cafetera", PAGEABLE);
+
+        then(sut.getContent())
+            .extracting(ProdutoDto::nome)
+            .contains("Cafeteira elétrica");
+    }
+
+    /**
+     * Compara a latência da busca por trigramas com a consulta {@code ILIKE} anterior, com 100 mil e 1 milhão
+     * de produtos. Executado apenas com {@code -Dbenchmark=true}; os resultados são registrados no log.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void compararLatenciaDaBuscaPorNome() {
+        int inseridos = 0;
+        for (int quantidade : new int[]{100_000, 1_000_000}) {
+            jdbcTemplate.update("""
+                INSERT INTO tb_produtos (id_produto, sku, nome, descricao, valor_unitario, estoque, rating, image_url,
+                data_criacao, data_modificacao, ativo, versao, estoque_fragmentado, id_categoria)
+                SELECT nextval('sq_produtos'), 1000000000 + g, 'Produto ' || md5(g::text), 'descricao', 10, 10, 3.6,
+                'http://', LOCALTIMESTAMP, LOCALTIMESTAMP, TRUE, 0, FALSE, ?
+                FROM generate_series(?, ?) g
+                """, CATEGORIA.getId(), inseridos + 1, quantidade);
+            inseridos = quantidade;
+            jdbcTemplate.execute("ANALYZE tb_produtos");
+            double ilike = medianaMs(() -> jdbcTemplate.queryForList(
+                "SELECT * FROM tb_produtos p WHERE p.nome ILIKE ? LIMIT ?", "%ab12%", PAGEABLE.getPageSize()));
+            double trigrama = medianaMs(() -> repository.buscarPorNome("ab12", PAGEABLE));
+            double trigramaSemContagem = medianaMs(() -> repository.buscarPorNomeSemContagem("ab12", PAGEABLE));
+            log.info("Busca por nome com {} produtos: ILIKE {} ms, trigramas {} ms, trigramas sem contagem {} ms",
+                quantidade, ilike, trigrama, trigramaSemContagem);
+        }
+    }
+
+    private void persistir(Long sku, String nome) {
+        final var produto = getProdutoEntity();
+        produto.setSku(sku);
+        produto.setNome(nome);
+        produto.setCategoria(CATEGORIA);
+        produto.setSubcategoria(SUBCATEGORIA);
+        em.persist(produto);
+    }
+
+    private static double medianaMs(Supplier<?> consulta) {
+        for (int i = 0; i < 5; i++) {
+            consulta.get();
+        }
+        long[] duracoes = new long[21];
+        for (int i = 0; i < duracoes.length; i++) {
+            long inicio = System.nanoTime();
+            consulta.get();
+            duracoes[i] = System.nanoTime() - inicio;
+        }
+        Arrays.sort(duracoes);
+        return duracoes[duracoes.length / 2] / 1_000_000.0;
+    }
+
+}
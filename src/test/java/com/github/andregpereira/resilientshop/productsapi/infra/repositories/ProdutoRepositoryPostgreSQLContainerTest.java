@@ -126,27 +126,6 @@ class ProdutoRepositoryPostgreSQLContainerTest extends PostgreSQLContainerConfig
         then(sut).isEmpty();
     }
 
-    @Test
-    void consultarProdutoPorNomeExistenteRetornaProduto() {
-        final var sut = repository.findByName(PRODUTO.getNome(), PAGEABLE_NOME);
-
-        then(sut)
-            .isNotEmpty()
-            .hasSize(1);
-        then(sut
-            .getContent()
-            .getFirst()).isEqualTo(PRODUTO);
-    }
-
-    @Test
-    void consultarProdutoPorNomeInexistenteRetornaPageEmpty() {
-        em.clear();
-
-        final var sut = repository.findByName("", PAGEABLE_NOME);
-
-        then(sut).isEmpty();
-    }
-
     @Test
     void consultarProdutosPorCategoriaExistenteRetornaPageProduto() {
         final var sut = repository.findAllByCategoriaId(CATEGORIA.getId(), PAGEABLE_NOME);
@@ -1,9 +1,14 @@
 package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
 
+import com.github.andregpereira.resilientshop.productsapi.app.dto.produto.ProdutoDto;
+import com.github.andregpereira.resilientshop.productsapi.cross.exceptions.PaginacaoInvalidaException;
+import com.github.andregpereira.resilientshop.productsapi.cross.utils.CursorProduto;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.CategoriaEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.ProdutoEntity;
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ReservaEstoqueEntity;
 import com.github.andregpereira.resilientshop.productsapi.infra.entities.SubcategoriaEntity;
 import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,16 +16,24 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.orm.jpa.JpaSystemException;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
 import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.PAGEABLE_ID;
 import static com.github.andregpereira.resilientshop.productsapi.util.constant.CommonConstants.PAGEABLE_NOME;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoEntity;
 import static com.github.andregpereira.resilientshop.productsapi.util.mock.factory.ProdutoMockFactory.getProdutoEntityInvalido;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.assertj.core.api.BDDAssertions.then;
 
-@DataJpaTest
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 class ProdutoRepositoryTest {
 
     private static final ProdutoEntity PRODUTO = getProdutoEntity();
@@ -101,6 +114,119 @@ class ProdutoRepositoryTest {
         then(sut).isEmpty();
     }
 
+    @Test
+    void listarProdutoDtoRetornaPaginaComUmSelectEUmCountSemCarregarEntidades() {
+        final var outro = getProdutoEntity();
+        outro.setSku(987654321L);
+        outro.setCategoria(CATEGORIA);
+        outro.setSubcategoria(SUBCATEGORIA);
+        em.persist(outro);
+        em.flush();
+        em.clear();
+        final var estatisticas = em
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        estatisticas.clear();
+
+        final var sut = repository.findAllProdutoDto(PageRequest.of(0, 1, Sort.by("id")));
+
+        then(sut.getContent()).hasSize(1);
+        then(sut.getTotalElements()).isEqualTo(2);
+        then(estatisticas.getPrepareStatementCount()).isEqualTo(2);
+        then(estatisticas.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void listarSliceProdutoDtoNaoExecutaContagem() {
+        final var outro = getProdutoEntity();
+        outro.setSku(987654321L);
+        outro.setNome("outro");
+        outro.setCategoria(CATEGORIA);
+        outro.setSubcategoria(SUBCATEGORIA);
+        em.persist(outro);
+        em.flush();
+        em.clear();
+        final var estatisticas = em
+            .getEntityManager()
+            .getEntityManagerFactory()
+            .unwrap(SessionFactory.class)
+            .getStatistics();
+        estatisticas.clear();
+
+        final var sut = repository.buscarPorNomeSemContagem("O", PageRequest.of(0, 1, Sort.by("nome")));
+
+        then(sut.getContent())
+            .extracting(ProdutoDto::nome)
+            .containsExactly("nome");
+        then(sut.hasNext()).isTrue();
+        then(estatisticas.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void listarProdutoDtoComEstoqueFragmentadoRetornaSomaDosFragmentos() {
+        fragmentarEstoque(3);
+
+        final var sut = repository.findAllProdutoDto(PAGEABLE_ID);
+
+        then(sut.getContent())
+            .singleElement()
+            .satisfies(p -> {
+                then(p.id()).isEqualTo(PRODUTO.getId());
+                then(p.nome()).isEqualTo(PRODUTO.getNome());
+                then(p.estoque()).isEqualTo(10);
+            });
+    }
+
+    @Test
+    void consultarProdutoDtoPorCategoriaESubcategoriaRetornaProdutos() {
+        em.flush();
+
+        then(repository.findAllProdutoDtoByCategoriaId(CATEGORIA.getId(), PAGEABLE_NOME)).hasSize(1);
+        then(repository.findAllProdutoDtoBySubcategoriaId(SUBCATEGORIA.getId(), PAGEABLE_NOME)).hasSize(1);
+        then(repository.findAllProdutoDtoByCategoriaId(10L, PAGEABLE_NOME)).isEmpty();
+        then(repository.findAllProdutoDtoBySubcategoriaId(10L, PAGEABLE_NOME)).isEmpty();
+    }
+
+    @Test
+    void listarProdutoDtoAposCursorContinuaAPartirDaChaveDoUltimoProduto() {
+        final var outro = getProdutoEntity();
+        outro.setSku(987654321L);
+        outro.setNome("outro");
+        outro.setCategoria(CATEGORIA);
+        outro.setSubcategoria(SUBCATEGORIA);
+        em.persist(outro);
+        em.flush();
+        final var inicio = CursorProduto.inicio(Sort.Order.desc("nome"));
+
+        final var primeira = repository.findProdutoDtoAposCursor(CATEGORIA.getId(), null, inicio, 1);
+        final var segunda = repository.findProdutoDtoAposCursor(CATEGORIA.getId(), null,
+            inicio.apos(primeira.getFirst()), 1);
+        final var fim = repository.findProdutoDtoAposCursor(CATEGORIA.getId(), null, inicio.apos(segunda.getFirst()),
+            1);
+
+        then(primeira)
+            .extracting(ProdutoDto::nome)
+            .containsExactly("outro");
+        then(segunda)
+            .extracting(ProdutoDto::id)
+            .containsExactly(PRODUTO.getId());
+        then(fim).isEmpty();
+    }
+
+    @Test
+    void listarProdutoDtoAposCursorPorIdUsaApenasOId() {
+        em.flush();
+
+        final var sut = repository.findProdutoDtoAposCursor(null, SUBCATEGORIA.getId(),
+            new CursorProduto("id", Sort.Direction.ASC, PRODUTO.getId() - 1, PRODUTO.getId() - 1), 10);
+
+        then(sut)
+            .extracting(ProdutoDto::id)
+            .containsExactly(PRODUTO.getId());
+    }
+
     @Test
     void consultarProdutoPorIdExistenteRetornaTrueEProduto() {
         final var sut = repository.findById(PRODUTO.getId());
@@ -123,26 +249,33 @@ class ProdutoRepositoryTest {
     }
 
     @Test
-    void consultarProdutoPorNomeExistenteRetornaProduto() {
-        final var sut = repository.findByName(PRODUTO.getNome(), PAGEABLE_NOME);
+    void buscarPorNomeSemTrigramasUsaLikeSemDistincaoDeMaiusculas() {
+        em.flush();
 
-        then(sut)
-            .isNotEmpty()
-            .hasSize(1);
-        then(sut
-            .getContent()
-            .getFirst()).isEqualTo(PRODUTO);
+        final var sut = repository.buscarPorNome("NOM", PAGEABLE_NOME);
+
+        then(sut.getContent())
+            .extracting(ProdutoDto::id)
+            .containsExactly(PRODUTO.getId());
+        then(sut.getTotalElements()).isEqualTo(1);
     }
 
     @Test
-    void consultarProdutoPorNomeInexistenteRetornaPageEmpty() {
-        em.clear();
+    void buscarPorNomeComCaracteresCuringaBuscaOsCaracteresLiterais() {
+        em.flush();
 
-        final var sut = repository.findByName("", PAGEABLE_NOME);
+        final var sut = repository.buscarPorNome("n%e", PAGEABLE_NOME);
 
         then(sut).isEmpty();
     }
 
+    @Test
+    void buscarPorNomeComOrdenacaoNaoSuportadaThrowsException() {
+        final ThrowingCallable sut = () -> repository.buscarPorNome("nome", PageRequest.of(0, 10, Sort.by("rating")));
+
+        assertThatThrownBy(sut).isExactlyInstanceOf(PaginacaoInvalidaException.class);
+    }
+
     @Test
     void consultarProdutosPorCategoriaExistenteRetornaPageProduto() {
         final var sut = repository.findAllByCategoriaId(CATEGORIA.getId(), PAGEABLE_NOME);
@@ -192,4 +325,347 @@ class ProdutoRepositoryTest {
         then(sut).isNull();
     }
 
+    @Test
+    void subtrairEstoqueComEstoqueSuficienteRetornaSetEmptyEAtualizaEstoque() {
+        em.flush();
+
+        final var sut = repository.subtrairEstoque(Map.of(PRODUTO.getId(), 4));
+
+        em.clear();
+        then(sut).isEmpty();
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoque()).isEqualTo(6);
+    }
+
+    @Test
+    void subtrairEstoqueComEstoqueInsuficienteRetornaIdENaoAtualizaEstoque() {
+        em.flush();
+
+        final var sut = repository.subtrairEstoque(Map.of(PRODUTO.getId(), 11));
+
+        em.clear();
+        then(sut).containsExactly(PRODUTO.getId());
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoque()).isEqualTo(10);
+    }
+
+    @Test
+    void subtrairEstoqueComIdInexistenteRetornaId() {
+        em.flush();
+
+        final var sut = repository.subtrairEstoque(Map.of(10L, 1));
+
+        then(sut).containsExactly(10L);
+    }
+
+    @Test
+    void retornarEstoqueComIdExistenteRetornaSetEmptyEAtualizaEstoque() {
+        em.flush();
+
+        final var sut = repository.retornarEstoque(Map.of(PRODUTO.getId(), 5));
+
+        em.clear();
+        then(sut).isEmpty();
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoque()).isEqualTo(15);
+    }
+
+    @Test
+    void retornarEstoqueComIdInexistenteRetornaId() {
+        em.flush();
+
+        final var sut = repository.retornarEstoque(Map.of(10L, 5));
+
+        then(sut).containsExactly(10L);
+    }
+
+    @Test
+    void bloquearProdutosComIdsExistentesEInexistentesRetornaApenasExistentes() {
+        em.flush();
+
+        final var sut = repository.bloquearProdutos(List.of(PRODUTO.getId(), 10L));
+
+        then(sut).containsExactly(PRODUTO.getId());
+    }
+
+    @Test
+    void bloquearProdutosComEstoqueFragmentadoNaoBloqueiaProduto() {
+        fragmentarEstoque(2);
+
+        final var sut = repository.bloquearProdutos(List.of(PRODUTO.getId()));
+
+        then(sut).isEmpty();
+    }
+
+    @Test
+    void bloquearEstoquesComIdsExistentesEInexistentesRetornaApenasExistentes() {
+        em.flush();
+
+        final var sut = repository.bloquearEstoques(List.of(PRODUTO.getId(), 10L));
+
+        then(sut).containsExactly(entry(PRODUTO.getId(), 10));
+    }
+
+    @Test
+    void aplicarVariacoesComEstoqueResultanteValidoRetornaSetEmptyEAtualizaEstoque() {
+        em.flush();
+
+        final var sut = repository.aplicarVariacoes(Map.of(PRODUTO.getId(), -7));
+
+        em.clear();
+        then(sut).isEmpty();
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoque()).isEqualTo(3);
+    }
+
+    @Test
+    void aplicarVariacoesComEstoqueResultanteNegativoRetornaIdENaoAtualizaEstoque() {
+        em.flush();
+
+        final var sut = repository.aplicarVariacoes(Map.of(PRODUTO.getId(), -11, 10L, 1));
+
+        em.clear();
+        then(sut).containsExactlyInAnyOrder(PRODUTO.getId(), 10L);
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoque()).isEqualTo(10);
+    }
+
+    @Test
+    void subtrairEstoqueAposReservaNaoConsomeOEstoqueReservado() {
+        reservar(7, LocalDateTime
+            .now()
+            .plusMinutes(15));
+
+        final var sut = repository.subtrairEstoque(Map.of(PRODUTO.getId(), 4));
+
+        then(sut).containsExactly(PRODUTO.getId());
+        then(repository.subtrairEstoque(Map.of(PRODUTO.getId(), 3))).isEmpty();
+        em.clear();
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoque()).isEqualTo(7);
+    }
+
+    @Test
+    void subtrairEstoqueAposReservaExpiradaConsomeOEstoque() {
+        reservar(7, LocalDateTime
+            .now()
+            .minusMinutes(1));
+
+        final var sut = repository.subtrairEstoque(Map.of(PRODUTO.getId(), 10));
+
+        then(sut).isEmpty();
+    }
+
+    @Test
+    void aplicarVariacoesAposReservaNaoConsomeOEstoqueReservado() {
+        reservar(7, LocalDateTime
+            .now()
+            .plusMinutes(15));
+
+        final var sut = repository.aplicarVariacoes(Map.of(PRODUTO.getId(), -4));
+
+        then(sut).containsExactly(PRODUTO.getId());
+        then(repository.aplicarVariacoes(Map.of(PRODUTO.getId(), -3))).isEmpty();
+        then(repository.bloquearEstoques(List.of(PRODUTO.getId()))).containsExactly(entry(PRODUTO.getId(), 7));
+    }
+
+    @Test
+    void consultarReservadosIgnoraReservasExpiradas() {
+        final var agora = LocalDateTime.now();
+        reservar(2, agora.plusMinutes(1));
+        reservar(3, agora.plusMinutes(5));
+        reservar(7, agora.minusMinutes(1));
+
+        final var sut = repository.consultarReservados(List.of(PRODUTO.getId(), 10L));
+
+        then(sut).containsExactly(entry(PRODUTO.getId(), 5));
+    }
+
+    @Test
+    void subtrairEstoqueFragmentadoComFragmentoSuficienteRetornaSetEmptyEAtualizaFragmento() {
+        fragmentarEstoque(4);
+
+        final var sut = repository.subtrairEstoque(Map.of(PRODUTO.getId(), 3));
+
+        em.clear();
+        then(sut).isEmpty();
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoqueDisponivel()).isEqualTo(7);
+        then(repository.bloquearFragmentos(PRODUTO.getId())).containsExactlyInAnyOrder(3, 2, 2, 0);
+    }
+
+    @Test
+    void subtrairEstoqueFragmentadoSemFragmentoSuficienteSubtraiDeVariosFragmentos() {
+        fragmentarEstoque(4);
+
+        final var sut = repository.subtrairEstoque(Map.of(PRODUTO.getId(), 9));
+
+        em.clear();
+        then(sut).isEmpty();
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoqueDisponivel()).isEqualTo(1);
+    }
+
+    @Test
+    void subtrairEstoqueFragmentadoComEstoqueInsuficienteRetornaIdENaoAtualizaFragmentos() {
+        fragmentarEstoque(4);
+
+        final var sut = repository.subtrairEstoque(Map.of(PRODUTO.getId(), 11));
+
+        then(sut).containsExactly(PRODUTO.getId());
+        then(repository.bloquearFragmentos(PRODUTO.getId())).containsExactly(3, 3, 2, 2);
+    }
+
+    @Test
+    void subtrairEstoqueFragmentadoAposReservaNaoConsomeOEstoqueReservado() {
+        fragmentarEstoque(4);
+        reservar(8, LocalDateTime
+            .now()
+            .plusMinutes(15));
+
+        final var sut = repository.subtrairEstoque(Map.of(PRODUTO.getId(), 3));
+
+        then(sut).containsExactly(PRODUTO.getId());
+        then(repository.bloquearFragmentos(PRODUTO.getId())).containsExactly(3, 3, 2, 2);
+        then(repository.subtrairEstoque(Map.of(PRODUTO.getId(), 2))).isEmpty();
+        then(repository.consultarEstoques(List.of(PRODUTO.getId()))).containsExactly(entry(PRODUTO.getId(), 8));
+    }
+
+    @Test
+    void bloquearFragmentadosRetornaApenasProdutosComEstoqueFragmentado() {
+        fragmentarEstoque(2);
+
+        final var sut = repository.bloquearFragmentados(List.of(PRODUTO.getId(), 10L));
+
+        then(sut).containsExactly(PRODUTO.getId());
+    }
+
+    @Test
+    void retornarEstoqueFragmentadoRetornaSetEmptyEAtualizaFragmento() {
+        fragmentarEstoque(4);
+
+        final var sut = repository.retornarEstoque(Map.of(PRODUTO.getId(), 5));
+
+        em.clear();
+        then(sut).isEmpty();
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoqueDisponivel()).isEqualTo(15);
+    }
+
+    @Test
+    void consultarAtivosRetornaSituacaoDosProdutosExistentes() {
+        em.flush();
+
+        final var sut = repository.consultarAtivos(List.of(PRODUTO.getId(), 10L));
+
+        then(sut).containsExactly(entry(PRODUTO.getId(), PRODUTO.isAtivo()));
+    }
+
+    @Test
+    void consultarEstoquesFragmentadosRetornaSomaDosFragmentos() {
+        fragmentarEstoque(3);
+
+        final var sut = repository.consultarEstoques(List.of(PRODUTO.getId()));
+
+        then(sut).containsExactly(entry(PRODUTO.getId(), 10));
+    }
+
+    @Test
+    void aplicarVariacoesEmEstoqueFragmentadoAtualizaFragmentos() {
+        fragmentarEstoque(2);
+
+        final var sut = repository.aplicarVariacoes(Map.of(PRODUTO.getId(), -8));
+
+        then(sut).isEmpty();
+        then(repository.bloquearEstoques(List.of(PRODUTO.getId()))).containsExactly(entry(PRODUTO.getId(), 2));
+    }
+
+    @Test
+    void definirEstoquesPorSkuAtualizaEstoqueERetornaSkusNaoEncontrados() {
+        em.flush();
+
+        final var sut = repository.definirEstoquesPorSku(Map.of(PRODUTO.getSku(), 25, 1L, 3));
+
+        em.clear();
+        then(sut.idsAlterados()).containsExactly(PRODUTO.getId());
+        then(sut.skusNaoEncontrados()).containsExactly(1L);
+        then(em
+            .find(ProdutoEntity.class, PRODUTO.getId())
+            .getEstoque()).isEqualTo(25);
+    }
+
+    @Test
+    void definirEstoquesPorSkuEmEstoqueFragmentadoRedistribuiFragmentos() {
+        fragmentarEstoque(2);
+
+        final var sut = repository.definirEstoquesPorSku(Map.of(PRODUTO.getSku(), 4));
+
+        then(sut.idsAlterados()).containsExactly(PRODUTO.getId());
+        then(sut.skusNaoEncontrados()).isEmpty();
+        then(repository.bloquearEstoques(List.of(PRODUTO.getId()))).containsExactly(entry(PRODUTO.getId(), 4));
+    }
+
+    @Test
+    void alteracaoDeEstoqueIncluiOProdutoNaExportacaoIncremental() {
+        em.flush();
+        envelhecerModificacoes();
+
+        repository.subtrairEstoque(Map.of(PRODUTO.getId(), 1));
+
+        then(exportadosDesde2020()).containsExactly(PRODUTO.getId());
+    }
+
+    @Test
+    void alteracaoDeEstoqueFragmentadoIncluiOProdutoNaExportacaoIncremental() {
+        fragmentarEstoque(4);
+        envelhecerModificacoes();
+        then(exportadosDesde2020()).isEmpty();
+
+        repository.retornarEstoque(Map.of(PRODUTO.getId(), 1));
+
+        then(exportadosDesde2020()).containsExactly(PRODUTO.getId());
+    }
+
+    private void envelhecerModificacoes() {
+        em
+            .getEntityManager()
+            .createNativeQuery("UPDATE tb_produtos SET data_modificacao = TIMESTAMP '2000-01-01 00:00:00'")
+            .executeUpdate();
+        em
+            .getEntityManager()
+            .createNativeQuery("UPDATE tb_estoque_fragmentos SET data_modificacao = TIMESTAMP '2000-01-01 00:00:00'")
+            .executeUpdate();
+    }
+
+    private List<Long> exportadosDesde2020() {
+        try (var produtos = repository.streamProdutoDtoModificadosDesde(LocalDateTime.of(2020, 1, 1, 0, 0))) {
+            return produtos
+                .map(ProdutoDto::id)
+                .toList();
+        }
+    }
+
+    private void reservar(int quantidade, LocalDateTime expiraEm) {
+        em.persistAndFlush(new ReservaEstoqueEntity(UUID.randomUUID(), PRODUTO.getId(), quantidade, expiraEm));
+    }
+
+    private void fragmentarEstoque(int quantidadeFragmentos) {
+        em.flush();
+        em
+            .getEntityManager()
+            .createNativeQuery("UPDATE tb_produtos SET estoque = 0, estoque_fragmentado = TRUE WHERE id_produto = ?1")
+            .setParameter(1, PRODUTO.getId())
+            .executeUpdate();
+        repository.distribuirFragmentos(PRODUTO.getId(), quantidadeFragmentos, 10);
+    }
+
 }
@@ -0,0 +1,41 @@
+package com.github.andregpereira.resilientshop.productsapi.infra.repositories;
+
+import com.github.andregpereira.resilientshop.productsapi.infra.entities.ReservaEstoqueEntity;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.BDDAssertions.then;
+
+@DataJpaTest
+class ReservaEstoqueRepositoryTest {
+
+    private static final LocalDateTime AGORA = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    @Autowired
+    private ReservaEstoqueRepository repository;
+
+    @Test
+    void findAllByReservaIdSeparaReservasAtivasDasExpiradas() {
+        final var ativa = UUID.randomUUID();
+        final var expirada = UUID.randomUUID();
+        repository.saveAll(List.of(
+            new ReservaEstoqueEntity(ativa, 1L, 2, AGORA.plusMinutes(1)),
+            new ReservaEstoqueEntity(ativa, 2L, 1, AGORA.plusMinutes(1)),
+            new ReservaEstoqueEntity(expirada, 1L, 3, AGORA)
+        ));
+
+        then(repository.findAllByReservaIdAndExpiraEmAfter(ativa, AGORA))
+            .extracting(ReservaEstoqueEntity::getProdutoId)
+            .containsExactlyInAnyOrder(1L, 2L);
+        then(repository.findAllByReservaIdAndExpiraEmAfter(expirada, AGORA)).isEmpty();
+        then(repository.findAllByExpiraEmLessThanEqual(AGORA))
+            .extracting(ReservaEstoqueEntity::getReservaId)
+            .containsExactly(expirada);
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.github.andregpereira.resilientshop.productsapi.util.mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+public final class RelogioAjustavel extends Clock {
+
+    private Instant agora = Instant.parse("2024-01-01T00:00:00Z");
+
+    public void avancar(Duration duracao) {
+        agora = agora.plus(duracao);
+    }
+
+    @Override
+    public ZoneId getZone() {
+        return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+        return this;
+    }
+
+    @Override
+    public Instant instant() {
+        return agora;
+    }
+
+}